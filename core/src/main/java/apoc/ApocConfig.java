@@ -59,17 +59,27 @@ public class ApocConfig extends LifecycleAdapter {
     public static final String APOC_TTL_SCHEDULE_DB = "apoc.ttl.schedule.%s";
     public static final String APOC_TTL_ENABLED_DB = "apoc.ttl.enabled.%s";
     public static final String APOC_TTL_LIMIT_DB = "apoc.ttl.limit.%s";
+    public static final String APOC_TTL_CONCURRENCY = "apoc.ttl.concurrency";
+    public static final String APOC_TTL_CONCURRENCY_DB = "apoc.ttl.concurrency.%s";
+    public static final String APOC_TTL_FULL_SWEEP_EVERY = "apoc.ttl.fullSweepEvery";
+    public static final String APOC_TTL_FULL_SWEEP_EVERY_DB = "apoc.ttl.fullSweepEvery.%s";
     public static final String APOC_TRIGGER_ENABLED = "apoc.trigger.enabled";
+    public static final String APOC_META_CACHE_ENABLED = "apoc.meta.cache.enabled";
     public static final String APOC_UUID_ENABLED = "apoc.uuid.enabled";
     public static final String APOC_UUID_ENABLED_DB = "apoc.uuid.enabled.%s";
     public static final String APOC_UUID_FORMAT = "apoc.uuid.format";
     public enum UuidFormatType { hex, base64 }
+    public static final String APOC_UUID_GENERATOR = "apoc.uuid.generator";
+    public enum UuidGeneratorType { random, timeOrdered }
     public static final String APOC_JSON_ZIP_URL = "apoc.json.zip.url";  // TODO: check if really needed
     public static final String APOC_JSON_SIMPLE_JSON_URL = "apoc.json.simpleJson.url"; // TODO: check if really needed
     public static final String APOC_IMPORT_FILE_ALLOW__READ__FROM__FILESYSTEM = "apoc.import.file.allow_read_from_filesystem";
     public static final String APOC_CONFIG_JOBS_SCHEDULED_NUM_THREADS = "apoc.jobs.scheduled.num_threads";
     public static final String APOC_CONFIG_JOBS_POOL_NUM_THREADS = "apoc.jobs.pool.num_threads";
     public static final String APOC_CONFIG_JOBS_QUEUE_SIZE = "apoc.jobs.queue.size";
+    public static final String APOC_CONFIG_JOBS_POOL_TYPE = "apoc.jobs.pool.type";
+    public enum PoolType { platform, virtual }
+    public static final String APOC_CONFIG_JOBS_POOL_PREFIX = "apoc.jobs.pool";
     public static final String APOC_CONFIG_INITIALIZER = "apoc.initializer";
 
     /**
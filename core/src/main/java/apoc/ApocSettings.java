@@ -76,8 +76,17 @@ public class ApocSettings implements SettingsDeclaration {
     @Description("maximum number of nodes to be deleted during one iteration")
     public static final Setting<Long> apoc_ttl_limit = newBuilder(APOC_TTL_LIMIT, LONG, 1000L ).build();
 
+    @Description("number of batches of expired nodes deleted in parallel")
+    public static final Setting<Integer> apoc_ttl_concurrency = newBuilder(APOC_TTL_CONCURRENCY, INT, 1 ).build();
+
+    @Description("number of incremental runs between two full sweeps of the ttl index, a ttl set below the watermark of the incremental runs (e.g. a past date) is only expired by the next full sweep, so up to this number of schedule intervals later")
+    public static final Setting<Integer> apoc_ttl_full_sweep_every = newBuilder(APOC_TTL_FULL_SWEEP_EVERY, INT, 60 ).build();
+
     public static final Setting<Boolean> apoc_trigger_enabled = newBuilder(APOC_TRIGGER_ENABLED, BOOL, false ).build();
 
+    @Description("maintains the meta schema cache used by apoc.meta.data and apoc.meta.schema from the committed transactions")
+    public static final Setting<Boolean> apoc_meta_cache_enabled = newBuilder(APOC_META_CACHE_ENABLED, BOOL, false ).build();
+
     public static final Setting<Boolean> apoc_uuid_enabled = newBuilder(APOC_UUID_ENABLED, BOOL, false ).build();
 
     @Deprecated
@@ -87,6 +96,9 @@ public class ApocSettings implements SettingsDeclaration {
 
     public static final Setting<Long> apoc_jobs_pool_num_threads = newBuilder(APOC_CONFIG_JOBS_POOL_NUM_THREADS, LONG, null).build();
 
+    @Description("type of threads of the default APOC thread pool: platform or virtual (needs a JDK with virtual threads)")
+    public static final Setting<String> apoc_jobs_pool_type = newBuilder(APOC_CONFIG_JOBS_POOL_TYPE, STRING, null).build();
+
     public static final Setting<Long> apoc_jobs_scheduled_num_threads = newBuilder(APOC_CONFIG_JOBS_SCHEDULED_NUM_THREADS, LONG, null).build();
 
 //    public static final Setting<String> apoc_json_zip_url = newBuilder(APOC_JSON_ZIP_URL, STRING, null ).build();
@@ -8,30 +8,45 @@ import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.internal.LogService;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 public class Pools extends LifecycleAdapter {
 
     public final static int DEFAULT_SCHEDULED_THREADS = Runtime.getRuntime().availableProcessors() / 4;
     public final static int DEFAULT_POOL_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+    public final static String DEFAULT_POOL = "default";
+    public final static String SINGLE_POOL = "single";
+    public final static String SCHEDULED_POOL = "scheduled";
+    // apoc.jobs.pool.<name>.threads and apoc.jobs.pool.<name>.queue_size
+    private final static Pattern NAMED_POOL_PATTERN = Pattern.compile(Pattern.quote(ApocConfig.APOC_CONFIG_JOBS_POOL_PREFIX) + "\\.([^.]+)\\.threads");
     private final Log log;
     private final GlobalProcedures globalProceduresRegistry;
     private final ApocConfig apocConfig;
@@ -39,6 +54,7 @@ public class Pools extends LifecycleAdapter {
     private ExecutorService singleExecutorService;
     private ScheduledExecutorService scheduledExecutorService;
     private ExecutorService defaultExecutorService;
+    private final Map<String, ExecutorService> namedExecutorServices = new ConcurrentHashMap<>();
 
     private final Map<Periodic.JobInfo,Future> jobList = new ConcurrentHashMap<>();
 
@@ -69,8 +85,27 @@ public class Pools extends LifecycleAdapter {
         this.singleExecutorService = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize),
                 threadFactory, new CallerBlocksPolicy());
 
-        this.defaultExecutorService = new ThreadPoolExecutor(threads / 2, threads, 30L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize),
-                threadFactory, new CallerBlocksPolicy());
+        ApocConfig.PoolType poolType = apocConfig.getEnumProperty(ApocConfig.APOC_CONFIG_JOBS_POOL_TYPE, ApocConfig.PoolType.class, ApocConfig.PoolType.platform);
+        ExecutorService virtualExecutorService = poolType == ApocConfig.PoolType.virtual ? newVirtualThreadPerTaskExecutor() : null;
+        this.defaultExecutorService = virtualExecutorService != null
+                ? new BoundedExecutorService(virtualExecutorService, threads, queueSize)
+                : new ThreadPoolExecutor(threads / 2, threads, 30L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize),
+                        threadFactory, new CallerBlocksPolicy());
+
+        for (Iterator<String> it = apocConfig.getKeys(ApocConfig.APOC_CONFIG_JOBS_POOL_PREFIX); it.hasNext(); ) {
+            Matcher matcher = NAMED_POOL_PATTERN.matcher(it.next());
+            if (!matcher.matches()) continue;
+            String name = matcher.group(1);
+            if (List.of(DEFAULT_POOL, SINGLE_POOL, SCHEDULED_POOL).contains(name)) {
+                log.warn("ignoring %s, `%s` is the name of a built-in pool", matcher.group(0), name);
+                continue;
+            }
+            int poolThreads = Math.max(1, apocConfig.getInt(matcher.group(0), DEFAULT_POOL_THREADS));
+            int poolQueueSize = Math.max(1, apocConfig.getInt(ApocConfig.APOC_CONFIG_JOBS_POOL_PREFIX + "." + name + ".queue_size", poolThreads * 5));
+            namedExecutorServices.put(name, new ThreadPoolExecutor(poolThreads, poolThreads, 30L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(poolQueueSize),
+                    threadFactory, new CallerBlocksPolicy()));
+            log.info("created APOC pool `%s` with %d threads", name, poolThreads);
+        }
 
         this.scheduledExecutorService = Executors.newScheduledThreadPool(
                 Math.max(1, apocConfig.getInt(ApocConfig.APOC_CONFIG_JOBS_SCHEDULED_NUM_THREADS, DEFAULT_SCHEDULED_THREADS)),
@@ -85,9 +120,19 @@ public class Pools extends LifecycleAdapter {
         },10,10,TimeUnit.SECONDS);
     }
 
+    private ExecutorService newVirtualThreadPerTaskExecutor() {
+        // looked up reflectively, as we still compile against and run on JDKs without virtual threads
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("%s=%s is not supported by this JDK, falling back to platform threads", ApocConfig.APOC_CONFIG_JOBS_POOL_TYPE, ApocConfig.PoolType.virtual);
+            return null;
+        }
+    }
+
     @Override
     public void shutdown() throws Exception {
-        Stream.of(singleExecutorService, defaultExecutorService, scheduledExecutorService).forEach( service -> {
+        Stream.concat(Stream.of(singleExecutorService, defaultExecutorService, scheduledExecutorService), namedExecutorServices.values().stream()).forEach( service -> {
             try {
                 service.shutdown();
                 service.awaitTermination(10, TimeUnit.SECONDS);
@@ -109,6 +154,69 @@ public class Pools extends LifecycleAdapter {
         return defaultExecutorService;
     }
 
+    /**
+     * @param name of a pool configured via <code>apoc.jobs.pool.&lt;name&gt;.threads</code>, or null for the default pool
+     */
+    public ExecutorService getExecutorService(String name) {
+        if (name == null || DEFAULT_POOL.equals(name)) {
+            return defaultExecutorService;
+        }
+        ExecutorService service = namedExecutorServices.get(name);
+        if (service == null) {
+            throw new IllegalArgumentException("Unknown pool `" + name + "`, available pools are " + getPoolNames() + ". " +
+                    "Pools can be configured via " + ApocConfig.APOC_CONFIG_JOBS_POOL_PREFIX + ".<name>.threads in apoc.conf");
+        }
+        return service;
+    }
+
+    public List<String> getPoolNames() {
+        List<String> names = new ArrayList<>(List.of(DEFAULT_POOL, SINGLE_POOL, SCHEDULED_POOL));
+        names.addAll(new TreeSet<>(namedExecutorServices.keySet()));
+        return names;
+    }
+
+    /**
+     * @return the executor running the periodic jobs of the given pool, the scheduled executor for no pool
+     */
+    public ExecutorService getJobExecutorService(String name) {
+        if (name == null || SCHEDULED_POOL.equals(name)) {
+            return scheduledExecutorService;
+        }
+        return getExecutorService(name);
+    }
+
+    /**
+     * @return the task starting the runs of a job scheduled on the scheduled executor on the given pool, or the task itself for no pool
+     */
+    public Runnable handOff(String name, Runnable task) {
+        if (name == null || SCHEDULED_POOL.equals(name)) {
+            return task;
+        }
+        return new HandOff(getExecutorService(name), task);
+    }
+
+    public Map<String, Object> getPoolStats(String name) {
+        ExecutorService service;
+        if (SINGLE_POOL.equals(name)) {
+            service = singleExecutorService;
+        } else if (SCHEDULED_POOL.equals(name)) {
+            service = scheduledExecutorService;
+        } else {
+            service = getExecutorService(name);
+        }
+        if (service instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor executor = (ThreadPoolExecutor) service;
+            return Map.of("threads", (long) executor.getPoolSize(),
+                    "active", (long) executor.getActiveCount(),
+                    "queued", (long) executor.getQueue().size(),
+                    "completed", executor.getCompletedTaskCount());
+        }
+        if (service instanceof BoundedExecutorService) {
+            return ((BoundedExecutorService) service).getStats();
+        }
+        return Collections.emptyMap();
+    }
+
     public Map<Periodic.JobInfo, Future> getJobList() {
         return jobList;
     }
@@ -144,6 +252,202 @@ public class Pools extends LifecycleAdapter {
         }
     }
 
+    /**
+     * Runs each task on its own (virtual) thread of the delegate, but at most <code>maxConcurrent</code> of them at the same time.
+     * At most <code>queueSize</code> tasks wait for a free permit, further callers block until one of them starts,
+     * the same as with the {@link CallerBlocksPolicy} of the platform pools.
+     */
+    static class BoundedExecutorService extends AbstractExecutorService {
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+        // the running and the waiting tasks, taken by the submitting thread
+        private final Semaphore slots;
+        private final int maxConcurrent;
+        private final AtomicLong queued = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+
+        BoundedExecutorService(ExecutorService delegate, int maxConcurrent, int queueSize) {
+            this.delegate = delegate;
+            this.maxConcurrent = maxConcurrent;
+            this.permits = new Semaphore(maxConcurrent);
+            this.slots = new Semaphore(maxConcurrent + queueSize);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            acquireSlot();
+            queued.incrementAndGet();
+            try {
+                delegate.execute(() -> {
+                    permits.acquireUninterruptibly();
+                    queued.decrementAndGet();
+                    try {
+                        command.run();
+                    } finally {
+                        completed.incrementAndGet();
+                        permits.release();
+                        slots.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                queued.decrementAndGet();
+                slots.release();
+                throw e;
+            }
+        }
+
+        private void acquireSlot() {
+            // wait for a free slot, but also periodically check if the pool has been shut down
+            while (!isShutdown()) {
+                try {
+                    if (slots.tryAcquire(250, TimeUnit.MILLISECONDS)) return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException("Interrupted while waiting to submit a task", e);
+                }
+            }
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+
+        Map<String, Object> getStats() {
+            return Map.of("threads", (long) maxConcurrent,
+                    "active", (long) (maxConcurrent - permits.availablePermits()),
+                    "queued", queued.get(),
+                    "completed", completed.get());
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+
+    /**
+     * The ticks of a job of the scheduled executor, which start the runs of the job on another pool without waiting for them,
+     * so that a long job doesn't hold one of the few scheduled threads.
+     * A tick is skipped while the previous run is still going, as the scheduled executor doesn't overlap the runs of a job either,
+     * and a failed run stops the schedule. Once scheduled, it is the future of the job: cancelling it cancels the current run too.
+     */
+    public static class HandOff implements Runnable, Future<Void> {
+        private final ExecutorService service;
+        private final Runnable task;
+        private Future<?> schedule;
+        private Future<?> run;
+        private boolean cancelled;
+
+        HandOff(ExecutorService service, Runnable task) {
+            this.service = service;
+            this.task = task;
+        }
+
+        public synchronized HandOff scheduledBy(Future<?> schedule) {
+            this.schedule = schedule;
+            if (cancelled) {
+                schedule.cancel(false);
+            }
+            return this;
+        }
+
+        @Override
+        public void run() {
+            final Future<?> previous;
+            synchronized (this) {
+                if (cancelled) return;
+                previous = run;
+            }
+            if (previous != null) {
+                if (!previous.isDone()) return;
+                try {
+                    previous.get();
+                } catch (ExecutionException e) {
+                    // ends the schedule, the failure was already logged by the run
+                    throw new RuntimeException(e.getCause());
+                } catch (InterruptedException | CancellationException e) {
+                    return;
+                }
+            }
+            // outside of the lock, as submitting waits when the queue of the pool is full
+            final Future<?> next = service.submit(task);
+            synchronized (this) {
+                if (cancelled) {
+                    next.cancel(false);
+                } else {
+                    run = next;
+                }
+            }
+        }
+
+        @Override
+        public synchronized boolean cancel(boolean mayInterruptIfRunning) {
+            if (isDone()) return false;
+            cancelled = true;
+            if (schedule != null) schedule.cancel(mayInterruptIfRunning);
+            if (run != null) run.cancel(mayInterruptIfRunning);
+            return true;
+        }
+
+        @Override
+        public synchronized boolean isCancelled() {
+            return cancelled || schedule != null && schedule.isCancelled();
+        }
+
+        @Override
+        public synchronized boolean isDone() {
+            return cancelled || schedule != null && schedule.isDone() && (run == null || run.isDone());
+        }
+
+        @Override
+        public Void get() throws InterruptedException, ExecutionException {
+            final Future<?> schedule;
+            synchronized (this) {
+                schedule = this.schedule;
+            }
+            if (schedule != null) schedule.get();
+            final Future<?> run;
+            synchronized (this) {
+                run = this.run;
+            }
+            if (run != null) run.get();
+            return null;
+        }
+
+        @Override
+        public Void get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            final Future<?> schedule;
+            synchronized (this) {
+                schedule = this.schedule;
+            }
+            if (schedule != null) schedule.get(timeout, unit);
+            final Future<?> run;
+            synchronized (this) {
+                run = this.run;
+            }
+            if (run != null) run.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return null;
+        }
+    }
+
     public <T> Future<Void> processBatch(List<T> batch, GraphDatabaseService db, BiConsumer<Transaction, T> action) {
         return defaultExecutorService.submit(() -> {
                 try (Transaction tx = db.beginTx()) {
@@ -26,5 +26,8 @@ public enum SystemPropertyKeys  {
     // uuid handler
     label,
     addToSetLabel,
-    propertyName;
+    propertyName,
+
+    // ttl
+    watermark;
 }
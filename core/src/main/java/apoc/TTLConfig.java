@@ -4,9 +4,17 @@ import org.neo4j.kernel.api.procedure.GlobalProcedures;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class TTLConfig extends LifecycleAdapter {
     private final ApocConfig apocConfig;
     public static final int DEFAULT_SCHEDULE = 60;
+    public static final int DEFAULT_CONCURRENCY = 1;
+    public static final int DEFAULT_FULL_SWEEP_EVERY = 60;
+    // the metrics of the last expiry run of each database
+    private final Map<String, Map<String, Object>> expiryStats = new ConcurrentHashMap<>();
 
     public TTLConfig(ApocConfig apocConfig, GlobalProcedures globalProceduresRegistry) {
         this.apocConfig = apocConfig;
@@ -18,6 +26,8 @@ public class TTLConfig extends LifecycleAdapter {
         String apocTTLEnabledDb = String.format(ApocConfig.APOC_TTL_ENABLED_DB, db.databaseName());
         String apocTTLScheduleDb = String.format(ApocConfig.APOC_TTL_SCHEDULE_DB, db.databaseName());
         String apocTTLLimitDb = String.format(ApocConfig.APOC_TTL_LIMIT_DB, db.databaseName());
+        String apocTTLConcurrencyDb = String.format(ApocConfig.APOC_TTL_CONCURRENCY_DB, db.databaseName());
+        String apocTTLFullSweepEveryDb = String.format(ApocConfig.APOC_TTL_FULL_SWEEP_EVERY_DB, db.databaseName());
         boolean enabled = apocConfig.getBoolean(ApocConfig.APOC_TTL_ENABLED);
         boolean dbEnabled = apocConfig.getBoolean(apocTTLEnabledDb, enabled);
 
@@ -26,23 +36,44 @@ public class TTLConfig extends LifecycleAdapter {
             long ttlScheduleDb = apocConfig.getInt(apocTTLScheduleDb, (int) ttlSchedule);
             long limit = apocConfig.getInt(ApocConfig.APOC_TTL_LIMIT, 1000);
             long limitDb = apocConfig.getInt(apocTTLLimitDb, (int) limit);
+            int concurrency = apocConfig.getInt(ApocConfig.APOC_TTL_CONCURRENCY, DEFAULT_CONCURRENCY);
+            int concurrencyDb = apocConfig.getInt(apocTTLConcurrencyDb, concurrency);
+            int fullSweepEvery = apocConfig.getInt(ApocConfig.APOC_TTL_FULL_SWEEP_EVERY, DEFAULT_FULL_SWEEP_EVERY);
+            int fullSweepEveryDb = apocConfig.getInt(apocTTLFullSweepEveryDb, fullSweepEvery);
 
-            return new Values(true, ttlScheduleDb, limitDb);
+            return new Values(true, ttlScheduleDb, limitDb, concurrencyDb, fullSweepEveryDb);
         }
 
         return new Values(false, -1, -1);
     }
 
+    public void updateExpiryStats(GraphDatabaseAPI db, Map<String, Object> stats) {
+        expiryStats.put(db.databaseName(), stats);
+    }
+
+    public Map<String, Object> expiryStatsFor(GraphDatabaseAPI db) {
+        return expiryStats.getOrDefault(db.databaseName(), Collections.emptyMap());
+    }
+
 
     public static class Values {
         public final boolean enabled;
         public final long schedule;
         public final long limit;
+        public final int concurrency;
+        // incremental runs between two full sweeps of the ttl index
+        public final int fullSweepEvery;
 
         public Values(boolean enabled, long schedule, long limit) {
+            this(enabled, schedule, limit, DEFAULT_CONCURRENCY, DEFAULT_FULL_SWEEP_EVERY);
+        }
+
+        public Values(boolean enabled, long schedule, long limit, int concurrency, int fullSweepEvery) {
             this.enabled = enabled;
             this.schedule = schedule;
             this.limit = limit;
+            this.concurrency = concurrency;
+            this.fullSweepEvery = fullSweepEvery;
         }
 
         @Override
@@ -51,6 +82,8 @@ public class TTLConfig extends LifecycleAdapter {
                     "enabled=" + enabled +
                     ", schedule=" + schedule +
                     ", limit=" + limit +
+                    ", concurrency=" + concurrency +
+                    ", fullSweepEvery=" + fullSweepEvery +
                     '}';
         }
     }
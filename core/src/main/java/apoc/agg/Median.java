@@ -1,10 +1,11 @@
 package apoc.agg;
 
+import apoc.util.Util;
+import apoc.sketch.QuantileSketch;
 import org.neo4j.procedure.*;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Map;
 
 /**
  * @author mh
@@ -12,32 +13,100 @@ import java.util.List;
  */
 public class Median {
     @UserAggregationFunction("apoc.agg.median")
-    @Description("apoc.agg.median(number) - returns median for non-null numeric values")
+    @Description("apoc.agg.median(number, {approximate:false, significantDigits:3}) - returns median for non-null numeric values")
     public MedianFunction median() {
         return new MedianFunction();
     }
 
 
     public static class MedianFunction {
-        private List<Double> values = new ArrayList<>();
+        private double[] values = new double[16];
+        private int size;
+
+        private Boolean approximate;
+        private QuantileSketch sketch;
 
         @UserAggregationUpdate
-        public void aggregate(@Name("value") Object value) {
+        public void aggregate(@Name("value") Object value, @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+            if (approximate == null) {
+                initialize(config);
+            }
             if (value instanceof Number) {
-                values.add(((Number)value).doubleValue());
+                double number = ((Number)value).doubleValue();
+                if (approximate) {
+                    sketch.record(number);
+                } else {
+                    if (size == values.length) {
+                        values = Arrays.copyOf(values, size * 2);
+                    }
+                    values[size++] = number;
+                }
+            }
+        }
+
+        private void initialize(Map<String, Object> config) {
+            approximate = config != null && Util.toBoolean(config.getOrDefault("approximate", false));
+            if (approximate) {
+                sketch = new QuantileSketch(Util.toInteger(config.getOrDefault("significantDigits", QuantileSketch.DEFAULT_SIGNIFICANT_DIGITS)));
+                values = null;
             }
         }
 
         @UserAggregationResult
         public Object result() {
-            if (values.isEmpty()) return null;
-            Collections.sort(values);
-            int size = values.size();
+            if (approximate != null && approximate) return sketch.quantile(0.5D);
+            if (size == 0) return null;
+            int middle = size / 2;
+            double upper = select(values, size, middle);
             if (size % 2 == 1) {
-                return values.get(size /2);
+                return upper;
             } else {
-                return (values.get(size /2-1) + values.get(size /2)) / 2D;
+                // after selecting the middle element all smaller elements are left of it
+                double lower = values[0];
+                for (int i = 1; i < middle; i++) {
+                    if (Double.compare(values[i], lower) > 0) lower = values[i];
+                }
+                return (lower + upper) / 2D;
+            }
+        }
+
+        /**
+         * Partially sorts the first <code>size</code> values in place until the value at index k is the one it would be after sorting,
+         * with smaller values left and larger values right of it.
+         */
+        private static double select(double[] values, int size, int k) {
+            int left = 0;
+            int right = size - 1;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                // median of three as pivot
+                if (Double.compare(values[mid], values[left]) < 0) swap(values, left, mid);
+                if (Double.compare(values[right], values[left]) < 0) swap(values, left, right);
+                if (Double.compare(values[right], values[mid]) < 0) swap(values, mid, right);
+                double pivot = values[mid];
+
+                // three-way partition, so repeated values don't degrade to quadratic time
+                int lower = left;
+                int upper = right;
+                int i = left;
+                while (i <= upper) {
+                    int compare = Double.compare(values[i], pivot);
+                    if (compare < 0) swap(values, i++, lower++);
+                    else if (compare > 0) swap(values, i, upper--);
+                    else i++;
+                }
+
+                if (k < lower) right = lower - 1;
+                else if (k > upper) left = upper + 1;
+                else return pivot;
             }
+            return values[k];
+        }
+
+        private static void swap(double[] values, int i, int j) {
+            double tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
         }
     }
 }
@@ -0,0 +1,84 @@
+package apoc.agg;
+
+import apoc.sketch.HyperLogLog;
+import apoc.sketch.QuantileSketch;
+import apoc.sketch.Sketch;
+import apoc.sketch.TopK;
+import apoc.util.Util;
+import org.neo4j.procedure.*;
+
+import java.util.Map;
+
+/**
+ * Aggregations into sketches that can be stored as byte arrays, and be merged and estimated later with apoc.sketch.merge and apoc.sketch.estimate.
+ */
+public class SketchAggregation {
+    @UserAggregationFunction("apoc.agg.approxDistinct")
+    @Description("apoc.agg.approxDistinct(value, {precision:14}) - returns a HyperLogLog sketch of the non-null values, use apoc.sketch.estimate to get the approximate distinct count")
+    public ApproxDistinctFunction approxDistinct() {
+        return new ApproxDistinctFunction();
+    }
+
+    @UserAggregationFunction("apoc.agg.topK")
+    @Description("apoc.agg.topK(value, k = 10, {capacity:10*k}) - returns a sketch of the most frequent non-null values, use apoc.sketch.estimate to get the top k values with their counts")
+    public TopKFunction topK() {
+        return new TopKFunction();
+    }
+
+    @UserAggregationFunction("apoc.agg.quantileSketch")
+    @Description("apoc.agg.quantileSketch(number, {significantDigits:3}) - returns a sketch of the distribution of the non-null numeric values, use apoc.sketch.estimate to get quantiles")
+    public QuantileSketchFunction quantileSketch() {
+        return new QuantileSketchFunction();
+    }
+
+    public static class ApproxDistinctFunction {
+        private Sketch sketch;
+
+        @UserAggregationUpdate
+        public void aggregate(@Name("value") Object value, @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+            if (sketch == null) {
+                sketch = new HyperLogLog(Util.toInteger(config.getOrDefault("precision", HyperLogLog.DEFAULT_PRECISION)));
+            }
+            sketch.add(value);
+        }
+
+        @UserAggregationResult
+        public byte[] result() {
+            return sketch == null ? null : sketch.toBytes();
+        }
+    }
+
+    public static class TopKFunction {
+        private Sketch sketch;
+
+        @UserAggregationUpdate
+        public void aggregate(@Name("value") Object value, @Name(value = "k", defaultValue = "10") long k, @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+            if (sketch == null) {
+                sketch = new TopK((int) k, Util.toInteger(config.getOrDefault("capacity", k * TopK.DEFAULT_CAPACITY_FACTOR)));
+            }
+            sketch.add(value);
+        }
+
+        @UserAggregationResult
+        public byte[] result() {
+            return sketch == null ? null : sketch.toBytes();
+        }
+    }
+
+    public static class QuantileSketchFunction {
+        private Sketch sketch;
+
+        @UserAggregationUpdate
+        public void aggregate(@Name("value") Object value, @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+            if (sketch == null) {
+                sketch = new QuantileSketch(Util.toInteger(config.getOrDefault("significantDigits", QuantileSketch.DEFAULT_SIGNIFICANT_DIGITS)));
+            }
+            sketch.add(value);
+        }
+
+        @UserAggregationResult
+        public byte[] result() {
+            return sketch == null ? null : sketch.toBytes();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package apoc.export.arrow;
 
 import apoc.util.Util;
+import org.apache.arrow.vector.compression.CompressionUtil;
 
 import java.util.Collections;
 import java.util.Map;
@@ -9,17 +10,101 @@ public class ArrowConfig {
 
     private final int batchSize;
 
+    private final boolean nativeTypes;
+
+    private final boolean parallel;
+
+    private final int concurrency;
+
+    private final long partitionSize;
+
+    private final int queueSize;
+
+    private final boolean filePerPartition;
+
+    private final long maxAllocation;
+
+    private final boolean dictionaryEncoding;
+
+    private final int dictionaryThreshold;
+
+    private final CompressionUtil.CodecType compression;
+
     private final Map<String, Object> config;
 
     public ArrowConfig(Map<String, Object> config) {
         this.config = config == null ? Collections.emptyMap() : config;
         this.batchSize = Util.toInteger(this.config.getOrDefault("batchSize", 2000));
+        this.nativeTypes = Util.toBoolean(this.config.getOrDefault("nativeTypes", false));
+        this.parallel = Util.toBoolean(this.config.getOrDefault("parallel", false));
+        this.concurrency = Math.max(1, Util.toInteger(this.config.getOrDefault("concurrency", Runtime.getRuntime().availableProcessors())));
+        this.partitionSize = Math.max(1, Util.toLong(this.config.getOrDefault("partitionSize", 100_000)));
+        this.queueSize = Math.max(1, Util.toInteger(this.config.getOrDefault("queueSize", this.concurrency * 2)));
+        this.filePerPartition = Util.toBoolean(this.config.getOrDefault("filePerPartition", false));
+        this.maxAllocation = Util.toLong(this.config.getOrDefault("maxAllocation", Long.MAX_VALUE));
+        this.dictionaryEncoding = Util.toBoolean(this.config.getOrDefault("dictionaryEncoding", false));
+        this.dictionaryThreshold = Util.toInteger(this.config.getOrDefault("dictionaryThreshold", 1000));
+        this.compression = toCodecType((String) this.config.get("compression"));
+    }
+
+    private static CompressionUtil.CodecType toCodecType(String compression) {
+        if (compression == null || compression.equalsIgnoreCase("none")) {
+            return null;
+        }
+        switch (compression.toLowerCase()) {
+            case "lz4":
+                return CompressionUtil.CodecType.LZ4_FRAME;
+            case "zstd":
+                return CompressionUtil.CodecType.ZSTD;
+            default:
+                throw new IllegalArgumentException("Unsupported compression " + compression + ", supported are lz4, zstd and none");
+        }
     }
 
     public int getBatchSize() {
         return batchSize;
     }
 
+    public boolean isNativeTypes() {
+        return nativeTypes;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public long getPartitionSize() {
+        return partitionSize;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public boolean isFilePerPartition() {
+        return filePerPartition;
+    }
+
+    public long getMaxAllocation() {
+        return maxAllocation;
+    }
+
+    public boolean isDictionaryEncoding() {
+        return dictionaryEncoding;
+    }
+
+    public int getDictionaryThreshold() {
+        return dictionaryThreshold;
+    }
+
+    public CompressionUtil.CodecType getCompression() {
+        return compression;
+    }
+
     public Map<String, Object> getConfig() {
         return config;
     }
@@ -0,0 +1,201 @@
+package apoc.export.arrow;
+
+import apoc.util.JsonUtil;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.message.ArrowBlock;
+import org.apache.arrow.vector.ipc.message.ArrowDictionaryBatch;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.neo4j.values.storable.DurationValue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static apoc.export.arrow.ArrowUtils.FIELD_LABELS;
+import static apoc.export.arrow.ArrowUtils.FIELD_TYPE;
+
+/**
+ * Dictionary encoding of string columns: the labels and the relationship type are always encoded,
+ * other string columns if the number of distinct values in the sampled rows is at most <code>dictionaryThreshold</code> and at most half of the values.
+ * The encoded columns hold the int indexes of the values, the dictionaries are written before the first record batch
+ * with the values known at that point, values seen afterwards are written as delta dictionary batches before the record batch that uses them.
+ * An instance holds the values of one Arrow file or stream, it can be shared by the threads filling its record batches.
+ */
+public class ArrowDictionaryEncoder {
+
+    private static final ArrowType.Int INDEX_TYPE = new ArrowType.Int(32, true);
+
+    @FunctionalInterface
+    public interface DictionaryBatchWriter {
+        ArrowBlock write(ArrowDictionaryBatch batch) throws IOException;
+    }
+
+    private static class Values {
+        private final DictionaryEncoding encoding;
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        // the number of values already written as dictionary batch
+        private int written;
+
+        private Values(DictionaryEncoding encoding) {
+            this.encoding = encoding;
+        }
+    }
+
+    private final Map<Long, Values> dictionaries = new HashMap<>();
+
+    public ArrowDictionaryEncoder(Schema schema) {
+        collect(schema.getFields());
+    }
+
+    private void collect(List<Field> fields) {
+        for (Field field : fields) {
+            if (field.getDictionary() != null) {
+                dictionaries.put(field.getDictionary().getId(), new Values(field.getDictionary()));
+            }
+            collect(field.getChildren());
+        }
+    }
+
+    /**
+     * @return the schema with the columns to encode replaced by dictionary-encoded index columns
+     */
+    public static Schema encode(Schema schema, List<Map<String, Object>> sample, ArrowConfig config) {
+        if (!config.isDictionaryEncoding()) {
+            return schema;
+        }
+        long id = 0;
+        List<Field> fields = new ArrayList<>(schema.getFields().size());
+        for (Field field : schema.getFields()) {
+            if (isLabels(field)) {
+                fields.add(new Field(field.getName(), field.getFieldType(), List.of(encoded(field.getChildren().get(0), id++))));
+            } else if (isVarChar(field) && (field.getName().equals(FIELD_TYPE.getName()) || isLowCardinality(field.getName(), sample, config))) {
+                fields.add(encoded(field, id++));
+            } else {
+                fields.add(field);
+            }
+        }
+        return new Schema(fields, schema.getCustomMetadata());
+    }
+
+    private static boolean isLabels(Field field) {
+        return field.getName().equals(FIELD_LABELS.getName())
+                && field.getType().getTypeID() == ArrowType.ArrowTypeID.List
+                && isVarChar(field.getChildren().get(0));
+    }
+
+    private static boolean isVarChar(Field field) {
+        return field.getDictionary() == null && field.getType().equals(Types.MinorType.VARCHAR.getType());
+    }
+
+    private static boolean isLowCardinality(String fieldName, List<Map<String, Object>> sample, ArrowConfig config) {
+        List<Object> values = sample.stream()
+                .map(row -> row.get(fieldName))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (values.isEmpty() || !values.stream().allMatch(value -> value instanceof String)) {
+            return false;
+        }
+        Set<Object> distinct = new HashSet<>();
+        for (Object value : values) {
+            if (distinct.add(value) && distinct.size() > config.getDictionaryThreshold()) {
+                return false;
+            }
+        }
+        return distinct.size() * 2 <= values.size();
+    }
+
+    private static Field encoded(Field field, long id) {
+        return new Field(field.getName(), new FieldType(field.isNullable(), INDEX_TYPE, new DictionaryEncoding(id, false, INDEX_TYPE), field.getMetadata()), null);
+    }
+
+    /**
+     * @return the index of the value in the dictionary of the encoding, new values are added to the dictionary
+     */
+    public synchronized int indexOf(DictionaryEncoding encoding, Object value) {
+        Values dictionary = dictionaries.get(encoding.getId());
+        String string = toDictionaryValue(value);
+        Integer index = dictionary.indexes.get(string);
+        if (index == null) {
+            index = dictionary.values.size();
+            dictionary.indexes.put(string, index);
+            dictionary.values.add(string);
+        }
+        return index;
+    }
+
+    // the same string as written into a VARCHAR vector
+    private static String toDictionaryValue(Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof DurationValue) {
+            return value.toString();
+        }
+        return new String(JsonUtil.writeValueAsBytes(value), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the dictionaries with the values added so far, to create the writer with.
+     * The writer keeps the buffers of the vectors, so they have to be closed with {@link #close(DictionaryProvider.MapDictionaryProvider)} afterwards
+     */
+    public synchronized DictionaryProvider.MapDictionaryProvider provider(BufferAllocator allocator) {
+        DictionaryProvider.MapDictionaryProvider provider = new DictionaryProvider.MapDictionaryProvider();
+        for (Values dictionary : dictionaries.values()) {
+            provider.put(new Dictionary(toVector(dictionary.values, 0, allocator), dictionary.encoding));
+            dictionary.written = dictionary.values.size();
+        }
+        return provider;
+    }
+
+    public static void close(DictionaryProvider.MapDictionaryProvider provider) {
+        provider.getDictionaryIds().forEach(id -> provider.lookup(id).getVector().close());
+    }
+
+    /**
+     * Writes the values added since the last dictionary batch as delta dictionary batches
+     */
+    public synchronized void writeDeltas(BufferAllocator allocator, DictionaryBatchWriter writer) throws IOException {
+        for (Values dictionary : dictionaries.values()) {
+            if (dictionary.written == dictionary.values.size()) {
+                continue;
+            }
+            try (FieldVector vector = toVector(dictionary.values, dictionary.written, allocator)) {
+                VectorSchemaRoot root = new VectorSchemaRoot(List.of(vector.getField()), List.of(vector), vector.getValueCount());
+                try (ArrowDictionaryBatch batch = new ArrowDictionaryBatch(dictionary.encoding.getId(), new VectorUnloader(root).getRecordBatch(), true)) {
+                    writer.write(batch);
+                }
+            }
+            dictionary.written = dictionary.values.size();
+        }
+    }
+
+    private static FieldVector toVector(List<String> values, int from, BufferAllocator allocator) {
+        VarCharVector vector = new VarCharVector("dictionary", allocator);
+        vector.allocateNew();
+        List<String> added = values.subList(from, values.size());
+        for (int i = 0; i < added.size(); i++) {
+            vector.setSafe(i, added.get(i).getBytes(StandardCharsets.UTF_8));
+        }
+        vector.setValueCount(added.size());
+        return vector;
+    }
+}
@@ -0,0 +1,304 @@
+package apoc.export.arrow;
+
+import apoc.meta.Meta;
+import apoc.util.Util;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.complex.DenseUnionVector;
+import org.apache.arrow.vector.complex.MapVector;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.IntervalUnit;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.UnionMode;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.neo4j.graphdb.Entity;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.spatial.Point;
+import org.neo4j.values.storable.DurationValue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static apoc.export.arrow.ArrowUtils.FIELD_ID;
+import static apoc.export.arrow.ArrowUtils.FIELD_LABELS;
+import static apoc.export.arrow.ArrowUtils.FIELD_SOURCE_ID;
+import static apoc.export.arrow.ArrowUtils.FIELD_TARGET_ID;
+import static apoc.export.arrow.ArrowUtils.FIELD_TYPE;
+
+/**
+ * The Arrow types used with the <code>nativeTypes</code> config:
+ * maps are written as Arrow maps, nodes, relationships and points as structs, durations as month-day-nano intervals,
+ * dates as days, lists of any of them as lists, and columns (or list elements and map values) with values of different kinds as dense unions.
+ * Without it complex values are written as JSON strings and mixed columns as strings.
+ */
+public class ArrowNativeTypes {
+
+    // field metadata key with the Neo4j type of a struct, so that apoc.load.arrow can restore points
+    public static final String NEO4J_TYPE = "neo4j.type";
+    public static final String PROPERTIES = "properties";
+    public static final String CRS = "crs";
+    private static final List<String> COORDINATES = List.of("x", "y", "z");
+
+    private ArrowNativeTypes() {}
+
+    enum Kind { BOOLEAN, LONG, DOUBLE, STRING, DATE, DATE_TIME, DURATION, POINT, NODE, RELATIONSHIP, LIST, MAP;
+
+        private String fieldName() {
+            return name().toLowerCase();
+        }
+    }
+
+    // a converted node, relationship or point, which has a fixed set of keys unlike a map
+    static class Struct extends LinkedHashMap<String, Object> {
+        private final Kind kind;
+
+        private Struct(Kind kind) {
+            this.kind = kind;
+        }
+    }
+
+    /**
+     * Converts a Cypher value into the plain values written into the vectors of the native types
+     */
+    public static Object toArrowValue(Object value) {
+        if (value == null) return null;
+        if (value instanceof Node || value instanceof Relationship) {
+            return entityToStruct((Entity) value);
+        }
+        if (value instanceof Path) {
+            List<Object> entities = new ArrayList<>();
+            ((Path) value).forEach(entity -> entities.add(entityToStruct(entity)));
+            return entities;
+        }
+        if (value instanceof Point) {
+            Point point = (Point) value;
+            Struct struct = new Struct(Kind.POINT);
+            struct.put(CRS, point.getCRS().getType());
+            List<Double> coordinate = point.getCoordinate().getCoordinate();
+            for (int i = 0; i < COORDINATES.size(); i++) {
+                struct.put(COORDINATES.get(i), i < coordinate.size() ? coordinate.get(i) : null);
+            }
+            return struct;
+        }
+        if (value instanceof Map) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            ((Map<String, Object>) value).forEach((k, v) -> map.put(k, toArrowValue(v)));
+            return map;
+        }
+        if (value instanceof Collection || value.getClass().isArray()) {
+            Collection<?> collection = value instanceof Collection ? (Collection<?>) value : Arrays.asList(Meta.Types.toObjectArray(value));
+            return collection.stream().map(ArrowNativeTypes::toArrowValue).collect(Collectors.toList());
+        }
+        if (value instanceof Double || value instanceof Float) return ((Number) value).doubleValue();
+        if (value instanceof Number) return ((Number) value).longValue();
+        if (value instanceof Boolean || value instanceof String || value instanceof DurationValue || value instanceof LocalDate
+                || value instanceof Date || value instanceof LocalDateTime || value instanceof ZonedDateTime || value instanceof OffsetDateTime) {
+            return value;
+        }
+        // times are written as strings
+        return value.toString();
+    }
+
+    private static Struct entityToStruct(Entity entity) {
+        Struct struct;
+        if (entity instanceof Node) {
+            struct = new Struct(Kind.NODE);
+            struct.put(FIELD_ID.getName(), entity.getId());
+            struct.put(FIELD_LABELS.getName(), Util.labelStrings((Node) entity));
+        } else {
+            Relationship rel = (Relationship) entity;
+            struct = new Struct(Kind.RELATIONSHIP);
+            struct.put(FIELD_ID.getName(), rel.getId());
+            struct.put(FIELD_TYPE.getName(), rel.getType().name());
+            struct.put(FIELD_SOURCE_ID.getName(), rel.getStartNodeId());
+            struct.put(FIELD_TARGET_ID.getName(), rel.getEndNodeId());
+        }
+        struct.put(PROPERTIES, toArrowValue(entity.getAllProperties()));
+        return struct;
+    }
+
+    static Kind kindOf(Object value) {
+        if (value instanceof Struct) return ((Struct) value).kind;
+        if (value instanceof Boolean) return Kind.BOOLEAN;
+        if (value instanceof Long) return Kind.LONG;
+        if (value instanceof Double) return Kind.DOUBLE;
+        if (value instanceof LocalDate) return Kind.DATE;
+        if (value instanceof Date || value instanceof LocalDateTime || value instanceof ZonedDateTime || value instanceof OffsetDateTime) return Kind.DATE_TIME;
+        if (value instanceof DurationValue) return Kind.DURATION;
+        if (value instanceof Map) return Kind.MAP;
+        if (value instanceof List) return Kind.LIST;
+        return Kind.STRING;
+    }
+
+    /**
+     * @return the field for the given converted values, all values of a list column are sampled to infer the type of its elements
+     */
+    public static Field fieldForValues(String fieldName, Collection<?> values) {
+        Map<Kind, List<Object>> byKind = new EnumMap<>(Kind.class);
+        for (Object value : values) {
+            if (value != null) {
+                byKind.computeIfAbsent(kindOf(value), k -> new ArrayList<>()).add(value);
+            }
+        }
+        if (byKind.isEmpty()) {
+            return new Field(fieldName, FieldType.nullable(Types.MinorType.VARCHAR.getType()), null);
+        }
+        if (byKind.size() == 1) {
+            Map.Entry<Kind, List<Object>> entry = byKind.entrySet().iterator().next();
+            return fieldForValues(fieldName, entry.getKey(), entry.getValue());
+        }
+        return union(fieldName, byKind.entrySet().stream()
+                .map(e -> fieldForValues(e.getKey().fieldName(), e.getKey(), e.getValue()))
+                .collect(Collectors.toList()));
+    }
+
+    private static Field fieldForValues(String fieldName, Kind kind, List<Object> values) {
+        switch (kind) {
+            case LIST:
+                return list(fieldName, fieldForValues("$data$", values.stream()
+                        .flatMap(list -> ((List<Object>) list).stream())
+                        .collect(Collectors.toList())));
+            case MAP:
+                return map(fieldName, fieldForValues(MapVector.VALUE_NAME, values.stream()
+                        .flatMap(map -> ((Map<String, Object>) map).values().stream())
+                        .collect(Collectors.toList())));
+            case NODE:
+            case RELATIONSHIP:
+                final Field properties = map(PROPERTIES, fieldForValues(MapVector.VALUE_NAME, values.stream()
+                        .flatMap(entity -> ((Map<String, Object>) ((Map<String, Object>) entity).get(PROPERTIES)).values().stream())
+                        .collect(Collectors.toList())));
+                return kind == Kind.NODE
+                        ? struct(fieldName, kind, List.of(FIELD_ID, FIELD_LABELS, properties))
+                        : struct(fieldName, kind, List.of(FIELD_ID, FIELD_TYPE, FIELD_SOURCE_ID, FIELD_TARGET_ID, properties));
+            default:
+                return scalar(fieldName, kind);
+        }
+    }
+
+    /**
+     * @return the field for the property types returned by apoc.meta.nodeTypeProperties and apoc.meta.relTypeProperties
+     */
+    public static Field fieldForPropertyTypes(String fieldName, Set<String> propertyTypes) {
+        Map<Kind, List<String>> byKind = new EnumMap<>(Kind.class);
+        for (String type : propertyTypes) {
+            byKind.computeIfAbsent(kindOf(type), k -> new ArrayList<>()).add(type);
+        }
+        if (byKind.size() == 1) {
+            Map.Entry<Kind, List<String>> entry = byKind.entrySet().iterator().next();
+            return fieldForPropertyTypes(fieldName, entry.getKey(), Set.copyOf(entry.getValue()));
+        }
+        return union(fieldName, byKind.entrySet().stream()
+                .map(e -> fieldForPropertyTypes(e.getKey().fieldName(), e.getKey(), Set.copyOf(e.getValue())))
+                .collect(Collectors.toList()));
+    }
+
+    private static Field fieldForPropertyTypes(String fieldName, Kind kind, Set<String> propertyTypes) {
+        if (kind == Kind.LIST) {
+            return list(fieldName, fieldForPropertyTypes("$data$", propertyTypes.stream()
+                    .map(type -> type.substring(0, type.length() - "Array".length()))
+                    .collect(Collectors.toSet())));
+        }
+        return scalar(fieldName, kind);
+    }
+
+    private static Kind kindOf(String propertyType) {
+        if (propertyType.endsWith("Array")) return Kind.LIST;
+        switch (propertyType) {
+            case "Boolean":
+                return Kind.BOOLEAN;
+            case "Long":
+                return Kind.LONG;
+            case "Double":
+                return Kind.DOUBLE;
+            case "Date":
+                return Kind.DATE;
+            case "DateTime":
+            case "LocalDateTime":
+                return Kind.DATE_TIME;
+            case "Duration":
+                return Kind.DURATION;
+            case "Point":
+                return Kind.POINT;
+            default:
+                return Kind.STRING;
+        }
+    }
+
+    private static Field scalar(String fieldName, Kind kind) {
+        switch (kind) {
+            case BOOLEAN:
+                return new Field(fieldName, FieldType.nullable(Types.MinorType.BIT.getType()), null);
+            case LONG:
+                return new Field(fieldName, FieldType.nullable(Types.MinorType.BIGINT.getType()), null);
+            case DOUBLE:
+                return new Field(fieldName, FieldType.nullable(Types.MinorType.FLOAT8.getType()), null);
+            case DATE:
+                return new Field(fieldName, FieldType.nullable(new ArrowType.Date(DateUnit.DAY)), null);
+            case DATE_TIME:
+                return new Field(fieldName, FieldType.nullable(Types.MinorType.DATEMILLI.getType()), null);
+            case DURATION:
+                return new Field(fieldName, FieldType.nullable(new ArrowType.Interval(IntervalUnit.MONTH_DAY_NANO)), null);
+            case POINT:
+                List<Field> children = new ArrayList<>();
+                children.add(new Field(CRS, FieldType.nullable(Types.MinorType.VARCHAR.getType()), null));
+                COORDINATES.forEach(name -> children.add(new Field(name, FieldType.nullable(Types.MinorType.FLOAT8.getType()), null)));
+                return struct(fieldName, kind, children);
+            default:
+                return new Field(fieldName, FieldType.nullable(Types.MinorType.VARCHAR.getType()), null);
+        }
+    }
+
+    private static Field struct(String fieldName, Kind kind, List<Field> children) {
+        return new Field(fieldName, new FieldType(true, Types.MinorType.STRUCT.getType(), null, Map.of(NEO4J_TYPE, kind.fieldName())), children);
+    }
+
+    private static Field list(String fieldName, Field element) {
+        return new Field(fieldName, FieldType.nullable(Types.MinorType.LIST.getType()), List.of(element));
+    }
+
+    private static Field map(String fieldName, Field value) {
+        Field key = new Field(MapVector.KEY_NAME, FieldType.notNullable(Types.MinorType.VARCHAR.getType()), null);
+        Field entries = new Field(MapVector.DATA_VECTOR_NAME, FieldType.notNullable(Types.MinorType.STRUCT.getType()), List.of(key, value));
+        return new Field(fieldName, FieldType.nullable(new ArrowType.Map(false)), List.of(entries));
+    }
+
+    private static Field union(String fieldName, List<Field> children) {
+        int[] typeIds = new int[children.size()];
+        for (int i = 0; i < typeIds.length; i++) {
+            typeIds[i] = i;
+        }
+        return new Field(fieldName, FieldType.nullable(new ArrowType.Union(UnionMode.Dense, typeIds)), children);
+    }
+
+    /**
+     * @return the type id of the union member for the value, the string member takes values of kinds that were not sampled
+     */
+    static byte typeIdOf(DenseUnionVector vector, Object value) {
+        // the members are registered in the order of the field children, so the position is the type id
+        List<FieldVector> children = vector.getChildrenFromFields();
+        String name = value == null ? children.get(0).getName() : kindOf(value).fieldName();
+        for (int i = 0; i < children.size(); i++) {
+            if (children.get(i).getName().equals(name)) return (byte) i;
+        }
+        for (int i = 0; i < children.size(); i++) {
+            if (children.get(i).getName().equals(Kind.STRING.fieldName())) return (byte) i;
+        }
+        throw new IllegalArgumentException(String.format("The %s value %s doesn't match the types %s of the field %s, which are inferred from the first batch",
+                name, value, children.stream().map(FieldVector::getName).collect(Collectors.toList()), vector.getName()));
+    }
+}
@@ -0,0 +1,118 @@
+package apoc.export.arrow;
+
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.ipc.ArrowWriter;
+import org.apache.arrow.vector.ipc.message.ArrowBlock;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Creates the Arrow IPC writers of the export, which write the new values of the dictionary-encoded columns as delta dictionary batches,
+ * and compress the buffers of the record batches with the codec of the <code>compression</code> config.
+ */
+public class ArrowWriters {
+
+    private ArrowWriters() {}
+
+    public static ArrowWriter newFileWriter(VectorSchemaRoot root, ArrowDictionaryEncoder dictionaries, BufferAllocator allocator, OutputStream out, ArrowConfig config) {
+        DictionaryProvider.MapDictionaryProvider provider = dictionaries.provider(allocator);
+        try {
+            return new FileWriter(root, provider, Channels.newChannel(out), dictionaries, allocator, codec(config));
+        } finally {
+            ArrowDictionaryEncoder.close(provider);
+        }
+    }
+
+    public static ArrowWriter newStreamWriter(VectorSchemaRoot root, ArrowDictionaryEncoder dictionaries, BufferAllocator allocator, OutputStream out, ArrowConfig config) {
+        DictionaryProvider.MapDictionaryProvider provider = dictionaries.provider(allocator);
+        try {
+            return new StreamWriter(root, provider, Channels.newChannel(out), dictionaries, allocator, codec(config));
+        } finally {
+            ArrowDictionaryEncoder.close(provider);
+        }
+    }
+
+    private static CompressionCodec codec(ArrowConfig config) {
+        return config.getCompression() == null ? null : CommonsCompressionFactory.INSTANCE.createCodec(config.getCompression());
+    }
+
+    private static ArrowRecordBatch compress(VectorSchemaRoot root, CompressionCodec codec) {
+        // the codec releases the buffers it compresses, which still belong to the vectors of the root,
+        // and the record batch retains the compressed buffers once more than they are released when it is closed
+        root.getFieldVectors().forEach(ArrowWriters::retain);
+        ArrowRecordBatch batch = new VectorUnloader(root, true, codec, true).getRecordBatch();
+        batch.getBuffers().forEach(buffer -> buffer.getReferenceManager().release());
+        return batch;
+    }
+
+    private static void retain(FieldVector vector) {
+        vector.getFieldBuffers().forEach(buffer -> buffer.getReferenceManager().retain());
+        vector.getChildrenFromFields().forEach(ArrowWriters::retain);
+    }
+
+    private static class FileWriter extends ArrowFileWriter {
+        private final VectorSchemaRoot root;
+        private final ArrowDictionaryEncoder dictionaries;
+        private final BufferAllocator allocator;
+        private final CompressionCodec codec;
+
+        private FileWriter(VectorSchemaRoot root, DictionaryProvider provider, WritableByteChannel out, ArrowDictionaryEncoder dictionaries, BufferAllocator allocator, CompressionCodec codec) {
+            super(root, provider, out);
+            this.root = root;
+            this.dictionaries = dictionaries;
+            this.allocator = allocator;
+            this.codec = codec;
+        }
+
+        @Override
+        protected ArrowBlock writeRecordBatch(ArrowRecordBatch batch) throws IOException {
+            // called after the initial dictionaries are written, the new values have to precede the batch that uses them
+            dictionaries.writeDeltas(allocator, this::writeDictionaryBatch);
+            if (codec == null) {
+                return super.writeRecordBatch(batch);
+            }
+            try (ArrowRecordBatch compressed = compress(root, codec)) {
+                return super.writeRecordBatch(compressed);
+            }
+        }
+    }
+
+    private static class StreamWriter extends ArrowStreamWriter {
+        private final VectorSchemaRoot root;
+        private final ArrowDictionaryEncoder dictionaries;
+        private final BufferAllocator allocator;
+        private final CompressionCodec codec;
+
+        private StreamWriter(VectorSchemaRoot root, DictionaryProvider provider, WritableByteChannel out, ArrowDictionaryEncoder dictionaries, BufferAllocator allocator, CompressionCodec codec) {
+            super(root, provider, out);
+            this.root = root;
+            this.dictionaries = dictionaries;
+            this.allocator = allocator;
+            this.codec = codec;
+        }
+
+        @Override
+        protected ArrowBlock writeRecordBatch(ArrowRecordBatch batch) throws IOException {
+            // called after the initial dictionaries are written, the new values have to precede the batch that uses them
+            dictionaries.writeDeltas(allocator, this::writeDictionaryBatch);
+            if (codec == null) {
+                return super.writeRecordBatch(batch);
+            }
+            try (ArrowRecordBatch compressed = compress(root, codec)) {
+                return super.writeRecordBatch(compressed);
+            }
+        }
+    }
+}
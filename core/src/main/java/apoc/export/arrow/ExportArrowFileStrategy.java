@@ -9,8 +9,6 @@ import apoc.util.QueueUtil;
 import apoc.util.Util;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.VectorSchemaRoot;
-import org.apache.arrow.vector.dictionary.DictionaryProvider;
-import org.apache.arrow.vector.ipc.ArrowFileWriter;
 import org.apache.arrow.vector.ipc.ArrowWriter;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.neo4j.graphdb.GraphDatabaseService;
@@ -19,7 +17,6 @@ import org.neo4j.procedure.TerminationGuard;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.channels.Channels;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -45,6 +42,7 @@ public interface ExportArrowFileStrategy<IN> extends ExportArrowStrategy<IN, Str
             int batchCount = 0;
             List<Map<String, Object>> rows = new ArrayList<>(config.getBatchSize());
             VectorSchemaRoot root = null;
+            ArrowDictionaryEncoder dictionaries = null;
             ArrowWriter writer = null;
             try {
                 Iterator<Map<String, Object>> it = toIterator(reporter, data);
@@ -52,20 +50,20 @@ public interface ExportArrowFileStrategy<IN> extends ExportArrowStrategy<IN, Str
                     rows.add(it.next());
                     if (batchCount > 0 && batchCount % config.getBatchSize() == 0) {
                         if (root == null) {
-                            root = VectorSchemaRoot.create(schemaFor(rows), getBufferAllocator());
-                            writer = newArrowWriter(root, out);
+                            root = VectorSchemaRoot.create(ArrowDictionaryEncoder.encode(schemaFor(rows), rows, config), getBufferAllocator());
+                            dictionaries = new ArrowDictionaryEncoder(root.getSchema());
                         }
-                        writeBatch(root, writer, rows);
+                        writer = writeBatch(root, writer, dictionaries, out, rows);
                         rows.clear();
                     }
                     ++batchCount;
                 }
                 if (!rows.isEmpty()) {
                     if (root == null) {
-                        root = VectorSchemaRoot.create(schemaFor(rows), getBufferAllocator());
-                        writer = newArrowWriter(root, out);
+                        root = VectorSchemaRoot.create(ArrowDictionaryEncoder.encode(schemaFor(rows), rows, config), getBufferAllocator());
+                        dictionaries = new ArrowDictionaryEncoder(root.getSchema());
                     }
-                    writeBatch(root, writer, rows);
+                    writer = writeBatch(root, writer, dictionaries, out, rows);
                 }
                 QueueUtil.put(queue, progressInfo, 10);
             } catch (Exception e) {
@@ -85,7 +83,25 @@ public interface ExportArrowFileStrategy<IN> extends ExportArrowStrategy<IN, Str
     String getSource(IN data);
 
 
-    default void writeBatch(VectorSchemaRoot root, ArrowWriter writer, List<Map<String, Object>> rows) {
+    /**
+     * Writes the rows as record batch, the writer is created with the first batch so that its values are part of the initial dictionaries
+     * @return the writer
+     */
+    default ArrowWriter writeBatch(VectorSchemaRoot root, ArrowWriter writer, ArrowDictionaryEncoder dictionaries, OutputStream out, List<Map<String, Object>> rows) {
+        fillBatch(root, rows, dictionaries);
+        if (writer == null) {
+            writer = newArrowWriter(root, dictionaries, out);
+        }
+        try {
+            writer.writeBatch();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        root.clear();
+        return writer;
+    }
+
+    default void fillBatch(VectorSchemaRoot root, List<Map<String, Object>> rows, ArrowDictionaryEncoder dictionaries) {
         AtomicInteger counter = new AtomicInteger();
         root.allocateNew();
         rows.forEach(row -> {
@@ -93,16 +109,10 @@ public interface ExportArrowFileStrategy<IN> extends ExportArrowStrategy<IN, Str
             root.getFieldVectors()
                     .forEach(fe -> {
                         Object value = convertValue(row.get(fe.getName()));
-                        write(index, value, fe);
+                        write(index, value, fe, dictionaries);
                     });
         });
         root.setRowCount(counter.get());
-        try {
-            writer.writeBatch();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        root.clear();
     }
 
     String getFileName();
@@ -118,11 +128,12 @@ public interface ExportArrowFileStrategy<IN> extends ExportArrowStrategy<IN, Str
     Log getLogger();
 
     default Object convertValue(Object data) {
-        return data == null ? null : Json.writeJsonResult(data);
+        if (data == null) return null;
+        return getConfig().isNativeTypes() ? ArrowNativeTypes.toArrowValue(data) : Json.writeJsonResult(data);
     }
 
-    default ArrowWriter newArrowWriter(VectorSchemaRoot root, OutputStream out) {
-        return new ArrowFileWriter(root, new DictionaryProvider.MapDictionaryProvider(), Channels.newChannel(out));
+    default ArrowWriter newArrowWriter(VectorSchemaRoot root, ArrowDictionaryEncoder dictionaries, OutputStream out) {
+        return ArrowWriters.newFileWriter(root, dictionaries, getBufferAllocator(), out, getConfig());
     }
 
     Schema schemaFor(List<Map<String, Object>> rows);
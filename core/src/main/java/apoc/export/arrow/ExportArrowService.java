@@ -3,6 +3,7 @@ package apoc.export.arrow;
 import apoc.Pools;
 import apoc.result.ByteArrayResult;
 import apoc.result.ProgressInfo;
+import org.neo4j.cypher.export.DatabaseSubGraph;
 import org.neo4j.cypher.export.SubGraph;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Result;
@@ -27,17 +28,19 @@ public class ExportArrowService {
 
     public Stream<ByteArrayResult> stream(Object data, ArrowConfig config) {
         if (data instanceof Result) {
-            return new ExportResultStreamStrategy(db, pools, terminationGuard, logger).export((Result) data, config);
+            return new ExportResultStreamStrategy(db, pools, terminationGuard, logger, config).export((Result) data, config);
         } else {
-            return new ExportGraphStreamStrategy(db, pools, terminationGuard, logger).export((SubGraph) data, config);
+            return new ExportGraphStreamStrategy(db, pools, terminationGuard, logger, config).export((SubGraph) data, config);
         }
     }
 
     public Stream<ProgressInfo> file(String fileName, Object data, ArrowConfig config) {
         if (data instanceof Result) {
-            return new ExportResultFileStrategy(fileName, db, pools, terminationGuard, logger).export((Result) data, config);
+            return new ExportResultFileStrategy(fileName, db, pools, terminationGuard, logger, config).export((Result) data, config);
+        } else if (data instanceof DatabaseSubGraph && config.isParallel()) {
+            return new ExportGraphParallelFileStrategy(fileName, db, pools, terminationGuard, logger, config).export((SubGraph) data, config);
         } else {
-            return new ExportGraphFileStrategy(fileName, db, pools, terminationGuard, logger).export((SubGraph) data, config);
+            return new ExportGraphFileStrategy(fileName, db, pools, terminationGuard, logger, config).export((SubGraph) data, config);
         }
     }
 }
\ No newline at end of file
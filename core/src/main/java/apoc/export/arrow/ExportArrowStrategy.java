@@ -2,17 +2,21 @@ package apoc.export.arrow;
 
 import apoc.meta.Meta;
 import apoc.util.JsonUtil;
-import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.BaseVariableWidthVector;
 import org.apache.arrow.vector.BigIntVector;
 import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
 import org.apache.arrow.vector.DateMilliVector;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.IntervalMonthDayNanoVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.DenseUnionVector;
 import org.apache.arrow.vector.complex.ListVector;
-import org.apache.arrow.vector.complex.impl.UnionListWriter;
+import org.apache.arrow.vector.complex.MapVector;
+import org.apache.arrow.vector.complex.StructVector;
 import org.apache.arrow.vector.ipc.ArrowWriter;
 import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.ArrowType;
@@ -26,10 +30,14 @@ import org.neo4j.values.storable.DurationValue;
 
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
@@ -43,7 +51,7 @@ public interface ExportArrowStrategy<IN, OUT> {
 
     Object convertValue(Object data);
 
-    ArrowWriter newArrowWriter(VectorSchemaRoot root, OutputStream out);
+    ArrowWriter newArrowWriter(VectorSchemaRoot root, ArrowDictionaryEncoder dictionaries, OutputStream out);
 
     Schema schemaFor(List<Map<String, Object>> rows);
 
@@ -57,6 +65,8 @@ public interface ExportArrowStrategy<IN, OUT> {
 
     Log getLogger();
 
+    ArrowConfig getConfig();
+
     static String fromMetaType(Meta.Types type) {
         switch (type) {
             case INTEGER:
@@ -137,8 +147,11 @@ public interface ExportArrowStrategy<IN, OUT> {
         }
     }
 
-    default void write(int index, Object value, FieldVector fieldVector) {
-        if (fieldVector instanceof BaseVariableWidthVector) {
+    default void write(int index, Object value, FieldVector fieldVector, ArrowDictionaryEncoder dictionaries) {
+        if (fieldVector instanceof IntVector && fieldVector.getField().getDictionary() != null) {
+            // dictionary-encoded string column
+            writeDictionaryIndex(index, value, (IntVector) fieldVector, dictionaries);
+        } else if (fieldVector instanceof BaseVariableWidthVector) {
             writeBaseVariableWidthVector(index, value, (BaseVariableWidthVector) fieldVector);
         } else if (fieldVector instanceof BigIntVector) {
             writeBigIntVector(index, value, (BigIntVector) fieldVector);
@@ -148,57 +161,112 @@ public interface ExportArrowStrategy<IN, OUT> {
             writeFloat8Vector(index, value, (Float8Vector) fieldVector);
         } else if (fieldVector instanceof BitVector) {
             writeBitVector(index, value, (BitVector) fieldVector);
+        } else if (fieldVector instanceof DateDayVector) {
+            writeDateDayVector(index, value, (DateDayVector) fieldVector);
+        } else if (fieldVector instanceof IntervalMonthDayNanoVector) {
+            writeIntervalVector(index, value, (IntervalMonthDayNanoVector) fieldVector);
+        } else if (fieldVector instanceof StructVector) {
+            writeStructVector(index, value, (StructVector) fieldVector, dictionaries);
+        } else if (fieldVector instanceof MapVector) {
+            writeMapVector(index, value, (MapVector) fieldVector, dictionaries);
         } else if (fieldVector instanceof ListVector) {
-            writeListVector(index, value, fieldVector);
+            writeListVector(index, value, (ListVector) fieldVector, dictionaries);
+        } else if (fieldVector instanceof DenseUnionVector) {
+            writeDenseUnionVector(index, value, (DenseUnionVector) fieldVector, dictionaries);
         }
     }
 
-    private void writeListVector(int index, Object value, FieldVector fieldVector) {
-        ListVector listVector = (ListVector) fieldVector;
+    private void writeListVector(int index, Object value, ListVector listVector, ArrowDictionaryEncoder dictionaries) {
         if (value == null) {
             listVector.setNull(index);
             return;
         }
-        UnionListWriter listWriter = listVector.getWriter();
-        Object[] array;
-        if (value instanceof Collection) {
-            final Collection collection = (Collection) value;
-            array = collection.toArray(new Object[collection.size()]);
+        final List<?> list;
+        if (value instanceof List) {
+            list = (List<?>) value;
+        } else if (value instanceof Collection) {
+            list = new ArrayList<>((Collection<?>) value);
         } else {
-            array = (Object[]) value;
+            list = Arrays.asList(Meta.Types.toObjectArray(value));
         }
-        listWriter.setPosition(index);
-        listWriter.startList();
-        FieldVector inner = listVector.getChildrenFromFields().get(0);
-        for (int i = 0; i < array.length; i++) {
-            Object val = convertValue(array[i]);
-            if (val == null) {
-                listWriter.writeNull();
-            } else if (inner instanceof ListVector) {
-                write(i, val, inner);
-            } else if (inner instanceof BaseVariableWidthVector) {
-                final byte[] bytes;
-                if (val instanceof String) {
-                    bytes = val.toString().getBytes(StandardCharsets.UTF_8);
-                } else {
-                    bytes = JsonUtil.writeValueAsBytes(val);
-                }
-                ArrowBuf tempBuf = fieldVector.getAllocator().buffer(bytes.length);
-                tempBuf.setBytes(0, bytes);
-                listWriter.varChar().writeVarChar(0, bytes.length, tempBuf);
-                tempBuf.close();
-            } else if (inner instanceof BigIntVector) {
-                long lng = (long) val;
-                listWriter.bigInt().writeBigInt(lng);
-            } else if (inner instanceof Float8Vector) {
-                double dbl = (double) val;
-                listWriter.float8().writeFloat8(dbl);
-            } else if (inner instanceof BitVector) {
-                boolean bool = (boolean) val;
-                listWriter.bit().writeBit(bool ? 1 : 0);
-            } // TODO datemilli
+        FieldVector inner = listVector.getDataVector();
+        int offset = listVector.startNewValue(index);
+        for (int i = 0; i < list.size(); i++) {
+            write(offset + i, list.get(i), inner, dictionaries);
+        }
+        listVector.endValue(index, list.size());
+    }
+
+    private void writeMapVector(int index, Object value, MapVector mapVector, ArrowDictionaryEncoder dictionaries) {
+        if (value == null) {
+            mapVector.setNull(index);
+            return;
+        }
+        StructVector entries = (StructVector) mapVector.getDataVector();
+        FieldVector keys = entries.getChild(MapVector.KEY_NAME, FieldVector.class);
+        FieldVector values = entries.getChild(MapVector.VALUE_NAME, FieldVector.class);
+        Map<String, Object> map = (Map<String, Object>) value;
+        int offset = mapVector.startNewValue(index);
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            entries.setIndexDefined(offset);
+            write(offset, entry.getKey(), keys, dictionaries);
+            write(offset, entry.getValue(), values, dictionaries);
+            offset++;
+        }
+        mapVector.endValue(index, map.size());
+    }
+
+    private void writeStructVector(int index, Object value, StructVector structVector, ArrowDictionaryEncoder dictionaries) {
+        if (value == null) {
+            structVector.setNull(index);
+            return;
+        }
+        Map<String, Object> struct = (Map<String, Object>) value;
+        structVector.setIndexDefined(index);
+        for (FieldVector child : structVector.getChildrenFromFields()) {
+            write(index, struct.get(child.getName()), child, dictionaries);
+        }
+    }
+
+    private void writeDenseUnionVector(int index, Object value, DenseUnionVector unionVector, ArrowDictionaryEncoder dictionaries) {
+        // a dense union has no validity buffer, so nulls are written as null of the first member
+        byte typeId = ArrowNativeTypes.typeIdOf(unionVector, value);
+        // the type and offset buffers only grow together with reAlloc
+        while (index >= unionVector.getValueCapacity()) {
+            unionVector.reAlloc();
+        }
+        unionVector.setTypeId(index, typeId);
+        FieldVector member = (FieldVector) unionVector.getVectorByType(typeId);
+        int offset = member.getValueCount();
+        member.setValueCount(offset + 1);
+        unionVector.getOffsetBuffer().setInt((long) index * DenseUnionVector.OFFSET_WIDTH, offset);
+        write(offset, value, member, dictionaries);
+    }
+
+    private void writeDictionaryIndex(int index, Object value, IntVector fieldVector, ArrowDictionaryEncoder dictionaries) {
+        if (value == null) {
+            fieldVector.setNull(index);
+        } else {
+            fieldVector.setSafe(index, dictionaries.indexOf(fieldVector.getField().getDictionary(), value));
+        }
+    }
+
+    private void writeIntervalVector(int index, Object value, IntervalMonthDayNanoVector fieldVector) {
+        if (value == null) {
+            fieldVector.setNull(index);
+        } else {
+            DurationValue duration = (DurationValue) value;
+            fieldVector.setSafe(index, Math.toIntExact(duration.get(ChronoUnit.MONTHS)), Math.toIntExact(duration.get(ChronoUnit.DAYS)),
+                    Math.addExact(Math.multiplyExact(duration.get(ChronoUnit.SECONDS), 1_000_000_000L), duration.get(ChronoUnit.NANOS)));
+        }
+    }
+
+    private void writeDateDayVector(int index, Object value, DateDayVector fieldVector) {
+        if (value == null) {
+            fieldVector.setNull(index);
+        } else {
+            fieldVector.setSafe(index, Math.toIntExact(((LocalDate) value).toEpochDay()));
         }
-        listWriter.endList();
     }
 
     private void writeBitVector(int index, Object value, BitVector fieldVector) {
@@ -7,15 +7,12 @@ import apoc.util.QueueUtil;
 import apoc.util.Util;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.VectorSchemaRoot;
-import org.apache.arrow.vector.dictionary.DictionaryProvider;
-import org.apache.arrow.vector.ipc.ArrowStreamWriter;
 import org.apache.arrow.vector.ipc.ArrowWriter;
 import org.apache.arrow.vector.types.pojo.Schema;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.channels.Channels;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -31,9 +28,10 @@ public interface ExportArrowStreamStrategy<IN> extends ExportArrowStrategy<IN, S
     Iterator<Map<String, Object>> toIterator(IN data);
 
     default byte[] writeBatch(BufferAllocator bufferAllocator, List<Map<String, Object>> rows) {
-        try (final VectorSchemaRoot root = VectorSchemaRoot.create(schemaFor(rows), bufferAllocator);
-             final ByteArrayOutputStream out = new ByteArrayOutputStream();
-             final ArrowWriter writer = newArrowWriter(root, out)) {
+        final Schema schema = ArrowDictionaryEncoder.encode(schemaFor(rows), rows, getConfig());
+        try (final VectorSchemaRoot root = VectorSchemaRoot.create(schema, bufferAllocator);
+             final ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            final ArrowDictionaryEncoder dictionaries = new ArrowDictionaryEncoder(schema);
             AtomicInteger counter = new AtomicInteger();
             root.allocateNew();
             rows.forEach(row -> {
@@ -41,11 +39,14 @@ public interface ExportArrowStreamStrategy<IN> extends ExportArrowStrategy<IN, S
                 root.getFieldVectors()
                         .forEach(fe -> {
                             Object value = convertValue(row.get(fe.getName()));
-                            write(index, value, fe);
+                            write(index, value, fe, dictionaries);
                         });
             });
             root.setRowCount(counter.get());
-            writer.writeBatch();
+            // every batch is a stream of its own, created after the batch is filled so that all values are part of the initial dictionaries
+            try (final ArrowWriter writer = newArrowWriter(root, dictionaries, out)) {
+                writer.writeBatch();
+            }
             root.clear();
             return out.toByteArray();
         } catch (IOException e) {
@@ -85,11 +86,12 @@ public interface ExportArrowStreamStrategy<IN> extends ExportArrowStrategy<IN, S
     }
 
     default Object convertValue(Object data) {
-        return data == null ? null : Json.writeJsonResult(data);
+        if (data == null) return null;
+        return getConfig().isNativeTypes() ? ArrowNativeTypes.toArrowValue(data) : Json.writeJsonResult(data);
     }
 
-    default ArrowWriter newArrowWriter(VectorSchemaRoot root, OutputStream out) {
-        return new ArrowStreamWriter(root, new DictionaryProvider.MapDictionaryProvider(), Channels.newChannel(out));
+    default ArrowWriter newArrowWriter(VectorSchemaRoot root, ArrowDictionaryEncoder dictionaries, OutputStream out) {
+        return ArrowWriters.newStreamWriter(root, dictionaries, getBufferAllocator(), out, getConfig());
     }
 
     Schema schemaFor(List<Map<String, Object>> rows);
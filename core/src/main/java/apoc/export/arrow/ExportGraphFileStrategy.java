@@ -27,18 +27,20 @@ public class ExportGraphFileStrategy implements ExportArrowFileStrategy<SubGraph
     private final Pools pools;
     private final TerminationGuard terminationGuard;
     private final Log logger;
+    private final ArrowConfig config;
 
     private final RootAllocator bufferAllocator;
 
     private Schema schema;
 
-    public ExportGraphFileStrategy(String fileName, GraphDatabaseService db, Pools pools, TerminationGuard terminationGuard, Log logger) {
+    public ExportGraphFileStrategy(String fileName, GraphDatabaseService db, Pools pools, TerminationGuard terminationGuard, Log logger, ArrowConfig config) {
         this.fileName = fileName;
         this.db = db;
         this.pools = pools;
         this.terminationGuard = terminationGuard;
         this.logger = logger;
-        this.bufferAllocator = new RootAllocator();
+        this.config = config;
+        this.bufferAllocator = new RootAllocator(config.getMaxAllocation());
     }
 
     @Override
@@ -93,6 +95,11 @@ public class ExportGraphFileStrategy implements ExportArrowFileStrategy<SubGraph
         return logger;
     }
 
+    @Override
+    public ArrowConfig getConfig() {
+        return config;
+    }
+
     @Override
     public synchronized Schema schemaFor(List<Map<String, Object>> records) {
         if (schema == null) {
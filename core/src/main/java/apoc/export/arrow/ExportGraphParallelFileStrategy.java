@@ -0,0 +1,263 @@
+package apoc.export.arrow;
+
+import apoc.Pools;
+import apoc.export.util.ProgressReporter;
+import apoc.result.ProgressInfo;
+import apoc.util.FileUtils;
+import apoc.util.QueueBasedSpliterator;
+import apoc.util.QueueUtil;
+import apoc.util.Util;
+import org.apache.arrow.vector.VectorLoader;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.ipc.ArrowWriter;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.neo4j.cypher.export.SubGraph;
+import org.neo4j.graphdb.Entity;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.kernel.api.Read;
+import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.logging.Log;
+import org.neo4j.procedure.TerminationGuard;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static apoc.util.kernel.MultiThreadedGlobalGraphOperations.GlobalOperationsTypes.NODES;
+import static apoc.util.kernel.MultiThreadedGlobalGraphOperations.GlobalOperationsTypes.RELATIONSHIPS;
+import static apoc.util.kernel.MultiThreadedGlobalGraphOperations.getHighestIdInUseForStore;
+
+/**
+ * Exports the whole database with <code>concurrency</code> workers, used by apoc.export.arrow.all with the <code>parallel</code> config.
+ * Like {@link apoc.util.kernel.MultiThreadedGlobalGraphOperations} the node and relationship id space is split into partitions of
+ * <code>partitionSize</code> ids, each read in its own transaction; the workers take the next partition until all are exported.
+ * The workers fill record batches of <code>batchSize</code> rows and hand them over through a queue of <code>queueSize</code> batches
+ * to a single writer, or with <code>filePerPartition</code> each worker writes its own file. The order of the rows is not preserved.
+ */
+public class ExportGraphParallelFileStrategy extends ExportGraphFileStrategy {
+
+    public ExportGraphParallelFileStrategy(String fileName, GraphDatabaseService db, Pools pools, TerminationGuard terminationGuard, Log logger, ArrowConfig config) {
+        super(fileName, db, pools, terminationGuard, logger, config);
+    }
+
+    private static class Partitions {
+        private final long partitionSize;
+        private final long highestNodeId;
+        private final long highestRelationshipId;
+        private final long nodePartitions;
+        private final long totalPartitions;
+        private final AtomicLong next = new AtomicLong();
+
+        private Partitions(long partitionSize, long highestNodeId, long highestRelationshipId) {
+            this.partitionSize = partitionSize;
+            this.highestNodeId = highestNodeId;
+            this.highestRelationshipId = highestRelationshipId;
+            this.nodePartitions = (highestNodeId + partitionSize - 1) / partitionSize;
+            this.totalPartitions = nodePartitions + (highestRelationshipId + partitionSize - 1) / partitionSize;
+        }
+    }
+
+    @Override
+    public Stream<ProgressInfo> export(SubGraph data, ArrowConfig config) {
+        schemaFor(List.of(createConfigMap(data, config)));
+        final GraphDatabaseAPI api = (GraphDatabaseAPI) getGraphDatabaseApi();
+        final Partitions partitions = new Partitions(config.getPartitionSize(),
+                getHighestIdInUseForStore(api.getDependencyResolver(), NODES),
+                getHighestIdInUseForStore(api.getDependencyResolver(), RELATIONSHIPS));
+        final BlockingQueue<ProgressInfo> queue = new ArrayBlockingQueue<>(config.getConcurrency() + 1);
+        getExecutorService().submit(() -> {
+            try {
+                if (config.isFilePerPartition()) {
+                    exportFilePerPartition(partitions, config, queue);
+                } else {
+                    exportSingleFile(partitions, config, queue);
+                }
+            } catch (Exception e) {
+                getLogger().error("Exception while extracting Arrow data:", e);
+            } finally {
+                QueueUtil.put(queue, ProgressInfo.EMPTY, 10);
+            }
+        });
+        QueueBasedSpliterator<ProgressInfo> spliterator = new QueueBasedSpliterator<>(queue, ProgressInfo.EMPTY, getTerminationGuard(), Integer.MAX_VALUE);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    private void exportSingleFile(Partitions partitions, ArrowConfig config, BlockingQueue<ProgressInfo> queue) throws Exception {
+        final BlockingQueue<ArrowRecordBatch> batches = new ArrayBlockingQueue<>(config.getQueueSize());
+        final AtomicBoolean failed = new AtomicBoolean();
+        final AtomicInteger running = new AtomicInteger(config.getConcurrency());
+        final ProgressReporter reporter = newReporter(getFileName(), config);
+        // there is no sample of the rows, so only the labels and the relationship types are dictionary-encoded
+        final Schema schema = ArrowDictionaryEncoder.encode(schemaFor(List.of()), List.of(), config);
+        // shared by the workers, the writer writes the values added by them as delta dictionaries before each batch
+        final ArrowDictionaryEncoder dictionaries = new ArrowDictionaryEncoder(schema);
+        final List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < config.getConcurrency(); i++) {
+            workers.add(getExecutorService().submit(() -> {
+                try (VectorSchemaRoot root = VectorSchemaRoot.create(schema, getBufferAllocator())) {
+                    exportPartitions(partitions, config, reporter, failed, rows -> {
+                        fillBatch(root, rows, dictionaries);
+                        // the record batch keeps the buffers of the vectors after the root is cleared
+                        ArrowRecordBatch batch = new VectorUnloader(root).getRecordBatch();
+                        root.clear();
+                        offer(batches, batch, failed);
+                    });
+                } catch (RuntimeException e) {
+                    failed.set(true);
+                    throw e;
+                } finally {
+                    running.decrementAndGet();
+                }
+                return null;
+            }));
+        }
+        try (OutputStream out = FileUtils.getOutputStream(getFileName());
+             VectorSchemaRoot root = VectorSchemaRoot.create(schema, getBufferAllocator());
+             ArrowWriter writer = newArrowWriter(root, dictionaries, out)) {
+            writer.start();
+            final VectorLoader loader = new VectorLoader(root);
+            while (running.get() > 0 || !batches.isEmpty()) {
+                ArrowRecordBatch batch = batches.poll(QueueUtil.WAIT, QueueUtil.WAIT_UNIT);
+                if (batch == null) continue;
+                try (batch) {
+                    loader.load(batch);
+                }
+                writer.writeBatch();
+            }
+        } catch (Exception e) {
+            failed.set(true);
+            throw e;
+        } finally {
+            batches.forEach(ArrowRecordBatch::close);
+        }
+        if (awaitAll(workers)) {
+            QueueUtil.put(queue, done(reporter), 10);
+        }
+    }
+
+    private void exportFilePerPartition(Partitions partitions, ArrowConfig config, BlockingQueue<ProgressInfo> queue) {
+        final AtomicBoolean failed = new AtomicBoolean();
+        final List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < config.getConcurrency(); i++) {
+            final String fileName = partitionFileName(getFileName(), i);
+            workers.add(getExecutorService().submit(() -> {
+                final ProgressReporter reporter = newReporter(fileName, config);
+                final Schema schema = ArrowDictionaryEncoder.encode(schemaFor(List.of()), List.of(), config);
+                final ArrowDictionaryEncoder dictionaries = new ArrowDictionaryEncoder(schema);
+                try (OutputStream out = FileUtils.getOutputStream(fileName);
+                     VectorSchemaRoot root = VectorSchemaRoot.create(schema, getBufferAllocator());
+                     ArrowWriter writer = newArrowWriter(root, dictionaries, out)) {
+                    writer.start();
+                    exportPartitions(partitions, config, reporter, failed, rows -> writeBatch(root, writer, dictionaries, out, rows));
+                } catch (Exception e) {
+                    failed.set(true);
+                    throw e;
+                }
+                QueueUtil.put(queue, done(reporter), 10);
+                return null;
+            }));
+        }
+        awaitAll(workers);
+    }
+
+    private void exportPartitions(Partitions partitions, ArrowConfig config, ProgressReporter reporter, AtomicBoolean failed, Consumer<List<Map<String, Object>>> sink) {
+        final List<Map<String, Object>> rows = new ArrayList<>(config.getBatchSize());
+        long partition;
+        while (!failed.get() && !Util.transactionIsTerminated(getTerminationGuard())
+                && (partition = partitions.next.getAndIncrement()) < partitions.totalPartitions) {
+            final boolean nodes = partition < partitions.nodePartitions;
+            final long start = (nodes ? partition : partition - partitions.nodePartitions) * partitions.partitionSize;
+            final long end = Math.min(start + partitions.partitionSize, nodes ? partitions.highestNodeId : partitions.highestRelationshipId);
+            try (Transaction tx = getGraphDatabaseApi().beginTx()) {
+                Read read = ((InternalTransaction) tx).kernelTransaction().dataRead();
+                for (long id = start; id < end; id++) {
+                    final Entity entity;
+                    if (nodes) {
+                        if (!read.nodeExists(id)) continue;
+                        entity = tx.getNodeById(id);
+                    } else {
+                        if (!read.relationshipExists(id)) continue;
+                        entity = tx.getRelationshipById(id);
+                    }
+                    rows.add(entityToMap(entity));
+                    synchronized (reporter) {
+                        reporter.update(nodes ? 1 : 0, nodes ? 0 : 1, 0);
+                    }
+                    if (rows.size() == config.getBatchSize()) {
+                        sink.accept(rows);
+                        rows.clear();
+                    }
+                }
+                tx.commit();
+            }
+        }
+        if (!rows.isEmpty() && !failed.get()) {
+            sink.accept(rows);
+        }
+    }
+
+    private void offer(BlockingQueue<ArrowRecordBatch> batches, ArrowRecordBatch batch, AtomicBoolean failed) {
+        try {
+            // the writer may be slow, so the worker waits as long as the export didn't fail
+            while (!batches.offer(batch, QueueUtil.WAIT, QueueUtil.WAIT_UNIT)) {
+                if (failed.get() || Util.transactionIsTerminated(getTerminationGuard())) {
+                    batch.close();
+                    throw new RuntimeException("The Arrow export has been terminated");
+                }
+            }
+        } catch (InterruptedException e) {
+            batch.close();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private boolean awaitAll(List<Future<?>> workers) {
+        boolean success = true;
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (Exception e) {
+                getLogger().error("Exception while extracting Arrow data:", e);
+                success = false;
+            }
+        }
+        return success;
+    }
+
+    private ProgressReporter newReporter(String fileName, ArrowConfig config) {
+        ProgressInfo progressInfo = new ProgressInfo(fileName, null, "arrow");
+        progressInfo.batchSize = config.getBatchSize();
+        return new ProgressReporter(null, null, progressInfo);
+    }
+
+    private ProgressInfo done(ProgressReporter reporter) {
+        synchronized (reporter) {
+            reporter.done();
+            ProgressInfo progressInfo = reporter.getTotal();
+            progressInfo.source = String.format("graph: nodes(%d), rels(%d)", progressInfo.nodes, progressInfo.relationships);
+            return progressInfo;
+        }
+    }
+
+    static String partitionFileName(String fileName, int partition) {
+        int extension = fileName.lastIndexOf('.');
+        if (extension <= Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\'))) {
+            return fileName + "." + partition;
+        }
+        return fileName.substring(0, extension) + "." + partition + fileName.substring(extension);
+    }
+}
@@ -32,12 +32,17 @@ import static apoc.export.arrow.ExportArrowStrategy.toField;
 
 public interface ExportGraphStrategy {
 
+    ArrowConfig getConfig();
+
     default Schema schemaFor(GraphDatabaseService db, List<Map<String, Object>> records) {
+        final boolean nativeTypes = getConfig().isNativeTypes();
         final Function<Map<String, Object>, Stream<? extends Field>> flatMapStream = m -> {
             String propertyName = (String) m.get("propertyName");
             List<String> propertyTypes = (List<String>) m.get("propertyTypes");
             return propertyTypes.stream()
-                    .map(propertyType -> toField(propertyName, new HashSet<>(propertyTypes)));
+                    .map(propertyType -> nativeTypes
+                            ? ArrowNativeTypes.fieldForPropertyTypes(propertyName, new HashSet<>(propertyTypes))
+                            : toField(propertyName, new HashSet<>(propertyTypes)));
         };
         final Predicate<Map<String, Object>> filterStream = m -> m.get("propertyName") != null;
         final ResultTransformer<Set<Field>> parsePropertiesResult = result -> result.stream()
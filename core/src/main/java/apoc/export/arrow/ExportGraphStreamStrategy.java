@@ -5,8 +5,6 @@ import apoc.result.ByteArrayResult;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.RootAllocator;
 import org.apache.arrow.vector.VectorSchemaRoot;
-import org.apache.arrow.vector.dictionary.DictionaryProvider;
-import org.apache.arrow.vector.ipc.ArrowStreamWriter;
 import org.apache.arrow.vector.ipc.ArrowWriter;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.neo4j.cypher.export.SubGraph;
@@ -16,7 +14,6 @@ import org.neo4j.logging.Log;
 import org.neo4j.procedure.TerminationGuard;
 
 import java.io.OutputStream;
-import java.nio.channels.Channels;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -29,18 +26,20 @@ public class ExportGraphStreamStrategy implements ExportArrowStreamStrategy<SubG
     private final Pools pools;
     private final TerminationGuard terminationGuard;
     private final Log logger;
+    private final ArrowConfig config;
 
     private final RootAllocator bufferAllocator;
 
     private Schema schema;
 
 
-    public ExportGraphStreamStrategy(GraphDatabaseService db, Pools pools, TerminationGuard terminationGuard, Log logger) {
+    public ExportGraphStreamStrategy(GraphDatabaseService db, Pools pools, TerminationGuard terminationGuard, Log logger, ArrowConfig config) {
         this.db = db;
         this.pools = pools;
         this.terminationGuard = terminationGuard;
         this.logger = logger;
-        this.bufferAllocator = new RootAllocator();
+        this.config = config;
+        this.bufferAllocator = new RootAllocator(config.getMaxAllocation());
     }
 
     @Override
@@ -83,8 +82,13 @@ public class ExportGraphStreamStrategy implements ExportArrowStreamStrategy<SubG
     }
 
     @Override
-    public ArrowWriter newArrowWriter(VectorSchemaRoot root, OutputStream out) {
-        return new ArrowStreamWriter(root, new DictionaryProvider.MapDictionaryProvider(), Channels.newChannel(out));
+    public ArrowConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public ArrowWriter newArrowWriter(VectorSchemaRoot root, ArrowDictionaryEncoder dictionaries, OutputStream out) {
+        return ArrowWriters.newStreamWriter(root, dictionaries, bufferAllocator, out, config);
     }
 
     @Override
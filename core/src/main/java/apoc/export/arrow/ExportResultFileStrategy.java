@@ -24,18 +24,20 @@ public class ExportResultFileStrategy implements ExportArrowFileStrategy<Result>
     private final Pools pools;
     private final TerminationGuard terminationGuard;
     private final Log logger;
+    private final ArrowConfig config;
 
     private final RootAllocator bufferAllocator;
 
     private Schema schema;
 
-    public ExportResultFileStrategy(String fileName, GraphDatabaseService db, Pools pools, TerminationGuard terminationGuard, Log logger) {
+    public ExportResultFileStrategy(String fileName, GraphDatabaseService db, Pools pools, TerminationGuard terminationGuard, Log logger, ArrowConfig config) {
         this.fileName = fileName;
         this.db = db;
         this.pools = pools;
         this.terminationGuard = terminationGuard;
         this.logger = logger;
-        this.bufferAllocator = new RootAllocator();
+        this.config = config;
+        this.bufferAllocator = new RootAllocator(config.getMaxAllocation());
     }
 
     @Override
@@ -91,6 +93,11 @@ public class ExportResultFileStrategy implements ExportArrowFileStrategy<Result>
         return logger;
     }
 
+    @Override
+    public ArrowConfig getConfig() {
+        return config;
+    }
+
     @Override
     public synchronized Schema schemaFor(List<Map<String, Object>> records) {
         if (schema == null) {
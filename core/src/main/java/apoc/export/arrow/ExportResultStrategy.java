@@ -29,7 +29,20 @@ import static apoc.export.arrow.ExportArrowStrategy.toField;
 
 public interface ExportResultStrategy {
 
+    ArrowConfig getConfig();
+
     default Schema schemaFor(GraphDatabaseService db, List<Map<String, Object>> records) {
+        if (getConfig().isNativeTypes()) {
+            // the types of the nested values are inferred from the converted values of the first batch
+            final List<Field> fields = records.stream()
+                    .flatMap(m -> m.keySet().stream())
+                    .distinct()
+                    .map(key -> ArrowNativeTypes.fieldForValues(key, records.stream()
+                            .map(m -> ArrowNativeTypes.toArrowValue(m.get(key)))
+                            .collect(Collectors.toList())))
+                    .collect(Collectors.toList());
+            return new Schema(fields);
+        }
         final List<Field> fields = records.stream()
                 .flatMap(m -> m.entrySet().stream())
                 .map(e -> new AbstractMap.SimpleEntry<>(e.getKey(), fromMetaType(Meta.Types.of(e.getValue()))))
@@ -20,17 +20,19 @@ public class ExportResultStreamStrategy implements ExportArrowStreamStrategy<Res
     private final Pools pools;
     private final TerminationGuard terminationGuard;
     private final Log logger;
+    private final ArrowConfig config;
 
     private final RootAllocator bufferAllocator;
 
     private Schema schema;
 
-    public ExportResultStreamStrategy(GraphDatabaseService db, Pools pools, TerminationGuard terminationGuard, Log logger) {
+    public ExportResultStreamStrategy(GraphDatabaseService db, Pools pools, TerminationGuard terminationGuard, Log logger, ArrowConfig config) {
         this.db = db;
         this.pools = pools;
         this.terminationGuard = terminationGuard;
         this.logger = logger;
-        this.bufferAllocator = new RootAllocator();
+        this.config = config;
+        this.bufferAllocator = new RootAllocator(config.getMaxAllocation());
     }
 
     @Override
@@ -63,6 +65,11 @@ public class ExportResultStreamStrategy implements ExportArrowStreamStrategy<Res
         return logger;
     }
 
+    @Override
+    public ArrowConfig getConfig() {
+        return config;
+    }
+
     @Override
     public synchronized Schema schemaFor(List<Map<String, Object>> records) {
         if (schema == null) {
@@ -1,18 +1,32 @@
 package apoc.load;
 
 import apoc.Pools;
+import apoc.export.arrow.ArrowNativeTypes;
 import apoc.result.MapResult;
 import apoc.util.FileUtils;
 import apoc.util.JsonUtil;
 import apoc.util.Util;
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BaseIntVector;
 import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
 import org.apache.arrow.vector.DateMilliVector;
 import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntervalMonthDayNanoVector;
+import org.apache.arrow.vector.PeriodDuration;
 import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.DenseUnionVector;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.complex.MapVector;
+import org.apache.arrow.vector.complex.StructVector;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
 import org.apache.arrow.vector.ipc.ArrowFileReader;
 import org.apache.arrow.vector.ipc.ArrowReader;
 import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.ipc.message.ArrowBlock;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
 import org.apache.arrow.vector.util.Text;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.logging.Log;
@@ -21,16 +35,22 @@ import org.neo4j.procedure.Description;
 import org.neo4j.procedure.Name;
 import org.neo4j.procedure.Procedure;
 import org.neo4j.procedure.TerminationGuard;
+import org.neo4j.values.storable.CoordinateReferenceSystem;
+import org.neo4j.values.storable.DurationValue;
 import org.neo4j.values.storable.Values;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.channels.SeekableByteChannel;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -79,7 +99,7 @@ public class LoadArrow {
                 }
                 final Map<String, Object> row = schemaRoot.getFieldVectors()
                         .stream()
-                        .collect(HashMap::new, (map, fieldVector) -> map.put(fieldVector.getName(), read(fieldVector, counter.get())), HashMap::putAll); // please look at https://bugs.openjdk.java.net/browse/JDK-8148463
+                        .collect(HashMap::new, (map, fieldVector) -> map.put(fieldVector.getName(), read(fieldVector, counter.get(), reader)), HashMap::putAll); // please look at https://bugs.openjdk.java.net/browse/JDK-8148463
                 counter.incrementAndGet();
                 action.accept(new MapResult(row));
                 return true;
@@ -90,6 +110,29 @@ public class LoadArrow {
         }
     }
 
+    private static class DeltaDictionaryFileReader extends ArrowFileReader {
+
+        private boolean deltasLoaded;
+
+        public DeltaDictionaryFileReader(SeekableByteChannel channel, BufferAllocator allocator) {
+            super(channel, allocator, CommonsCompressionFactory.INSTANCE);
+        }
+
+        @Override
+        public boolean loadNextBatch() throws IOException {
+            if (!deltasLoaded) {
+                // the file reader loads the first dictionary batch of every dictionary only,
+                // the delta dictionary batches of the values added by later record batches follow them
+                final List<ArrowBlock> blocks = getDictionaryBlocks();
+                for (int i = dictionaries.size(); i < blocks.size() && !getRecordBlocks().isEmpty(); i++) {
+                    loadDictionary(readDictionary());
+                }
+                deltasLoaded = true;
+            }
+            return super.loadNextBatch();
+        }
+    }
+
     @Procedure(name = "apoc.load.arrow.stream")
     @Description("apoc.load.arrow.stream(source, config) - imports nodes and relationships from the provided byte[]")
     public Stream<MapResult> stream(
@@ -97,7 +140,7 @@ public class LoadArrow {
             @Name(value = "config", defaultValue = "{}") Map<String, Object> config) throws IOException {
         RootAllocator allocator = new RootAllocator();
         ByteArrayInputStream inputStream = new ByteArrayInputStream(source);
-        ArrowStreamReader streamReader = new ArrowStreamReader(inputStream, allocator);
+        ArrowStreamReader streamReader = new ArrowStreamReader(inputStream, allocator, CommonsCompressionFactory.INSTANCE);
         VectorSchemaRoot schemaRoot = streamReader.getVectorSchemaRoot();
         return StreamSupport.stream(new ArrowSpliterator(streamReader, schemaRoot), false)
                 .onClose(() -> {
@@ -116,7 +159,7 @@ public class LoadArrow {
         final SeekableByteChannel channel = FileUtils.inputStreamFor(fileName, null, null, null)
                 .asChannel();
         RootAllocator allocator = new RootAllocator();
-        ArrowFileReader streamReader = new ArrowFileReader(channel, allocator);
+        ArrowFileReader streamReader = new DeltaDictionaryFileReader(channel, allocator);
         VectorSchemaRoot schemaRoot = streamReader.getVectorSchemaRoot();
         return StreamSupport.stream(new ArrowSpliterator(streamReader, schemaRoot), false)
                 .onClose(() -> {
@@ -127,21 +170,77 @@ public class LoadArrow {
                 });
     }
 
-    private static Object read(FieldVector fieldVector, int index) {
-        if (fieldVector.isNull(index)) {
+    private static Object read(FieldVector fieldVector, int index, DictionaryProvider dictionaries) {
+        final DictionaryEncoding encoding = fieldVector.getField().getDictionary();
+        if (encoding != null) {
+            // dictionary-encoded column, the value is read from the dictionary at the index
+            return fieldVector.isNull(index) ? null
+                    : read(dictionaries.lookup(encoding.getId()).getVector(), (int) ((BaseIntVector) fieldVector).getValueAsLong(index), dictionaries);
+        } else if (fieldVector instanceof DenseUnionVector) {
+            // a dense union has no validity, the value is read from the member vector
+            DenseUnionVector fe = (DenseUnionVector) fieldVector;
+            byte typeId = fe.getTypeId(index);
+            return typeId < 0 ? null : read((FieldVector) fe.getVectorByType(typeId), fe.getOffset(index), dictionaries);
+        } else if (fieldVector.isNull(index)) {
             return null;
         } else if (fieldVector instanceof DateMilliVector) {
             DateMilliVector fe = (DateMilliVector) fieldVector;
             return Instant.ofEpochMilli(fe.get(index)).atOffset(ZoneOffset.UTC);
+        } else if (fieldVector instanceof DateDayVector) {
+            DateDayVector fe = (DateDayVector) fieldVector;
+            return LocalDate.ofEpochDay(fe.get(index));
         } else if (fieldVector instanceof BitVector) {
             BitVector fe = (BitVector) fieldVector;
             return fe.get(index) == 1;
+        } else if (fieldVector instanceof IntervalMonthDayNanoVector) {
+            PeriodDuration duration = ((IntervalMonthDayNanoVector) fieldVector).getObject(index);
+            long nanos = duration.getDuration().toNanos();
+            return DurationValue.duration(duration.getPeriod().toTotalMonths(), duration.getPeriod().getDays(),
+                    Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+        } else if (fieldVector instanceof MapVector) {
+            MapVector fe = (MapVector) fieldVector;
+            StructVector entries = (StructVector) fe.getDataVector();
+            FieldVector keys = entries.getChild(MapVector.KEY_NAME, FieldVector.class);
+            FieldVector values = entries.getChild(MapVector.VALUE_NAME, FieldVector.class);
+            Map<String, Object> map = new HashMap<>();
+            for (int i = fe.getElementStartIndex(index); i < fe.getElementEndIndex(index); i++) {
+                map.put(String.valueOf(read(keys, i, dictionaries)), read(values, i, dictionaries));
+            }
+            return map;
+        } else if (fieldVector instanceof ListVector) {
+            ListVector fe = (ListVector) fieldVector;
+            FieldVector data = fe.getDataVector();
+            List<Object> list = new ArrayList<>();
+            for (int i = fe.getElementStartIndex(index); i < fe.getElementEndIndex(index); i++) {
+                list.add(read(data, i, dictionaries));
+            }
+            return list;
+        } else if (fieldVector instanceof StructVector) {
+            return readStruct((StructVector) fieldVector, index, dictionaries);
         } else {
             Object object = fieldVector.getObject(index);
             return getObject(object);
         }
     }
 
+    private static Object readStruct(StructVector fieldVector, int index, DictionaryProvider dictionaries) {
+        Map<String, Object> struct = new HashMap<>();
+        for (FieldVector child : fieldVector.getChildrenFromFields()) {
+            struct.put(child.getName(), read(child, index, dictionaries));
+        }
+        Map<String, String> metadata = fieldVector.getField().getMetadata();
+        if (metadata != null && "point".equals(metadata.get(ArrowNativeTypes.NEO4J_TYPE))) {
+            CoordinateReferenceSystem crs = CoordinateReferenceSystem.byName((String) struct.get(ArrowNativeTypes.CRS));
+            double[] coordinate = Stream.of("x", "y", "z")
+                    .map(struct::get)
+                    .filter(Objects::nonNull)
+                    .mapToDouble(value -> ((Number) value).doubleValue())
+                    .toArray();
+            return Values.pointValue(crs, coordinate);
+        }
+        return struct;
+    }
+
     private static Object getObject(Object object) {
         if (object instanceof Collection) {
             return ((Collection<?>) object).stream()
@@ -0,0 +1,295 @@
+package apoc.load;
+
+import org.apache.commons.lang3.StringUtils;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Evaluates the streamable subset of XPath on a StAX event stream, so only the matching subtrees are materialized instead of the whole DOM.
+ * Supported are absolute and relative location paths of child (<code>/</code>) and descendant (<code>//</code>) steps,
+ * with name tests without prefix or <code>*</code>, and attribute predicates (<code>[@id]</code>, <code>[@id='bk101']</code>).
+ * Functions, positions, unions, other axes and predicates on child elements need the whole document and are not supported, {@link #compile(String)} returns null for them.
+ *
+ * The matched elements are converted to maps the same way as apoc.load.xml converts DOM elements, comments and processing instructions are ignored.
+ */
+class StreamingXPath {
+
+    private static class Step {
+        private final boolean descendant;
+        // null for *
+        private final String name;
+        // attribute name and value, value is null for an existence test
+        private final List<String[]> predicates = new ArrayList<>();
+
+        private Step(boolean descendant, String name) {
+            this.descendant = descendant;
+            this.name = name;
+        }
+
+        private boolean matches(XMLStreamReader reader) {
+            if (name != null && (!StringUtils.isEmpty(reader.getNamespaceURI()) || !name.equals(reader.getLocalName()))) {
+                return false;
+            }
+            for (String[] predicate : predicates) {
+                String value = attribute(reader, predicate[0]);
+                if (value == null || (predicate[1] != null && !predicate[1].equals(value))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static String attribute(XMLStreamReader reader, String name) {
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                if (StringUtils.isEmpty(reader.getAttributeNamespace(i)) && name.equals(reader.getAttributeLocalName(i))) {
+                    return reader.getAttributeValue(i);
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Step[] steps;
+
+    private StreamingXPath(List<Step> steps) {
+        this.steps = steps.toArray(new Step[0]);
+    }
+
+    /**
+     * @return the compiled path, or null if the path can't be evaluated on an event stream
+     */
+    static StreamingXPath compile(String path) {
+        String p = StringUtils.isBlank(path) ? "/" : path.trim();
+        // the document has a single root element, so "/" selects the same element as "/*"
+        if (p.equals("/")) p = "/*";
+        if (!p.startsWith("/")) p = "/" + p;
+        List<Step> steps = new ArrayList<>();
+        int i = 0;
+        while (i < p.length()) {
+            if (p.charAt(i) != '/') return null;
+            boolean descendant = p.startsWith("//", i);
+            i += descendant ? 2 : 1;
+            int end = i;
+            while (end < p.length() && p.charAt(end) != '/' && p.charAt(end) != '[') end++;
+            String name = p.substring(i, end).trim();
+            if (!name.equals("*") && !isName(name)) return null;
+            Step step = new Step(descendant, name.equals("*") ? null : name);
+            i = end;
+            while (i < p.length() && p.charAt(i) == '[') {
+                end = predicateEnd(p, i);
+                if (end < 0) return null;
+                String[] predicate = predicate(p.substring(i + 1, end).trim());
+                if (predicate == null) return null;
+                step.predicates.add(predicate);
+                i = end + 1;
+            }
+            steps.add(step);
+        }
+        // the states of an element are kept as bits of a long
+        return steps.size() < Long.SIZE - 1 ? new StreamingXPath(steps) : null;
+    }
+
+    private static boolean isName(String name) {
+        return !name.isEmpty() && !name.equals(".") && !name.equals("..") && !Character.isDigit(name.charAt(0)) && name.charAt(0) != '-'
+                && name.chars().allMatch(ch -> Character.isLetterOrDigit(ch) || ch == '_' || ch == '-' || ch == '.');
+    }
+
+    private static int predicateEnd(String p, int start) {
+        char quote = 0;
+        for (int i = start + 1; i < p.length(); i++) {
+            char c = p.charAt(i);
+            if (quote != 0) {
+                if (c == quote) quote = 0;
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == ']') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String[] predicate(String content) {
+        if (!content.startsWith("@")) return null;
+        int equals = content.indexOf('=');
+        String name = (equals < 0 ? content.substring(1) : content.substring(1, equals)).trim();
+        if (!isName(name)) return null;
+        if (equals < 0) return new String[] {name, null};
+        String value = content.substring(equals + 1).trim();
+        if (value.length() < 2 || (value.charAt(0) != '\'' && value.charAt(0) != '"') || value.charAt(value.length() - 1) != value.charAt(0)) return null;
+        value = value.substring(1, value.length() - 1);
+        if (value.indexOf('\'') >= 0 || value.indexOf('"') >= 0) return null;
+        return new String[] {name, value};
+    }
+
+    /**
+     * Returns the maps of the matched elements in document order, a match nested in another match is returned once the outer match is complete.
+     */
+    Iterator<Map<String, Object>> matches(XMLStreamReader reader, boolean simpleMode) {
+        return new MatchIterator(reader, simpleMode);
+    }
+
+    private static class Element {
+        // bit s is set if the first s steps match the path to this element, bit steps.length marks a match
+        private final long states;
+        private final String localName;
+        // only collected within a match
+        private final Map<String, Object> map;
+        private List<Object> children;
+
+        private Element(long states, String localName, Map<String, Object> map) {
+            this.states = states;
+            this.localName = localName;
+            this.map = map;
+        }
+    }
+
+    private class MatchIterator implements Iterator<Map<String, Object>> {
+        private final XMLStreamReader reader;
+        private final boolean simpleMode;
+        private final Deque<Element> open = new ArrayDeque<>();
+        private final Deque<Map<String, Object>> ready = new ArrayDeque<>();
+        // matches within the outermost open match, in document order
+        private final List<Map<String, Object>> pending = new ArrayList<>();
+        private final StringBuilder text = new StringBuilder();
+        private int textEvent = -1;
+        private int skipped;
+        private boolean done;
+
+        private MatchIterator(XMLStreamReader reader, boolean simpleMode) {
+            this.reader = reader;
+            this.simpleMode = simpleMode;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (ready.isEmpty() && !done) {
+                    handle(reader.next());
+                }
+            } catch (XMLStreamException e) {
+                throw new RuntimeException(e);
+            }
+            return !ready.isEmpty();
+        }
+
+        @Override
+        public Map<String, Object> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return ready.poll();
+        }
+
+        private void handle(int event) {
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if (skipped > 0) {
+                        skipped++;
+                        return;
+                    }
+                    flushText();
+                    startElement();
+                    return;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (skipped > 0) {
+                        skipped--;
+                        return;
+                    }
+                    flushText();
+                    endElement();
+                    return;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.CDATA:
+                    if (skipped == 0 && !open.isEmpty() && open.peek().map != null) {
+                        // like DOM text nodes, adjacent character events of the same kind are one text
+                        int kind = event == XMLStreamConstants.CDATA ? XMLStreamConstants.CDATA : XMLStreamConstants.CHARACTERS;
+                        if (kind != textEvent) flushText();
+                        textEvent = kind;
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                    return;
+                case XMLStreamConstants.DTD:
+                    throw Xml.generateXmlDoctypeException();
+                case XMLStreamConstants.END_DOCUMENT:
+                    done = true;
+                    return;
+                default:
+                    // comments and processing instructions separate text nodes
+                    flushText();
+            }
+        }
+
+        private void startElement() {
+            Element parent = open.peek();
+            long states = 0;
+            long parentStates = parent == null ? 1L : parent.states;
+            for (int s = 0; s < steps.length; s++) {
+                if ((parentStates & (1L << s)) == 0) continue;
+                if (steps[s].descendant) states |= 1L << s;
+                if (steps[s].matches(reader)) states |= 1L << (s + 1);
+            }
+            boolean matched = (states & (1L << steps.length)) != 0;
+            boolean collect = matched || (parent != null && parent.map != null);
+            if (!collect && states == 0) {
+                // nothing below can match
+                skipped = 1;
+                return;
+            }
+            Element element = new Element(states, reader.getLocalName(), collect ? typeAndAttributes() : null);
+            if (matched) pending.add(element.map);
+            open.push(element);
+        }
+
+        private void endElement() {
+            Element element = open.pop();
+            if (element.map == null) return;
+            if (element.children != null) {
+                Xml.addChildren(element.map, simpleMode ? "_" + element.localName : "_children", element.children);
+            }
+            Element parent = open.peek();
+            if (parent != null && parent.map != null) {
+                if (parent.children == null) parent.children = new ArrayList<>();
+                parent.children.add(element.map);
+            } else {
+                ready.addAll(pending);
+                pending.clear();
+            }
+        }
+
+        private Map<String, Object> typeAndAttributes() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("_type", reader.getLocalName());
+            // the DOM keeps attributes and namespace declarations sorted by name
+            Map<String, Object> attributes = new TreeMap<>();
+            for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                String prefix = reader.getNamespacePrefix(i);
+                attributes.put(StringUtils.isEmpty(prefix) ? "xmlns" : "xmlns:" + prefix, reader.getNamespaceURI(i));
+            }
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                String prefix = reader.getAttributePrefix(i);
+                String localName = reader.getAttributeLocalName(i);
+                attributes.put(StringUtils.isEmpty(prefix) ? localName : prefix + ":" + localName, reader.getAttributeValue(i));
+            }
+            map.putAll(attributes);
+            return map;
+        }
+
+        private void flushText() {
+            if (textEvent < 0) return;
+            Xml.addText(open.peek().map, text.toString());
+            text.setLength(0);
+            textEvent = -1;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import apoc.result.NodeResult;
 import apoc.util.CompressionAlgo;
 import apoc.util.CompressionConfig;
 import apoc.util.FileUtils;
+import apoc.util.RegexCache;
 import apoc.util.Util;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -56,9 +57,13 @@ import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static apoc.util.CompressionConfig.COMPRESSION;
 import static apoc.util.FileUtils.getInputStreamFromBinary;
@@ -73,6 +78,14 @@ public class Xml {
         FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
     }
 
+    // text and CDATA events are kept apart, so that they can be merged into text like the DOM text nodes
+    private static final XMLInputFactory STREAMING_FACTORY = XMLInputFactory.newFactory();
+    static {
+        STREAMING_FACTORY.setProperty(XMLInputFactory.IS_COALESCING, false);
+        STREAMING_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        STREAMING_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
     @Context
     public ApocConfig apocConfig;
 
@@ -93,7 +106,8 @@ public class Xml {
     public Map<String, Object> parse(@Name("data") String data, @Name(value = "path", defaultValue = "/") String path, @Name(value = "config",defaultValue = "{}") Map<String, Object> config, @Name(value = "simple", defaultValue = "false") boolean simpleMode) throws Exception {
         if (config == null) config = Collections.emptyMap();
         boolean failOnError = (boolean) config.getOrDefault("failOnError", true);
-        return parse(new ByteArrayInputStream(data.getBytes(Charset.forName("UTF-8"))), simpleMode, path, failOnError)
+        boolean streaming = Util.toBoolean(config.getOrDefault("streaming", true));
+        return parse(new ByteArrayInputStream(data.getBytes(Charset.forName("UTF-8"))), simpleMode, path, failOnError, streaming)
                 .map(mr -> mr.value).findFirst().orElse(null);
     }
 
@@ -109,7 +123,8 @@ public class Xml {
             }
             Map<String, Object> headers = (Map) finalConfig.getOrDefault("headers", Collections.emptyMap());
             CountingInputStream is = Util.openInputStream(urlOrBinary, headers, null, (String) finalConfig.getOrDefault(COMPRESSION, CompressionAlgo.NONE.name()));
-            return parse(is, simpleMode, path, failOnError);
+            boolean streaming = Util.toBoolean(finalConfig.getOrDefault("streaming", true));
+            return parse(is, simpleMode, path, failOnError, streaming);
         } catch (Exception e){
             if(!failOnError)
                 return Stream.of(new MapResult(Collections.emptyMap()));
@@ -118,7 +133,11 @@ public class Xml {
         }
     }
 
-    private Stream<MapResult> parse(InputStream data, boolean simpleMode, String path, boolean failOnError) throws Exception {
+    private Stream<MapResult> parse(InputStream data, boolean simpleMode, String path, boolean failOnError, boolean streaming) throws Exception {
+        StreamingXPath streamingPath = streaming ? StreamingXPath.compile(path) : null;
+        if (streamingPath != null) {
+            return parseStreaming(data, simpleMode, streamingPath, failOnError);
+        }
         List<MapResult> result = new ArrayList<>();
         try {
             DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
@@ -163,6 +182,37 @@ public class Xml {
         return result.stream();
     }
 
+    /**
+     * Evaluates the path while parsing, so that only the matched elements are kept in memory and the rows are returned as soon as they are complete.
+     * Without failOnError the rows are collected first, so that a broken document results in a single empty row like with the DOM.
+     */
+    private Stream<MapResult> parseStreaming(InputStream data, boolean simpleMode, StreamingXPath path, boolean failOnError) throws Exception {
+        try {
+            XMLStreamReader reader = STREAMING_FACTORY.createXMLStreamReader(data);
+            Stream<MapResult> result = StreamSupport.stream(Spliterators.spliteratorUnknownSize(path.matches(reader, simpleMode), Spliterator.ORDERED), false)
+                    .map(MapResult::new)
+                    .onClose(() -> {
+                        try {
+                            reader.close();
+                        } catch (XMLStreamException e) {
+                            // ignore
+                        }
+                        Util.close(data);
+                    });
+            if (failOnError) {
+                return result;
+            }
+            try (result) {
+                return result.collect(Collectors.toList()).stream();
+            }
+        } catch (Exception e) {
+            if (!failOnError)
+                return Stream.of(new MapResult(Collections.emptyMap()));
+            else
+                throw e;
+        }
+    }
+
     private XMLStreamReader getXMLStreamReader(Object urlOrBinary, XmlImportConfig config) throws IOException, XMLStreamException {
         InputStream inputStream;
         if (urlOrBinary instanceof String) {
@@ -223,16 +273,7 @@ public class Xml {
                 String key = simpleMode ? "_" + node.getLocalName() : "_children";
                 Collections.reverse(nodeChildren);
                 if (nodeChildren.size() > 0) {
-                    // Before adding the children we need to handle mixed text
-                    Object text = elementMap.get("_text");
-                    if (text instanceof List) {
-                        for (Object element : (List) text) {
-                            nodeChildren.add(element);
-                        }
-                        elementMap.remove("_text");
-                    }
-
-                    elementMap.put(key, nodeChildren);
+                    addChildren(elementMap, key, nodeChildren);
                 }
             }
         }
@@ -242,6 +283,22 @@ public class Xml {
         }
     }
 
+    /**
+     * Adds the child elements to the element, if the element has mixed content the collected texts follow the child elements
+     */
+    static void addChildren(Map<String, Object> elementMap, String key, List<Object> nodeChildren) {
+        // Before adding the children we need to handle mixed text
+        Object text = elementMap.get("_text");
+        if (text instanceof List) {
+            for (Object element : (List) text) {
+                nodeChildren.add(element);
+            }
+            elementMap.remove("_text");
+        }
+
+        elementMap.put(key, nodeChildren);
+    }
+
     /**
      * Collects type and attributes for the node
      *
@@ -271,19 +328,27 @@ public class Xml {
      * @param elementMap
      */
     private void handleTextNode(Node node, Map<String, Object> elementMap) {
-        Object text = "";
+        String text = "";
         int nodeType = node.getNodeType();
         switch (nodeType) {
             case Node.TEXT_NODE:
-                text = normalizeText(node.getNodeValue());
+                text = node.getNodeValue();
                 break;
             case Node.CDATA_SECTION_NODE:
-                text = normalizeText(((CharacterData) node).getData());
+                text = ((CharacterData) node).getData();
                 break;
             default:
                 break;
         }
 
+        addText(elementMap, text.toString());
+    }
+
+    /**
+     * Adds the normalized text to the "_text" of the element, several texts are collected to a list
+     */
+    static void addText(Map<String, Object> elementMap, String rawText) {
+        Object text = normalizeText(rawText);
         // If the text is valid ...
         if (!StringUtils.isEmpty(text.toString())) {
             // We check if we have already collected some text previously
@@ -302,7 +367,7 @@ public class Xml {
      * @param text
      * @return
      */
-    private String normalizeText(String text) {
+    private static String normalizeText(String text) {
         String[] tokens = StringUtils.split(text, "\n");
         for (int i = 0; i < tokens.length; i++) {
             tokens[i] = tokens[i].trim();
@@ -370,7 +435,7 @@ public class Xml {
             if (_delimiter != null) {
                 connectCharacters = true;
             }
-            delimiter = Pattern.compile(_delimiter == null ? "\\s" : _delimiter);
+            delimiter = RegexCache.compile(_delimiter == null ? "\\s" : _delimiter);
 
             String _label = (String) config.get("label");
             if (_label != null) {
@@ -611,7 +676,7 @@ public class Xml {
         }
     }
 
-    private RuntimeException generateXmlDoctypeException() {
+    static RuntimeException generateXmlDoctypeException() {
         throw new RuntimeException("XML documents with a DOCTYPE are not allowed.");
     }
 }
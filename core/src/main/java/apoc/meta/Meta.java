@@ -1,5 +1,6 @@
 package apoc.meta;
 
+import apoc.Pools;
 import apoc.export.util.NodesAndRelsSubGraph;
 import apoc.result.GraphResult;
 import apoc.result.MapResult;
@@ -7,6 +8,7 @@ import apoc.result.VirtualGraph;
 import apoc.result.VirtualNode;
 import apoc.result.VirtualRelationship;
 import apoc.util.MapUtil;
+import apoc.util.kernel.MultiThreadedGlobalGraphOperations;
 import com.google.common.primitives.Booleans;
 import com.google.common.primitives.Bytes;
 import com.google.common.primitives.Chars;
@@ -38,6 +40,7 @@ import org.neo4j.internal.helpers.collection.Pair;
 import org.neo4j.internal.kernel.api.Read;
 import org.neo4j.internal.kernel.api.TokenRead;
 import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.Context;
 import org.neo4j.procedure.Description;
@@ -66,7 +69,10 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -92,6 +98,14 @@ public class Meta {
 
     @Context public Log log;
 
+    @Context
+    public Pools pools;
+
+    @Context
+    public MetaCacheHandler metaCacheHandler;
+
+    public static final int PARALLEL_BATCHSIZE = 10_000;
+
     public static class ConstraintTracker {
         // The following maps are (label|rel-type)/constraintdefinition entries
 
@@ -269,6 +283,26 @@ public class Meta {
             }
             return this;
         }
+
+        /**
+         * Adds the counters of a partial result for the same label/type and property, computed on another thread.
+         * Property items are not counted, for them the first one seen is kept together with the co-labels of both.
+         */
+        public MetaItem merge(MetaItem item) {
+            for (String label : item.otherLabels) {
+                if (!otherLabels.contains(label)) otherLabels.add(label);
+            }
+            if (item.count == 0) return this;
+            count += item.count;
+            leftCount += item.leftCount;
+            rightCount += item.rightCount;
+            left = leftCount / count;
+            right = rightCount / count;
+            array |= item.array;
+            if (type == null) type = item.type;
+            if (elementType == null) elementType = item.elementType;
+            return other(item.other);
+        }
     }
 
     @Deprecated
@@ -556,6 +590,24 @@ public class Meta {
         return collectMetaData(new DatabaseSubGraph(transaction), metaConfig).values().stream().flatMap(x -> x.values().stream());
     }
 
+    public static class MetaCacheResult {
+        public final long counters;
+        public final long time;
+
+        public MetaCacheResult(long counters, long time) {
+            this.counters = counters;
+            this.time = time;
+        }
+    }
+
+    @Procedure("apoc.meta.cache.rebuild")
+    @Description("apoc.meta.cache.rebuild() - rebuilds the meta cache maintained with apoc.meta.cache.enabled=true from a full scan of the graph")
+    public Stream<MetaCacheResult> cacheRebuild() {
+        long start = System.currentTimeMillis();
+        Map<List<String>, Long> counts = metaCacheHandler.rebuild();
+        return Stream.of(new MetaCacheResult(counts.size(), System.currentTimeMillis() - start));
+    }
+
     @Procedure
     @Description("apoc.meta.schema({config})  - examines a subset of the graph to provide a map-like meta information")
     public Stream<MapResult> schema(@Name(value = "config",defaultValue = "{}") Map<String,Object> config) {
@@ -690,14 +742,20 @@ public class Meta {
     // End new code
 
     private Map<Set<String>, Map<String, MetaItem>> collectMetaData(SubGraph graph, MetaConfig config) {
+        if (config.isUseCache() && graph instanceof DatabaseSubGraph && metaCacheHandler.isEnabled()) {
+            return collectMetaDataFromCache(graph, metaCacheHandler.counts());
+        }
+        if (config.isParallel() && graph instanceof DatabaseSubGraph) {
+            return collectMetaDataParallel(graph);
+        }
         Map<Set<String>, Map<String, MetaItem>> metaData = new LinkedHashMap<>(100);
 
         Set<RelationshipType> types = Iterables.asSet(graph.getAllRelationshipTypesInUse());
-        Map<String, Iterable<ConstraintDefinition>> relConstraints = new HashMap<>(20);
+        Map<String, Map<String, Set<ConstraintType>>> relConstraints = new HashMap<>(20);
         Map<String, Set<String>> relIndexes = new HashMap<>();
         for (RelationshipType type : graph.getAllRelationshipTypesInUse()) {
             metaData.put(Set.of(Types.RELATIONSHIP.name(), type.name()), new LinkedHashMap<>(10));
-            relConstraints.put(type.name(),graph.getConstraints(type));
+            relConstraints.put(type.name(), getConstraintsByProperty(graph.getConstraints(type)));
             relIndexes.put(type.name(), getIndexedProperties(graph.getIndexes(type)));
         }
         for (Label label : graph.getAllLabelsInUse()) {
@@ -705,7 +763,7 @@ public class Meta {
             String labelName = label.name();
             // workaround in case of duplicated keys
             metaData.put(Set.of(Types.NODE.name(), labelName), nodeMeta);
-            Iterable<ConstraintDefinition> constraints = graph.getConstraints(label);
+            Map<String, Set<ConstraintType>> constraints = getConstraintsByProperty(graph.getConstraints(label));
             Set<String> indexed = getIndexedProperties(graph.getIndexes(label));
             long labelCount = graph.countsForNode(label);
             long sample = getSampleForLabelCount(labelCount, config.getSample());
@@ -722,6 +780,154 @@ public class Meta {
         return metaData;
     }
 
+    /**
+     * Scans all nodes by id range on the default pool, every worker thread collects into its own partial meta data
+     * which are merged at the end, so there is no sampling and no contention between the workers.
+     */
+    private Map<Set<String>, Map<String, MetaItem>> collectMetaDataParallel(SubGraph graph) {
+        Set<RelationshipType> types = Iterables.asSet(graph.getAllRelationshipTypesInUse());
+        List<Set<String>> keys = new ArrayList<>();
+        Map<String, Map<String, Set<ConstraintType>>> relConstraints = new HashMap<>(20);
+        Map<String, Set<String>> relIndexes = new HashMap<>();
+        for (RelationshipType type : types) {
+            keys.add(Set.of(Types.RELATIONSHIP.name(), type.name()));
+            relConstraints.put(type.name(), getConstraintsByProperty(graph.getConstraints(type)));
+            relIndexes.put(type.name(), getIndexedProperties(graph.getIndexes(type)));
+        }
+        Map<String, Map<String, Set<ConstraintType>>> constraints = new HashMap<>(20);
+        Map<String, Set<String>> indexed = new HashMap<>();
+        for (Label label : graph.getAllLabelsInUse()) {
+            keys.add(Set.of(Types.NODE.name(), label.name()));
+            constraints.put(label.name(), getConstraintsByProperty(graph.getConstraints(label)));
+            indexed.put(label.name(), getIndexedProperties(graph.getIndexes(label)));
+        }
+
+        Map<Thread, Map<Set<String>, Map<String, MetaItem>>> partials = new ConcurrentHashMap<>();
+        MultiThreadedGlobalGraphOperations.BatchJobResult result = MultiThreadedGlobalGraphOperations.forAllNodes((GraphDatabaseAPI) db,
+                pools.getDefaultExecutorService(), PARALLEL_BATCHSIZE, (tx, ktx, cursor) -> {
+            Map<Set<String>, Map<String, MetaItem>> metaData = partials.computeIfAbsent(Thread.currentThread(), t -> emptyMetaData(keys));
+            Node node = tx.getNodeById(cursor.nodeReference());
+            for (Label label : node.getLabels()) {
+                String labelName = label.name();
+                Map<String, MetaItem> nodeMeta = metaData.get(Set.of(Types.NODE.name(), labelName));
+                // label created after the scan started
+                if (nodeMeta == null) continue;
+                addRelationships(metaData, nodeMeta, labelName, node, relConstraints, types, relIndexes);
+                addProperties(nodeMeta, labelName, constraints.get(labelName), indexed.get(labelName), node, node);
+            }
+        });
+        if (result.getFailures() > 0) {
+            log.warn("apoc.meta: %d of %d nodes could not be examined in the parallel scan", result.getFailures(), result.getFailures() + result.getSucceeded());
+        }
+
+        Map<Set<String>, Map<String, MetaItem>> metaData = emptyMetaData(keys);
+        for (Map<Set<String>, Map<String, MetaItem>> partial : partials.values()) {
+            partial.forEach((key, items) -> {
+                Map<String, MetaItem> merged = metaData.get(key);
+                items.forEach((name, item) -> merged.merge(name, item, MetaItem::merge));
+            });
+        }
+        return metaData;
+    }
+
+    /**
+     * Builds the same structure as the full scan from the counters of the {@link MetaCacheHandler},
+     * for properties with values of different types the most frequent type is reported.
+     */
+    private Map<Set<String>, Map<String, MetaItem>> collectMetaDataFromCache(SubGraph graph, Map<List<String>, Long> counts) {
+        Map<String, Map<String, Map<String, Long>>> nodeProperties = new TreeMap<>();
+        Map<String, Map<String, Map<String, Long>>> relProperties = new TreeMap<>();
+        Map<String, Map<String, long[]>> relNodes = new TreeMap<>();
+        Map<String, Map<String, List<String>>> endLabels = new HashMap<>();
+        Map<String, List<String>> coLabels = new HashMap<>();
+        Set<String> types = new TreeSet<>();
+        Set<String> labels = new TreeSet<>();
+        counts.forEach((key, count) -> {
+            switch (key.get(0)) {
+                case MetaCacheHandler.TYPE: types.add(key.get(1)); break;
+                case MetaCacheHandler.LABEL: labels.add(key.get(1)); break;
+                case MetaCacheHandler.CO_LABEL: coLabels.computeIfAbsent(key.get(1), k -> new ArrayList<>()).add(key.get(2)); break;
+                case MetaCacheHandler.NODE_PROPERTY:
+                    nodeProperties.computeIfAbsent(key.get(1), k -> new TreeMap<>()).computeIfAbsent(key.get(2), k -> new HashMap<>()).put(key.get(3), count);
+                    break;
+                case MetaCacheHandler.REL_PROPERTY:
+                    relProperties.computeIfAbsent(key.get(1), k -> new TreeMap<>()).computeIfAbsent(key.get(2), k -> new HashMap<>()).put(key.get(3), count);
+                    break;
+                case MetaCacheHandler.REL_NODES: relNodes.computeIfAbsent(key.get(1), k -> new TreeMap<>()).computeIfAbsent(key.get(2), k -> new long[3])[0] = count; break;
+                case MetaCacheHandler.REL_OUT: relNodes.computeIfAbsent(key.get(1), k -> new TreeMap<>()).computeIfAbsent(key.get(2), k -> new long[3])[1] = count; break;
+                case MetaCacheHandler.REL_IN: relNodes.computeIfAbsent(key.get(1), k -> new TreeMap<>()).computeIfAbsent(key.get(2), k -> new long[3])[2] = count; break;
+                case MetaCacheHandler.PATTERN:
+                    endLabels.computeIfAbsent(key.get(1), k -> new HashMap<>()).computeIfAbsent(key.get(2), k -> new ArrayList<>()).add(key.get(3));
+                    break;
+            }
+        });
+
+        Map<Set<String>, Map<String, MetaItem>> metaData = new LinkedHashMap<>(100);
+        for (String typeName : types) {
+            Map<String, MetaItem> typeMeta = new LinkedHashMap<>(10);
+            metaData.put(Set.of(Types.RELATIONSHIP.name(), typeName), typeMeta);
+            RelationshipType type = RelationshipType.withName(typeName);
+            Map<String, Set<ConstraintType>> constraints = getConstraintsByProperty(graph.getConstraints(type));
+            Set<String> indexed = getIndexedProperties(graph.getIndexes(type));
+            relProperties.getOrDefault(typeName, Collections.emptyMap()).forEach((prop, valueTypes) ->
+                    typeMeta.put(prop, metaItemFromCache(typeName, prop, valueTypes, Types.RELATIONSHIP, constraints, indexed, Collections.emptyList())));
+        }
+        for (String labelName : labels) {
+            Map<String, MetaItem> nodeMeta = new LinkedHashMap<>(50);
+            metaData.put(Set.of(Types.NODE.name(), labelName), nodeMeta);
+            Label label = Label.label(labelName);
+            Map<String, Set<ConstraintType>> constraints = getConstraintsByProperty(graph.getConstraints(label));
+            Set<String> indexed = getIndexedProperties(graph.getIndexes(label));
+            relNodes.getOrDefault(labelName, Collections.emptyMap()).forEach((typeName, degrees) -> {
+                Map<String, MetaItem> typeMeta = metaData.get(Set.of(Types.RELATIONSHIP.name(), typeName));
+                if (degrees[0] == 0 || typeMeta == null) return;
+                List<String> other = endLabels.getOrDefault(labelName, Collections.emptyMap()).getOrDefault(typeName, Collections.emptyList());
+                nodeMeta.put(typeName, relMetaItemFromCache(labelName, typeName, degrees, other).elementType(Types.NODE.name()));
+                typeMeta.put(labelName, relMetaItemFromCache(typeName, labelName, degrees, other).elementType(Types.RELATIONSHIP.name()));
+            });
+            List<String> otherLabels = coLabels.getOrDefault(labelName, Collections.emptyList());
+            nodeProperties.getOrDefault(labelName, Collections.emptyMap()).forEach((prop, valueTypes) ->
+                    nodeMeta.put(prop, metaItemFromCache(labelName, prop, valueTypes, Types.NODE, constraints, indexed, otherLabels)));
+        }
+        return metaData;
+    }
+
+    private MetaItem relMetaItemFromCache(String label, String name, long[] degrees, List<String> other) {
+        MetaItem item = new MetaItem(label, name);
+        item.count = degrees[0];
+        item.rel(degrees[1], degrees[2]);
+        item.array = degrees[1] > degrees[0];
+        return item.other(other);
+    }
+
+    private MetaItem metaItemFromCache(String label, String prop, Map<String, Long> valueTypes, Types elementType,
+                                      Map<String, Set<ConstraintType>> constraints, Set<String> indexed, List<String> labels) {
+        String type = valueTypes.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse(Types.NULL.name());
+        MetaItem item = new MetaItem(label, prop).type(type).array(Types.LIST.name().equals(type));
+        item.elementType(elementType.name());
+        addSchemaInfo(item, prop, constraints, indexed, () -> labels.stream().map(Label::label).collect(Collectors.toList()));
+        return item;
+    }
+
+    private Map<Set<String>, Map<String, MetaItem>> emptyMetaData(List<Set<String>> keys) {
+        Map<Set<String>, Map<String, MetaItem>> metaData = new LinkedHashMap<>(100);
+        for (Set<String> key : keys) {
+            metaData.put(key, new LinkedHashMap<>(50));
+        }
+        return metaData;
+    }
+
+    private Map<String, Set<ConstraintType>> getConstraintsByProperty(Iterable<ConstraintDefinition> constraints) {
+        Map<String, Set<ConstraintType>> result = new HashMap<>();
+        if (constraints == null) return result;
+        for (ConstraintDefinition constraint : constraints) {
+            for (String key : constraint.getPropertyKeys()) {
+                result.computeIfAbsent(key, k -> new HashSet<>()).add(constraint.getConstraintType());
+            }
+        }
+        return result;
+    }
+
     private Set<String> getIndexedProperties(Iterable<IndexDefinition> indexes) {
         return Iterables.stream(indexes)
                 .map(IndexDefinition::getPropertyKeys)
@@ -863,12 +1069,12 @@ public class Meta {
         return new HashSet<>(entityName).stream().filter(entity -> !entity.equals(suffix)).findFirst().get();
     }
 
-    private void addProperties(Map<String, MetaItem> properties, String labelName, Iterable<ConstraintDefinition> constraints, Set<String> indexed, Entity pc, Node node) {
+    private void addProperties(Map<String, MetaItem> properties, String labelName, Map<String, Set<ConstraintType>> constraints, Set<String> indexed, Entity pc, Node node) {
         for (String prop : pc.getPropertyKeys()) {
             if (properties.containsKey(prop)) continue;
             MetaItem res = metaResultForProp(pc, labelName, prop);
             res.elementType(Types.of(pc).name());
-            addSchemaInfo(res, prop, constraints, indexed, node);
+            addSchemaInfo(res, prop, constraints, indexed, node::getLabels);
             properties.put(prop,res);
         }
     }
@@ -877,7 +1083,7 @@ public class Meta {
                                   Map<String, MetaItem> nodeMeta,
                                   String labelName,
                                   Node node,
-                                  Map<String, Iterable<ConstraintDefinition>> relConstraints,
+                                  Map<String, Map<String, Set<ConstraintType>>> relConstraints,
                                   Set<RelationshipType> types,
                                   Map<String, Set<String >> relIndexes
     ) {
@@ -889,7 +1095,7 @@ public class Meta {
 
                     String typeName = type.name();
 
-                    Iterable<ConstraintDefinition> constraints = relConstraints.get(typeName);
+                    Map<String, Set<ConstraintType>> constraints = relConstraints.get(typeName);
                     Set<String> indexes = relIndexes.get(typeName);
                     if (!nodeMeta.containsKey(typeName)) nodeMeta.put(typeName, new MetaItem(labelName,typeName));
                     int in = node.getDegree(type, Direction.INCOMING);
@@ -902,7 +1108,7 @@ public class Meta {
     }
 
     private void addOtherNodeInfo(Node node, String labelName, int out, int in, RelationshipType type, MetaItem relMeta, Map<String, MetaItem> typeMeta,
-                                  Iterable<ConstraintDefinition> relConstraints, Set<String> indexes) {
+                                  Map<String, Set<ConstraintType>> relConstraints, Set<String> indexes) {
         MetaItem relNodeMeta = typeMeta.get(labelName);
         relMeta.elementType(Types.of(node).name());
         relMeta.inc().rel(out, in);
@@ -917,26 +1123,22 @@ public class Meta {
         }
     }
 
-    private void addSchemaInfo(MetaItem res, String prop, Iterable<ConstraintDefinition> constraints, Set<String> indexed, Node node) {
+    private void addSchemaInfo(MetaItem res, String prop, Map<String, Set<ConstraintType>> constraints, Set<String> indexed, Supplier<Iterable<Label>> labels) {
 
         if (indexed.contains(prop)) {
             res.index = true;
         }
         if (constraints == null) return;
-        for (ConstraintDefinition constraint : constraints) {
-            for (String key : constraint.getPropertyKeys()) {
-                if (key.equals(prop)) {
-                    switch (constraint.getConstraintType()) {
-                        case UNIQUENESS: res.unique = true;
-                            node.getLabels().forEach(l -> {
-                                if(res.label != l.name())
-                                    res.addLabel(l.name());
-                            });
-                            break;
-                        case NODE_PROPERTY_EXISTENCE:res.existence = true; break;
-                        case RELATIONSHIP_PROPERTY_EXISTENCE: res.existence = true; break;
-                    }
-                }
+        for (ConstraintType constraintType : constraints.getOrDefault(prop, Collections.emptySet())) {
+            switch (constraintType) {
+                case UNIQUENESS: res.unique = true;
+                    labels.get().forEach(l -> {
+                        if(res.label != l.name())
+                            res.addLabel(l.name());
+                    });
+                    break;
+                case NODE_PROPERTY_EXISTENCE:res.existence = true; break;
+                case RELATIONSHIP_PROPERTY_EXISTENCE: res.existence = true; break;
             }
         }
     }
@@ -0,0 +1,385 @@
+package apoc.meta;
+
+import apoc.ApocConfig;
+import apoc.Pools;
+import apoc.util.kernel.MultiThreadedGlobalGraphOperations;
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.event.LabelEntry;
+import org.neo4j.graphdb.event.PropertyEntry;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventListener;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static apoc.ApocConfig.APOC_META_CACHE_ENABLED;
+
+/**
+ * Keeps counters of labels, relationship types, property types and relationship patterns of the database,
+ * maintained incrementally from the {@link TransactionData} of every committed transaction,
+ * so that the meta procedures can answer in O(schema size) without scanning the graph.
+ *
+ * The counters are keyed by a list starting with the kind of counter, e.g. <code>[nodeProperty, Person, name, STRING]</code>.
+ * The cache is built by a full (parallel) scan on first use or via <code>apoc.meta.cache.rebuild()</code>,
+ * transactions committed during that scan might be missed or counted twice, only another full scan resyncs the cache.
+ *
+ * The work per transaction is proportional to the changed entities, except for nodes whose labels change:
+ * the patterns of all their relationships change with them, so every relationship of a relabeled node is read.
+ */
+public class MetaCacheHandler extends LifecycleAdapter implements TransactionEventListener<Map<List<String>, Long>> {
+
+    // node count per label
+    public static final String LABEL = "label";
+    // nodes per label having the other label
+    public static final String CO_LABEL = "coLabel";
+    // nodes per label, property and value type
+    public static final String NODE_PROPERTY = "nodeProperty";
+    // nodes per label with at least one outgoing relationship of the type
+    public static final String REL_NODES = "relNodes";
+    // outgoing relationships per label and type
+    public static final String REL_OUT = "relOut";
+    // incoming relationships per label and type
+    public static final String REL_IN = "relIn";
+    // relationship count per type
+    public static final String TYPE = "type";
+    // relationships per type, property and value type
+    public static final String REL_PROPERTY = "relProperty";
+    // relationships per start label, type and end label
+    public static final String PATTERN = "pattern";
+
+    public static final int BATCHSIZE = 10_000;
+
+    public static final String NOT_ENABLED_ERROR = "The meta cache has not been enabled." +
+            " Set 'apoc.meta.cache.enabled=true' in your apoc.conf file located in the $NEO4J_HOME/conf/ directory.";
+
+    private final GraphDatabaseAPI db;
+    private final DatabaseManagementService databaseManagementService;
+    private final ApocConfig apocConfig;
+    private final Log log;
+    private final Pools pools;
+
+    private final AtomicBoolean registeredWithKernel = new AtomicBoolean(false);
+
+    // null until the first build, then only transactions have to be tracked
+    private volatile ConcurrentHashMap<List<String>, Long> counts;
+
+    public MetaCacheHandler(GraphDatabaseAPI db, DatabaseManagementService databaseManagementService,
+                            ApocConfig apocConfig, Log log, Pools pools) {
+        this.db = db;
+        this.databaseManagementService = databaseManagementService;
+        this.apocConfig = apocConfig;
+        this.log = log;
+        this.pools = pools;
+    }
+
+    public boolean isEnabled() {
+        return apocConfig.getBoolean(APOC_META_CACHE_ENABLED, false);
+    }
+
+    public void checkEnabled() {
+        if (!isEnabled()) {
+            throw new RuntimeException(NOT_ENABLED_ERROR);
+        }
+    }
+
+    /**
+     * @return the current counters, building the cache on first use
+     */
+    public Map<List<String>, Long> counts() {
+        checkEnabled();
+        Map<List<String>, Long> current = counts;
+        return current == null ? rebuild() : current;
+    }
+
+    /**
+     * Replaces the counters by a full parallel scan of all nodes and relationships, as expensive as
+     * <code>apoc.meta.data({sample:-1, useCache:false})</code>.
+     */
+    public synchronized Map<List<String>, Long> rebuild() {
+        checkEnabled();
+        long start = System.currentTimeMillis();
+        Map<Thread, Map<List<String>, Long>> partials = new ConcurrentHashMap<>();
+        MultiThreadedGlobalGraphOperations.BatchJobResult nodes = MultiThreadedGlobalGraphOperations.forAllNodes(db, pools.getDefaultExecutorService(), BATCHSIZE,
+                (tx, ktx, cursor) -> {
+                    Node node = tx.getNodeById(cursor.nodeReference());
+                    addNode(partials.computeIfAbsent(Thread.currentThread(), t -> new HashMap<>()), labels(node), node.getAllProperties(), degrees(node), 1);
+                });
+        MultiThreadedGlobalGraphOperations.BatchJobResult rels = MultiThreadedGlobalGraphOperations.forAllRelationships(db, pools.getDefaultExecutorService(), BATCHSIZE,
+                (tx, ktx, cursor) -> {
+                    Relationship rel = tx.getRelationshipById(cursor.relationshipReference());
+                    addRelationship(partials.computeIfAbsent(Thread.currentThread(), t -> new HashMap<>()), rel.getType().name(), rel.getAllProperties(),
+                            labels(rel.getStartNode()), labels(rel.getEndNode()), 1);
+                });
+        if (nodes.getFailures() > 0 || rels.getFailures() > 0) {
+            log.warn("apoc.meta.cache: %d nodes and %d relationships could not be read while rebuilding", nodes.getFailures(), rels.getFailures());
+        }
+        ConcurrentHashMap<List<String>, Long> fresh = new ConcurrentHashMap<>();
+        partials.values().forEach(partial -> apply(fresh, partial));
+        counts = fresh;
+        log.info("apoc.meta.cache: rebuilt %d counters in %d ms", fresh.size(), System.currentTimeMillis() - start);
+        return fresh;
+    }
+
+    @Override
+    public void start() {
+        if (isEnabled() && registeredWithKernel.compareAndSet(false, true)) {
+            databaseManagementService.registerTransactionEventListener(db.databaseName(), this);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (registeredWithKernel.compareAndSet(true, false)) {
+            databaseManagementService.unregisterTransactionEventListener(db.databaseName(), this);
+        }
+        counts = null;
+    }
+
+    @Override
+    public Map<List<String>, Long> beforeCommit(TransactionData txData, Transaction transaction, GraphDatabaseService databaseService) {
+        if (counts == null) return null;
+        return new TxDelta(txData).compute();
+    }
+
+    @Override
+    public void afterCommit(TransactionData txData, Map<List<String>, Long> delta, GraphDatabaseService databaseService) {
+        ConcurrentHashMap<List<String>, Long> current = counts;
+        if (delta != null && current != null) {
+            apply(current, delta);
+        }
+    }
+
+    @Override
+    public void afterRollback(TransactionData txData, Map<List<String>, Long> delta, GraphDatabaseService databaseService) {
+    }
+
+    private static void apply(ConcurrentHashMap<List<String>, Long> counts, Map<List<String>, Long> delta) {
+        delta.forEach((key, value) -> {
+            if (value == 0) return;
+            counts.compute(key, (k, count) -> {
+                long sum = (count == null ? 0 : count) + value;
+                return sum == 0 ? null : sum;
+            });
+        });
+    }
+
+    static void addNode(Map<List<String>, Long> counts, Collection<String> labels, Map<String, Object> properties, Map<String, long[]> degrees, long sign) {
+        for (String label : labels) {
+            add(counts, sign, LABEL, label);
+            for (String other : labels) {
+                add(counts, sign, CO_LABEL, label, other);
+            }
+            properties.forEach((key, value) -> add(counts, sign, NODE_PROPERTY, label, key, Meta.Types.of(value).name()));
+            // as in the scan the incoming relationships are only counted for nodes with outgoing ones of the same type
+            degrees.forEach((type, degree) -> {
+                if (degree[0] > 0) {
+                    add(counts, sign, REL_NODES, label, type);
+                    add(counts, sign * degree[0], REL_OUT, label, type);
+                    add(counts, sign * degree[1], REL_IN, label, type);
+                }
+            });
+        }
+    }
+
+    static void addRelationship(Map<List<String>, Long> counts, String type, Map<String, Object> properties,
+                                Collection<String> startLabels, Collection<String> endLabels, long sign) {
+        add(counts, sign, TYPE, type);
+        properties.forEach((key, value) -> add(counts, sign, REL_PROPERTY, type, key, Meta.Types.of(value).name()));
+        for (String start : startLabels) {
+            for (String end : endLabels) {
+                add(counts, sign, PATTERN, start, type, end);
+            }
+        }
+    }
+
+    private static void add(Map<List<String>, Long> counts, long delta, String... key) {
+        counts.merge(List.of(key), delta, Long::sum);
+    }
+
+    private static Set<String> labels(Node node) {
+        Set<String> labels = new HashSet<>();
+        for (Label label : node.getLabels()) {
+            labels.add(label.name());
+        }
+        return labels;
+    }
+
+    // type -> [outgoing, incoming]
+    private static Map<String, long[]> degrees(Node node) {
+        Map<String, long[]> degrees = new HashMap<>();
+        for (RelationshipType type : node.getRelationshipTypes()) {
+            degrees.put(type.name(), new long[] { node.getDegree(type, Direction.OUTGOING), node.getDegree(type, Direction.INCOMING) });
+        }
+        return degrees;
+    }
+
+    /**
+     * Computes the counters of every entity touched by a transaction as it was before and as it is after the transaction,
+     * the state before is reconstructed from the current state and the changes recorded in the {@link TransactionData}.
+     */
+    private static class TxDelta {
+        private final Map<List<String>, Long> delta = new HashMap<>();
+        private final TransactionData txData;
+
+        private final Set<Node> createdNodes = new HashSet<>();
+        private final Set<Node> deletedNodes = new HashSet<>();
+        private final Map<Node, Set<String>> assignedLabels = new HashMap<>();
+        private final Map<Node, Set<String>> removedLabels = new HashMap<>();
+        private final Map<Node, Map<String, Object>> nodeProperties = new HashMap<>();
+        private final Map<Node, Map<String, Object>> removedNodeProperties = new HashMap<>();
+        private final Set<Relationship> createdRels = new HashSet<>();
+        private final Set<Relationship> deletedRels = new HashSet<>();
+        private final Map<Relationship, Map<String, Object>> relProperties = new HashMap<>();
+        private final Map<Relationship, Map<String, Object>> removedRelProperties = new HashMap<>();
+        // node -> type -> [outgoing, incoming] relationships created minus deleted
+        private final Map<Node, Map<String, long[]>> degreeChanges = new HashMap<>();
+
+        private final Map<Node, Set<String>> labelsBefore = new HashMap<>();
+        private final Map<Node, Set<String>> labelsAfter = new HashMap<>();
+
+        TxDelta(TransactionData txData) {
+            this.txData = txData;
+        }
+
+        Map<List<String>, Long> compute() {
+            txData.createdNodes().forEach(createdNodes::add);
+            txData.deletedNodes().forEach(deletedNodes::add);
+            txData.createdRelationships().forEach(createdRels::add);
+            txData.deletedRelationships().forEach(deletedRels::add);
+            for (LabelEntry entry : txData.assignedLabels()) {
+                assignedLabels.computeIfAbsent(entry.node(), n -> new HashSet<>()).add(entry.label().name());
+            }
+            for (LabelEntry entry : txData.removedLabels()) {
+                removedLabels.computeIfAbsent(entry.node(), n -> new HashSet<>()).add(entry.label().name());
+            }
+            for (PropertyEntry<Node> entry : txData.assignedNodeProperties()) {
+                nodeProperties.computeIfAbsent(entry.entity(), n -> new HashMap<>()).put(entry.key(), entry.previouslyCommittedValue());
+            }
+            for (PropertyEntry<Node> entry : txData.removedNodeProperties()) {
+                removedNodeProperties.computeIfAbsent(entry.entity(), n -> new HashMap<>()).put(entry.key(), entry.previouslyCommittedValue());
+            }
+            for (PropertyEntry<Relationship> entry : txData.assignedRelationshipProperties()) {
+                relProperties.computeIfAbsent(entry.entity(), n -> new HashMap<>()).put(entry.key(), entry.previouslyCommittedValue());
+            }
+            for (PropertyEntry<Relationship> entry : txData.removedRelationshipProperties()) {
+                removedRelProperties.computeIfAbsent(entry.entity(), n -> new HashMap<>()).put(entry.key(), entry.previouslyCommittedValue());
+            }
+            createdRels.forEach(rel -> changeDegree(rel, 1));
+            deletedRels.forEach(rel -> changeDegree(rel, -1));
+
+            Set<Node> nodes = new HashSet<>(createdNodes);
+            nodes.addAll(deletedNodes);
+            nodes.addAll(assignedLabels.keySet());
+            nodes.addAll(removedLabels.keySet());
+            nodes.addAll(nodeProperties.keySet());
+            nodes.addAll(removedNodeProperties.keySet());
+            nodes.addAll(degreeChanges.keySet());
+            for (Node node : nodes) {
+                boolean relsChanged = degreeChanges.containsKey(node) || assignedLabels.containsKey(node) || removedLabels.containsKey(node);
+                Map<String, long[]> degreesAfter = deletedNodes.contains(node) ? Collections.emptyMap() : relsChanged ? degrees(node) : Collections.emptyMap();
+                addNode(delta, labelsBefore(node), nodePropertiesBefore(node), degreesBefore(node, degreesAfter), -1);
+                addNode(delta, labelsAfter(node), deletedNodes.contains(node) ? Collections.emptyMap() : node.getAllProperties(), degreesAfter, 1);
+            }
+
+            Set<Relationship> rels = new HashSet<>(createdRels);
+            rels.addAll(deletedRels);
+            rels.addAll(relProperties.keySet());
+            rels.addAll(removedRelProperties.keySet());
+            // the patterns of existing relationships change with the labels of their nodes
+            for (Node node : nodes) {
+                if (!deletedNodes.contains(node) && (assignedLabels.containsKey(node) || removedLabels.containsKey(node))) {
+                    node.getRelationships().forEach(rels::add);
+                }
+            }
+            for (Relationship rel : rels) {
+                String type = rel.getType().name();
+                if (!createdRels.contains(rel)) {
+                    addRelationship(delta, type, relPropertiesBefore(rel), labelsBefore(rel.getStartNode()), labelsBefore(rel.getEndNode()), -1);
+                }
+                if (!deletedRels.contains(rel)) {
+                    addRelationship(delta, type, rel.getAllProperties(), labelsAfter(rel.getStartNode()), labelsAfter(rel.getEndNode()), 1);
+                }
+            }
+            delta.values().removeIf(value -> value == 0);
+            return delta;
+        }
+
+        private void changeDegree(Relationship rel, long sign) {
+            String type = rel.getType().name();
+            degreeChanges.computeIfAbsent(rel.getStartNode(), n -> new HashMap<>()).computeIfAbsent(type, t -> new long[2])[0] += sign;
+            degreeChanges.computeIfAbsent(rel.getEndNode(), n -> new HashMap<>()).computeIfAbsent(type, t -> new long[2])[1] += sign;
+        }
+
+        private Set<String> labelsAfter(Node node) {
+            return labelsAfter.computeIfAbsent(node, n -> deletedNodes.contains(n) ? Collections.emptySet() : labels(n));
+        }
+
+        private Set<String> labelsBefore(Node node) {
+            return labelsBefore.computeIfAbsent(node, n -> {
+                if (createdNodes.contains(n)) return Collections.emptySet();
+                if (deletedNodes.contains(n)) return removedLabels.getOrDefault(n, Collections.emptySet());
+                Set<String> labels = new HashSet<>(labelsAfter(n));
+                labels.removeAll(assignedLabels.getOrDefault(n, Collections.emptySet()));
+                labels.addAll(removedLabels.getOrDefault(n, Collections.emptySet()));
+                return labels;
+            });
+        }
+
+        private Map<String, Object> nodePropertiesBefore(Node node) {
+            if (createdNodes.contains(node)) return Collections.emptyMap();
+            Map<String, Object> removed = removedNodeProperties.getOrDefault(node, Collections.emptyMap());
+            if (deletedNodes.contains(node)) return removed;
+            return propertiesBefore(node.getAllProperties(), nodeProperties.getOrDefault(node, Collections.emptyMap()), removed);
+        }
+
+        private Map<String, Object> relPropertiesBefore(Relationship rel) {
+            Map<String, Object> removed = removedRelProperties.getOrDefault(rel, Collections.emptyMap());
+            if (deletedRels.contains(rel)) return removed;
+            return propertiesBefore(rel.getAllProperties(), relProperties.getOrDefault(rel, Collections.emptyMap()), removed);
+        }
+
+        private static Map<String, Object> propertiesBefore(Map<String, Object> after, Map<String, Object> assigned, Map<String, Object> removed) {
+            if (assigned.isEmpty() && removed.isEmpty()) return after;
+            Map<String, Object> before = new HashMap<>(after);
+            assigned.forEach((key, previous) -> {
+                if (previous == null) before.remove(key);
+                else before.put(key, previous);
+            });
+            removed.forEach((key, previous) -> {
+                if (previous != null) before.put(key, previous);
+            });
+            return before;
+        }
+
+        private Map<String, long[]> degreesBefore(Node node, Map<String, long[]> degreesAfter) {
+            if (createdNodes.contains(node)) return Collections.emptyMap();
+            Map<String, long[]> changes = degreeChanges.getOrDefault(node, Collections.emptyMap());
+            if (changes.isEmpty()) return degreesAfter;
+            Map<String, long[]> before = new HashMap<>();
+            degreesAfter.forEach((type, degree) -> before.put(type, degree.clone()));
+            changes.forEach((type, change) -> {
+                long[] degree = before.computeIfAbsent(type, t -> new long[2]);
+                degree[0] -= change[0];
+                degree[1] -= change[1];
+            });
+            return before;
+        }
+    }
+}
@@ -16,6 +16,8 @@ public class MetaConfig {
     private final long maxRels;
     private final long sample;
     private final boolean addRelationshipsBetweenNodes;
+    private final boolean parallel;
+    private final boolean useCache;
 
     /**
      * A map of values, with the following keys and meanings.
@@ -30,6 +32,9 @@ public class MetaConfig {
      * every 1000th node will be examined.  It does **not** mean that a total of 1000 nodes
      * will be sampled.
      * - maxRels: the maximum number of relationships of a given type to look at.
+     * - parallel: if true all the nodes are examined by id range on multiple threads,
+     * so sample is ignored and the results are exact.
+     * - useCache: if false the graph is examined even when the meta cache is enabled.
      * @param config
      */
 
@@ -60,6 +65,8 @@ public class MetaConfig {
         this.sample = (long) config.getOrDefault("sample", 1000L);
         this.maxRels = (long) config.getOrDefault("maxRels", 100L);
         this.addRelationshipsBetweenNodes = Util.toBoolean(config.getOrDefault("addRelationshipsBetweenNodes", true));
+        this.parallel = Util.toBoolean(config.getOrDefault("parallel", false));
+        this.useCache = Util.toBoolean(config.getOrDefault("useCache", true));
     }
 
 
@@ -135,4 +142,12 @@ public class MetaConfig {
     public boolean isAddRelationshipsBetweenNodes() {
         return addRelationshipsBetweenNodes;
     }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public boolean isUseCache() {
+        return useCache;
+    }
 }
@@ -1,9 +1,11 @@
 package apoc.neighbors;
 
+import apoc.Pools;
 import apoc.result.ListResult;
 import apoc.result.LongResult;
 import apoc.result.NodeListResult;
 import apoc.result.NodeResult;
+import apoc.util.Util;
 import org.neo4j.graphdb.*;
 import org.neo4j.internal.helpers.collection.Iterables;
 import org.neo4j.internal.helpers.collection.Pair;
@@ -14,7 +16,12 @@ import org.neo4j.procedure.Procedure;
 import org.roaringbitmap.longlong.Roaring64NavigableMap;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -25,6 +32,35 @@ public class Neighbors {
     @Context
     public Transaction tx;
 
+    @Context
+    public GraphDatabaseService db;
+
+    @Context
+    public Pools pools;
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final long DEFAULT_CACHE_SIZE = 1_000_000;
+
+    public static class NodeHopsResult {
+        public final Node node;
+        public final List<List<Node>> nodes;
+
+        public NodeHopsResult(Node node, List<List<Node>> nodes) {
+            this.node = node;
+            this.nodes = nodes;
+        }
+    }
+
+    public static class NodeHopCountsResult {
+        public final Node node;
+        public final List<Long> value;
+
+        public NodeHopCountsResult(Node node, List<Long> value) {
+            this.node = node;
+            this.value = value;
+        }
+    }
+
     private Iterable<Relationship> getRelationshipsByTypeAndDirection(Node node, Pair<RelationshipType, Direction> typesAndDirection) {
         // as policy if both elements in the pair are null we return an empty result
         if (typesAndDirection.first() == null) {
@@ -352,4 +388,132 @@ public class Neighbors {
 
         return Stream.of(new LongResult(seen[distance.intValue() - 1].getLongCardinality()));
     }
+
+    @Procedure("apoc.neighbors.byhop.batch")
+    @Description("apoc.neighbors.byhop.batch(nodes, rel-direction-pattern, distance, {parallel:false, batchSize:100, cacheSize:1000000}) - like apoc.neighbors.byhop for each of the given nodes, with parallel:true the nodes are expanded concurrently")
+    public Stream<NodeHopsResult> neighborsByHopBatch(@Name("nodes") List<Node> nodes, @Name(value = "types", defaultValue = "") String types, @Name(value="distance", defaultValue = "1") Long distance,
+                                                      @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+        Roaring64NavigableMap[][] hops = byHopBatch(nodes, types, distance, config);
+        if (hops == null) return Stream.empty();
+        return IntStream.range(0, nodes.size()).mapToObj(i -> new NodeHopsResult(nodes.get(i), Arrays.stream(hops[i])
+                .map(hop -> StreamSupport.stream(Spliterators.spliteratorUnknownSize(hop.iterator(), Spliterator.SORTED), false)
+                        .map(id -> tx.getNodeById((long) id))
+                        .collect(Collectors.toList()))
+                .collect(Collectors.toList())));
+    }
+
+    @Procedure("apoc.neighbors.byhop.count.batch")
+    @Description("apoc.neighbors.byhop.count.batch(nodes, rel-direction-pattern, distance, {parallel:false, batchSize:100, cacheSize:1000000}) - like apoc.neighbors.byhop.count for each of the given nodes, with parallel:true the nodes are expanded concurrently")
+    public Stream<NodeHopCountsResult> neighborsByHopCountBatch(@Name("nodes") List<Node> nodes, @Name(value = "types", defaultValue = "") String types, @Name(value="distance", defaultValue = "1") Long distance,
+                                                                @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+        Roaring64NavigableMap[][] hops = byHopBatch(nodes, types, distance, config);
+        if (hops == null) return Stream.empty();
+        return IntStream.range(0, nodes.size()).mapToObj(i -> new NodeHopCountsResult(nodes.get(i), Arrays.stream(hops[i])
+                .map(Roaring64NavigableMap::getLongCardinality)
+                .collect(Collectors.toList())));
+    }
+
+    /**
+     * Expands every node like {@link #neighborsByHop}. The neighbors of the expanded nodes are cached up to <code>cacheSize</code> ids
+     * and shared between all sources, so overlapping neighborhoods are only read once.
+     * With <code>parallel:true</code> batches of <code>batchSize</code> sources are expanded on the default pool, each in its own transaction.
+     */
+    private Roaring64NavigableMap[][] byHopBatch(List<Node> nodes, String types, Long distance, Map<String, Object> config) {
+        if (distance < 1) return null;
+        if (types == null || types.isEmpty()) return null;
+        if (nodes == null || nodes.isEmpty()) return null;
+
+        boolean parallel = Util.toBoolean(config.getOrDefault("parallel", false));
+        int batchSize = Util.toInteger(config.getOrDefault("batchSize", DEFAULT_BATCH_SIZE));
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize parameter must be > 0");
+        }
+        AdjacencyCache cache = new AdjacencyCache(parse(types), Util.toLong(config.getOrDefault("cacheSize", DEFAULT_CACHE_SIZE)));
+        Roaring64NavigableMap[][] hops = new Roaring64NavigableMap[nodes.size()][];
+        long[] ids = nodes.stream().mapToLong(Node::getId).toArray();
+
+        if (!parallel) {
+            for (int i = 0; i < ids.length; i++) {
+                hops[i] = byHop(tx, ids[i], distance.intValue(), cache);
+            }
+            return hops;
+        }
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int start = 0; start < ids.length; start += batchSize) {
+            int from = start;
+            int to = Math.min(ids.length, start + batchSize);
+            futures.add(Util.inTxFuture(pools.getDefaultExecutorService(), db, txInThread -> {
+                for (int i = from; i < to; i++) {
+                    hops[i] = byHop(txInThread, ids[i], distance.intValue(), cache);
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw new RuntimeException("Error expanding neighbors: " + e.getMessage(), e);
+        }
+        return hops;
+    }
+
+    private Roaring64NavigableMap[] byHop(Transaction tx, long nodeId, int distance, AdjacencyCache cache) {
+        Roaring64NavigableMap[] seen = new Roaring64NavigableMap[distance];
+        for (int i = 0; i < distance; i++) {
+            seen[i] = new Roaring64NavigableMap();
+        }
+        for (long other : cache.neighbors(tx, nodeId)) {
+            seen[0].addLong(other);
+        }
+        for (int i = 1; i < distance; i++) {
+            Iterator<Long> iterator = seen[i - 1].iterator();
+            while (iterator.hasNext()) {
+                for (long other : cache.neighbors(tx, iterator.next())) {
+                    seen[i].addLong(other);
+                }
+            }
+            for (int j = 0; j < i; j++) {
+                seen[i].andNot(seen[j]);
+            }
+            seen[i].removeLong(nodeId);
+        }
+        return seen;
+    }
+
+    /**
+     * Neighbor ids per node for the given types and directions, shared by all threads of one batch call.
+     */
+    private class AdjacencyCache {
+        private final List<Pair<RelationshipType, Direction>> typesAndDirections;
+        private final Map<Long, long[]> neighbors = new ConcurrentHashMap<>();
+        private final AtomicLong size = new AtomicLong();
+        private final long maxSize;
+
+        AdjacencyCache(List<Pair<RelationshipType, Direction>> typesAndDirections, long maxSize) {
+            this.typesAndDirections = typesAndDirections;
+            this.maxSize = maxSize;
+        }
+
+        long[] neighbors(Transaction tx, long nodeId) {
+            long[] cached = neighbors.get(nodeId);
+            if (cached != null) return cached;
+            Node node = tx.getNodeById(nodeId);
+            Roaring64NavigableMap result = new Roaring64NavigableMap();
+            for (Pair<RelationshipType, Direction> pair : typesAndDirections) {
+                for (Relationship r : getRelationshipsByTypeAndDirection(node, pair)) {
+                    result.addLong(r.getOtherNodeId(nodeId));
+                }
+            }
+            long[] ids = result.toArray();
+            if (size.addAndGet(ids.length + 1) <= maxSize) {
+                neighbors.put(nodeId, ids);
+            } else {
+                size.addAndGet(-ids.length - 1);
+            }
+            return ids;
+        }
+    }
 }
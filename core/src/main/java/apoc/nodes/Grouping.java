@@ -3,7 +3,6 @@ package apoc.nodes;
 import apoc.Description;
 import apoc.Pools;
 import apoc.result.VirtualNode;
-import apoc.result.VirtualRelationship;
 import apoc.util.Util;
 import org.neo4j.graphdb.*;
 import org.neo4j.internal.helpers.collection.Iterables;
@@ -81,10 +80,8 @@ public class Grouping {
             aggregations = Arrays.asList(singletonMap("*","count"),singletonMap("*","count"));
         }
         Map<String, List<String>> nodeAggNames = (aggregations.size() > 0) ? toStringListMap(aggregations.get(0)) : emptyMap();
-        String[] nodeAggKeys = keyArray(nodeAggNames, "*");
 
         Map<String, List<String>> relAggNames = (aggregations.size() > 1) ? toStringListMap(aggregations.get(1)) : emptyMap();
-        String[] relAggKeys = keyArray(relAggNames, "*");
 
         // todo bitset
         Set<String> includeRels = computeIncludedRels(config);
@@ -103,99 +100,65 @@ public class Grouping {
         // also filter (esp. max) during aggregation?
         Map<String,Number> filter = configuredFilter(config);
 
-        Map<NodeKey, Set<Node>> grouped = new ConcurrentHashMap<>();
-        Map<NodeKey, VirtualNode> virtualNodes = new ConcurrentHashMap<>();
-        Map<RelKey, VirtualRelationship> virtualRels = new ConcurrentHashMap<>();
+        AggregationSpec nodeSpec = new AggregationSpec(nodeAggNames);
+        AggregationSpec relSpec = new AggregationSpec(relAggNames);
+        // only the aggregates per group are kept, so memory is O(groups) instead of O(nodes)
+        Map<NodeKey, Aggregates> nodeAggregates = new ConcurrentHashMap<>();
+        Map<RelKey, Aggregates> relAggregates = new ConcurrentHashMap<>();
 
         List<Future> futures = new ArrayList<>(1000);
 
         ExecutorService pool = pools.getDefaultExecutorService();
         for (String labelName : labels) {
             Label label = Label.label(labelName);
-            Label[] singleLabel = {label};
 
             try (ResourceIterator<Node> nodes = (labelName.equals("*")) ? tx.getAllNodes().iterator() : tx.findNodes(label)) {
                 while (nodes.hasNext()) {
                     List<Node> batch = Util.take(nodes, BATCHSIZE);
                     futures.add(Util.inTxFuture(pool, db, txInThread -> {
+                        // partial aggregates of this batch, merged once at the end so that workers don't contend on large groups
+                        Map<NodeKey, Aggregates> batchNodes = new HashMap<>();
+                        Map<RelKey, Aggregates> batchRels = new HashMap<>();
                         try {
                             for (Node node : batch) {
-                                final Node boundNode = Util.rebind(txInThread, node);
-                                NodeKey key = keyFor(boundNode, labelName, keys);
-                                grouped.compute(key, (k, v) -> {
-                                    if (v == null) v = new HashSet<>();
-                                    v.add(boundNode);
-                                    return v;
-                                });
-                                virtualNodes.compute(key, (k, v) -> {
-                                            if (v == null) {
-                                                v = new VirtualNode(singleLabel, propertiesFor(boundNode, keys));
-                                            }
-                                            VirtualNode vn = v;
-                                            if (!nodeAggNames.isEmpty()) {
-                                                aggregate(vn, nodeAggNames, nodeAggKeys.length > 0 ? boundNode.getProperties(nodeAggKeys) : Collections.emptyMap());
-                                            }
-                                            return vn;
-                                        }
-                                );
-                            }
-                        } catch (Exception e) {
-                            log.error("Error grouping nodes", e);
-                        }
-                        return null;
-                    }));
-                    Util.removeFinished(futures);
-                }
-            }
-        }
-        Util.waitForFutures(futures);
-        futures.clear();
-        Iterator<Map.Entry<NodeKey, Set<Node>>> entries = grouped.entrySet().iterator();
-        int size = 0;
-        List<Map.Entry<NodeKey, Set<Node>>> batch = new ArrayList<>();
-        while (entries.hasNext()) {
-            Map.Entry<NodeKey, Set<Node>> outerEntry = entries.next();
-            batch.add(outerEntry);
-            size += outerEntry.getValue().size();
-            if (size > BATCHSIZE || !entries.hasNext()) {
-                ArrayList<Map.Entry<NodeKey, Set<Node>>> submitted = new ArrayList<>(batch);
-                batch.clear();
-                size = 0;
-                futures.add(Util.inTxFuture(pool, db, txInThread -> {
-                    try {
-                        for (Map.Entry<NodeKey, Set<Node>> entry : submitted) {
-                            for (Node node : entry.getValue()) {
                                 node = Util.rebind(txInThread, node);
-                                NodeKey startKey = entry.getKey();
-                                VirtualNode v1 = virtualNodes.get(startKey);
+                                NodeKey startKey = keyFor(node, labelName, keys);
+                                batchNodes.computeIfAbsent(startKey, k -> new Aggregates(nodeSpec)).add(node);
                                 for (Relationship rel : node.getRelationships(Direction.OUTGOING)) {
                                     if (includeRels != null && !includeRels.contains(rel.getType().name())) continue;
-                                    Node endNode = rel.getEndNode();
-                                    for (NodeKey endKey : keysFor(endNode, labels, keys)) {
-                                        VirtualNode v2 = virtualNodes.get(endKey);
-                                        if (v2 == null) continue;
+                                    for (NodeKey endKey : keysFor(rel.getEndNode(), labels, keys)) {
                                         if (!selfRels && startKey.equals(endKey)) continue;
-                                        virtualRels.compute(new RelKey(startKey, endKey, rel), (rk, vRel) -> {
-                                            if (vRel == null) vRel = v1.createRelationshipTo(v2, rel.getType());
-                                            if (!relAggNames.isEmpty()) {
-                                                aggregate(vRel, relAggNames, relAggKeys.length > 0 ? rel.getProperties(relAggKeys) : Collections.emptyMap());
-                                            }
-                                            return vRel;
-                                        });
+                                        batchRels.computeIfAbsent(new RelKey(startKey, endKey, rel), k -> new Aggregates(relSpec)).add(rel);
                                     }
                                 }
                             }
+                        } catch (Exception e) {
+                            log.error("Error grouping nodes", e);
                         }
-                    } catch (Exception e) {
-                        log.error("Error grouping relationships", e);
-                    }
-                    return null;
-                }));
-                Util.removeFinished(futures);
+                        batchNodes.forEach((key, aggregates) -> nodeAggregates.merge(key, aggregates, Aggregates::merge));
+                        batchRels.forEach((key, aggregates) -> relAggregates.merge(key, aggregates, Aggregates::merge));
+                        return null;
+                    }));
+                    Util.removeFinished(futures);
+                }
             }
         }
         Util.waitForFutures(futures);
-        Stream<VirtualNode> stream = fixAggregates(virtualNodes.values()).stream();
+
+        Map<NodeKey, VirtualNode> virtualNodes = new HashMap<>(nodeAggregates.size());
+        nodeAggregates.forEach((key, aggregates) -> {
+            VirtualNode node = new VirtualNode(new Label[]{Label.label(key.label)}, key.properties());
+            aggregates.writeTo(node);
+            virtualNodes.put(key, node);
+        });
+        relAggregates.forEach((key, aggregates) -> {
+            VirtualNode start = virtualNodes.get(key.startKey);
+            VirtualNode end = virtualNodes.get(key.endKey);
+            if (start == null || end == null) return;
+            aggregates.writeTo(start.createRelationshipTo(end, RelationshipType.withName(key.type)));
+        });
+
+        Stream<VirtualNode> stream = virtualNodes.values().stream();
         // apply filter
         if (filter != null) stream = stream.filter(n -> filter(n.getLabels(), n.getAllProperties(), filter));
         if (limitNodes > -1) stream = stream.limit(limitNodes);
@@ -241,7 +204,7 @@ public class Grouping {
     }
 
     public List<Relationship> getRelationships(Node n, Map<String, Number> filter, int relsPerNode) {
-        List<Relationship> rels = fixAggregates(Iterables.asList(n.getRelationships(Direction.OUTGOING)));
+        List<Relationship> rels = Iterables.asList(n.getRelationships(Direction.OUTGOING));
         if (filter != null) rels.removeIf(r -> !filter(r.getType().name(),r.getAllProperties(),filter));
         if (relsPerNode > -1) rels = rels.subList(0, Math.min(relsPerNode, rels.size()));
         return rels;
@@ -270,90 +233,162 @@ public class Grouping {
         return nodeAggNames;
     }
 
-    private String[] keyArray(Map<String, ?> map, String... removeKeys) {
-        List<String> keys = new ArrayList<>(map.keySet());
-        for (String key : removeKeys) keys.remove(key);
-        return keys.toArray(new String[keys.size()]);
+    /**
+     * The aggregations of the nodes or relationships of a group, e.g. <code>{kids:'sum',age:['min','max','avg'],`*`:'count'}</code>,
+     * flattened into slots so that the values of each group can be kept in primitive arrays.
+     */
+    static class AggregationSpec {
+        private final String[] properties;
+        private final String[] names;
+        private final boolean countAll;
+
+        AggregationSpec(Map<String, List<String>> aggregations) {
+            List<String> properties = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            boolean countAll = false;
+            for (Map.Entry<String, List<String>> entry : aggregations.entrySet()) {
+                for (String name : entry.getValue()) {
+                    if ("*".equals(entry.getKey())) {
+                        countAll |= "count".equals(name);
+                    } else {
+                        properties.add(entry.getKey());
+                        names.add(name);
+                    }
+                }
+            }
+            this.properties = properties.toArray(new String[0]);
+            this.names = names.toArray(new String[0]);
+            this.countAll = countAll;
+        }
     }
 
-    private <C extends Collection<T>, T extends Entity> C fixAggregates(C pcs) {
-        for (Entity pc : pcs) {
-            pc.getAllProperties().entrySet().forEach((entry) -> {
-                Object v = entry.getValue();
-                String k = entry.getKey();
-                if (k.matches("^(min|max|sum)_.+")) {
-                    if (v instanceof Number && ((Number) v).doubleValue() == ((Number) v).longValue())
-                        entry.setValue(((Number) v).longValue());
+    /**
+     * Accumulates count, sum, min, max, avg and collect of one group. For each slot of the {@link AggregationSpec}
+     * <code>counts</code> holds the number of values seen and <code>values</code> the sum, minimum or maximum.
+     */
+    static class Aggregates {
+        private final AggregationSpec spec;
+        private long count;
+        private final long[] counts;
+        private final double[] values;
+        private List<Object>[] collected;
+
+        Aggregates(AggregationSpec spec) {
+            this.spec = spec;
+            this.counts = new long[spec.names.length];
+            this.values = new double[spec.names.length];
+            for (int i = 0; i < values.length; i++) {
+                if ("min".equals(spec.names[i])) values[i] = Double.POSITIVE_INFINITY;
+                if ("max".equals(spec.names[i])) values[i] = Double.NEGATIVE_INFINITY;
+            }
+        }
+
+        void add(Entity entity) {
+            count++;
+            for (int i = 0; i < counts.length; i++) {
+                Object value = entity.getProperty(spec.properties[i], null);
+                if (value == null) continue;
+                String name = spec.names[i];
+                if ("collect".equals(name)) {
+                    collected(i).add(value);
+                    counts[i]++;
+                    continue;
                 }
-                if (k.matches("^avg_.+") && v instanceof double[]) {
-                    double[] values = (double[]) v;
-                    entry.setValue(values[1] == 0 ? 0 : values[0] / values[1]);
+                if ("count".equals(name)) {
+                    counts[i]++;
+                    continue;
                 }
-                if (k.matches("^collect_.+") && v instanceof Collection) {
-                    entry.setValue(((Collection) v).toArray());
+                Double number = Util.toDouble(value);
+                if (number == null) continue;
+                switch (name) {
+                    case "sum":
+                    case "avg":
+                        values[i] += number;
+                        break;
+                    case "min":
+                        values[i] = Math.min(values[i], number);
+                        break;
+                    case "max":
+                        values[i] = Math.max(values[i], number);
+                        break;
+                    default:
+                        continue;
                 }
-            });
+                counts[i]++;
+            }
         }
-        return pcs;
-    }
 
-    private void aggregate(Entity pc, Map<String, List<String>> aggregations, Map<String, Object> properties) {
-        aggregations.forEach((k2, aggNames) -> {
-            for (String aggName : aggNames) {
-                String key = aggName + "_" + k2;
-                if ("count_*".equals(key)) {
-                    pc.setProperty(key, ((Number) pc.getProperty(key, 0)).longValue() + 1);
-                } else {
-                    Object value = properties.get(k2);
-                    if (value != null) {
-                        switch (aggName) {
-                            case "collect":
-                                List<Object> existing = (List<Object>) pc.getProperty(key, new ArrayList<>());
-                                existing.add(value);
-                                pc.setProperty(key, existing);
-                                break;
-                            case "count":
-                                pc.setProperty(key, ((Number) pc.getProperty(key, 0)).longValue() + 1);
-                                break;
-                            case "sum":
-                                pc.setProperty(key, ((Number) pc.getProperty(key, 0)).doubleValue() + Util.toDouble(value));
-                                break;
-                            case "min":
-                                pc.setProperty(key, Math.min(((Number) pc.getProperty(key, Double.MAX_VALUE)).doubleValue(), Util.toDouble(value)));
-                                break;
-                            case "max":
-                                pc.setProperty(key, Math.max(((Number) pc.getProperty(key, Double.MIN_VALUE)).doubleValue(), Util.toDouble(value)));
-                                break;
-                            case "avg": {
-                                double[] avg = (double[]) pc.getProperty(key, new double[2]);
-                                avg[0] += Util.toDouble(value);
-                                avg[1] += 1;
-                                pc.setProperty(key, avg);
-                                break;
-                            }
-                        }
-                    }
+        Aggregates merge(Aggregates other) {
+            count += other.count;
+            for (int i = 0; i < counts.length; i++) {
+                switch (spec.names[i]) {
+                    case "min":
+                        values[i] = Math.min(values[i], other.values[i]);
+                        break;
+                    case "max":
+                        values[i] = Math.max(values[i], other.values[i]);
+                        break;
+                    case "collect":
+                        if (other.counts[i] > 0) collected(i).addAll(other.collected[i]);
+                        break;
+                    default:
+                        values[i] += other.values[i];
                 }
+                counts[i] += other.counts[i];
             }
-        });
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<Object> collected(int slot) {
+            if (collected == null) collected = new List[counts.length];
+            if (collected[slot] == null) collected[slot] = new ArrayList<>();
+            return collected[slot];
+        }
+
+        void writeTo(Entity entity) {
+            if (spec.countAll) entity.setProperty("count_*", count);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) continue;
+                String name = spec.names[i];
+                String key = name + "_" + spec.properties[i];
+                switch (name) {
+                    case "count":
+                        entity.setProperty(key, counts[i]);
+                        break;
+                    case "collect":
+                        entity.setProperty(key, collected[i].toArray());
+                        break;
+                    case "avg":
+                        entity.setProperty(key, values[i] / counts[i]);
+                        break;
+                    case "sum":
+                    case "min":
+                    case "max":
+                        double value = values[i];
+                        entity.setProperty(key, value == (long) value ? (Object) (long) value : (Object) value);
+                        break;
+                }
+            }
+        }
     }
 
     /**
-     * Returns the properties for the given node according to the specified keys. If a node does not have a property
-     * assigned to given key, the value is set to {@code null}.
+     * Returns the values of the given node for the specified keys. If a node does not have a property
+     * assigned to given key, the value is {@code null}.
      *
      * @param node node
      * @param keys property keys
-     * @return node properties for keys
+     * @return node property values for keys
      */
-    private Map<String, Object> propertiesFor(Node node, String[] keys) {
-        Map<String, Object> props = new HashMap<>(keys.length);
+    private Object[] valuesFor(Node node, String[] keys) {
+        Object[] values = new Object[keys.length];
 
-        for (String key : keys) {
-            props.put(key, node.getProperty(key, null));
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = node.getProperty(keys[i], null);
         }
 
-        return props;
+        return values;
     }
 
     /**
@@ -365,7 +400,7 @@ public class Grouping {
      * @return grouping key
      */
     private NodeKey keyFor(Node node, String label, String[] keys) {
-        return new NodeKey(label, propertiesFor(node, keys));
+        return new NodeKey(label, keys, valuesFor(node, keys));
     }
 
     /**
@@ -377,14 +412,14 @@ public class Grouping {
      * @return grouping keys
      */
     private Collection<NodeKey> keysFor(Node node, Collection<String> labels, String[] keys) {
-        Map<String, Object> props = propertiesFor(node, keys);
+        Object[] values = valuesFor(node, keys);
         List<NodeKey> result = new ArrayList<>(labels.size());
         if (labels.contains("*")) {
-            result.add(new NodeKey("*", props));
+            result.add(new NodeKey("*", keys, values));
         } else {
             for (Label label : node.getLabels()) {
                 if (labels.contains(label.name())) {
-                    result.add(new NodeKey(label.name(), props));
+                    result.add(new NodeKey(label.name(), keys, values));
                 }
             }
         }
@@ -397,12 +432,22 @@ public class Grouping {
     static class NodeKey {
         private final int hash;
         private final String label;
-        private final Map<String, Object> values;
+        private final String[] keys;
+        private final Object[] values;
 
-        NodeKey(String label, Map<String, Object> values) {
+        NodeKey(String label, String[] keys, Object[] values) {
             this.label = label;
+            this.keys = keys;
             this.values = values;
-            hash = 31 * label.hashCode() + values.hashCode();
+            hash = 31 * label.hashCode() + Arrays.deepHashCode(values);
+        }
+
+        Map<String, Object> properties() {
+            Map<String, Object> props = new HashMap<>(keys.length);
+            for (int i = 0; i < keys.length; i++) {
+                props.put(keys[i], values[i]);
+            }
+            return props;
         }
 
         @Override
@@ -411,7 +456,7 @@ public class Grouping {
             if (o == null || getClass() != o.getClass()) return false;
 
             NodeKey key = (NodeKey) o;
-            return label.equals(key.label) && values.equals(key.values);
+            return label.equals(key.label) && Arrays.deepEquals(values, key.values);
         }
 
         @Override
@@ -0,0 +1,242 @@
+package apoc.path;
+
+import apoc.util.Util;
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongLongHashMap;
+import org.neo4j.graphalgo.impl.util.PathImpl;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.traversal.Evaluation;
+import org.neo4j.internal.helpers.collection.Pair;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+/**
+ * A breadth-first expander for NODE_GLOBAL uniqueness, as used by subgraphNodes, subgraphAll and spanningTree.
+ * Instead of creating a path per visited node, it expands level by level: the visited nodes and the current frontier are kept in bitmaps,
+ * and each frontier is split into batches that are expanded on the given executor, each batch in its own transaction.
+ * Every node is still evaluated with the same relationship filter, label filter, minLevel, maxLevel and filterStartNode semantics as the traversal,
+ * but the nodes of a level are returned in id order instead of in the order their relationships are read.
+ * Sequences, node filters, beginSequenceAtStart:false and depth first expansion are not supported, see {@link #supports(Map)}.
+ */
+public class FrontierExpander {
+    public static final int DEFAULT_BATCH_SIZE = 10_000;
+
+    private final GraphDatabaseService db;
+    private final ExecutorService executor;
+    private final List<Pair<RelationshipType, Direction>> relationships;
+    private final LabelMatcherGroup labelMatcher;
+    private final long minLevel;
+    private final long maxLevel;
+    private final boolean filterStartNode;
+    private final long limit;
+    private final int batchSize;
+    private final boolean trackParents;
+
+    private final List<Roaring64NavigableMap> levels = new ArrayList<>();
+    private final MutableLongLongMap parents = new LongLongHashMap();
+
+    public FrontierExpander(GraphDatabaseService db, ExecutorService executor, Map<String, Object> config, boolean trackParents) {
+        this.db = db;
+        this.executor = executor;
+        String relationshipFilter = (String) config.get("relationshipFilter");
+        this.relationships = relationshipFilter == null || relationshipFilter.trim().isEmpty()
+                ? Collections.singletonList(Pair.of(null, Direction.BOTH))
+                : RelationshipTypeAndDirections.parse(relationshipFilter.trim());
+        String labelFilter = (String) config.get("labelFilter");
+        this.labelMatcher = labelFilter == null || labelFilter.trim().isEmpty() ? null : new LabelMatcherGroup().addLabels(labelFilter.trim());
+        this.minLevel = Util.toLong(config.getOrDefault("minLevel", -1));
+        this.maxLevel = Util.toLong(config.getOrDefault("maxLevel", -1));
+        this.filterStartNode = Util.toBoolean(config.getOrDefault("filterStartNode", false));
+        this.limit = Util.toLong(config.getOrDefault("limit", -1));
+        this.batchSize = Util.toInteger(config.getOrDefault("batchSize", DEFAULT_BATCH_SIZE));
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize parameter must be > 0");
+        }
+        this.trackParents = trackParents;
+    }
+
+    /**
+     * @return true if <code>parallel:true</code> was requested and all other options of the config can be evaluated per node,
+     * otherwise the traversal framework has to be used
+     */
+    public static boolean supports(Map<String, Object> config) {
+        if (!Util.toBoolean(config.getOrDefault("parallel", false))) return false;
+        if (!Util.toBoolean(config.getOrDefault("bfs", true))) return false;
+        if (!Util.toBoolean(config.getOrDefault("beginSequenceAtStart", true))) return false;
+        Object sequence = config.get("sequence");
+        if (sequence != null && !sequence.toString().trim().isEmpty()) return false;
+        for (String filter : List.of("relationshipFilter", "labelFilter")) {
+            Object value = config.get(filter);
+            if (value != null && value.toString().contains(",")) return false;
+        }
+        for (String nodeFilter : List.of("endNodes", "terminatorNodes", "whitelistNodes", "blacklistNodes")) {
+            Object value = config.get(nodeFilter);
+            if (value != null && !(value instanceof List && ((List) value).isEmpty())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Expands from the start nodes until the frontier is empty, maxLevel is reached or limit nodes were included.
+     * @return the ids of the included nodes, level by level and in id order within a level
+     */
+    public LongStream expand(Transaction tx, List<Node> startNodes) {
+        Roaring64NavigableMap visited = new Roaring64NavigableMap();
+        Roaring64NavigableMap frontier = new Roaring64NavigableMap();
+        Roaring64NavigableMap included = new Roaring64NavigableMap();
+        for (Node node : startNodes) {
+            if (visited.contains(node.getId())) continue;
+            visited.addLong(node.getId());
+            Evaluation evaluation = evaluate(node, 0);
+            if (evaluation.includes()) included.addLong(node.getId());
+            if (evaluation.continues()) frontier.addLong(node.getId());
+        }
+        long count = addLevel(included, 0);
+
+        for (int depth = 1; !frontier.isEmpty() && (limit == -1 || count < limit); depth++) {
+            LevelResult level = expandLevel(tx, frontier, visited, depth);
+            visited.or(level.seen);
+            frontier = level.frontier;
+            count += addLevel(level.included, count);
+            if (trackParents) {
+                level.parents.forEachKeyValue(parents::getIfAbsentPut);
+            }
+        }
+        return levels.stream().flatMapToLong(level -> LongStream.of(level.toArray()));
+    }
+
+    /**
+     * @return the spanning tree path from a start node to the given included node, only available when parents are tracked
+     */
+    public Path pathTo(Transaction tx, long nodeId) {
+        LinkedList<Relationship> relationships = new LinkedList<>();
+        long current = nodeId;
+        while (parents.containsKey(current)) {
+            Relationship rel = tx.getRelationshipById(parents.get(current));
+            relationships.addFirst(rel);
+            current = rel.getOtherNodeId(current);
+        }
+        PathImpl.Builder builder = new PathImpl.Builder(tx.getNodeById(current));
+        for (Relationship rel : relationships) {
+            builder = builder.push(rel);
+        }
+        return builder.build();
+    }
+
+    private long addLevel(Roaring64NavigableMap included, long count) {
+        if (limit != -1 && count + included.getLongCardinality() > limit) {
+            Roaring64NavigableMap truncated = new Roaring64NavigableMap();
+            LongIterator it = included.getLongIterator();
+            for (long i = count; i < limit && it.hasNext(); i++) {
+                truncated.addLong(it.next());
+            }
+            included = truncated;
+        }
+        levels.add(included);
+        return included.getLongCardinality();
+    }
+
+    private LevelResult expandLevel(Transaction tx, Roaring64NavigableMap frontier, Roaring64NavigableMap visited, int depth) {
+        List<long[]> batches = new ArrayList<>();
+        LongIterator it = frontier.getLongIterator();
+        long remaining = frontier.getLongCardinality();
+        while (remaining > 0) {
+            long[] batch = new long[(int) Math.min(batchSize, remaining)];
+            remaining -= batch.length;
+            for (int i = 0; i < batch.length; i++) {
+                batch[i] = it.next();
+            }
+            batches.add(batch);
+        }
+        if (batches.size() == 1) {
+            return expandBatch(tx, batches.get(0), visited, depth);
+        }
+
+        List<Future<LevelResult>> futures = new ArrayList<>(batches.size());
+        for (long[] batch : batches) {
+            futures.add(Util.inTxFuture(executor, db, txInThread -> expandBatch(txInThread, batch, visited, depth)));
+        }
+        LevelResult result = new LevelResult();
+        try {
+            for (Future<LevelResult> future : futures) {
+                result.merge(future.get());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw new RuntimeException("Error expanding level " + depth + ": " + e.getMessage(), e);
+        }
+        return result;
+    }
+
+    // visited is only read while a level is expanded, it is updated by the calling thread between levels
+    private LevelResult expandBatch(Transaction tx, long[] batch, Roaring64NavigableMap visited, int depth) {
+        LevelResult result = new LevelResult();
+        for (long nodeId : batch) {
+            Node node = tx.getNodeById(nodeId);
+            for (Pair<RelationshipType, Direction> pair : relationships) {
+                Iterable<Relationship> rels = pair.first() == null
+                        ? node.getRelationships(pair.other())
+                        : node.getRelationships(pair.other(), pair.first());
+                for (Relationship rel : rels) {
+                    long other = rel.getOtherNodeId(nodeId);
+                    if (visited.contains(other) || result.seen.contains(other)) continue;
+                    result.seen.addLong(other);
+                    if (trackParents) result.parents.put(other, rel.getId());
+                    Evaluation evaluation = evaluate(rel.getOtherNode(node), depth);
+                    if (evaluation.includes()) result.included.addLong(other);
+                    if (evaluation.continues()) result.frontier.addLong(other);
+                }
+            }
+        }
+        return result;
+    }
+
+    // combines the LabelSequenceEvaluator with the fromDepth and toDepth evaluators of the traversal
+    private Evaluation evaluate(Node node, int depth) {
+        boolean includes = true;
+        boolean continues = true;
+        if (labelMatcher != null) {
+            if (depth == 0 && !filterStartNode) {
+                includes = !labelMatcher.isEndNodesOnly();
+            } else {
+                Evaluation evaluation = labelMatcher.evaluate(node, depth < minLevel);
+                includes = evaluation.includes();
+                continues = evaluation.continues();
+            }
+        }
+        if (depth < minLevel) includes = false;
+        if (maxLevel != -1 && depth >= maxLevel) continues = false;
+        if (maxLevel != -1 && depth > maxLevel) includes = false;
+        return Evaluation.of(includes, continues);
+    }
+
+    private static class LevelResult {
+        private final Roaring64NavigableMap seen = new Roaring64NavigableMap();
+        private final Roaring64NavigableMap included = new Roaring64NavigableMap();
+        private final Roaring64NavigableMap frontier = new Roaring64NavigableMap();
+        private final MutableLongLongMap parents = new LongLongHashMap();
+
+        private void merge(LevelResult other) {
+            seen.or(other.seen);
+            included.or(other.included);
+            frontier.or(other.frontier);
+            other.parents.forEachKeyValue(parents::getIfAbsentPut);
+        }
+    }
+}
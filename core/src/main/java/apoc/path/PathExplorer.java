@@ -1,10 +1,12 @@
 package apoc.path;
 
+import apoc.Pools;
 import apoc.algo.Cover;
 import apoc.result.GraphResult;
 import apoc.result.NodeResult;
 import apoc.result.PathResult;
 import apoc.util.Util;
+import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Path;
 import org.neo4j.graphdb.Relationship;
@@ -33,6 +35,12 @@ public class PathExplorer {
 	@Context
     public Log log;
 
+	@Context
+	public GraphDatabaseService db;
+
+	@Context
+	public Pools pools;
+
 	@Procedure("apoc.path.expand")
 	@Description("apoc.path.expand(startNode <id>|Node|list, 'TYPE|TYPE_OUT>|<TYPE_IN', '+YesLabel|-NoLabel', minLevel, maxLevel ) yield path - expand from start node following the given relationships from min to max-level adhering to the label filters")
 	public Stream<PathResult> explorePath(@Name("start") Object start
@@ -53,7 +61,7 @@ public class PathExplorer {
 	}
 
 	@Procedure("apoc.path.subgraphNodes")
-	@Description("apoc.path.subgraphNodes(startNode <id>|Node|list, {maxLevel,relationshipFilter,labelFilter,bfs:true, filterStartNode:false, limit:-1, optional:false, endNodes:[], terminatorNodes:[], sequence, beginSequenceAtStart:true}) yield node - expand the subgraph nodes reachable from start node following relationships to max-level adhering to the label filters")
+	@Description("apoc.path.subgraphNodes(startNode <id>|Node|list, {maxLevel,relationshipFilter,labelFilter,bfs:true, filterStartNode:false, limit:-1, optional:false, endNodes:[], terminatorNodes:[], sequence, beginSequenceAtStart:true, parallel:false}) yield node - expand the subgraph nodes reachable from start node following relationships to max-level adhering to the label filters")
 	public Stream<NodeResult> subgraphNodes(@Name("start") Object start, @Name("config") Map<String,Object> config) throws Exception {
 		Map<String, Object> configMap = new HashMap<>(config);
 		configMap.put("uniqueness", "NODE_GLOBAL");
@@ -62,11 +70,18 @@ public class PathExplorer {
 			throw new IllegalArgumentException("minLevel can only be 0 or 1 in subgraphNodes()");
 		}
 
+		if (FrontierExpander.supports(configMap)) {
+			Stream<NodeResult> results = new FrontierExpander(db, pools.getDefaultExecutorService(), configMap, false)
+					.expand(tx, startToNodes(start))
+					.mapToObj(id -> new NodeResult(tx.getNodeById(id)));
+			return Util.toBoolean(config.getOrDefault("optional", false)) ? optionalStream(results, new NodeResult(null)) : results;
+		}
+
 		return expandConfigPrivate(start, configMap).map( path -> path == null ? new NodeResult(null) : new NodeResult(path.endNode()) );
 	}
 
 	@Procedure("apoc.path.subgraphAll")
-	@Description("apoc.path.subgraphAll(startNode <id>|Node|list, {maxLevel,relationshipFilter,labelFilter,bfs:true, filterStartNode:false, limit:-1, endNodes:[], terminatorNodes:[], sequence, beginSequenceAtStart:true}) yield nodes, relationships - expand the subgraph reachable from start node following relationships to max-level adhering to the label filters, and also return all relationships within the subgraph")
+	@Description("apoc.path.subgraphAll(startNode <id>|Node|list, {maxLevel,relationshipFilter,labelFilter,bfs:true, filterStartNode:false, limit:-1, endNodes:[], terminatorNodes:[], sequence, beginSequenceAtStart:true, parallel:false}) yield nodes, relationships - expand the subgraph reachable from start node following relationships to max-level adhering to the label filters, and also return all relationships within the subgraph")
 	public Stream<GraphResult> subgraphAll(@Name("start") Object start, @Name("config") Map<String,Object> config) throws Exception {
 		Map<String, Object> configMap = new HashMap<>(config);
 		configMap.remove("optional"); // not needed, will return empty collections anyway if no results
@@ -76,14 +91,16 @@ public class PathExplorer {
 			throw new IllegalArgumentException("minLevel can only be 0 or 1 in subgraphAll()");
 		}
 
-		List<Node> subgraphNodes = expandConfigPrivate(start, configMap).map( Path::endNode ).collect(Collectors.toList());
+		List<Node> subgraphNodes = FrontierExpander.supports(configMap)
+				? new FrontierExpander(db, pools.getDefaultExecutorService(), configMap, false).expand(tx, startToNodes(start)).mapToObj(tx::getNodeById).collect(Collectors.toList())
+				: expandConfigPrivate(start, configMap).map( Path::endNode ).collect(Collectors.toList());
 		List<Relationship> subgraphRels = Cover.coverNodes(subgraphNodes).collect(Collectors.toList());
 
 		return Stream.of(new GraphResult(subgraphNodes, subgraphRels));
 	}
 
 	@Procedure("apoc.path.spanningTree")
-	@Description("apoc.path.spanningTree(startNode <id>|Node|list, {maxLevel,relationshipFilter,labelFilter,bfs:true, filterStartNode:false, limit:-1, optional:false, endNodes:[], terminatorNodes:[], sequence, beginSequenceAtStart:true}) yield path - expand a spanning tree reachable from start node following relationships to max-level adhering to the label filters")
+	@Description("apoc.path.spanningTree(startNode <id>|Node|list, {maxLevel,relationshipFilter,labelFilter,bfs:true, filterStartNode:false, limit:-1, optional:false, endNodes:[], terminatorNodes:[], sequence, beginSequenceAtStart:true, parallel:false}) yield path - expand a spanning tree reachable from start node following relationships to max-level adhering to the label filters")
 	public Stream<PathResult> spanningTree(@Name("start") Object start, @Name("config") Map<String,Object> config) throws Exception {
 		Map<String, Object> configMap = new HashMap<>(config);
 		configMap.put("uniqueness", "NODE_GLOBAL");
@@ -92,6 +109,13 @@ public class PathExplorer {
 			throw new IllegalArgumentException("minLevel can only be 0 or 1 in spanningTree()");
 		}
 
+		if (FrontierExpander.supports(configMap)) {
+			FrontierExpander expander = new FrontierExpander(db, pools.getDefaultExecutorService(), configMap, true);
+			Stream<PathResult> results = expander.expand(tx, startToNodes(start))
+					.mapToObj(id -> new PathResult(expander.pathTo(tx, id)));
+			return Util.toBoolean(config.getOrDefault("optional", false)) ? optionalStream(results, new PathResult(null)) : results;
+		}
+
 		return expandConfigPrivate(start, configMap).map( PathResult::new );
 	}
 
@@ -172,7 +196,7 @@ public class PathExplorer {
 		Stream<Path> results = explorePathPrivate(nodes, relationshipFilter, labelFilter, minLevel, maxLevel, bfs, getUniqueness(uniqueness), filterStartNode, limit, nodeFilter, sequence, beginSequenceAtStart);
 
 		if (optional) {
-			return optionalStream(results);
+			return optionalStream(results, null);
 		} else {
 			return results;
 		}
@@ -201,18 +225,19 @@ public class PathExplorer {
 	}
 
 	/**
-	 * If the stream is empty, returns a stream of a single null value, otherwise returns the equivalent of the input stream
+	 * If the stream is empty, returns a stream of a single empty value, otherwise returns the equivalent of the input stream
 	 * @param stream the input stream
-	 * @return a stream of a single null value if the input stream is empty, otherwise returns the equivalent of the input stream
+	 * @param empty the value to return if the input stream is empty
+	 * @return a stream of a single empty value if the input stream is empty, otherwise returns the equivalent of the input stream
 	 */
-	private Stream<Path> optionalStream(Stream<Path> stream) {
-		Stream<Path> optionalStream;
-		Iterator<Path> itr = stream.iterator();
+	private <T> Stream<T> optionalStream(Stream<T> stream, T empty) {
+		Stream<T> optionalStream;
+		Iterator<T> itr = stream.iterator();
 		if (itr.hasNext()) {
 			optionalStream = StreamSupport.stream(Spliterators.spliteratorUnknownSize(itr, 0), false);
 		} else {
-			List<Path> listOfNull = new ArrayList<>();
-			listOfNull.add(null);
+			List<T> listOfNull = new ArrayList<>();
+			listOfNull.add(empty);
 			optionalStream = listOfNull.stream();
 		}
 
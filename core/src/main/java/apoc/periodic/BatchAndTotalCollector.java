@@ -64,6 +64,10 @@ public class BatchAndTotalCollector {
         return count.get();
     }
 
+    public long getFailedOps() {
+        return failedOps.get();
+    }
+
     public void incrementFailedOps(long size) {
         failedOps.addAndGet(size);
     }
@@ -105,6 +109,10 @@ public class BatchAndTotalCollector {
         return failedBatches;
     }
 
+    public long getRetried() {
+        return retried.get();
+    }
+
     public void incrementRetried() {
         retried.incrementAndGet();
     }
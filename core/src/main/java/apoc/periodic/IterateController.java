@@ -0,0 +1,213 @@
+package apoc.periodic;
+
+import apoc.Pools;
+import apoc.util.Util;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides the size of each batch, the number of batches in flight and how many batches are read ahead for an iterate run.
+ *
+ * With <code>batchSize:'auto'</code> and/or <code>concurrency:'auto'</code> the values are tuned while the job runs:
+ * after each window of completed batches the retry/failure counters of the {@link BatchAndTotalCollector} are checked,
+ * conflicts back off multiplicatively (concurrency first, then batch size), otherwise the batch size moves towards
+ * <code>targetBatchMillis</code> and the concurrency climbs as long as the throughput keeps improving.
+ *
+ * With <code>prefetch:n</code> up to <code>n</code> batches of the driving statement are read ahead while all workers are busy,
+ * so that reading the driving statement overlaps with executing the batches.
+ *
+ * With <code>partitionBy:'column'</code> rows are hashed by that column into <code>concurrency</code> partitions,
+ * each with at most one batch in flight, so it requires a fixed <code>concurrency</code>.
+ *
+ * With <code>pool:'name'</code> parallel batches run on the pool configured via <code>apoc.jobs.pool.&lt;name&gt;.threads</code>.
+ */
+public class IterateController {
+
+    public static final String AUTO = "auto";
+    public static final int DEFAULT_BATCH_SIZE = 10000;
+    public static final int AUTO_INITIAL_BATCH_SIZE = 1000;
+    public static final int AUTO_MIN_BATCH_SIZE = 10;
+    public static final int AUTO_MAX_BATCH_SIZE = 100_000;
+    public static final long DEFAULT_TARGET_BATCH_MILLIS = 1000;
+    private static final long WAIT_MILLIS = 10;
+
+    private final boolean adaptiveBatchSize;
+    private final boolean adaptiveConcurrency;
+    private final int maxConcurrency;
+    private final long targetBatchNanos;
+    private final int prefetch;
+    private final String partitionBy;
+    private final String pool;
+
+    private volatile int batchSize;
+    private volatile int concurrency;
+    private int active;
+
+    // current observation window, guarded by this
+    private long windowStart = System.nanoTime();
+    private long windowBatches;
+    private long windowRows;
+    private long windowNanos;
+    private long lastRetried;
+    private long lastFailedOps;
+    private double lastThroughput;
+
+    public IterateController(int batchSize, int concurrency) {
+        this(batchSize, false, concurrency, false, concurrency, DEFAULT_TARGET_BATCH_MILLIS, 0, null, null);
+    }
+
+    IterateController(int batchSize, boolean adaptiveBatchSize, int concurrency, boolean adaptiveConcurrency, int maxConcurrency, long targetBatchMillis, int prefetch, String partitionBy, String pool) {
+        this.batchSize = batchSize;
+        this.adaptiveBatchSize = adaptiveBatchSize;
+        this.concurrency = concurrency;
+        this.adaptiveConcurrency = adaptiveConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.targetBatchNanos = TimeUnit.MILLISECONDS.toNanos(targetBatchMillis);
+        this.prefetch = prefetch;
+        this.partitionBy = partitionBy;
+        this.pool = pool;
+    }
+
+    public static IterateController fromConfig(Map<String,Object> config) {
+        Object batchSizeValue = config.getOrDefault("batchSize", DEFAULT_BATCH_SIZE);
+        boolean adaptiveBatchSize = isAuto(batchSizeValue);
+        Long batchSize = adaptiveBatchSize ? Long.valueOf(AUTO_INITIAL_BATCH_SIZE) : Util.toLong(batchSizeValue);
+        if (batchSize == null || batchSize < 1) {
+            throw new IllegalArgumentException("batchSize parameter must be > 0");
+        }
+
+        Object concurrencyValue = config.getOrDefault("concurrency", Runtime.getRuntime().availableProcessors());
+        boolean adaptiveConcurrency = isAuto(concurrencyValue);
+        Integer concurrency = adaptiveConcurrency ? Integer.valueOf(Runtime.getRuntime().availableProcessors()) : Util.toInteger(concurrencyValue);
+        if (concurrency == null || concurrency < 1) {
+            throw new IllegalArgumentException("concurrency parameter must be > 0");
+        }
+
+        Long targetBatchMillis = Util.toLong(config.getOrDefault("targetBatchMillis", DEFAULT_TARGET_BATCH_MILLIS));
+        if (targetBatchMillis == null || targetBatchMillis < 1) {
+            throw new IllegalArgumentException("targetBatchMillis parameter must be > 0");
+        }
+
+        Integer prefetch = Util.toInteger(config.getOrDefault("prefetch", 0));
+        if (prefetch == null || prefetch < 0) {
+            throw new IllegalArgumentException("prefetch parameter must be >= 0");
+        }
+
+        Object partitionBy = config.get("partitionBy");
+        if (partitionBy != null && adaptiveConcurrency) {
+            // the rows are hashed into a fixed number of partitions, one per concurrent batch
+            throw new IllegalArgumentException("concurrency:'auto' can't be combined with partitionBy, please set a concurrency number");
+        }
+        Object pool = config.get("pool");
+
+        int maxConcurrency = adaptiveConcurrency ? Math.max(concurrency, Pools.DEFAULT_POOL_THREADS) : concurrency;
+        return new IterateController(batchSize.intValue(), adaptiveBatchSize, concurrency, adaptiveConcurrency, maxConcurrency, targetBatchMillis, prefetch,
+                partitionBy == null ? null : partitionBy.toString(), pool == null ? null : pool.toString());
+    }
+
+    private static boolean isAuto(Object value) {
+        return value instanceof String && AUTO.equalsIgnoreCase((String) value);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getPrefetch() {
+        return prefetch;
+    }
+
+    public String getPartitionBy() {
+        return partitionBy;
+    }
+
+    public String getPool() {
+        return pool;
+    }
+
+    public boolean isAdaptive() {
+        return adaptiveBatchSize || adaptiveConcurrency;
+    }
+
+    /**
+     * Reserves a slot for a new batch, if <code>bounded</code> only while less than <code>concurrency</code> batches are running.
+     */
+    public synchronized boolean tryAcquire(boolean bounded) {
+        if (bounded && active >= concurrency) return false;
+        active++;
+        return true;
+    }
+
+    /**
+     * Waits until a running batch completes, but at most a few milliseconds so that the caller can check for termination.
+     */
+    public synchronized void awaitCapacity() {
+        if (active < concurrency) return;
+        try {
+            wait(WAIT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Frees the slot of a completed batch of <code>rows</code> rows, which took <code>elapsedNanos</code> including retries and commit.
+     */
+    public synchronized void release(long rows, long elapsedNanos, BatchAndTotalCollector collector) {
+        active--;
+        if (isAdaptive()) {
+            adapt(rows, elapsedNanos, collector);
+        }
+        notifyAll();
+    }
+
+    private void adapt(long rows, long elapsedNanos, BatchAndTotalCollector collector) {
+        windowBatches++;
+        windowRows += rows;
+        windowNanos += elapsedNanos;
+        if (windowBatches < concurrency) return;
+
+        long now = System.nanoTime();
+        long retried = collector.getRetried();
+        long failedOps = collector.getFailedOps();
+        boolean conflicts = retried > lastRetried || failedOps > lastFailedOps;
+        long avgBatchNanos = windowNanos / windowBatches;
+        double throughput = windowRows / (double) Math.max(1, now - windowStart);
+
+        if (conflicts) {
+            if (adaptiveConcurrency && concurrency > 1) {
+                concurrency = Math.max(1, concurrency / 2);
+            } else if (adaptiveBatchSize) {
+                batchSize = Math.max(AUTO_MIN_BATCH_SIZE, batchSize / 2);
+            }
+        } else {
+            int previousBatchSize = batchSize;
+            if (adaptiveBatchSize) {
+                if (avgBatchNanos < targetBatchNanos / 2) {
+                    batchSize = Math.min(AUTO_MAX_BATCH_SIZE, batchSize * 2);
+                } else if (avgBatchNanos > targetBatchNanos * 2) {
+                    batchSize = Math.max(AUTO_MIN_BATCH_SIZE, batchSize / 2);
+                }
+            }
+            // throughput of windows with different batch sizes is not comparable, so change one value at a time
+            if (adaptiveConcurrency && previousBatchSize == batchSize) {
+                concurrency = throughput >= lastThroughput
+                        ? Math.min(maxConcurrency, concurrency + 1)
+                        : Math.max(1, concurrency - 1);
+            }
+        }
+
+        lastRetried = retried;
+        lastFailedOps = failedOps;
+        lastThroughput = throughput;
+        windowStart = now;
+        windowBatches = 0;
+        windowRows = 0;
+        windowNanos = 0;
+    }
+}
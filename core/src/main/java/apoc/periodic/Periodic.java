@@ -68,7 +68,7 @@ public class Periodic {
     @Procedure
     @Description("apoc.periodic.list - list all jobs")
     public Stream<JobInfo> list() {
-        return pools.getJobList().entrySet().stream().map( (e) -> e.getKey().update(e.getValue()));
+        return pools.getJobList().entrySet().stream().map( (e) -> e.getKey().update(e.getValue()).withPoolStats(pools.getPoolStats(e.getKey().pool)));
     }
 
     @Procedure(mode = Mode.WRITE)
@@ -169,26 +169,27 @@ public class Periodic {
     }
 
     @Procedure(mode = Mode.WRITE)
-    @Description("apoc.periodic.submit('name',statement,params) - submit a one-off background statement; parameter 'params' is optional and can contain query parameters for Cypher statement")
+    @Description("apoc.periodic.submit('name',statement,params) - submit a one-off background statement; parameter 'params' is optional and can contain query parameters for Cypher statement, and a 'pool' name to run it on")
     public Stream<JobInfo> submit(@Name("name") String name, @Name("statement") String statement, @Name(value = "params", defaultValue = "{}") Map<String,Object> config) {
         validateQuery(statement);
         return submitProc(name, statement, config, db, log, pools);
     }
 
     @Procedure(mode = Mode.WRITE)
-    @Description("apoc.periodic.repeat('name',statement, rateOrTime, config) submit a repeatedly-called background statement. Fourth parameter 'config' is optional and can contain 'params' entry for nested statement.")
+    @Description("apoc.periodic.repeat('name',statement, rateOrTime, config) submit a repeatedly-called background statement. Fourth parameter 'config' is optional and can contain 'params' entry for nested statement, and a 'pool' name to run it on.")
     public Stream<JobInfo> repeat(@Name("name") String name, @Name("statement") String statement, @Name("rateOrTime") Object rateOrTime, @Name(value = "config", defaultValue = "{}") Map<String,Object> config ) {
 
         validateQuery(statement);
         Map<String,Object> params = (Map)config.getOrDefault("params", Collections.emptyMap());
+        final String poolName = (String) config.get("pool");
         final Runnable runnable = () -> {
             db.executeTransactionally(statement, params);
         };
         final JobInfo info;
         if (rateOrTime instanceof Long) {
-            info = schedule(name, runnable,0, (long) rateOrTime, log, pools);
+            info = schedule(name, runnable,0, (long) rateOrTime, log, pools, PeriodicUtils.ScheduleType.FIXED_DELAY, poolName);
         } else if(rateOrTime instanceof Temporal) {
-            info = getJobInfo(name, (Temporal) rateOrTime, runnable, log, pools, PeriodicUtils.ScheduleType.FIXED_RATE);
+            info = getJobInfo(name, (Temporal) rateOrTime, runnable, log, pools, PeriodicUtils.ScheduleType.FIXED_RATE, poolName);
         } else {
             throw new RuntimeException("invalid type of rateOrTime parameter");
         }
@@ -226,15 +227,14 @@ public class Periodic {
             @Name("config") Map<String,Object> config) {
         validateQuery(cypherIterate);
 
-        long batchSize = Util.toLong(config.getOrDefault("batchSize", 10000));
-        if (batchSize < 1) {
-            throw new IllegalArgumentException("batchSize parameter must be > 0");
+        IterateController controller = IterateController.fromConfig(config);
+        boolean parallel = Util.toBoolean(config.getOrDefault("parallel", false));
+        if (controller.getPool() != null && !parallel) {
+            throw new IllegalArgumentException("pool parameter can only be used with parallel:true, otherwise the batches run on the single pool");
         }
-        int concurrency = Util.toInteger(config.getOrDefault("concurrency", Runtime.getRuntime().availableProcessors()));
-        if (concurrency < 1) {
-            throw new IllegalArgumentException("concurrency parameter must be > 0");
+        if (controller.getPartitionBy() != null && !parallel) {
+            throw new IllegalArgumentException("partitionBy parameter can only be used with parallel:true, otherwise the batches already run one after the other");
         }
-        boolean parallel = Util.toBoolean(config.getOrDefault("parallel", false));
         long retries = Util.toLong(config.getOrDefault("retries", 0)); // todo sleep/delay or push to end of batch to try again or immediate ?
         int failedParams = Util.toInteger(config.getOrDefault("failedParams", -1));
 
@@ -242,6 +242,9 @@ public class Periodic {
         Map<String,Object> params = (Map<String, Object>) config.getOrDefault("params", Collections.emptyMap());
 
         try (Result result = tx.execute(slottedRuntime(cypherIterate),params)) {
+            if (controller.getPartitionBy() != null && !result.columns().contains(controller.getPartitionBy())) {
+                throw new IllegalArgumentException("partitionBy parameter must be one of the columns returned by the first statement: " + result.columns());
+            }
             Pair<String,Boolean> prepared = PeriodicUtils.prepareInnerStatement(cypherAction, batchMode, result.columns(), "_batch");
             String innerStatement = applyPlanner(prepared.first(), Planner.valueOf((String) config.getOrDefault("planner", Planner.DEFAULT.name())));
             boolean iterateList = prepared.other();
@@ -251,13 +254,13 @@ public class Periodic {
             }
             return PeriodicUtils.iterateAndExecuteBatchedInSeparateThread(
                     db, terminationGuard, log, pools,
-                    (int)batchSize, parallel, iterateList, retries, result,
+                    controller, parallel, iterateList, retries, result,
                     (tx, p) -> {
                         final Result r = tx.execute(innerStatement, merge(params, p));
                         Iterators.count(r); // XXX: consume all results
                         return r.getQueryStatistics();
                     },
-                    concurrency, failedParams, periodicId);
+                    failedParams, periodicId);
         }
     }
 
@@ -379,6 +382,8 @@ public class Periodic {
         public long rate;
         public boolean done;
         public boolean cancelled;
+        public String pool = Pools.SCHEDULED_POOL;
+        public Map<String, Object> poolStats = Collections.emptyMap();
 
         public JobInfo(String name) {
             this.name = name;
@@ -396,6 +401,18 @@ public class Periodic {
             return this;
         }
 
+        public JobInfo inPool(String pool) {
+            if (pool != null) {
+                this.pool = pool;
+            }
+            return this;
+        }
+
+        public JobInfo withPoolStats(Map<String, Object> poolStats) {
+            this.poolStats = poolStats;
+            return this;
+        }
+
         @Override
         public boolean equals(Object o) {
             return this == o || o instanceof JobInfo && name.equals(((JobInfo) o).name);
@@ -1,8 +1,10 @@
 package apoc.periodic;
 
 import apoc.Pools;
+import apoc.util.RegexCache;
 import apoc.util.Util;
 import org.apache.commons.lang3.time.DateUtils;
+import org.neo4j.graphdb.Entity;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.QueryStatistics;
 import org.neo4j.graphdb.Transaction;
@@ -16,19 +18,24 @@ import java.time.LocalTime;
 import java.time.OffsetTime;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.ToLongFunction;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -44,6 +51,7 @@ public class PeriodicUtils {
     public enum ScheduleType { DEFAULT, FIXED_DELAY, FIXED_RATE }
 
     public static final String ERROR_DATE_BEFORE = "The provided date is before current date";
+    private static final long POLL_MILLIS = 10;
 
     public static Pair<String,Boolean> prepareInnerStatement(String cypherAction, BatchMode batchMode, List<String> columns, String iteratorVariableName) {
         String names = columns.stream().map(Util::quote).collect(Collectors.joining("|"));
@@ -67,7 +75,7 @@ public class PeriodicUtils {
     }
     
     public static Pattern regNoCaseMultiLine(String pattern) {
-        return Pattern.compile(pattern,Pattern.CASE_INSENSITIVE|Pattern.MULTILINE|Pattern.DOTALL);
+        return RegexCache.compile(pattern,Pattern.CASE_INSENSITIVE|Pattern.MULTILINE|Pattern.DOTALL);
     }
 
     public static Stream<BatchAndTotalResult> iterateAndExecuteBatchedInSeparateThread(
@@ -75,50 +83,204 @@ public class PeriodicUtils {
             int batchsize, boolean parallel, boolean iterateList, long retries,
             Iterator<Map<String, Object>> iterator, BiFunction<Transaction, Map<String, Object>, QueryStatistics> consumer,
             int concurrency, int failedParams, String periodicId) {
+        return iterateAndExecuteBatchedInSeparateThread(db, terminationGuard, log, pools,
+                new IterateController(batchsize, concurrency), parallel, iterateList, retries,
+                iterator, consumer, failedParams, periodicId);
+    }
+
+    public static Stream<BatchAndTotalResult> iterateAndExecuteBatchedInSeparateThread(
+            GraphDatabaseService db, TerminationGuard terminationGuard, Log log, Pools pools,
+            IterateController controller, boolean parallel, boolean iterateList, long retries,
+            Iterator<Map<String, Object>> iterator, BiFunction<Transaction, Map<String, Object>, QueryStatistics> consumer,
+            int failedParams, String periodicId) {
 
-        ExecutorService pool = parallel ? pools.getDefaultExecutorService() : pools.getSingleExecutorService();
-        List<Future<Long>> futures = new ArrayList<>(concurrency);
+        ExecutorService pool = parallel ? pools.getExecutorService(controller.getPool()) : pools.getSingleExecutorService();
         BatchAndTotalCollector collector = new BatchAndTotalCollector(terminationGuard, failedParams);
-        AtomicInteger activeFutures = new AtomicInteger(0);
+        if (parallel && controller.getPartitionBy() != null) {
+            return iterateAndExecutePartitioned(db, terminationGuard, log, pool, controller, collector, iterateList, retries,
+                    iterator, consumer, periodicId);
+        }
+        List<Future<Long>> futures = new ArrayList<>(controller.getConcurrency());
+        // batches read ahead from the driving statement while all workers are busy, bounded by the prefetch config
+        Deque<List<Map<String,Object>>> prefetched = new ArrayDeque<>(controller.getPrefetch());
 
         do {
             if (Util.transactionIsTerminated(terminationGuard)) break;
 
-            if (activeFutures.get() < concurrency || !parallel) {
+            if (controller.tryAcquire(parallel)) {
                 // we have capacity, add a new Future to the list
-                activeFutures.incrementAndGet();
-
+                int batchsize = controller.getBatchSize();
                 if (log.isDebugEnabled()) log.debug("Execute, in periodic iteration with id %s, no %d batch size ", periodicId, batchsize);
-                List<Map<String,Object>> batch = Util.take(iterator, batchsize);
-                final long currentBatchSize = batch.size();
-                Periodic.ExecuteBatch executeBatch =
-                        iterateList ?
-                                new Periodic.ListExecuteBatch(terminationGuard, collector, batch, consumer) :
-                                new Periodic.OneByOneExecuteBatch(terminationGuard, collector, batch, consumer);
-
-                futures.add(Util.inTxFuture(log,
-                        pool,
-                        db,
-                        executeBatch,
-                        retries,
-                        retryCount -> collector.incrementRetried(),
-                        onComplete -> {
-                            collector.incrementBatches();
-                            executeBatch.release();
-                            activeFutures.decrementAndGet();
-                        }));
-                collector.incrementCount(currentBatchSize);
+                List<Map<String,Object>> batch = prefetched.isEmpty() ? Util.take(iterator, batchsize) : prefetched.poll();
+                futures.add(submitBatch(db, terminationGuard, log, pool, controller, collector, iterateList, retries, batch, consumer));
                 if (log.isDebugEnabled()) {
                     log.debug("Processed in periodic iteration with id %s, %d iterations of %d total", periodicId, batchsize, collector.getCount());
                 }
+            } else if (prefetched.size() < controller.getPrefetch() && iterator.hasNext()) {
+                // the outer result is bound to this thread's transaction, so we read ahead here
+                // while the workers are busy, instead of waiting for a free slot
+                prefetched.add(Util.take(iterator, controller.getBatchSize()));
             } else {
-                // we can't block until the counter decrease as we might miss a cancellation, so
-                // let this thread be preempted for a bit before we check for cancellation or
-                // capacity.
-                LockSupport.parkNanos(1000);
+                // we can't block until a batch completes as we might miss a cancellation, so
+                // wait only for a bit before we check for cancellation or capacity.
+                controller.awaitCapacity();
+            }
+        } while (iterator.hasNext() || !prefetched.isEmpty());
+
+        return collectResult(terminationGuard, log, controller, collector, futures, periodicId);
+    }
+
+    /**
+     * Hashes each row by its <code>partitionBy</code> column into one of <code>concurrency</code> partitions.
+     * A partition has at most one batch in flight, so rows with the same key (e.g. the same node) are never written
+     * by concurrent transactions and can't deadlock each other.
+     * The full batches of a busy partition are queued while the driving statement keeps filling the other partitions,
+     * it only waits when <code>concurrency + prefetch</code> batches are queued.
+     */
+    private static Stream<BatchAndTotalResult> iterateAndExecutePartitioned(
+            GraphDatabaseService db, TerminationGuard terminationGuard, Log log, ExecutorService pool,
+            IterateController controller, BatchAndTotalCollector collector, boolean iterateList, long retries,
+            Iterator<Map<String, Object>> iterator, BiFunction<Transaction, Map<String, Object>, QueryStatistics> consumer,
+            String periodicId) {
+
+        String partitionBy = controller.getPartitionBy();
+        int partitionCount = controller.getConcurrency();
+        int maxQueued = partitionCount + controller.getPrefetch();
+        List<Future<Long>> futures = new ArrayList<>();
+        Function<List<Map<String, Object>>, Future<Long>> submit = batch -> {
+            controller.tryAcquire(false);
+            Future<Long> future = submitBatch(db, terminationGuard, log, pool, controller, collector, iterateList, retries, batch, consumer);
+            futures.add(future);
+            return future;
+        };
+        List<Partition> partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new Partition());
+        }
+
+        int queued = 0;
+        boolean terminated = false;
+        while (!terminated && iterator.hasNext()) {
+            if (queued >= maxQueued) {
+                terminated = !awaitQueuedPartition(partitions, terminationGuard);
+                queued -= dispatchPartitions(partitions, submit);
+                continue;
+            }
+            Map<String, Object> row = iterator.next();
+            Partition partition = partitions.get(partitionOf(row.get(partitionBy), partitionCount));
+            partition.buffer.add(row);
+            if (partition.buffer.size() >= controller.getBatchSize()) {
+                terminated = Util.transactionIsTerminated(terminationGuard);
+                partition.queued.add(partition.buffer);
+                partition.buffer = new ArrayList<>();
+                queued += 1 - dispatchPartitions(partitions, submit);
+            }
+        }
+        for (Partition partition : partitions) {
+            if (partition.buffer.isEmpty()) continue;
+            partition.queued.add(partition.buffer);
+            partition.buffer = new ArrayList<>();
+            queued++;
+        }
+        while (!terminated && queued > 0) {
+            queued -= dispatchPartitions(partitions, submit);
+            if (queued > 0) {
+                terminated = !awaitQueuedPartition(partitions, terminationGuard);
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Periodic iteration with id %s dispatched %d batches over %d partitions of `%s`", periodicId, futures.size(), partitionCount, partitionBy);
+        }
+        return collectResult(terminationGuard, log, controller, collector, futures, periodicId);
+    }
+
+    private static class Partition {
+        // the full batches waiting for the batch in flight
+        private final Deque<List<Map<String, Object>>> queued = new ArrayDeque<>();
+        private List<Map<String, Object>> buffer = new ArrayList<>();
+        private Future<Long> inFlight;
+    }
+
+    /**
+     * Submits the next queued batch of every partition without a batch in flight.
+     * @return the number of submitted batches
+     */
+    private static int dispatchPartitions(List<Partition> partitions, Function<List<Map<String, Object>>, Future<Long>> submit) {
+        int submitted = 0;
+        for (Partition partition : partitions) {
+            if (!partition.queued.isEmpty() && (partition.inFlight == null || partition.inFlight.isDone())) {
+                partition.inFlight = submit.apply(partition.queued.poll());
+                submitted++;
             }
-        } while (iterator.hasNext());
+        }
+        return submitted;
+    }
+
+    static int partitionOf(Object key, int partitions) {
+        long hash;
+        if (key instanceof Entity) {
+            hash = ((Entity) key).getId();
+        } else if (key instanceof Number && !(key instanceof Double || key instanceof Float)) {
+            hash = ((Number) key).longValue();
+        } else {
+            hash = Objects.hashCode(key);
+        }
+        // spread consecutive ids over all partitions
+        hash *= 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(hash ^ (hash >>> 32), (long) partitions);
+    }
+
+    /**
+     * Waits a bit for the batch in flight of a partition with queued batches, checking for termination afterwards.
+     * @return false if the transaction was terminated meanwhile
+     */
+    private static boolean awaitQueuedPartition(List<Partition> partitions, TerminationGuard terminationGuard) {
+        for (Partition partition : partitions) {
+            if (partition.queued.isEmpty() || partition.inFlight == null || partition.inFlight.isDone()) continue;
+            try {
+                partition.inFlight.get(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException ignore) {
+                // failures are reported when collecting the results
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            break;
+        }
+        return !Util.transactionIsTerminated(terminationGuard);
+    }
+
+    private static Future<Long> submitBatch(GraphDatabaseService db, TerminationGuard terminationGuard, Log log, ExecutorService pool,
+                                            IterateController controller, BatchAndTotalCollector collector, boolean iterateList, long retries,
+                                            List<Map<String, Object>> batch, BiFunction<Transaction, Map<String, Object>, QueryStatistics> consumer) {
+        final long currentBatchSize = batch.size();
+        Periodic.ExecuteBatch executeBatch =
+                iterateList ?
+                        new Periodic.ListExecuteBatch(terminationGuard, collector, batch, consumer) :
+                        new Periodic.OneByOneExecuteBatch(terminationGuard, collector, batch, consumer);
+        AtomicLong batchStart = new AtomicLong();
 
+        Future<Long> future = Util.inTxFuture(log,
+                pool,
+                db,
+                txInThread -> {
+                    batchStart.compareAndSet(0, System.nanoTime());
+                    return executeBatch.apply(txInThread);
+                },
+                retries,
+                retryCount -> collector.incrementRetried(),
+                onComplete -> {
+                    collector.incrementBatches();
+                    executeBatch.release();
+                    long elapsed = batchStart.get() == 0 ? 0 : System.nanoTime() - batchStart.get();
+                    controller.release(currentBatchSize, elapsed, collector);
+                });
+        collector.incrementCount(currentBatchSize);
+        return future;
+    }
+
+    private static Stream<BatchAndTotalResult> collectResult(TerminationGuard terminationGuard, Log log, IterateController controller,
+                                                             BatchAndTotalCollector collector, List<Future<Long>> futures, String periodicId) {
         boolean wasTerminated = Util.transactionIsTerminated(terminationGuard);
         ToLongFunction<Future<Long>> toLongFunction = wasTerminated ?
                 f -> Util.getFutureOrCancel(f, collector.getBatchErrors(), collector.getFailedBatches(), 0L) :
@@ -129,6 +291,9 @@ public class PeriodicUtils {
         Util.logErrors("Error during iterate.execute:", collector.getOperationErrors(), log);
         if (log.isDebugEnabled()) {
             log.debug("Terminated periodic iteration with id %s with %d executions", periodicId, collector.getCount());
+            if (controller.isAdaptive()) {
+                log.debug("Periodic iteration with id %s finished with batch size %d and concurrency %d", periodicId, controller.getBatchSize(), controller.getConcurrency());
+            }
         }
         return Stream.of(collector.getResult());
     }
@@ -137,6 +302,7 @@ public class PeriodicUtils {
         Map<String,Object> params = (Map)config.getOrDefault("params", Collections.emptyMap());
 
         final Temporal atTime = (Temporal) (config.get("atTime"));
+        final String poolName = (String) config.get("pool");
 
         final Runnable task = () -> {
             try {
@@ -148,13 +314,17 @@ public class PeriodicUtils {
         };
 
         JobInfo info = atTime != null
-                ? getJobInfo(name, atTime, task, log, pools, ScheduleType.DEFAULT)
-                : submitJob(name, task, log, pools);
+                ? getJobInfo(name, atTime, task, log, pools, ScheduleType.DEFAULT, poolName)
+                : submitJob(name, task, log, pools, poolName);
 
         return Stream.of(info);
     }
 
     public static JobInfo getJobInfo(String name, Temporal atTime, Runnable task, Log log, Pools pools, ScheduleType scheduleType) {
+        return getJobInfo(name, atTime, task, log, pools, scheduleType, null);
+    }
+
+    public static JobInfo getJobInfo(String name, Temporal atTime, Runnable task, Log log, Pools pools, ScheduleType scheduleType, String poolName) {
         if (atTime instanceof LocalDate) {
             atTime = ((LocalDate) atTime).atStartOfDay();
         }
@@ -172,39 +342,52 @@ public class PeriodicUtils {
         if (delay < 0) {
             throw new RuntimeException(ERROR_DATE_BEFORE);
         }
-        return schedule(name, task, delay, secPerDay, log, pools, scheduleType);
+        return schedule(name, task, delay, secPerDay, log, pools, scheduleType, poolName);
     }
 
     /**
      * Call from a procedure that gets a <code>@Context GraphDatbaseAPI db;</code> injected and provide that db to the runnable.
      */
     public static <T> JobInfo submitJob(String name, Runnable task, Log log, Pools pools) {
+        return submitJob(name, task, log, pools, null);
+    }
+
+    /**
+     * @param poolName the pool running the task, the scheduled executor for null
+     */
+    public static <T> JobInfo submitJob(String name, Runnable task, Log log, Pools pools, String poolName) {
+        ExecutorService service = pools.getJobExecutorService(poolName);
         JobInfo info = new JobInfo(name);
         Future<T> future = pools.getJobList().remove(info);
         if (future != null && !future.isDone()) future.cancel(false);
 
         Runnable wrappingTask = wrapTask(name, task, log);
-        Future newFuture = pools.getScheduledExecutorService().submit(wrappingTask);
+        Future newFuture = service.submit(wrappingTask);
         pools.getJobList().put(info,newFuture);
-        return info;
+        return info.inPool(poolName);
     }
     
     public static JobInfo schedule(String name, Runnable task, long delay, long repeat, Log log, Pools pools) {
         return schedule(name, task, delay, repeat, log, pools, ScheduleType.FIXED_DELAY);
     }
 
+    public static JobInfo schedule(String name, Runnable task, long delay, long repeat, Log log, Pools pools, ScheduleType isFixedDelay) {
+        return schedule(name, task, delay, repeat, log, pools, isFixedDelay, null);
+    }
+
     /**
      * Call from a procedure that gets a <code>@Context GraphDatbaseAPI db;</code> injected and provide that db to the runnable.
+     * With a pool, the scheduled executor only starts the runs of the task on that pool.
      */
-    public static JobInfo schedule(String name, Runnable task, long delay, long repeat, Log log, Pools pools, ScheduleType isFixedDelay) {
+    public static JobInfo schedule(String name, Runnable task, long delay, long repeat, Log log, Pools pools, ScheduleType isFixedDelay, String poolName) {
+        Runnable wrappingTask = pools.handOff(poolName, wrapTask(name, task, log));
         JobInfo info = new JobInfo(name, delay, isFixedDelay.equals(ScheduleType.DEFAULT) ? 0 : repeat);
         Future future = pools.getJobList().remove(info);
         if (future != null && !future.isDone()) future.cancel(false);
 
-        Runnable wrappingTask = wrapTask(name, task, log);
         ScheduledFuture<?> newFuture = getScheduledFuture(wrappingTask, delay, repeat, pools, isFixedDelay);
-        pools.getJobList().put(info,newFuture);
-        return info;
+        pools.getJobList().put(info, wrappingTask instanceof Pools.HandOff ? ((Pools.HandOff) wrappingTask).scheduledBy(newFuture) : newFuture);
+        return info.inPool(poolName);
     }
     
     private static ScheduledFuture<?> getScheduledFuture(Runnable wrappingTask, long delay, long repeat, Pools pools, ScheduleType isFixedDelay) {
@@ -0,0 +1,93 @@
+package apoc.sketch;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * HyperLogLog distinct count estimation with 2^precision one byte registers.
+ * The relative standard error is about 1.04 / sqrt(2^precision), i.e. 0.8% for the default precision of 14 (16KB).
+ * Small cardinalities are estimated by linear counting of the empty registers.
+ */
+public class HyperLogLog implements Sketch {
+    public static final int DEFAULT_PRECISION = 14;
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    @Override
+    public void add(Object value) {
+        if (value == null) return;
+        long hash = Sketch.hash(value);
+        int index = (int) (hash >>> (64 - precision));
+        // the or'ed bit bounds the rank for hashes whose remaining bits are all zero
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    @Override
+    public void merge(Sketch other) {
+        if (!(other instanceof HyperLogLog)) {
+            throw new IllegalArgumentException("Cannot merge a distinct count sketch with a " + other.getClass().getSimpleName() + " sketch");
+        }
+        HyperLogLog hll = (HyperLogLog) other;
+        if (hll.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge distinct count sketches of precision " + precision + " and " + hll.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (hll.registers[i] > registers[i]) {
+                registers[i] = hll.registers[i];
+            }
+        }
+    }
+
+    @Override
+    public Long estimate(Map<String, Object> config) {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1D / (1L << register);
+            if (register == 0) zeros++;
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5D * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16: return 0.673D;
+            case 32: return 0.697D;
+            case 64: return 0.709D;
+            default: return 0.7213D / (1D + 1.079D / m);
+        }
+    }
+
+    @Override
+    public byte[] toBytes() {
+        return ByteBuffer.allocate(3 + registers.length)
+                .put(HYPER_LOG_LOG).put(VERSION).put((byte) precision)
+                .put(registers)
+                .array();
+    }
+
+    static HyperLogLog read(ByteBuffer buffer) {
+        HyperLogLog hll = new HyperLogLog(buffer.get());
+        buffer.get(hll.registers);
+        return hll;
+    }
+}
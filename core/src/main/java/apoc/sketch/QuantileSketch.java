@@ -0,0 +1,132 @@
+package apoc.sketch;
+
+import apoc.util.Util;
+import org.HdrHistogram.DoubleHistogram;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+
+/**
+ * Quantile estimation in bounded memory, based on HdrHistogram like apoc.agg.percentiles.
+ * Values are kept with <code>significantDigits</code> decimal digits of precision,
+ * negative values are recorded by their magnitude in a second histogram, as a DoubleHistogram only holds non-negative values.
+ */
+public class QuantileSketch implements Sketch {
+    public static final int DEFAULT_SIGNIFICANT_DIGITS = 3;
+    // headers of the DoubleHistogram encoding and of the compressed data
+    private static final int ENCODING_OVERHEAD = 64;
+    public static final List<Double> DEFAULT_QUANTILES = Arrays.asList(0.5D, 0.75D, 0.9D, 0.95D, 0.99D);
+
+    private final DoubleHistogram positives;
+    private final DoubleHistogram negatives;
+
+    public QuantileSketch(int significantDigits) {
+        if (significantDigits < 0 || significantDigits > 5) {
+            throw new IllegalArgumentException("significantDigits must be between 0 and 5");
+        }
+        this.positives = new DoubleHistogram(significantDigits);
+        this.negatives = new DoubleHistogram(significantDigits);
+    }
+
+    private QuantileSketch(DoubleHistogram positives, DoubleHistogram negatives) {
+        this.positives = positives;
+        this.negatives = negatives;
+    }
+
+    @Override
+    public void add(Object value) {
+        if (value instanceof Number) {
+            record(((Number) value).doubleValue());
+        }
+    }
+
+    public void record(double value) {
+        if (Double.isNaN(value)) return;
+        if (value < 0) {
+            negatives.recordValue(-value);
+        } else {
+            positives.recordValue(value);
+        }
+    }
+
+    public long count() {
+        return positives.getTotalCount() + negatives.getTotalCount();
+    }
+
+    /**
+     * @return the value at the given quantile between 0 and 1, or null if no values were recorded
+     */
+    public Double quantile(double quantile) {
+        long negativeCount = negatives.getTotalCount();
+        long positiveCount = positives.getTotalCount();
+        double rank = quantile * (negativeCount + positiveCount);
+        if (negativeCount + positiveCount == 0) return null;
+        if (rank < negativeCount || positiveCount == 0) {
+            // negatives are recorded by magnitude, so their order is reversed
+            return -negatives.getValueAtPercentile(100D * Math.max(0D, 1D - rank / negativeCount));
+        }
+        return positives.getValueAtPercentile(100D * (rank - negativeCount) / positiveCount);
+    }
+
+    @Override
+    public void merge(Sketch other) {
+        if (!(other instanceof QuantileSketch)) {
+            throw new IllegalArgumentException("Cannot merge a quantile sketch with a " + other.getClass().getSimpleName() + " sketch");
+        }
+        QuantileSketch sketch = (QuantileSketch) other;
+        positives.add(sketch.positives);
+        negatives.add(sketch.negatives);
+    }
+
+    /**
+     * @return the values at the configured <code>quantiles</code>
+     */
+    @Override
+    public List<Double> estimate(Map<String, Object> config) {
+        List<Number> quantiles = (List<Number>) config.getOrDefault("quantiles", DEFAULT_QUANTILES);
+        List<Double> result = new ArrayList<>(quantiles.size());
+        for (Number quantile : quantiles) {
+            result.add(quantile == null ? null : quantile(Util.toDouble(quantile)));
+        }
+        return result;
+    }
+
+    @Override
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(2 + 2 * (4 + ENCODING_OVERHEAD) + positives.getNeededByteBufferCapacity() + negatives.getNeededByteBufferCapacity());
+        buffer.put(QUANTILES).put(VERSION);
+        write(buffer, positives);
+        write(buffer, negatives);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static void write(ByteBuffer buffer, DoubleHistogram histogram) {
+        int lengthPosition = buffer.position();
+        buffer.putInt(0);
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer, 1);
+        buffer.putInt(lengthPosition, length);
+    }
+
+    private static DoubleHistogram readHistogram(ByteBuffer buffer) {
+        // copied, because the decoder reads the backing array without its offset
+        byte[] encoded = new byte[buffer.getInt()];
+        buffer.get(encoded);
+        try {
+            DoubleHistogram histogram = DoubleHistogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(encoded), 2);
+            histogram.setAutoResize(true);
+            return histogram;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Invalid quantile sketch: " + e.getMessage(), e);
+        }
+    }
+
+    static QuantileSketch read(ByteBuffer buffer) {
+        DoubleHistogram positives = readHistogram(buffer);
+        DoubleHistogram negatives = readHistogram(buffer);
+        return new QuantileSketch(positives, negatives);
+    }
+}
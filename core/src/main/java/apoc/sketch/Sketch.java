@@ -0,0 +1,79 @@
+package apoc.sketch;
+
+import org.apache.commons.codec.digest.MurmurHash3;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * A mergeable summary of a stream of values that is stored as a byte array.
+ * The first byte of the serialized form identifies the kind of sketch, the second one the format version.
+ */
+public interface Sketch {
+    byte VERSION = 1;
+
+    byte HYPER_LOG_LOG = 1;
+    byte TOP_K = 2;
+    byte QUANTILES = 3;
+
+    void add(Object value);
+
+    /**
+     * Adds the values summarized by the other sketch, which has to be of the same kind.
+     */
+    void merge(Sketch other);
+
+    Object estimate(Map<String, Object> config);
+
+    byte[] toBytes();
+
+    static Sketch fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length < 2) {
+            throw new IllegalArgumentException("Not a sketch: expected a byte array created by an apoc.agg sketch aggregation");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte type = buffer.get();
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported sketch version " + version);
+        }
+        switch (type) {
+            case HYPER_LOG_LOG: return HyperLogLog.read(buffer);
+            case TOP_K: return TopK.read(buffer);
+            case QUANTILES: return QuantileSketch.read(buffer);
+            default: throw new IllegalArgumentException("Unknown sketch type " + type);
+        }
+    }
+
+    /**
+     * A 64 bit hash that is stable across JVMs, so sketches built at different times can be merged.
+     * Integral numbers hash the same regardless of their type, like they compare equal in Cypher.
+     */
+    static long hash(Object value) {
+        ByteBuffer buffer;
+        if (value instanceof Number && isIntegral((Number) value)) {
+            buffer = ByteBuffer.allocate(9).put((byte) 'l').putLong(((Number) value).longValue());
+        } else if (value instanceof Number) {
+            buffer = ByteBuffer.allocate(9).put((byte) 'd').putLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof Node) {
+            buffer = ByteBuffer.allocate(9).put((byte) 'n').putLong(((Node) value).getId());
+        } else if (value instanceof Relationship) {
+            buffer = ByteBuffer.allocate(9).put((byte) 'r').putLong(((Relationship) value).getId());
+        } else {
+            byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+            buffer = ByteBuffer.allocate(bytes.length + 1).put(value instanceof String ? (byte) 's' : (byte) 'o').put(bytes);
+        }
+        return MurmurHash3.hash128x64(buffer.array())[0];
+    }
+
+    static boolean isIntegral(Number number) {
+        if (number instanceof Double || number instanceof Float) {
+            double value = number.doubleValue();
+            return value == Math.rint(value) && value >= Long.MIN_VALUE && value <= Long.MAX_VALUE;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,38 @@
+package apoc.sketch;
+
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.UserFunction;
+
+import java.util.List;
+import java.util.Map;
+
+public class Sketches {
+
+    @UserFunction("apoc.sketch.merge")
+    @Description("apoc.sketch.merge([sketch1, sketch2, ...]) - merges sketches of the same kind created by apoc.agg.approxDistinct, apoc.agg.topK or apoc.agg.quantileSketch into one sketch")
+    public byte[] merge(@Name("sketches") List<Object> sketches) {
+        if (sketches == null) return null;
+        Sketch merged = null;
+        for (Object bytes : sketches) {
+            if (bytes == null) continue;
+            if (!(bytes instanceof byte[])) {
+                throw new IllegalArgumentException("Not a sketch: expected a byte array but got " + bytes.getClass().getSimpleName());
+            }
+            Sketch sketch = Sketch.fromBytes((byte[]) bytes);
+            if (merged == null) {
+                merged = sketch;
+            } else {
+                merged.merge(sketch);
+            }
+        }
+        return merged == null ? null : merged.toBytes();
+    }
+
+    @UserFunction("apoc.sketch.estimate")
+    @Description("apoc.sketch.estimate(sketch, {k, quantiles:[0.5,0.75,0.9,0.95,0.99]}) - returns the approximate distinct count of an apoc.agg.approxDistinct sketch, the top k items with count and error of an apoc.agg.topK sketch, or the values at the given quantiles of an apoc.agg.quantileSketch sketch")
+    public Object estimate(@Name("sketch") byte[] sketch, @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+        if (sketch == null) return null;
+        return Sketch.fromBytes(sketch).estimate(config == null ? Map.of() : config);
+    }
+}
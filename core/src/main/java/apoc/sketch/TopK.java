@@ -0,0 +1,194 @@
+package apoc.sketch;
+
+import apoc.util.Util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving heavy hitters: keeps at most <code>capacity</code> counters, when a new item arrives and all counters are in use,
+ * the item takes over the counter with the smallest count, which becomes its overestimation error.
+ * Items that occur more often than total / capacity are guaranteed to be counted.
+ * Numbers, strings and booleans are kept as they are, all other values by their string representation.
+ */
+public class TopK implements Sketch {
+    public static final int DEFAULT_K = 10;
+    public static final int DEFAULT_CAPACITY_FACTOR = 10;
+
+    private static final Comparator<Counter> BY_COUNT = Comparator.<Counter>comparingLong(c -> c.count).thenComparingLong(c -> c.sequence);
+
+    private final int k;
+    private final int capacity;
+    private final Map<Object, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> byCount = new TreeSet<>(BY_COUNT);
+    private long sequence;
+
+    private static class Counter {
+        private final Object item;
+        private final long sequence;
+        private long count;
+        private long error;
+
+        private Counter(Object item, long sequence, long count, long error) {
+            this.item = item;
+            this.sequence = sequence;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    public TopK(int k, int capacity) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be > 0");
+        }
+        if (capacity < k) {
+            throw new IllegalArgumentException("capacity must be at least k");
+        }
+        this.k = k;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void add(Object value) {
+        if (value == null) return;
+        add(normalize(value), 1, 0);
+    }
+
+    private void add(Object item, long count, long error) {
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count += count;
+            counter.error += error;
+        } else if (counters.size() < capacity) {
+            counter = new Counter(item, sequence++, count, error);
+            counters.put(item, counter);
+        } else {
+            Counter min = byCount.pollFirst();
+            counters.remove(min.item);
+            counter = new Counter(item, sequence++, min.count + count, min.count + error);
+            counters.put(item, counter);
+        }
+        byCount.add(counter);
+    }
+
+    private long minCount() {
+        return counters.size() < capacity ? 0 : byCount.first().count;
+    }
+
+    /**
+     * An item missing from a full sketch may have occurred up to its minimum count times, so that count is added to both count and error.
+     */
+    @Override
+    public void merge(Sketch other) {
+        if (!(other instanceof TopK)) {
+            throw new IllegalArgumentException("Cannot merge a top-k sketch with a " + other.getClass().getSimpleName() + " sketch");
+        }
+        TopK topK = (TopK) other;
+        long minThis = minCount();
+        long minOther = topK.minCount();
+
+        List<Counter> merged = new ArrayList<>(counters.size() + topK.counters.size());
+        for (Counter counter : counters.values()) {
+            Counter otherCounter = topK.counters.get(counter.item);
+            merged.add(otherCounter == null
+                    ? new Counter(counter.item, 0, counter.count + minOther, counter.error + minOther)
+                    : new Counter(counter.item, 0, counter.count + otherCounter.count, counter.error + otherCounter.error));
+        }
+        for (Counter counter : topK.counters.values()) {
+            if (!counters.containsKey(counter.item)) {
+                merged.add(new Counter(counter.item, 0, counter.count + minThis, counter.error + minThis));
+            }
+        }
+        merged.sort(Comparator.<Counter>comparingLong(c -> c.count).reversed());
+
+        counters.clear();
+        byCount.clear();
+        for (Counter counter : merged.subList(0, Math.min(capacity, merged.size()))) {
+            add(counter.item, counter.count, counter.error);
+        }
+    }
+
+    /**
+     * @return the <code>k</code> most frequent items as maps of item, count and error, the count is an upper bound and count - error a lower bound
+     */
+    @Override
+    public List<Map<String, Object>> estimate(Map<String, Object> config) {
+        int limit = Util.toInteger(config.getOrDefault("k", k));
+        List<Map<String, Object>> result = new ArrayList<>(Math.min(limit, counters.size()));
+        for (Counter counter : byCount.descendingSet()) {
+            if (result.size() >= limit) break;
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("item", counter.item);
+            row.put("count", counter.count);
+            row.put("error", counter.error);
+            result.add(row);
+        }
+        return result;
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof Double || value instanceof Float) return ((Number) value).doubleValue();
+        if (value instanceof Number) return ((Number) value).longValue();
+        if (value instanceof String || value instanceof Boolean) return value;
+        return String.valueOf(value);
+    }
+
+    @Override
+    public byte[] toBytes() {
+        List<byte[]> items = new ArrayList<>(counters.size());
+        int size = 2 + 4 + 4 + 4;
+        for (Counter counter : counters.values()) {
+            byte[] item = itemBytes(counter.item);
+            items.add(item);
+            size += item.length + 8 + 8;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size)
+                .put(TOP_K).put(VERSION)
+                .putInt(k).putInt(capacity).putInt(counters.size());
+        int i = 0;
+        for (Counter counter : counters.values()) {
+            buffer.put(items.get(i++)).putLong(counter.count).putLong(counter.error);
+        }
+        return buffer.array();
+    }
+
+    private static byte[] itemBytes(Object item) {
+        if (item instanceof Long) return ByteBuffer.allocate(9).put((byte) 'l').putLong((Long) item).array();
+        if (item instanceof Double) return ByteBuffer.allocate(9).put((byte) 'd').putDouble((Double) item).array();
+        if (item instanceof Boolean) return new byte[] {(byte) 'b', (byte) ((Boolean) item ? 1 : 0)};
+        byte[] bytes = ((String) item).getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(5 + bytes.length).put((byte) 's').putInt(bytes.length).put(bytes).array();
+    }
+
+    private static Object readItem(ByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case 'l': return buffer.getLong();
+            case 'd': return buffer.getDouble();
+            case 'b': return buffer.get() == 1;
+            case 's':
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            default: throw new IllegalArgumentException("Unknown top-k item type " + type);
+        }
+    }
+
+    static TopK read(ByteBuffer buffer) {
+        TopK topK = new TopK(buffer.getInt(), buffer.getInt());
+        int size = buffer.getInt();
+        for (int i = 0; i < size; i++) {
+            Object item = readItem(buffer);
+            topK.add(item, buffer.getLong(), buffer.getLong());
+        }
+        return topK;
+    }
+}
@@ -1,5 +1,6 @@
 package apoc.text;
 
+import apoc.util.RegexCache;
 import apoc.util.Util;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.similarity.HammingDistance;
@@ -109,7 +110,7 @@ public class Strings {
         if (text == null || regex == null || replacement == null) {
             return null;
         }
-        return text.replaceAll(regex, replacement);
+        return RegexCache.compile(regex).matcher(text).replaceAll(replacement);
     }
 
     @UserFunction
@@ -118,7 +119,7 @@ public class Strings {
         if (text == null || regex == null || limit == null) {
             return null;
         }
-        String[] resultArray = text.split(regex, limit.intValue());
+        String[] resultArray = RegexCache.compile(regex).split(text, limit.intValue());
         return new ArrayList<>(asList(resultArray));
     }
 
@@ -128,7 +129,7 @@ public class Strings {
         if (text==null || regex==null) {
             return Collections.EMPTY_LIST;
         } else {
-            final Pattern pattern = Pattern.compile(regex);
+            final Pattern pattern = RegexCache.compile(regex);
             final Matcher matcher = pattern.matcher(text);
 
             List<List<String>> result = new ArrayList<>();
@@ -264,6 +265,15 @@ public class Strings {
 
     private static Pattern cleanPattern = Pattern.compile("[^\\p{L}\\p{N}]+");
     private static Pattern specialCharPattern = Pattern.compile("\\p{IsM}+");
+    private static final Pattern SLUG_PATTERN = Pattern.compile("[^\\p{L}0-9_]+");
+    private static final Pattern SPACE_PATTERN = Pattern.compile(" ");
+    private static final Pattern CAMEL_CASE_SEPARATOR_PATTERN = Pattern.compile("[^\\p{L}0-9]|_");
+    private static final Pattern WHITESPACES_PATTERN = Pattern.compile("(\\s+)");
+    private static final Pattern SNAKE_CASE_PATTERN = Pattern.compile("^([\\p{Lu}0-9_]+)$");
+    private static final Pattern SNAKE_CASE_SPLIT_PATTERN = Pattern.compile("(?=[^\\p{Ll}0-9])");
+    private static final Pattern DOUBLE_DASH_PATTERN = Pattern.compile("--");
+    private static final Pattern UPPER_CASE_SPLIT_PATTERN = Pattern.compile("(?=[^a-z0-9]+)");
+    private static final Pattern NON_UPPER_CASE_PATTERN = Pattern.compile("[^A-Z0-9]+");
     private static String[][] UMLAUT_REPLACEMENTS = {
             { new String("Ä"), "Ae" },
             { new String("Ü"), "Ue" },
@@ -325,7 +335,7 @@ public class Strings {
     public String slug(@Name("text") String text, @Name(value = "delim", defaultValue = "-") String delim) {
         if (text == null) return null;
         if (delim == null) return null;
-        return text.trim().replaceAll("[^\\p{L}0-9_]+", delim);
+        return SLUG_PATTERN.matcher(text.trim()).replaceAll(delim);
     }
 
 
@@ -358,7 +368,7 @@ public class Strings {
     @UserFunction
     @Description("apoc.text.capitalizeAll(text) YIELD value - capitalise the first letter of every word in the text")
     public String capitalizeAll(@Name("text") String text) {
-        String[] parts = text.split(" ");
+        String[] parts = SPACE_PATTERN.split(text);
 
         StringBuilder output = new StringBuilder();
 
@@ -379,7 +389,7 @@ public class Strings {
     @UserFunction
     @Description("apoc.text.decapitalizeAll(text) YIELD value - decapitalize the first letter of all words")
     public String decapitalizeAll(@Name("text") String text) {
-        String[] parts = text.split(" ");
+        String[] parts = SPACE_PATTERN.split(text);
 
         StringBuilder output = new StringBuilder();
 
@@ -400,9 +410,9 @@ public class Strings {
     @UserFunction
     @Description("apoc.text.camelCase(text) YIELD value - Convert a string to camelCase")
     public String camelCase(@Name("text") String text) {
-        text = text.replaceAll("[^\\p{L}0-9]|_", " ");
+        text = CAMEL_CASE_SEPARATOR_PATTERN.matcher(text).replaceAll(" ");
 
-        String[] parts = text.split("(\\s+)");
+        String[] parts = WHITESPACES_PATTERN.split(text);
         StringBuilder output = new StringBuilder();
 
         for (String part : parts) {
@@ -426,11 +436,11 @@ public class Strings {
     @Description("apoc.text.snakeCase(text) YIELD value - Convert a string to snake-case")
     public String snakeCase(@Name("text") String text) {
         // Convert Snake Case
-        if ( text.matches("^([\\p{Lu}0-9_]+)$") ) {
+        if ( SNAKE_CASE_PATTERN.matcher(text).matches() ) {
             text = text.toLowerCase().replace("_", " ");
         }
 
-        String[] parts = text.split("(?=[^\\p{Ll}0-9])");
+        String[] parts = SNAKE_CASE_SPLIT_PATTERN.split(text);
         StringBuilder output = new StringBuilder();
 
         for (String part : parts) {
@@ -445,17 +455,17 @@ public class Strings {
             }
         }
 
-        return output.toString().toLowerCase().replaceAll("--", "-");
+        return DOUBLE_DASH_PATTERN.matcher(output.toString().toLowerCase()).replaceAll("-");
     }
 
     @UserFunction
     @Description("apoc.text.toUpperCase(text) YIELD value - Convert a string to UPPER_CASE")
     public String toUpperCase(@Name("text") String text) {
-        String[] parts = text.split("(?=[^a-z0-9]+)");
+        String[] parts = UPPER_CASE_SPLIT_PATTERN.split(text);
         StringBuilder output = new StringBuilder();
 
         for (String part : parts) {
-            part = part.trim().toUpperCase().replaceAll("[^A-Z0-9]+", "");
+            part = NON_UPPER_CASE_PATTERN.matcher(part.trim().toUpperCase()).replaceAll("");
 
             if (part.length() > 0) {
                 if (output.length() > 0) {
@@ -0,0 +1,273 @@
+package apoc.trigger;
+
+import apoc.util.Util;
+import org.neo4j.logging.Log;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Coalesces the changes of the committed transactions for the <code>afterAsync</code> triggers with
+ * a <code>batchSize</code> or <code>maxDelayMs</code> selector.
+ * The committing threads put their changes on a bounded queue, a single dispatcher thread merges them per trigger
+ * and runs every trigger once per batch of <code>batchSize</code> transactions or after <code>maxDelayMs</code>,
+ * whatever comes first.
+ * The batches of a trigger run one after the other, in the order in which the transactions were enqueued.
+ * When the queue is full the committing threads wait for the dispatcher, which is reported by {@link #stats()}.
+ */
+public class AfterAsyncBatcher implements Runnable {
+    public static final String BATCH_SIZE = "batchSize";
+    public static final String MAX_DELAY_MS = "maxDelayMs";
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final long DEFAULT_MAX_DELAY_MS = 200L;
+
+    private static final long IDLE_POLL_MS = 1000L;
+    private static final long BLOCKED_REPORT_INTERVAL_MS = 10_000L;
+
+    private static class Pending {
+        private final TriggerMetadata metadata;
+        private final List<TriggerIndex.Entry> triggers;
+
+        private Pending(TriggerMetadata metadata, List<TriggerIndex.Entry> triggers) {
+            this.metadata = metadata;
+            this.triggers = triggers;
+        }
+    }
+
+    private static class Batch {
+        private final List<TriggerMetadata> transactions = new ArrayList<>();
+        private final int batchSize;
+        private final long deadline;
+
+        private Batch(int batchSize, long deadline) {
+            this.batchSize = batchSize;
+            this.deadline = deadline;
+        }
+    }
+
+    private final BlockingQueue<Pending> queue;
+    private final int capacity;
+    private final BiConsumer<TriggerIndex.Entry, TriggerMetadata> executor;
+    private final Log log;
+    private final String name;
+    // only used by the dispatcher thread, in the order of the first transaction of each batch
+    private final Map<TriggerIndex.Entry, Batch> batches = new IdentityHashMap<>();
+    private final List<TriggerIndex.Entry> batchOrder = new ArrayList<>();
+    // transactions committed by the triggers run by the dispatcher itself, which can't wait for the full queue
+    private final List<Pending> overflow = new ArrayList<>();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicLong blockedNanos = new AtomicLong();
+    private final AtomicLong executedBatches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private volatile int maxQueued = 0;
+    private long reportedBlocked = 0L;
+    private long lastReport = 0L;
+
+    private volatile boolean running = false;
+    private volatile Thread thread;
+
+    /**
+     * @param executor runs a trigger in a new transaction for the merged changes of a batch
+     */
+    public AfterAsyncBatcher(String name, int capacity, BiConsumer<TriggerIndex.Entry, TriggerMetadata> executor, Log log) {
+        this.name = name;
+        this.capacity = capacity;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.executor = executor;
+        this.log = log;
+    }
+
+    public static boolean isBatched(Map<String, Object> selector) {
+        return selector != null && (selector.containsKey(BATCH_SIZE) || selector.containsKey(MAX_DELAY_MS));
+    }
+
+    public static int batchSize(Map<String, Object> selector) {
+        return Util.toLong(selector.getOrDefault(BATCH_SIZE, DEFAULT_BATCH_SIZE)).intValue();
+    }
+
+    public static long maxDelayMs(Map<String, Object> selector) {
+        return Util.toLong(selector.getOrDefault(MAX_DELAY_MS, DEFAULT_MAX_DELAY_MS));
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this, "apoc-trigger-batcher-" + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the dispatcher after it has run the triggers for the transactions already enqueued.
+     */
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Called by the committing thread, waits when the queue is full.
+     */
+    public void enqueue(TriggerMetadata metadata, List<TriggerIndex.Entry> triggers) {
+        final Pending pending = new Pending(metadata, triggers);
+        if (Thread.currentThread() == thread) {
+            if (!queue.offer(pending)) {
+                overflow.add(pending);
+            }
+            enqueued.incrementAndGet();
+            return;
+        }
+        if (!queue.offer(pending)) {
+            blocked.incrementAndGet();
+            final long start = System.nanoTime();
+            try {
+                queue.put(pending);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while waiting for the afterAsync trigger batcher, the changes of a transaction are not sent to the triggers %s",
+                        names(triggers));
+                return;
+            } finally {
+                blockedNanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+        enqueued.incrementAndGet();
+        final int size = queue.size();
+        if (size > maxQueued) {
+            maxQueued = size;
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                final Pending pending = queue.poll(nextDeadline(), TimeUnit.MILLISECONDS);
+                if (pending != null) {
+                    add(pending);
+                    drain();
+                }
+            } catch (InterruptedException e) {
+                // stopped, the remaining transactions are flushed below
+            }
+            flush(false);
+            reportBlocked();
+        }
+        // the interruption of stop() must not fail the transactions of the last batches
+        Thread.interrupted();
+        drain();
+        flush(true);
+    }
+
+    private void drain() {
+        final List<Pending> pendings = new ArrayList<>();
+        queue.drainTo(pendings);
+        // the overflow was added after the queue was full
+        pendings.addAll(overflow);
+        overflow.clear();
+        pendings.forEach(this::add);
+    }
+
+    private void add(Pending pending) {
+        final long now = System.currentTimeMillis();
+        for (TriggerIndex.Entry trigger : pending.triggers) {
+            Batch batch = batches.get(trigger);
+            if (batch == null) {
+                final Map<String, Object> selector = (Map<String, Object>) trigger.data.get("selector");
+                batch = new Batch(batchSize(selector), now + maxDelayMs(selector));
+                batches.put(trigger, batch);
+                batchOrder.add(trigger);
+            }
+            batch.transactions.add(pending.metadata);
+            if (batch.transactions.size() >= batch.batchSize) {
+                execute(trigger, batch);
+            }
+        }
+    }
+
+    private long nextDeadline() {
+        if (!overflow.isEmpty()) return 0L;
+        if (batchOrder.isEmpty()) return IDLE_POLL_MS;
+        final long now = System.currentTimeMillis();
+        long next = Long.MAX_VALUE;
+        for (Batch batch : batches.values()) {
+            next = Math.min(next, batch.deadline);
+        }
+        return Math.max(0L, next - now);
+    }
+
+    private void flush(boolean all) {
+        final long now = System.currentTimeMillis();
+        for (TriggerIndex.Entry trigger : new ArrayList<>(batchOrder)) {
+            final Batch batch = batches.get(trigger);
+            if (all || batch.deadline <= now) {
+                execute(trigger, batch);
+            }
+        }
+    }
+
+    private void execute(TriggerIndex.Entry trigger, Batch batch) {
+        batches.remove(trigger);
+        final Iterator<TriggerIndex.Entry> it = batchOrder.iterator();
+        while (it.hasNext()) {
+            if (it.next() == trigger) {
+                it.remove();
+                break;
+            }
+        }
+        try {
+            executor.accept(trigger, TriggerMetadata.merge(batch.transactions));
+        } catch (Exception e) {
+            failedBatches.incrementAndGet();
+            log.warn("Error executing trigger " + trigger.name + " for a batch of " + batch.transactions.size() + " transactions", e);
+        } finally {
+            executedBatches.incrementAndGet();
+        }
+    }
+
+    private void reportBlocked() {
+        final long now = System.currentTimeMillis();
+        final long blockedCount = blocked.get();
+        if (blockedCount > reportedBlocked && now - lastReport >= BLOCKED_REPORT_INTERVAL_MS) {
+            log.warn("The afterAsync trigger batcher queue of %d transactions was full, committing transactions waited for it: %s", capacity, stats());
+            reportedBlocked = blockedCount;
+            lastReport = now;
+        }
+    }
+
+    private static List<String> names(List<TriggerIndex.Entry> triggers) {
+        final List<String> names = new ArrayList<>();
+        triggers.forEach(trigger -> names.add(trigger.name));
+        return names;
+    }
+
+    /**
+     * @return the backpressure metrics of the batcher
+     */
+    public Map<String, Object> stats() {
+        return Util.map("queued", queue.size(),
+                "maxQueued", maxQueued,
+                "capacity", capacity,
+                "enqueued", enqueued.get(),
+                "blocked", blocked.get(),
+                "blockedMs", TimeUnit.NANOSECONDS.toMillis(blockedNanos.get()),
+                "batches", executedBatches.get(),
+                "failedBatches", failedBatches.get());
+    }
+}
@@ -7,6 +7,7 @@ import org.neo4j.procedure.Description;
 import org.neo4j.procedure.Mode;
 import org.neo4j.procedure.Name;
 import org.neo4j.procedure.Procedure;
+import org.neo4j.procedure.UserFunction;
 
 import java.util.Collections;
 import java.util.Map;
@@ -96,6 +97,12 @@ public class Trigger {
         return new TriggerInfo(name, null, null, false, false);
     }
 
+    @UserFunction
+    @Description("apoc.trigger.stats() - the queue and batch metrics of the afterAsync triggers with a batchSize or maxDelayMs selector")
+    public Map<String, Object> stats() {
+        return triggerHandler.afterAsyncBatchStats();
+    }
+
     @Procedure(mode = Mode.READ)
     @Description("list all installed triggers")
     public Stream<TriggerInfo> list() {
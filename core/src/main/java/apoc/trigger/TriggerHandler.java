@@ -25,8 +25,11 @@ import org.neo4j.scheduler.Group;
 import org.neo4j.scheduler.JobHandle;
 import org.neo4j.scheduler.JobScheduler;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -39,11 +42,13 @@ import static apoc.ApocConfig.apocConfig;
 
 public class TriggerHandler extends LifecycleAdapter implements TransactionEventListener<Void> {
 
-    private enum Phase {before, after, rollback, afterAsync}
+    enum Phase {before, after, rollback, afterAsync}
 
     public static final String TRIGGER_REFRESH = "apoc.trigger.refresh";
+    public static final String TRIGGER_BATCH_QUEUE_SIZE = "apoc.trigger.afterAsync.queueSize";
 
     private final ConcurrentHashMap<String, Map<String,Object>> activeTriggers = new ConcurrentHashMap();
+    private volatile TriggerIndex triggerIndex = TriggerIndex.EMPTY;
     private final Log log;
     private final GraphDatabaseService db;
     private final DatabaseManagementService databaseManagementService;
@@ -55,6 +60,8 @@ public class TriggerHandler extends LifecycleAdapter implements TransactionEvent
 
     private JobHandle restoreTriggerHandler;
 
+    private AfterAsyncBatcher afterAsyncBatcher;
+
     private final AtomicBoolean registeredWithKernel = new AtomicBoolean(false);
 
     public static final String NOT_ENABLED_ERROR = "Triggers have not been enabled." +
@@ -103,6 +110,7 @@ public class TriggerHandler extends LifecycleAdapter implements TransactionEvent
             );
             return null;
         });
+        triggerIndex = new TriggerIndex(activeTriggers);
 
         reconcileKernelRegistration();
     }
@@ -135,6 +143,18 @@ public class TriggerHandler extends LifecycleAdapter implements TransactionEvent
 
     public Map<String, Object> add(String name, String statement, Map<String,Object> selector, Map<String,Object> params) {
         checkEnabled();
+        Phase phase = TriggerIndex.phaseOf(selector);
+        if (phase == null) {
+            throw new RuntimeException("The phase of the trigger selector must be one of " + Arrays.toString(Phase.values()));
+        }
+        if (AfterAsyncBatcher.isBatched(selector)) {
+            if (phase != Phase.afterAsync) {
+                throw new RuntimeException("The batchSize and maxDelayMs of the trigger selector are only supported by the afterAsync phase");
+            }
+            if (AfterAsyncBatcher.batchSize(selector) < 1 || AfterAsyncBatcher.maxDelayMs(selector) < 0) {
+                throw new RuntimeException("The batchSize of the trigger selector must be positive and its maxDelayMs must not be negative");
+            }
+        }
         Map<String, Object> previous = activeTriggers.get(name);
 
         withSystemDb(tx -> {
@@ -224,11 +244,23 @@ public class TriggerHandler extends LifecycleAdapter implements TransactionEvent
 
     private void afterAsync(TransactionData txData) {
         if (hasPhase(Phase.afterAsync)) {
+            List<TriggerIndex.Entry> triggers = triggerIndex.matching(Phase.afterAsync, txData);
+            if (triggers.isEmpty()) {
+                return;
+            }
             TriggerMetadata triggerMetadata = TriggerMetadata.from(txData, true);
-            Util.inTxFuture(pools.getDefaultExecutorService(), db, (inner) -> {
-                executeTriggers(inner, triggerMetadata.rebind(inner), Phase.afterAsync);
-                return null;
-            });
+            Map<Boolean, List<TriggerIndex.Entry>> batched = triggers.stream()
+                    .collect(Collectors.partitioningBy(trigger -> AfterAsyncBatcher.isBatched((Map<String, Object>) trigger.data.get("selector"))));
+            if (!batched.get(true).isEmpty()) {
+                afterAsyncBatcher.enqueue(triggerMetadata, batched.get(true));
+            }
+            List<TriggerIndex.Entry> immediate = batched.get(false);
+            if (!immediate.isEmpty()) {
+                Util.inTxFuture(pools.getDefaultExecutorService(), db, (inner) -> {
+                    executeTriggers(inner, triggerMetadata.rebind(inner), immediate, Phase.afterAsync);
+                    return null;
+                });
+            }
         }
     }
 
@@ -242,47 +274,55 @@ public class TriggerHandler extends LifecycleAdapter implements TransactionEvent
         }
     }
 
+    private void executeBatch(TriggerIndex.Entry trigger, TriggerMetadata triggerMetadata) {
+        try (Transaction tx = db.beginTx()) {
+            executeTriggers(tx, triggerMetadata.rebind(tx), List.of(trigger), Phase.afterAsync);
+            tx.commit();
+        }
+    }
+
+    public Map<String, Object> afterAsyncBatchStats() {
+        return afterAsyncBatcher == null ? Collections.emptyMap() : afterAsyncBatcher.stats();
+    }
+
     private boolean hasPhase(Phase phase) {
-        return activeTriggers.values().stream()
-                .map(data -> (Map<String, Object>) data.get("selector"))
-                .anyMatch(selector -> when(selector, phase));
+        return triggerIndex.hasPhase(phase);
     }
 
     private void executeTriggers(Transaction tx, TransactionData txData, Phase phase) {
-        executeTriggers(tx, TriggerMetadata.from(txData, false), phase);
+        List<TriggerIndex.Entry> triggers = triggerIndex.matching(phase, txData);
+        if (!triggers.isEmpty()) {
+            executeTriggers(tx, TriggerMetadata.from(txData, false), triggers, phase);
+        }
     }
 
-    private void executeTriggers(Transaction tx, TriggerMetadata triggerMetadata, Phase phase) {
+    private void executeTriggers(Transaction tx, TriggerMetadata triggerMetadata, List<TriggerIndex.Entry> triggers, Phase phase) {
         Map<String,String> exceptions = new LinkedHashMap<>();
-        activeTriggers.forEach((name, data) -> {
-            Map<String, Object> params = triggerMetadata.toMap();
-            if (data.get("params") != null) {
-                params.putAll((Map<String, Object>) data.get("params"));
+        // the transaction data is converted once and shared by the triggers of the phase
+        Map<String, Object> metadata = triggerMetadata.toMap();
+        for (TriggerIndex.Entry trigger : triggers) {
+            Map<String, Object> params = new HashMap<>(metadata);
+            if (trigger.data.get("params") != null) {
+                params.putAll((Map<String, Object>) trigger.data.get("params"));
             }
-            Map<String, Object> selector = (Map<String, Object>) data.get("selector");
-            if ((!(boolean)data.get("paused")) && when(selector, phase)) {
-                try {
-                    params.put("trigger", name);
-                    Result result = tx.execute((String) data.get("statement"), params);
-                    Iterators.count(result);
-                } catch (Exception e) {
-                    log.warn("Error executing trigger " + name + " in phase " + phase, e);
-                    exceptions.put(name, e.getMessage());
-                }
+            try {
+                params.put("trigger", trigger.name);
+                Result result = tx.execute((String) trigger.data.get("statement"), params);
+                Iterators.count(result);
+            } catch (Exception e) {
+                log.warn("Error executing trigger " + trigger.name + " in phase " + phase, e);
+                exceptions.put(trigger.name, e.getMessage());
             }
-        });
+        }
         if (!exceptions.isEmpty()) {
             throw new RuntimeException("Error executing triggers "+exceptions.toString());
         }
     }
 
-    private boolean when(Map<String, Object> selector, Phase phase) {
-        if (selector == null) return phase == Phase.before;
-        return Phase.valueOf(selector.getOrDefault("phase", "before").toString()) == phase;
-    }
-
     @Override
     public void start() throws Exception {
+        afterAsyncBatcher = new AfterAsyncBatcher(db.databaseName(), apocConfig().getInt(TRIGGER_BATCH_QUEUE_SIZE, 10000), this::executeBatch, log);
+        afterAsyncBatcher.start();
         updateCache();
         long refreshInterval = apocConfig().getInt(TRIGGER_REFRESH, 60000);
         restoreTriggerHandler = jobScheduler.scheduleRecurring(Group.STORAGE_MAINTENANCE, () -> {
@@ -300,6 +340,9 @@ public class TriggerHandler extends LifecycleAdapter implements TransactionEvent
         if (restoreTriggerHandler != null) {
             restoreTriggerHandler.cancel();
         }
+        if (afterAsyncBatcher != null) {
+            afterAsyncBatcher.stop();
+        }
     }
 
     private <T> T withSystemDb(Function<Transaction, T> action) {
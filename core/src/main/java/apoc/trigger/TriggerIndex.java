@@ -0,0 +1,204 @@
+package apoc.trigger;
+
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.event.LabelEntry;
+import org.neo4j.graphdb.event.PropertyEntry;
+import org.neo4j.graphdb.event.TransactionData;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the active triggers by phase and by the labels, relationship types and property keys of their selectors,
+ * e.g. <code>{phase:'before', labels:['Order'], properties:['status']}</code>.
+ * A trigger without <code>labels</code>, <code>types</code> and <code>properties</code> runs for every transaction,
+ * otherwise every declared selector has to match at least one of the labels, types or keys changed by the transaction.
+ */
+public class TriggerIndex {
+    public static final String LABELS = "labels";
+    public static final String TYPES = "types";
+    public static final String PROPERTIES = "properties";
+
+    private static final int LABELS_BIT = 1;
+    private static final int TYPES_BIT = 2;
+    private static final int PROPERTIES_BIT = 4;
+
+    public static final TriggerIndex EMPTY = new TriggerIndex(Collections.emptyMap());
+
+    static class Entry {
+        final String name;
+        final Map<String, Object> data;
+        // the selectors declared by the trigger, as a combination of the *_BIT flags
+        final int selectors;
+
+        Entry(String name, Map<String, Object> data, int selectors) {
+            this.name = name;
+            this.data = data;
+            this.selectors = selectors;
+        }
+    }
+
+    private static class PhaseIndex {
+        private final List<Entry> entries = new ArrayList<>();
+        private final Map<String, List<Entry>> byLabel = new HashMap<>();
+        private final Map<String, List<Entry>> byType = new HashMap<>();
+        private final Map<String, List<Entry>> byKey = new HashMap<>();
+        private boolean selective = false;
+    }
+
+    private final Map<TriggerHandler.Phase, PhaseIndex> phases = new EnumMap<>(TriggerHandler.Phase.class);
+
+    public TriggerIndex(Map<String, Map<String, Object>> triggers) {
+        triggers.forEach((name, data) -> {
+            if (Boolean.TRUE.equals(data.get("paused"))) {
+                return;
+            }
+            final Map<String, Object> selector = (Map<String, Object>) data.get("selector");
+            final TriggerHandler.Phase phase = phaseOf(selector);
+            if (phase == null) {
+                return;
+            }
+            final PhaseIndex index = phases.computeIfAbsent(phase, p -> new PhaseIndex());
+            final Collection<String> labels = names(selector, LABELS);
+            final Collection<String> types = names(selector, TYPES);
+            final Collection<String> keys = names(selector, PROPERTIES);
+            final Entry entry = new Entry(name, data,
+                    (labels.isEmpty() ? 0 : LABELS_BIT) | (types.isEmpty() ? 0 : TYPES_BIT) | (keys.isEmpty() ? 0 : PROPERTIES_BIT));
+            index.entries.add(entry);
+            index.selective |= entry.selectors != 0;
+            labels.forEach(label -> index.byLabel.computeIfAbsent(label, k -> new ArrayList<>()).add(entry));
+            types.forEach(type -> index.byType.computeIfAbsent(type, k -> new ArrayList<>()).add(entry));
+            keys.forEach(key -> index.byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(entry));
+        });
+    }
+
+    /**
+     * @return the phase of the selector, or null for an unknown phase
+     */
+    static TriggerHandler.Phase phaseOf(Map<String, Object> selector) {
+        if (selector == null) return TriggerHandler.Phase.before;
+        final String phase = selector.getOrDefault("phase", "before").toString();
+        for (TriggerHandler.Phase value : TriggerHandler.Phase.values()) {
+            if (value.name().equals(phase)) return value;
+        }
+        return null;
+    }
+
+    private static Collection<String> names(Map<String, Object> selector, String key) {
+        final Object value = selector == null ? null : selector.get(key);
+        if (value == null) return Collections.emptyList();
+        if (value instanceof Collection) {
+            final List<String> names = new ArrayList<>();
+            ((Collection<?>) value).forEach(name -> names.add(name.toString()));
+            return names;
+        }
+        return Collections.singletonList(value.toString());
+    }
+
+    public boolean hasPhase(TriggerHandler.Phase phase) {
+        return phases.containsKey(phase);
+    }
+
+    /**
+     * @return the triggers of the phase whose selectors match the changes of the transaction, in one pass over the changes
+     */
+    List<Entry> matching(TriggerHandler.Phase phase, TransactionData txData) {
+        final PhaseIndex index = phases.get(phase);
+        if (index == null) return Collections.emptyList();
+        if (!index.selective) return index.entries;
+
+        final Map<Entry, Integer> matched = new IdentityHashMap<>();
+        final Set<String> labels = new HashSet<>();
+        final Set<String> types = new HashSet<>();
+        final Set<String> keys = new HashSet<>();
+        // labels and types of changed entities which can't be read anymore, they could match any selector
+        boolean anyLabel = false;
+        boolean anyType = false;
+
+        // the labels of created and deleted nodes are part of the assigned and removed labels
+        for (LabelEntry entry : txData.assignedLabels()) labels.add(entry.label().name());
+        for (LabelEntry entry : txData.removedLabels()) labels.add(entry.label().name());
+        for (Relationship rel : txData.createdRelationships()) anyType |= !addType(types, rel);
+        for (Relationship rel : txData.deletedRelationships()) anyType |= !addType(types, rel);
+
+        final boolean needsLabels = !index.byLabel.isEmpty();
+        final boolean needsTypes = !index.byType.isEmpty();
+        // the labels of a node are read once for all its property entries
+        final MutableLongSet labelledNodes = new LongHashSet();
+        for (PropertyEntry<Node> entry : txData.assignedNodeProperties()) {
+            keys.add(entry.key());
+            if (needsLabels && labelledNodes.add(entry.entity().getId())) anyLabel |= !addLabels(labels, entry.entity(), txData);
+        }
+        for (PropertyEntry<Node> entry : txData.removedNodeProperties()) {
+            keys.add(entry.key());
+            if (needsLabels && labelledNodes.add(entry.entity().getId())) anyLabel |= !addLabels(labels, entry.entity(), txData);
+        }
+        for (PropertyEntry<Relationship> entry : txData.assignedRelationshipProperties()) {
+            keys.add(entry.key());
+            if (needsTypes) anyType |= !addType(types, entry.entity());
+        }
+        for (PropertyEntry<Relationship> entry : txData.removedRelationshipProperties()) {
+            keys.add(entry.key());
+            if (needsTypes) anyType |= !addType(types, entry.entity());
+        }
+
+        mark(matched, index.byLabel, labels, anyLabel, LABELS_BIT);
+        mark(matched, index.byType, types, anyType, TYPES_BIT);
+        mark(matched, index.byKey, keys, false, PROPERTIES_BIT);
+
+        final List<Entry> result = new ArrayList<>();
+        for (Entry entry : index.entries) {
+            if (entry.selectors == 0 || matched.getOrDefault(entry, 0) == entry.selectors) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    private static void mark(Map<Entry, Integer> matched, Map<String, List<Entry>> index, Set<String> names, boolean any, int bit) {
+        if (any) {
+            index.values().forEach(entries -> entries.forEach(entry -> matched.merge(entry, bit, (a, b) -> a | b)));
+            return;
+        }
+        for (String name : names) {
+            final List<Entry> entries = index.get(name);
+            if (entries != null) {
+                entries.forEach(entry -> matched.merge(entry, bit, (a, b) -> a | b));
+            }
+        }
+    }
+
+    private static boolean addLabels(Set<String> labels, Node node, TransactionData txData) {
+        // the labels of deleted nodes are already part of the removed labels
+        if (txData.isDeleted(node)) return true;
+        try {
+            for (Label label : node.getLabels()) {
+                labels.add(label.name());
+            }
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static boolean addType(Set<String> types, Relationship rel) {
+        try {
+            types.add(rel.getType().name());
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
@@ -4,6 +4,13 @@ import apoc.convert.Convert;
 import apoc.result.VirtualNode;
 import apoc.result.VirtualRelationship;
 import apoc.util.Util;
+import org.eclipse.collections.api.map.primitive.MutableLongIntMap;
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 import org.neo4j.graphdb.Entity;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
@@ -12,13 +19,13 @@ import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.event.LabelEntry;
 import org.neo4j.graphdb.event.PropertyEntry;
 import org.neo4j.graphdb.event.TransactionData;
-import org.neo4j.internal.helpers.collection.Iterables;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static apoc.util.Util.map;
@@ -37,6 +44,9 @@ public class TriggerMetadata {
     private final Map<String, List<PropertyEntryContainer<Node>>> assignedNodeProperties;
     private final Map<String, List<PropertyEntryContainer<Relationship>>> assignedRelationshipProperties;
     private final Map<String, Object> metaData;
+    // the ids of the deleted entities, which the virtual ones of deletedNodes and deletedRelationships don't keep
+    private final LongSet deletedNodeIds;
+    private final LongSet deletedRelationshipIds;
 
     private TriggerMetadata(long transactionId, long commitTime,
                             List<Node> createdNodes, List<Relationship> createdRelationships,
@@ -47,7 +57,7 @@ public class TriggerMetadata {
                             Map<String, List<Node>> assignedLabels,
                             Map<String, List<PropertyEntryContainer<Node>>> assignedNodeProperties,
                             Map<String, List<PropertyEntryContainer<Relationship>>> assignedRelationshipProperties,
-                            Map<String, Object> metaData) {
+                            Map<String, Object> metaData, LongSet deletedNodeIds, LongSet deletedRelationshipIds) {
         this.transactionId = transactionId;
         this.commitTime = commitTime;
         this.createdNodes = createdNodes;
@@ -61,6 +71,8 @@ public class TriggerMetadata {
         this.assignedNodeProperties = assignedNodeProperties;
         this.assignedRelationshipProperties = assignedRelationshipProperties;
         this.metaData = metaData;
+        this.deletedNodeIds = deletedNodeIds;
+        this.deletedRelationshipIds = deletedRelationshipIds;
     }
 
     public static TriggerMetadata from(TransactionData txData, boolean rebindDeleted) {
@@ -75,10 +87,17 @@ public class TriggerMetadata {
         } catch (Exception ignored) {
             commitTime = -1L;
         }
+        final VirtualEntities virtualEntities = rebindDeleted ? new VirtualEntities(txData) : null;
         List<Node> createdNodes = Convert.convertToList(txData.createdNodes());
         List<Relationship> createdRelationships = Convert.convertToList(txData.createdRelationships());
-        List<Node> deletedNodes = rebindDeleted ? rebindDeleted(Convert.convertToList(txData.deletedNodes()), txData) : Convert.convertToList(txData.deletedNodes());
-        List<Relationship> deletedRelationships = rebindDeleted ? rebindDeleted(Convert.convertToList(txData.deletedRelationships()), txData) : Convert.convertToList(txData.deletedRelationships());
+        List<Node> deletedNodes = Convert.convertToList(txData.deletedNodes());
+        List<Relationship> deletedRelationships = Convert.convertToList(txData.deletedRelationships());
+        final LongSet deletedNodeIds = ids(deletedNodes);
+        final LongSet deletedRelationshipIds = ids(deletedRelationships);
+        if (rebindDeleted) {
+            deletedNodes = rebindDeleted(deletedNodes, virtualEntities);
+            deletedRelationships = rebindDeleted(deletedRelationships, virtualEntities);
+        }
         Map<String, List<Node>> removedLabels = aggregateLabels(txData.removedLabels());
         Map<String, List<Node>> assignedLabels = aggregateLabels(txData.assignedLabels());
         Map<String, List<PropertyEntryContainer<Node>>> removedNodeProperties = aggregatePropertyKeys(txData.removedNodeProperties(), true);
@@ -88,49 +107,148 @@ public class TriggerMetadata {
         if (rebindDeleted) {
             removedLabels = removedLabels.entrySet()
                     .stream()
-                    .collect(Collectors.toMap(Map.Entry::getKey, e -> rebindDeleted(e.getValue(), txData)));
-            removedNodeProperties = rebindPropsEntries(txData, removedNodeProperties);
-            removedRelationshipProperties = rebindPropsEntries(txData, removedRelationshipProperties);
+                    .collect(Collectors.toMap(Map.Entry::getKey, e -> rebindDeleted(e.getValue(), virtualEntities)));
+            removedNodeProperties = rebindPropsEntries(virtualEntities, removedNodeProperties);
+            removedRelationshipProperties = rebindPropsEntries(virtualEntities, removedRelationshipProperties);
         }
         return new TriggerMetadata(txId, commitTime, createdNodes, createdRelationships, deletedNodes, deletedRelationships,
                 removedLabels,removedNodeProperties, removedRelationshipProperties, assignedLabels, assignedNodeProperties,
-                assignedRelationshipProperties, txData.metaData());
+                assignedRelationshipProperties, txData.metaData(), deletedNodeIds, deletedRelationshipIds);
+    }
+
+    private static LongSet ids(List<? extends Entity> entities) {
+        final MutableLongSet ids = new LongHashSet(entities.size());
+        entities.forEach(entity -> ids.add(entity.getId()));
+        return ids;
+    }
+
+    /**
+     * Concatenates the changes of the transactions, in their order.
+     * The created and updated entities which a later transaction of the batch deleted are left out,
+     * as they can't be bound to the transaction of the trigger anymore, their deletion is part of the deleted entities.
+     * The transaction id, the commit time and the metadata are the ones of the last transaction.
+     */
+    public static TriggerMetadata merge(List<TriggerMetadata> transactions) {
+        if (transactions.size() == 1) return transactions.get(0);
+        // the index of the last transaction of the batch deleting each entity
+        final MutableLongIntMap nodeDeletions = new LongIntHashMap();
+        final MutableLongIntMap relationshipDeletions = new LongIntHashMap();
+        for (int i = 0; i < transactions.size(); i++) {
+            final int index = i;
+            transactions.get(i).deletedNodeIds.forEach(id -> nodeDeletions.put(id, index));
+            transactions.get(i).deletedRelationshipIds.forEach(id -> relationshipDeletions.put(id, index));
+        }
+
+        final List<Node> createdNodes = new ArrayList<>();
+        final List<Relationship> createdRelationships = new ArrayList<>();
+        final List<Node> deletedNodes = new ArrayList<>();
+        final List<Relationship> deletedRelationships = new ArrayList<>();
+        final Map<String, List<Node>> removedLabels = new HashMap<>();
+        final Map<String, List<PropertyEntryContainer<Node>>> removedNodeProperties = new HashMap<>();
+        final Map<String, List<PropertyEntryContainer<Relationship>>> removedRelationshipProperties = new HashMap<>();
+        final Map<String, List<Node>> assignedLabels = new HashMap<>();
+        final Map<String, List<PropertyEntryContainer<Node>>> assignedNodeProperties = new HashMap<>();
+        final Map<String, List<PropertyEntryContainer<Relationship>>> assignedRelationshipProperties = new HashMap<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            final TriggerMetadata m = transactions.get(i);
+            final Predicate<Node> nodeExists = exists(nodeDeletions, i);
+            final Predicate<Relationship> relationshipExists = exists(relationshipDeletions, i);
+            addAll(createdNodes, m.createdNodes, nodeExists);
+            addAll(createdRelationships, m.createdRelationships, relationshipExists);
+            deletedNodes.addAll(m.deletedNodes);
+            deletedRelationships.addAll(m.deletedRelationships);
+            addAllByKey(removedLabels, m.removedLabels, nodeExists);
+            addAllByKey(removedNodeProperties, m.removedNodeProperties, entry -> nodeExists.test(entry.entity));
+            addAllByKey(removedRelationshipProperties, m.removedRelationshipProperties, entry -> relationshipExists.test(entry.entity));
+            addAllByKey(assignedLabels, m.assignedLabels, nodeExists);
+            addAllByKey(assignedNodeProperties, m.assignedNodeProperties, entry -> nodeExists.test(entry.entity));
+            addAllByKey(assignedRelationshipProperties, m.assignedRelationshipProperties, entry -> relationshipExists.test(entry.entity));
+        }
+        final TriggerMetadata last = transactions.get(transactions.size() - 1);
+        return new TriggerMetadata(last.transactionId, last.commitTime,
+                createdNodes, createdRelationships, deletedNodes, deletedRelationships,
+                removedLabels, removedNodeProperties, removedRelationshipProperties,
+                assignedLabels, assignedNodeProperties, assignedRelationshipProperties,
+                last.metaData, nodeDeletions.keySet(), relationshipDeletions.keySet());
+    }
+
+    private static <T extends Entity> Predicate<T> exists(MutableLongIntMap deletions, int index) {
+        // the virtual entities rebuilt for the deleted ones are kept as they are
+        return entity -> entity instanceof VirtualNode || entity instanceof VirtualRelationship || deletions.getIfAbsent(entity.getId(), -1) <= index;
+    }
+
+    private static <T> void addAll(List<T> result, List<T> values, Predicate<T> filter) {
+        for (T value : values) {
+            if (filter.test(value)) {
+                result.add(value);
+            }
+        }
     }
 
-    private static <T extends Entity> Map<String, List<PropertyEntryContainer<T>>> rebindPropsEntries(TransactionData txData, Map<String, List<PropertyEntryContainer<T>>> removedNodeProperties) {
+    private static <T> void addAllByKey(Map<String, List<T>> result, Map<String, List<T>> map, Predicate<T> filter) {
+        map.forEach((key, values) -> {
+            final List<T> list = result.computeIfAbsent(key, k -> new ArrayList<>());
+            addAll(list, values, filter);
+            if (list.isEmpty()) {
+                result.remove(key);
+            }
+        });
+    }
+
+    private static <T extends Entity> Map<String, List<PropertyEntryContainer<T>>> rebindPropsEntries(VirtualEntities virtualEntities, Map<String, List<PropertyEntryContainer<T>>> removedNodeProperties) {
         return removedNodeProperties.entrySet()
                 .stream()
                 .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().stream()
-                        .map(entry ->  entry.copy((T) toVirtualEntity(txData, entry.entity)))
+                        .map(entry ->  entry.copy(virtualEntities.get(entry.entity)))
                         .collect(Collectors.toList())));
     }
 
-    private static <T extends Entity> List<T> rebindDeleted(List<T> entities, TransactionData txData) {
+    private static <T extends Entity> List<T> rebindDeleted(List<T> entities, VirtualEntities virtualEntities) {
         return entities.stream()
-                .map(e -> (T) toVirtualEntity(txData, e))
+                .map(virtualEntities::get)
                 .collect(Collectors.toList());
     }
 
-    private static <T extends Entity> Entity toVirtualEntity(TransactionData txData, T e) {
-        if (e instanceof Node) {
-            Node node = (Node) e;
-            final Label[] labels = Iterables.stream(txData.removedLabels())
-                    .filter(label -> label.node().equals(node))
-                    .map(LabelEntry::label)
-                    .toArray(Label[]::new);
-            final Map<String, Object> props = getProps(txData.removedNodeProperties(), node);
-            return new VirtualNode(labels, props);
-        } else {
-            Relationship rel = (Relationship) e;
-            final Map<String, Object> props = getProps(txData.removedRelationshipProperties(), rel);
-            return new VirtualRelationship(rel.getStartNode(), rel.getEndNode(), rel.getType(), props);
+    /**
+     * Rebuilds the entities with their removed labels and properties as virtual ones.
+     * The removed entries of the transaction are grouped by entity id once, so that rebuilding every deleted entity
+     * doesn't scan all the removed entries again, and every entity is rebuilt only once.
+     */
+    private static class VirtualEntities {
+        private final MutableLongObjectMap<List<Label>> removedLabels = new LongObjectHashMap<>();
+        private final MutableLongObjectMap<Map<String, Object>> removedNodeProperties = new LongObjectHashMap<>();
+        private final MutableLongObjectMap<Map<String, Object>> removedRelationshipProperties = new LongObjectHashMap<>();
+        private final MutableLongObjectMap<Node> nodes = new LongObjectHashMap<>();
+        private final MutableLongObjectMap<Relationship> relationships = new LongObjectHashMap<>();
+
+        VirtualEntities(TransactionData txData) {
+            for (LabelEntry entry : txData.removedLabels()) {
+                removedLabels.getIfAbsentPut(entry.node().getId(), ArrayList::new).add(entry.label());
+            }
+            groupProperties(txData.removedNodeProperties(), removedNodeProperties);
+            groupProperties(txData.removedRelationshipProperties(), removedRelationshipProperties);
+        }
+
+        private static <T extends Entity> void groupProperties(Iterable<PropertyEntry<T>> propertyEntries, MutableLongObjectMap<Map<String, Object>> result) {
+            for (PropertyEntry<T> entry : propertyEntries) {
+                result.getIfAbsentPut(entry.entity().getId(), HashMap::new).put(entry.key(), entry.previouslyCommittedValue());
+            }
         }
-    }
 
-    private static <T extends Entity> Map<String, Object> getProps(Iterable<PropertyEntry<T>> propertyEntries, T entity) {
-        return Iterables.stream(propertyEntries)
-                .filter(label -> label.entity().equals(entity))
-                .collect(Collectors.toMap(PropertyEntry::key, PropertyEntry::previouslyCommittedValue));
+        <T extends Entity> T get(T e) {
+            if (e instanceof Node) {
+                return (T) nodes.getIfAbsentPut(e.getId(), () -> {
+                    final Label[] labels = removedLabels.getIfAbsentValue(e.getId(), Collections.emptyList()).toArray(new Label[0]);
+                    return new VirtualNode(labels, removedNodeProperties.getIfAbsentValue(e.getId(), Collections.emptyMap()));
+                });
+            } else {
+                return (T) relationships.getIfAbsentPut(e.getId(), () -> {
+                    final Relationship rel = (Relationship) e;
+                    return new VirtualRelationship(rel.getStartNode(), rel.getEndNode(), rel.getType(),
+                            removedRelationshipProperties.getIfAbsentValue(e.getId(), Collections.emptyMap()));
+                });
+            }
+        }
     }
 
     public TriggerMetadata rebind(Transaction tx) {
@@ -146,7 +264,7 @@ public class TriggerMetadata {
         final Map<String, List<PropertyEntryContainer<Relationship>>> assignedRelationshipProperties = rebindPropertyEntryContainer(this.assignedRelationshipProperties, tx);
         return new TriggerMetadata(transactionId, commitTime, createdNodes, createdRelationships, deletedNodes, deletedRelationships,
                 removedLabels, removedNodeProperties, removedRelationshipProperties, assignedLabels, assignedNodeProperties,
-                assignedRelationshipProperties, metaData);
+                assignedRelationshipProperties, metaData, deletedNodeIds, deletedRelationshipIds);
     }
 
     private <T extends Entity> Map<String, List<PropertyEntryContainer<T>>> rebindPropertyEntryContainer(Map<String, List<PropertyEntryContainer<T>>> map, Transaction tx) {
@@ -105,6 +105,28 @@ public class JsonUtil {
         }
     }
 
+    /**
+     * Like {@link #loadJson(Object, Map, String, String, boolean, String, List)} with the default path options,
+     * but the path is evaluated while parsing, so only the selected values are materialized, see {@link StreamingJsonPath#rows}.
+     */
+    public static Stream<Object> streamJson(Object urlOrBinary, Map<String,Object> headers, String payload, StreamingJsonPath path, boolean failOnError, String compressionAlgo) {
+        try {
+            if (urlOrBinary instanceof String) {
+                String url = (String) urlOrBinary;
+                urlOrBinary = Util.getLoadUrlByConfigFile("json", url, "url").orElse(url);
+            }
+            InputStream input = FileUtils.inputStreamFor(urlOrBinary, headers, payload, compressionAlgo);
+            JsonParser parser = OBJECT_MAPPER.getFactory().createParser(input);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(path.rows(parser, OBJECT_MAPPER), 0), false)
+                    .onClose(() -> Util.close(input));
+        } catch (IOException e) {
+            if(!failOnError)
+                return Stream.of();
+            else
+                throw new RuntimeException(e);
+        }
+    }
+
     public static Stream<Object> loadJson(String url) {
         return loadJson(url,null,null,"", true, null, null);
     }
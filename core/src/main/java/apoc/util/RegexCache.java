@@ -0,0 +1,78 @@
+package apoc.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded cache of the compiled regular expressions passed to the APOC functions and procedures,
+ * so that a query calling a function with the same regex for every row compiles it once.
+ * The least recently used patterns are evicted when the cache holds <code>MAX_SIZE</code> patterns.
+ */
+public class RegexCache {
+
+    public static final int MAX_SIZE = 1000;
+
+    private static final Cache<Key, Pattern> CACHE = CacheBuilder.newBuilder()
+            .maximumSize(MAX_SIZE)
+            .recordStats()
+            .build();
+
+    private RegexCache() {}
+
+    private static class Key {
+        private final String regex;
+        private final int flags;
+
+        private Key(String regex, int flags) {
+            this.regex = regex;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return flags == key.flags && regex.equals(key.regex);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(regex, flags);
+        }
+    }
+
+    /**
+     * @return the same pattern as {@link Pattern#compile(String)}, invalid regular expressions throw a {@link java.util.regex.PatternSyntaxException}
+     */
+    public static Pattern compile(String regex) {
+        return compile(regex, 0);
+    }
+
+    public static Pattern compile(String regex, int flags) {
+        final Key key = new Key(regex, flags);
+        Pattern pattern = CACHE.getIfPresent(key);
+        if (pattern == null) {
+            // compiled outside of the cache loader, so that the PatternSyntaxException isn't wrapped
+            pattern = Pattern.compile(regex, flags);
+            CACHE.put(key, pattern);
+        }
+        return pattern;
+    }
+
+    public static long getHitCount() {
+        return stats().hitCount();
+    }
+
+    public static long getMissCount() {
+        return stats().missCount();
+    }
+
+    public static CacheStats stats() {
+        return CACHE.stats();
+    }
+}
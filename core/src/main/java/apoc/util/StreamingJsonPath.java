@@ -0,0 +1,293 @@
+package apoc.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Evaluates the streamable subset of JsonPath directly on a Jackson token stream, so only the matching subtrees are materialized.
+ * Supported are child properties (<code>.name</code>, <code>['name']</code>), wildcards (<code>.*</code>, <code>[*]</code>),
+ * non-negative array indexes (<code>[2]</code>) and slices (<code>[1:5]</code>, <code>[:5]</code>, <code>[1:]</code>).
+ * Deep scans, filters, functions, unions and negative indexes need the whole document and are not supported, {@link #compile(String)} returns null for them.
+ *
+ * The matches are evaluated with the default path options of apoc.load.json (DEFAULT_PATH_LEAF_TO_NULL, SUPPRESS_EXCEPTIONS)
+ * and {@link #rows(JsonParser, ObjectMapper)} flattens them the same way as apoc.load.json flattens a materialized path result.
+ */
+public class StreamingJsonPath {
+
+    private enum Kind { PROPERTY, WILDCARD, INDEX, SLICE }
+
+    private static class Segment {
+        private final Kind kind;
+        private final String name;
+        private final int from;
+        private final int to;
+
+        private Segment(Kind kind, String name, int from, int to) {
+            this.kind = kind;
+            this.name = name;
+            this.from = from;
+            this.to = to;
+        }
+
+        private boolean appliesToObject() {
+            return kind == Kind.PROPERTY || kind == Kind.WILDCARD;
+        }
+
+        private boolean appliesToArray() {
+            return kind != Kind.PROPERTY;
+        }
+
+        private boolean matches(String field) {
+            return kind == Kind.WILDCARD || name.equals(field);
+        }
+
+        private boolean matches(int index) {
+            return kind == Kind.WILDCARD || (index >= from && index < to);
+        }
+    }
+
+    private final List<Segment> segments;
+    private final boolean definite;
+
+    private StreamingJsonPath(List<Segment> segments) {
+        this.segments = segments;
+        this.definite = segments.stream().allMatch(s -> s.kind == Kind.PROPERTY || s.kind == Kind.INDEX);
+    }
+
+    /**
+     * @return the compiled path, or null if the path can't be evaluated on a token stream
+     */
+    public static StreamingJsonPath compile(String path) {
+        if (path == null || path.isBlank()) return new StreamingJsonPath(List.of());
+        String p = path.trim();
+        if (p.startsWith("$")) {
+            p = p.substring(1);
+        } else if (!p.startsWith("[") && !p.startsWith(".")) {
+            p = "." + p;
+        }
+        List<Segment> segments = new ArrayList<>();
+        int i = 0;
+        while (i < p.length()) {
+            char c = p.charAt(i);
+            if (c == '.') {
+                if (i + 1 >= p.length() || p.charAt(i + 1) == '.') return null;
+                int end = i + 1;
+                while (end < p.length() && p.charAt(end) != '.' && p.charAt(end) != '[') end++;
+                String name = p.substring(i + 1, end);
+                if (name.equals("*")) {
+                    segments.add(new Segment(Kind.WILDCARD, null, 0, 0));
+                } else if (name.isEmpty() || !name.chars().allMatch(ch -> Character.isLetterOrDigit(ch) || ch == '_' || ch == '-' || ch == '$')) {
+                    return null;
+                } else {
+                    segments.add(new Segment(Kind.PROPERTY, name, 0, 0));
+                }
+                i = end;
+            } else if (c == '[') {
+                int end = p.indexOf(']', i);
+                if (end < 0) return null;
+                Segment segment = bracket(p.substring(i + 1, end).trim());
+                if (segment == null) return null;
+                segments.add(segment);
+                i = end + 1;
+            } else {
+                return null;
+            }
+        }
+        return new StreamingJsonPath(segments);
+    }
+
+    private static Segment bracket(String content) {
+        if (content.equals("*")) return new Segment(Kind.WILDCARD, null, 0, 0);
+        if (content.length() >= 2 && (content.charAt(0) == '\'' || content.charAt(0) == '"')) {
+            char quote = content.charAt(0);
+            String name = content.substring(1, content.length() - 1);
+            if (content.charAt(content.length() - 1) != quote || name.indexOf(quote) >= 0 || name.indexOf('\\') >= 0) return null;
+            return new Segment(Kind.PROPERTY, name, 0, 0);
+        }
+        try {
+            int colon = content.indexOf(':');
+            if (colon < 0) {
+                int index = Integer.parseInt(content);
+                return index < 0 ? null : new Segment(Kind.INDEX, null, index, index + 1);
+            }
+            String from = content.substring(0, colon).trim();
+            String to = content.substring(colon + 1).trim();
+            if (to.contains(":")) return null;
+            int start = from.isEmpty() ? 0 : Integer.parseInt(from);
+            int end = to.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(to);
+            return start < 0 || end < 0 ? null : new Segment(Kind.SLICE, null, start, end);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Evaluates the path on every top-level value of the parser. For each value:
+     * if the path selects several values (or a single array), the selected maps are returned one by one, or, if the first one is not a map, all selected values as one list;
+     * otherwise the selected value is returned as is, or null if there is none.
+     */
+    public Iterator<Object> rows(JsonParser parser, ObjectMapper mapper) {
+        return new RowIterator(parser, mapper);
+    }
+
+    private static final Object NONE = new Object();
+    private static final Object END = new Object();
+
+    private static class Frame {
+        private final int segment;
+        private final boolean emitAll;
+        private final boolean leafProperty;
+        private int index;
+        private boolean found;
+
+        private Frame(int segment, boolean emitAll, boolean leafProperty) {
+            this.segment = segment;
+            this.emitAll = emitAll;
+            this.leafProperty = leafProperty;
+        }
+    }
+
+    private class RowIterator implements Iterator<Object> {
+        private final JsonParser parser;
+        private final ObjectMapper mapper;
+        private final Deque<Frame> stack = new ArrayDeque<>();
+        private boolean inDocument;
+        private boolean list;
+        private boolean streamingMaps;
+        private boolean finished;
+        private Object next = NONE;
+
+        private RowIterator(JsonParser parser, ObjectMapper mapper) {
+            this.parser = parser;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == NONE && !finished) {
+                try {
+                    next = computeNext();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (next == END) {
+                    finished = true;
+                    next = NONE;
+                }
+            }
+            return next != NONE;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Object result = next;
+            next = NONE;
+            return result;
+        }
+
+        private Object computeNext() throws IOException {
+            while (true) {
+                if (streamingMaps) {
+                    Object match = nextMatch();
+                    if (match != END) return match;
+                    streamingMaps = false;
+                    continue;
+                }
+                if (parser.nextToken() == null) return END;
+                inDocument = true;
+                list = !definite;
+                Object first = visit(0, false);
+                if (first == NONE) first = nextMatch();
+                if (!list) {
+                    // a definite path selects exactly one value
+                    if (first == END) return null;
+                    finishDocument();
+                    return first;
+                }
+                if (first == END) continue;
+                if (first instanceof Map) {
+                    streamingMaps = true;
+                    return first;
+                }
+                List<Object> values = new ArrayList<>();
+                values.add(first);
+                for (Object match = nextMatch(); match != END; match = nextMatch()) {
+                    values.add(match);
+                }
+                return values;
+            }
+        }
+
+        private void finishDocument() throws IOException {
+            while (nextMatch() != END) {
+                // consume the rest of the document
+            }
+        }
+
+        private Object nextMatch() throws IOException {
+            while (inDocument && !stack.isEmpty()) {
+                Frame frame = stack.peek();
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                    stack.pop();
+                    if (frame.leafProperty && !frame.found && !definite) {
+                        // DEFAULT_PATH_LEAF_TO_NULL
+                        return null;
+                    }
+                    continue;
+                }
+                boolean matches;
+                if (token == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    matches = frame.emitAll || segments.get(frame.segment).matches(field);
+                    frame.found |= matches;
+                } else {
+                    matches = frame.emitAll || segments.get(frame.segment).matches(frame.index++);
+                }
+                if (!matches) {
+                    parser.skipChildren();
+                    continue;
+                }
+                Object value = visit(frame.emitAll ? segments.size() : frame.segment + 1, frame.emitAll);
+                if (value != NONE) return value;
+            }
+            inDocument = false;
+            return END;
+        }
+
+        // the parser is at the start of a value that matched all segments before the given one
+        private Object visit(int segment, boolean element) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (segment == segments.size()) {
+                if (definite && !element && token == JsonToken.START_ARRAY) {
+                    // like a materialized list, the elements of a selected array are flattened
+                    list = true;
+                    stack.push(new Frame(segment, true, false));
+                    return NONE;
+                }
+                return mapper.readValue(parser, Object.class);
+            }
+            Segment next = segments.get(segment);
+            if ((token == JsonToken.START_OBJECT && next.appliesToObject()) || (token == JsonToken.START_ARRAY && next.appliesToArray())) {
+                boolean leafProperty = token == JsonToken.START_OBJECT && next.kind == Kind.PROPERTY && segment == segments.size() - 1;
+                stack.push(new Frame(segment, false, leafProperty));
+                return NONE;
+            }
+            parser.skipChildren();
+            return NONE;
+        }
+    }
+}
@@ -25,15 +25,32 @@ public class MultiThreadedGlobalGraphOperations {
 
     public enum GlobalOperationsTypes { NODES, RELATIONSHIPS }
 
+    /**
+     * Like a {@link BiConsumer} of kernel transaction and cursor, but also gets the core API transaction of the batch,
+     * e.g. to look up the entity under the cursor
+     */
+    @FunctionalInterface
+    public interface TxConsumer<T> {
+        void accept(Transaction tx, KernelTransaction ktx, T cursor);
+    }
+
     public static BatchJobResult forAllNodes(GraphDatabaseAPI db, ExecutorService executorService, int batchSize, BiConsumer<KernelTransaction, NodeCursor> consumer) {
-        return forAll(db, executorService, batchSize, GlobalOperationsTypes.NODES, consumer);
+        return forAll(db, executorService, batchSize, GlobalOperationsTypes.NODES, (tx, ktx, cursor) -> consumer.accept(ktx, (NodeCursor) cursor));
+    }
+
+    public static BatchJobResult forAllNodes(GraphDatabaseAPI db, ExecutorService executorService, int batchSize, TxConsumer<NodeCursor> consumer) {
+        return forAll(db, executorService, batchSize, GlobalOperationsTypes.NODES, (tx, ktx, cursor) -> consumer.accept(tx, ktx, (NodeCursor) cursor));
     }
 
     public static BatchJobResult forAllRelationships(GraphDatabaseAPI db, ExecutorService executorService, int batchSize, BiConsumer<KernelTransaction, RelationshipScanCursor> consumer) {
-        return forAll(db, executorService, batchSize, GlobalOperationsTypes.RELATIONSHIPS, consumer);
+        return forAll(db, executorService, batchSize, GlobalOperationsTypes.RELATIONSHIPS, (tx, ktx, cursor) -> consumer.accept(ktx, (RelationshipScanCursor) cursor));
+    }
+
+    public static BatchJobResult forAllRelationships(GraphDatabaseAPI db, ExecutorService executorService, int batchSize, TxConsumer<RelationshipScanCursor> consumer) {
+        return forAll(db, executorService, batchSize, GlobalOperationsTypes.RELATIONSHIPS, (tx, ktx, cursor) -> consumer.accept(tx, ktx, (RelationshipScanCursor) cursor));
     }
 
-    private static BatchJobResult forAll(GraphDatabaseAPI db, ExecutorService executorService, int batchSize, GlobalOperationsTypes type, BiConsumer consumer) {
+    private static BatchJobResult forAll(GraphDatabaseAPI db, ExecutorService executorService, int batchSize, GlobalOperationsTypes type, TxConsumer<Object> consumer) {
         try {
             DependencyResolver dependencyResolver = db.getDependencyResolver();
             long maxId = getHighestIdInUseForStore(dependencyResolver, type);
@@ -129,10 +146,10 @@ public class MultiThreadedGlobalGraphOperations {
         private final long batchStart;
         private final int batchSize;
         private final GraphDatabaseAPI db;
-        private final BiConsumer consumer;
+        private final TxConsumer<Object> consumer;
         private final BatchJobResult result;
 
-        public BatchJob(GlobalOperationsTypes type, long batchStart, int batchSize, GraphDatabaseAPI db, BiConsumer consumer, BatchJobResult result) {
+        public BatchJob(GlobalOperationsTypes type, long batchStart, int batchSize, GraphDatabaseAPI db, TxConsumer<Object> consumer, BatchJobResult result) {
             this.type = type;
             this.batchStart = batchStart;
             this.batchSize = batchSize;
@@ -150,10 +167,10 @@ public class MultiThreadedGlobalGraphOperations {
 
                 switch (type) {
                     case NODES:
-                        iterateForNodes(ktx, read, cursors, result);
+                        iterateForNodes(tx, ktx, read, cursors, result);
                         break;
                     case RELATIONSHIPS:
-                        iterateForRelationships(ktx, read, cursors, result);
+                        iterateForRelationships(tx, ktx, read, cursors, result);
                         break;
                     default:
                         throw new IllegalArgumentException("dunno how to deal with type " + type);
@@ -164,28 +181,28 @@ public class MultiThreadedGlobalGraphOperations {
             }
         }
 
-        private void iterateForNodes(KernelTransaction ktx, Read read, CursorFactory cursors, BatchJobResult result) {
+        private void iterateForNodes(Transaction tx, KernelTransaction ktx, Read read, CursorFactory cursors, BatchJobResult result) {
             try (NodeCursor cursor = cursors.allocateNodeCursor(ktx.cursorContext())) {
                 for (long id = batchStart; id < batchStart + batchSize; id++) {
                     read.singleNode(id, cursor);
-                    processAndReport(ktx, cursor::next, consumer, cursor, result);
+                    processAndReport(tx, ktx, cursor::next, consumer, cursor, result);
                 }
             }
         }
 
-        private void iterateForRelationships(KernelTransaction ktx, Read read, CursorFactory cursors, BatchJobResult result) {
+        private void iterateForRelationships(Transaction tx, KernelTransaction ktx, Read read, CursorFactory cursors, BatchJobResult result) {
             try (RelationshipScanCursor cursor = cursors.allocateRelationshipScanCursor(ktx.cursorContext())) {
                 for (long id = batchStart; id < batchStart + batchSize; id++) {
                     read.singleRelationship(id, cursor);
-                    processAndReport(ktx, cursor::next, consumer, cursor, result);
+                    processAndReport(tx, ktx, cursor::next, consumer, cursor, result);
                 }
             }
         }
 
-        private void processAndReport(KernelTransaction ktx, Supplier<Boolean> nextMethod, BiConsumer consumer, Object parameter, BatchJobResult result) {
+        private void processAndReport(Transaction tx, KernelTransaction ktx, Supplier<Boolean> nextMethod, TxConsumer<Object> consumer, Object parameter, BatchJobResult result) {
             if (nextMethod.get()) {
                 try {
-                    consumer.accept(ktx, parameter);
+                    consumer.accept(tx, ktx, parameter);
                     result.incrementSuceeded();
                 } catch (Exception e) {
                     result.incrementFailures();
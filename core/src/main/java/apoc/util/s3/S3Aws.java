@@ -10,9 +10,11 @@ import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
 import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3Object;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Objects;
 
@@ -46,13 +48,23 @@ public class S3Aws {
     }
 
     public StreamConnection getS3AwsInputStream(S3Params s3Params) {
+        return getS3AwsInputStream(s3Params, S3URLConnection.getReadPartSize(), S3URLConnection.getReadConcurrency());
+    }
 
-        S3Object s3Object = s3Client.getObject(s3Params.getBucket(), s3Params.getKey());
-        ObjectMetadata metadata = s3Object.getObjectMetadata();
+    /**
+     * Objects larger than <code>partSize</code> are read with up to <code>concurrency</code> parallel ranged GETs,
+     * see {@link S3PrefetchInputStream}, smaller ones with a single GET
+     */
+    public StreamConnection getS3AwsInputStream(S3Params s3Params, int partSize, int concurrency) {
+        ObjectMetadata metadata = s3Client.getObjectMetadata(s3Params.getBucket(), s3Params.getKey());
         return new StreamConnection() {
             @Override
             public InputStream getInputStream() {
-                return s3Object.getObjectContent();
+                if (concurrency <= 1 || metadata.getContentLength() <= partSize) {
+                    return s3Client.getObject(s3Params.getBucket(), s3Params.getKey()).getObjectContent();
+                }
+                return new S3PrefetchInputStream((start, end) -> getObjectRange(s3Params, metadata.getETag(), start, end),
+                        metadata.getContentLength(), partSize, concurrency);
             }
 
             @Override
@@ -72,6 +84,18 @@ public class S3Aws {
         };
     }
 
+    private InputStream getObjectRange(S3Params s3Params, String eTag, long start, long end) throws IOException {
+        // the ETag constraint makes sure that all the parts are read from the same version of the object
+        GetObjectRequest request = new GetObjectRequest(s3Params.getBucket(), s3Params.getKey())
+                .withRange(start, end)
+                .withMatchingETagConstraint(eTag);
+        S3Object s3Object = s3Client.getObject(request);
+        if (s3Object == null) {
+            throw new IOException("The S3 object " + s3Params.getKey() + " has been modified while being read");
+        }
+        return s3Object.getObjectContent();
+    }
+
     private static AWSCredentialsProvider getCredentialsProvider(
             final String accessKey, final String secretKey, final String sessionToken) {
 
@@ -0,0 +1,97 @@
+package apoc.util.s3;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Process-wide pool of the part buffers of the {@link S3OutputStream}s.
+ * The buffers in use and the idle ones held for reuse never exceed <code>capacity</code> bytes,
+ * a writer asking for a buffer waits until another writer releases one instead of failing.
+ * Idle buffers are kept up to a quarter of the capacity, idle buffers of another size are dropped when the capacity is exhausted.
+ */
+public class S3BufferPool {
+
+    private static final S3BufferPool INSTANCE = new S3BufferPool(S3URLConnection.getUploadMemory());
+
+    private final long capacity;
+    private final long maxIdle;
+    private final Map<Integer, Deque<byte[]>> idle = new HashMap<>();
+    // the bytes of the buffers in use and of the idle ones
+    private long allocated = 0L;
+    private long idleBytes = 0L;
+
+    S3BufferPool(long capacity) {
+        this.capacity = capacity;
+        this.maxIdle = capacity / 4;
+    }
+
+    public static S3BufferPool getInstance() {
+        return INSTANCE;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return a buffer of <code>size</code> bytes, which has to be given back with {@link #release(byte[])}
+     */
+    public synchronized byte[] acquire(int size) throws InterruptedIOException {
+        if (size > capacity) {
+            throw new IllegalArgumentException(String.format("A buffer of %d bytes was requested, but the S3 upload memory is %d bytes", size, capacity));
+        }
+        while (true) {
+            final Deque<byte[]> buffers = idle.get(size);
+            if (buffers != null && !buffers.isEmpty()) {
+                idleBytes -= size;
+                return buffers.pop();
+            }
+            if (allocated + size <= capacity) {
+                allocated += size;
+                return new byte[size];
+            }
+            if (!dropIdle()) {
+                try {
+                    // wait for a writer to release a buffer
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for an S3 upload buffer");
+                }
+            }
+        }
+    }
+
+    public synchronized void release(byte[] buffer) {
+        if (idleBytes + buffer.length <= maxIdle) {
+            idle.computeIfAbsent(buffer.length, size -> new ArrayDeque<>()).push(buffer);
+            idleBytes += buffer.length;
+        } else {
+            allocated -= buffer.length;
+        }
+        notifyAll();
+    }
+
+    private boolean dropIdle() {
+        for (Deque<byte[]> buffers : idle.values()) {
+            if (!buffers.isEmpty()) {
+                final int size = buffers.pop().length;
+                idleBytes -= size;
+                allocated -= size;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized long getAllocated() {
+        return allocated;
+    }
+
+    synchronized long getIdle() {
+        return idleBytes;
+    }
+}
@@ -1,9 +1,9 @@
 package apoc.util.s3;
 
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
 import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
 import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
-import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
 import com.amazonaws.services.s3.model.PartETag;
 import com.amazonaws.services.s3.model.UploadPartRequest;
 import com.amazonaws.services.s3.model.UploadPartResult;
@@ -12,30 +12,41 @@ import javax.annotation.Nonnull;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Uploads the written bytes as S3 multipart upload.
+ * The part buffers are taken from the process-wide {@link S3BufferPool}, so a writer waits when the memory of all the uploads is in use,
+ * and the parts of all the streams are uploaded by the same executor of <code>s3.handler.uploadThreads</code> threads.
+ */
 public class S3OutputStream extends OutputStream {
-    private volatile boolean isDone = false;
-    private volatile long totalMemory = 0L;
+    private static final ThreadPoolExecutor UPLOAD_EXECUTOR = newUploadExecutor(S3URLConnection.getUploadThreads());
+
+    private final AmazonS3 s3Client;
+    private final S3BufferPool bufferPool;
+    private final String bucketName;
+    private final String keyName;
+    private final String uploadId;
+    private final List<Future<PartETag>> parts = new ArrayList<>();
+    private final AtomicReference<Throwable> uploadFailure = new AtomicReference<>();
     private long transferred = 0;
     private int buffSize = 0;
-    private final Object totalMemoryLock = new Object();
-    private final Future<?> managerFuture;
     private byte[] buffer;
-    private final String bucketName;
-    private final String keyName;
-    private final BlockingQueue<S3UploadData> queue = new LinkedBlockingQueue<>();
+    private boolean closed = false;
     private int maxWaitTimeMinutes = S3UploadConstants.MAX_WAIT_TIME_MINUTES;
 
     // Extra constructor to allow user to overwrite maxWaitTimeMinutes.
@@ -45,44 +56,42 @@ public class S3OutputStream extends OutputStream {
     }
 
     S3OutputStream(@Nonnull AmazonS3 s3Client, @Nonnull String bucketName, @Nonnull String keyName) throws IOException {
+        this(s3Client, bucketName, keyName, S3BufferPool.getInstance());
+    }
+
+    S3OutputStream(@Nonnull AmazonS3 s3Client, @Nonnull String bucketName, @Nonnull String keyName, @Nonnull S3BufferPool bufferPool) throws IOException {
         if (bucketName.isEmpty() || keyName.isEmpty()) {
             throw new InvalidParameterException("Bucket and/or key pass to S3OutputStream is empty.");
         }
+        this.s3Client = s3Client;
+        this.bufferPool = bufferPool;
         this.bucketName = bucketName;
         this.keyName = keyName;
+        this.uploadId = s3Client.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucketName, keyName)).getUploadId();
         allocateMemory(AllocationSize.MB_5);
-        ExecutorService executorService = Executors.newSingleThreadExecutor(
-                new ThreadFactoryBuilder().setNameFormat("S3-Upload-Manager-Thread-%d").setDaemon(true).build());
-        managerFuture = executorService.submit(new S3UploadManager(s3Client, queue));
     }
 
-    private void allocateMemory(final AllocationSize allocationSize) throws IOException {
-        long incomingSize = allocationSize.getAllocationSize();
-        synchronized (totalMemoryLock) {
-            if (incomingSize > S3UploadConstants.TOTAL_MEMORY_ALLOWED) {
-                throw new IOException(String.format("A total of %d bytes of memory were provided for all buffers, but a buffer of %d bytes was requested.",
-                        S3UploadConstants.TOTAL_MEMORY_ALLOWED, incomingSize));
-            }
-            // Only allow defined amount of memory to be used at one time.
-            while ((totalMemory + incomingSize) > S3UploadConstants.TOTAL_MEMORY_ALLOWED) {
-                try {
-                    // Wait for signal that the amount of memory in use has gone down before allocating more.
-                    totalMemoryLock.wait();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-        }
+    private static ThreadPoolExecutor newUploadExecutor(int threads) {
+        // the queue is bounded by the buffer pool, every queued part holds one of its buffers
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("S3-Upload-Thread-%d").setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 
-        // We have enough free memory to continue.
-        synchronized (totalMemoryLock) {
-            totalMemory += incomingSize;
+    private void allocateMemory(final AllocationSize allocationSize) throws IOException {
+        // a part can't be larger than the whole upload memory, but S3 needs at least 5 MB
+        final int size = (int) Math.min(allocationSize.getAllocationSize(), bufferPool.getCapacity());
+        try {
+            buffer = bufferPool.acquire(size);
+        } catch (InterruptedIOException e) {
+            abort();
+            throw e;
         }
-        buffer = new byte[(int)incomingSize];
     }
 
     private void transmitBuffer() throws IOException {
-        queue.add(new S3UploadData(new ByteArrayInputStream(buffer), false, buffSize));
+        uploadPart(false);
         transferred += buffSize;
         buffSize = 0;
 
@@ -104,6 +113,23 @@ public class S3OutputStream extends OutputStream {
         }
     }
 
+    private void uploadPart(boolean isLast) throws IOException {
+        checkUploadFailure();
+        final byte[] data = buffer;
+        buffer = null;
+        final UploadTask part = new UploadTask(new Uploader(parts.size() + 1, data, buffSize, isLast));
+        parts.add(part);
+        UPLOAD_EXECUTOR.execute(part);
+    }
+
+    private void checkUploadFailure() throws IOException {
+        final Throwable failure = uploadFailure.get();
+        if (failure != null) {
+            abort();
+            throw new IOException("Upload of a part of " + keyName + " to S3 failed", failure);
+        }
+    }
+
     @Override
     public void write(final int i) throws IOException {
         write(new byte[] { (byte)i }, 0, 1);
@@ -117,6 +143,9 @@ public class S3OutputStream extends OutputStream {
     // This function call is used directly by OutputStream writer, so it's best that everything routes to it.
     @Override
     public void write(@Nonnull final byte[] b, final int offset, final int length) throws IOException {
+        if (closed) {
+            throw new IOException("The S3 output stream is closed");
+        }
         int rdPtr = offset;
         do {
             // If the amount of data left to consume from the input is less than the amount of space in the
@@ -135,121 +164,104 @@ public class S3OutputStream extends OutputStream {
     }
 
     @Override
-    public void close() {
-        // Do not reorder operations, setting done to true first defeats a race condition with the queue being blocked.
-        isDone = true;
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
 
         // Based on the requirements of multipart upload, the last piece can disobey the sizing requirements
         // See https://docs.aws.amazon.com/AmazonS3/latest/dev/qfacts.html
-        queue.add(new S3UploadData(new ByteArrayInputStream(buffer), true, buffSize));
-        buffer = null;
+        uploadPart(true);
+        final List<PartETag> partETags = new ArrayList<>(parts.size());
         try {
-            // Wait for manager's future to complete before exiting.
-            synchronized (managerFuture) {
-                managerFuture.get();
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            if (e instanceof InterruptedException) {
-                Thread.currentThread().interrupt();
+            // Wait for the parts to be uploaded before completing the upload.
+            for (Future<PartETag> part : parts) {
+                partETags.add(part.get(maxWaitTimeMinutes, TimeUnit.MINUTES));
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort();
+            throw new InterruptedIOException("Interrupted while uploading " + keyName + " to S3");
+        } catch (ExecutionException | TimeoutException e) {
+            abort();
+            throw new IOException("Upload of a part of " + keyName + " to S3 failed", e instanceof ExecutionException ? e.getCause() : e);
         }
+        s3Client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucketName, keyName, uploadId, partETags));
     }
 
-    private static class S3UploadData {
-        private final InputStream stream;
-        private final boolean isLast;
-        private final int size;
-
-        S3UploadData(@Nonnull InputStream stream, final boolean isLast, final int size) {
-            this.stream = stream;
-            this.isLast = isLast;
-            this.size = size;
+    private void abort() {
+        closed = true;
+        parts.forEach(part -> part.cancel(false));
+        if (buffer != null) {
+            bufferPool.release(buffer);
+            buffer = null;
         }
+        s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, keyName, uploadId));
+    }
 
-        InputStream getStream() {
-            return stream;
-        }
+    /**
+     * Gives the buffer of a part back to the pool when the part is cancelled before its upload started,
+     * as {@link Uploader#call()} is never run for it then.
+     */
+    private class UploadTask extends FutureTask<PartETag> {
+        private final Uploader uploader;
 
-        boolean getIsLast() {
-            return isLast;
+        UploadTask(Uploader uploader) {
+            super(uploader);
+            this.uploader = uploader;
         }
 
-        int getSize() {
-            return size;
+        @Override
+        protected void done() {
+            if (isCancelled() && uploader.claim()) {
+                bufferPool.release(uploader.data);
+            }
         }
     }
 
-    public class S3UploadManager implements Runnable {
-        private final AmazonS3 s3Client;
-        private final String uploadId;
-        private final BlockingQueue<S3UploadData> queue;
-        private final List<PartETag> partETags = new ArrayList<>();
-        private final InitiateMultipartUploadResult initResponse;
-        private final ExecutorService executorService = Executors.newFixedThreadPool(
-                S3UploadConstants.MAX_THREAD_COUNT,
-                new ThreadFactoryBuilder().setNameFormat("S3-Upload-Thread-%d").setDaemon(true).build());
+    private class Uploader implements Callable<PartETag> {
+        private final int partNumber;
+        private final byte[] data;
+        private final int size;
+        private final boolean isLast;
+        // the buffer is released either by the upload or by the cancellation of the part, whichever claims it first
+        private final AtomicBoolean claimed = new AtomicBoolean();
 
-        S3UploadManager(@Nonnull final AmazonS3 s3Client, @Nonnull final BlockingQueue<S3UploadData> queue) {
-            this.s3Client = s3Client;
-            this.queue = queue;
-            initResponse = s3Client.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucketName, keyName));
-            uploadId = initResponse.getUploadId();
+        Uploader(final int partNumber, @Nonnull final byte[] data, final int size, final boolean isLast) {
+            this.partNumber = partNumber;
+            this.data = data;
+            this.size = size;
+            this.isLast = isLast;
         }
 
-        @Override
-        public void run() {
-            int partNumber = 1;
-
-            // If the OutputStream is done and the queue is empty, exit the loop.
-            while (!isDone || !queue.isEmpty()) {
-                try {
-                    // Grab item from blocking queue and pass it to executor service.
-                    final S3UploadData data = queue.take();
-                    executorService.submit(new Uploader(partNumber++, data));
-                } catch (InterruptedException exception) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-
-            // Uploading is complete, finish off remaining parts.
-            executorService.shutdown();
-            try {
-                executorService.awaitTermination(maxWaitTimeMinutes, TimeUnit.MINUTES);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-            s3Client.completeMultipartUpload(
-                    new CompleteMultipartUploadRequest(bucketName, keyName, initResponse.getUploadId(), partETags));
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
         }
 
-        public class Uploader implements Runnable {
-            private final int partNumber;
-            private final S3UploadData s3UploadData;
-
-            Uploader(final int partNumber, @Nonnull final S3UploadData s3UploadData) {
-                this.partNumber = partNumber;
-                this.s3UploadData = s3UploadData;
+        @Override
+        public PartETag call() {
+            if (!claim()) {
+                // cancelled, the buffer is already back in the pool
+                return null;
             }
-
-            @Override
-            public void run() {
-                // Upload the part and add the part to the tags.
+            try {
                 final UploadPartRequest uploadPartRequest = new UploadPartRequest()
                         .withBucketName(bucketName)
                         .withKey(keyName)
                         .withUploadId(uploadId)
                         .withPartNumber(partNumber)
-                        .withInputStream(s3UploadData.getStream())
-                        .withPartSize(s3UploadData.getSize())
-                        .withLastPart(s3UploadData.getIsLast());
+                        .withInputStream(new ByteArrayInputStream(data, 0, size))
+                        .withPartSize(size)
+                        .withLastPart(isLast);
                 final UploadPartResult result = s3Client.uploadPart(uploadPartRequest);
-                partETags.add(result.getPartETag());
-
-                // Notify main thread that memory that was given is no longer in use.
-                synchronized (totalMemoryLock) {
-                    totalMemory -= s3UploadData.getSize();
-                    totalMemoryLock.notifyAll();
-                }
+                return result.getPartETag();
+            } catch (RuntimeException e) {
+                uploadFailure.compareAndSet(null, e);
+                throw e;
+            } finally {
+                // Give the buffer back for the next parts of this or other uploads.
+                bufferPool.release(data);
             }
         }
     }
@@ -276,8 +288,6 @@ public class S3OutputStream extends OutputStream {
         private static final long TRANSFERRED_2p5GB = AllocationSize.MB_5.getAllocationSize() * 500L;
         private static final long TRANSFERRED_25GB = AllocationSize.MB_50.getAllocationSize() * 500L;
         private static final long TRANSFERRED_2TB = AllocationSize.MB_500.getAllocationSize() * 4000L;
-        private static final long TOTAL_MEMORY_ALLOWED = AllocationSize.MB_750.getAllocationSize() * 3L; // 2.25 GB
-        private static final int MAX_THREAD_COUNT = 8;
         // A max of 5 TB could take a very long time, so give a lot of time for this.
         private static final int MAX_WAIT_TIME_MINUTES = 65536;
     }
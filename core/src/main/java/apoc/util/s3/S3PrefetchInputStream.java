@@ -0,0 +1,143 @@
+package apoc.util.s3;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import javax.annotation.Nonnull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads an S3 object with concurrent ranged GETs of <code>partSize</code> bytes.
+ * At most <code>concurrency</code> parts are downloaded or waiting to be read at the same time,
+ * the parts are served in order, so the memory in use is bounded by <code>(concurrency + 1) * partSize</code>.
+ */
+public class S3PrefetchInputStream extends InputStream {
+
+    /**
+     * Opens the bytes from <code>start</code> to <code>end</code> of the object, both inclusive like the HTTP Range header.
+     */
+    @FunctionalInterface
+    public interface RangeReader {
+        InputStream open(long start, long end) throws IOException;
+    }
+
+    private final RangeReader rangeReader;
+    private final long length;
+    private final int partSize;
+    private final int concurrency;
+    private final Queue<Future<byte[]>> parts = new ArrayDeque<>();
+    private final ExecutorService executorService;
+    private long nextPartStart = 0;
+    private byte[] part = new byte[0];
+    private int position = 0;
+    private boolean closed = false;
+
+    public S3PrefetchInputStream(@Nonnull RangeReader rangeReader, long length, int partSize, int concurrency) {
+        if (partSize <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("The part size and the concurrency of the S3 reads must be positive");
+        }
+        this.rangeReader = rangeReader;
+        this.length = length;
+        this.partSize = partSize;
+        this.concurrency = concurrency;
+        this.executorService = Executors.newFixedThreadPool(concurrency,
+                new ThreadFactoryBuilder().setNameFormat("S3-Download-Thread-%d").setDaemon(true).build());
+        prefetch();
+    }
+
+    private void prefetch() {
+        while (parts.size() < concurrency && nextPartStart < length) {
+            final long start = nextPartStart;
+            final long end = Math.min(start + partSize, length) - 1;
+            parts.add(executorService.submit(() -> readPart(start, end)));
+            nextPartStart = end + 1;
+        }
+    }
+
+    private byte[] readPart(long start, long end) throws IOException {
+        final int size = (int) (end - start + 1);
+        try (InputStream in = rangeReader.open(start, end)) {
+            final byte[] bytes = in.readNBytes(size);
+            if (bytes.length != size) {
+                throw new IOException(String.format("Expected %d bytes from offset %d of the S3 object, but got %d", size, start, bytes.length));
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * @return false if the whole object has been read
+     */
+    private boolean nextPart() throws IOException {
+        if (closed) {
+            throw new IOException("The S3 input stream is closed");
+        }
+        final Future<byte[]> next = parts.poll();
+        if (next == null) {
+            return false;
+        }
+        try {
+            part = next.get();
+            position = 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading the S3 object");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+        // the slot of the part just taken is given to the next one
+        prefetch();
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        while (position == part.length) {
+            if (!nextPart()) {
+                return -1;
+            }
+        }
+        return part[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (position == part.length) {
+            if (!nextPart()) {
+                return -1;
+            }
+        }
+        final int read = Math.min(len, part.length - position);
+        System.arraycopy(part, position, b, off, read);
+        position += read;
+        return read;
+    }
+
+    @Override
+    public int available() {
+        return part.length - position;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        parts.forEach(future -> future.cancel(true));
+        parts.clear();
+        part = new byte[0];
+        position = 0;
+        executorService.shutdownNow();
+    }
+}
@@ -15,6 +15,16 @@ public class S3URLConnection extends URLConnection {
     public static final String PROP_S3_HANDLER_USER_AGENT = "s3.handler.userAgent";
     public static final String PROP_S3_HANDLER_PROTOCOL = "s3.handler.protocol";
     public static final String PROP_S3_HANDLER_SIGNER_OVERRIDE = "s3.handler.signerOverride";
+    public static final String PROP_S3_HANDLER_READ_PART_SIZE = "s3.handler.readPartSize";
+    public static final String PROP_S3_HANDLER_READ_CONCURRENCY = "s3.handler.readConcurrency";
+    public static final String PROP_S3_HANDLER_UPLOAD_THREADS = "s3.handler.uploadThreads";
+    public static final String PROP_S3_HANDLER_UPLOAD_MEMORY = "s3.handler.uploadMemory";
+
+    private static final int DEFAULT_READ_PART_SIZE = 8 * 1024 * 1024;
+    private static final int DEFAULT_READ_CONCURRENCY = 4;
+    private static final int DEFAULT_UPLOAD_THREADS = 8;
+    private static final long DEFAULT_UPLOAD_MEMORY = 3L * 750 * 1024 * 1024;
+    private static final long MIN_UPLOAD_MEMORY = 5L * 1024 * 1024;
 
     public S3URLConnection(URL url) {
         super(url);
@@ -43,6 +53,34 @@ public class S3URLConnection extends URLConnection {
     }
 
 
+    /**
+     * @return the size in bytes of the ranged GETs of an S3 object read, objects up to this size are read with a single GET
+     */
+    public static int getReadPartSize() {
+        return Integer.getInteger(PROP_S3_HANDLER_READ_PART_SIZE, DEFAULT_READ_PART_SIZE);
+    }
+
+    /**
+     * @return the number of ranged GETs of an S3 object read in flight at the same time, 1 reads the object with a single GET
+     */
+    public static int getReadConcurrency() {
+        return Integer.getInteger(PROP_S3_HANDLER_READ_CONCURRENCY, DEFAULT_READ_CONCURRENCY);
+    }
+
+    /**
+     * @return the number of threads uploading the parts of all the S3 exports of the process
+     */
+    public static int getUploadThreads() {
+        return Math.max(1, Integer.getInteger(PROP_S3_HANDLER_UPLOAD_THREADS, DEFAULT_UPLOAD_THREADS));
+    }
+
+    /**
+     * @return the bytes of the part buffers of all the S3 exports of the process, at least one part of 5 MB
+     */
+    public static long getUploadMemory() {
+        return Math.max(MIN_UPLOAD_MEMORY, Long.getLong(PROP_S3_HANDLER_UPLOAD_MEMORY, DEFAULT_UPLOAD_MEMORY));
+    }
+
     public static StreamConnection openS3InputStream(URL url) throws IOException {
         S3Params s3Params = S3ParamsExtractor.extract(url);
         String region = Objects.nonNull(s3Params.getRegion()) ? s3Params.getRegion() : Regions.US_EAST_1.getName();
@@ -1,11 +1,57 @@
 package apoc.uuid;
 
 import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.util.Base64;
 import java.util.UUID;
 
 public class UuidUtil {
 
+    private static final int RANDOM_BLOCK_SIZE = 4096;
+    private static final ThreadLocal<RandomBlock> RANDOM_BLOCKS = ThreadLocal.withInitial(RandomBlock::new);
+
+    /**
+     * Secure random bytes fetched in blocks from a random source per thread, so that generating many UUIDs doesn't contend on the shared one.
+     */
+    private static class RandomBlock {
+        private final SecureRandom random = newRandom();
+        private final ByteBuffer block = ByteBuffer.allocate(RANDOM_BLOCK_SIZE);
+
+        RandomBlock() {
+            block.position(RANDOM_BLOCK_SIZE);
+        }
+
+        private static SecureRandom newRandom() {
+            try {
+                // much faster than the default NativePRNG for large blocks
+                return SecureRandom.getInstance("DRBG");
+            } catch (NoSuchAlgorithmException e) {
+                return new SecureRandom();
+            }
+        }
+
+        long nextLong() {
+            if (!block.hasRemaining()) {
+                random.nextBytes(block.array());
+                block.clear();
+            }
+            return block.getLong();
+        }
+    }
+
+    /**
+     * @return a version 7 UUID, i.e. the unix time in milliseconds followed by 74 random bits, so UUIDs generated later sort after
+     */
+    public static UUID generateTimeOrderedUuid() {
+        final RandomBlock randomBlock = RANDOM_BLOCKS.get();
+        final long randA = randomBlock.nextLong();
+        final long randB = randomBlock.nextLong();
+        final long msb = (System.currentTimeMillis() << 16) | 0x7000L | (randA & 0x0FFFL);
+        final long lsb = (randB & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
     public static String fromHexToBase64(String hexUuid) {
         var uuid = UUID.fromString(hexUuid);
         return generateBase64Uuid(uuid);
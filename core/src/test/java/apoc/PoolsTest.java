@@ -0,0 +1,79 @@
+package apoc;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PoolsTest {
+
+    @Test
+    public void boundedExecutorServiceLimitsConcurrentTasks() throws Exception {
+        ExecutorService service = new Pools.BoundedExecutorService(Executors.newCachedThreadPool(), 2, 100);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(service.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        assertTrue(maxRunning.get() <= 2);
+
+        service.shutdown();
+        assertTrue(service.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void boundedExecutorServiceBlocksCallerWhenQueueIsFull() throws Exception {
+        ExecutorService service = new Pools.BoundedExecutorService(Executors.newCachedThreadPool(), 2, 3);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger submitted = new AtomicInteger();
+        Thread submitter = new Thread(() -> {
+            for (int i = 0; i < 6; i++) {
+                service.execute(() -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                submitted.incrementAndGet();
+            }
+        });
+        submitter.start();
+
+        // 2 running and 3 waiting tasks, the 6th submission waits for a free slot
+        submitter.join(500);
+        assertTrue(submitter.isAlive());
+        assertEquals(5, submitted.get());
+        assertEquals(3L, ((Pools.BoundedExecutorService) service).getStats().get("queued"));
+
+        release.countDown();
+        submitter.join(5000);
+        assertFalse(submitter.isAlive());
+        assertEquals(6, submitted.get());
+
+        service.shutdown();
+        assertTrue(service.awaitTermination(1, TimeUnit.SECONDS));
+    }
+}
@@ -6,6 +6,9 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
 import static apoc.TTLConfig.DEFAULT_SCHEDULE;
 import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -50,6 +53,12 @@ public class TTLConfigTest {
         when(apocConfig.getInt(ApocConfig.APOC_TTL_LIMIT, 1000)).thenReturn(5000);
         when(apocConfig.getInt("apoc.ttl.limit.foo", 5000)).thenReturn(1000);
 
+        when(apocConfig.getInt(ApocConfig.APOC_TTL_CONCURRENCY, 1)).thenReturn(2);
+        when(apocConfig.getInt("apoc.ttl.concurrency.foo", 2)).thenReturn(4);
+
+        when(apocConfig.getInt(ApocConfig.APOC_TTL_FULL_SWEEP_EVERY, TTLConfig.DEFAULT_FULL_SWEEP_EVERY)).thenReturn(10);
+        when(apocConfig.getInt("apoc.ttl.fullSweepEvery.foo", 10)).thenReturn(20);
+
         GraphDatabaseAPI db = mock(GraphDatabaseAPI.class);
         when(db.databaseName()).thenReturn("foo");
 
@@ -58,6 +67,26 @@ public class TTLConfigTest {
         assertTrue(values.enabled);
         assertEquals(500, values.schedule);
         assertEquals(1000, values.limit);
+        assertEquals(4, values.concurrency);
+        assertEquals(20, values.fullSweepEvery);
+    }
+
+    @Test
+    public void fullSweepEveryDefaultsToGlobalSetting() {
+        ApocConfig apocConfig = mock(ApocConfig.class);
+        // the settings which are not set return their default
+        when(apocConfig.getBoolean(anyString(), anyBoolean())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(apocConfig.getInt(anyString(), anyInt())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(apocConfig.getBoolean(ApocConfig.APOC_TTL_ENABLED)).thenReturn(true);
+
+        GraphDatabaseAPI db = mock(GraphDatabaseAPI.class);
+        when(db.databaseName()).thenReturn("foo");
+        TTLConfig ttlConfig = new TTLConfig(apocConfig, mock(GlobalProcedures.class));
+
+        assertEquals(TTLConfig.DEFAULT_FULL_SWEEP_EVERY, ttlConfig.configFor(db).fullSweepEvery);
+
+        when(apocConfig.getInt(ApocConfig.APOC_TTL_FULL_SWEEP_EVERY, TTLConfig.DEFAULT_FULL_SWEEP_EVERY)).thenReturn(10);
+        assertEquals(10, ttlConfig.configFor(db).fullSweepEvery);
     }
 
 }
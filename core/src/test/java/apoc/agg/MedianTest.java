@@ -42,4 +42,24 @@ public class MedianTest {
                     assertEquals(2D, row.get("p"));
                 });
     }
+
+    @Test
+    public void testMedianWithRepeatedValues() throws Exception {
+        testCall(db, "UNWIND range(1,10001) as value RETURN apoc.agg.median(value % 7) as p",
+                (row) -> assertEquals(3D, row.get("p")));
+        testCall(db, "UNWIND range(1,10000) as value RETURN apoc.agg.median(toFloat(10000 - value)) as p",
+                (row) -> assertEquals(4999.5D, row.get("p")));
+    }
+
+    @Test
+    public void testApproximateMedian() throws Exception {
+        testCall(db, "UNWIND [] as value RETURN apoc.agg.median(value, {approximate:true}) as p",
+                (row) -> assertEquals(null, row.get("p")));
+        testCall(db, "UNWIND range(1,100001) as value RETURN apoc.agg.median(value, {approximate:true}) as p",
+                (row) -> assertEquals(50001D, (double) row.get("p"), 50001D * 0.001D));
+        testCall(db, "UNWIND range(1,100001) as value RETURN apoc.agg.median(-value, {approximate:true, significantDigits:2}) as p",
+                (row) -> assertEquals(-50001D, (double) row.get("p"), 50001D * 0.01D));
+        testCall(db, "UNWIND [-2.5, -1.0, 0.5, 3.0, 4.25] as value RETURN apoc.agg.median(value, {approximate:true}) as p",
+                (row) -> assertEquals(0.5D, (double) row.get("p"), 0.001D));
+    }
 }
@@ -7,6 +7,9 @@ import apoc.meta.Meta;
 import apoc.util.JsonUtil;
 import apoc.util.TestUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.types.pojo.Schema;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
 import org.junit.Test;
@@ -14,11 +17,17 @@ import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.graphdb.Result;
 import org.neo4j.test.rule.DbmsRule;
 import org.neo4j.test.rule.ImpermanentDbmsRule;
+import org.neo4j.values.storable.CoordinateReferenceSystem;
+import org.neo4j.values.storable.DurationValue;
+import org.neo4j.values.storable.Values;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +35,8 @@ import java.util.stream.Collectors;
 import java.util.stream.LongStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 public class ArrowTest {
 
@@ -194,6 +205,72 @@ public class ArrowTest {
                 });
     }
 
+    @Test
+    public void testStreamRoundtripArrowQueryWithNativeTypes() {
+        // given - when
+        final String returnQuery = "MATCH (n:User {name: 'Adam'}) " +
+                "RETURN [1, '2', true, null] AS mixedArray," +
+                "{foo: 'bar'} AS mapData," +
+                "[[0]] AS arrayArray," +
+                "n.place AS pointData," +
+                "duration('P5M1.5D') AS durationData," +
+                "date('2015-05-18') AS dateData," +
+                "n AS node";
+        final byte[] byteArray = db.executeTransactionally("CALL apoc.export.arrow.stream.query($query, {nativeTypes: true}) YIELD value AS byteArray",
+                Map.of("query", returnQuery),
+                this::extractByteArray);
+
+        // then
+        final String query = "CALL apoc.load.arrow.stream($byteArray) YIELD value " +
+                "RETURN value";
+        db.executeTransactionally(query, Map.of("byteArray", byteArray), result -> {
+            final Map<String, Object> row = (Map<String, Object>) result.next().get("value");
+            assertNativeTypes(row);
+            return true;
+        });
+    }
+
+    @Test
+    public void testFileRoundtripArrowQueryWithNativeTypes() {
+        // given - when
+        final String returnQuery = "MATCH (n:User {name: 'Adam'}) " +
+                "RETURN [1, '2', true, null] AS mixedArray," +
+                "{foo: 'bar'} AS mapData," +
+                "[[0]] AS arrayArray," +
+                "n.place AS pointData," +
+                "duration('P5M1.5D') AS durationData," +
+                "date('2015-05-18') AS dateData," +
+                "n AS node";
+        String file = db.executeTransactionally("CALL apoc.export.arrow.query('query_native_test.arrow', $query, {nativeTypes: true}) YIELD file",
+                Map.of("query", returnQuery),
+                this::extractFileName);
+
+        // then
+        final String query = "CALL apoc.load.arrow($file) YIELD value " +
+                "RETURN value";
+        db.executeTransactionally(query, Map.of("file", file), result -> {
+            final Map<String, Object> row = (Map<String, Object>) result.next().get("value");
+            assertNativeTypes(row);
+            return true;
+        });
+    }
+
+    private void assertNativeTypes(Map<String, Object> row) {
+        assertEquals(Arrays.asList(1L, "2", true, null), row.get("mixedArray"));
+        assertEquals(Map.of("foo", "bar"), row.get("mapData"));
+        assertEquals(List.of(List.of(0L)), row.get("arrayArray"));
+        assertEquals(Values.pointValue(CoordinateReferenceSystem.WGS84_3D, 33.46789D, 13.1D, 100.0D), row.get("pointData"));
+        assertEquals(DurationValue.parse("P5M1DT12H"), row.get("durationData"));
+        assertEquals(LocalDate.parse("2015-05-18"), row.get("dateData"));
+        final Map<String, Object> node = (Map<String, Object>) row.get("node");
+        assertEquals(0L, node.get("<id>"));
+        assertEquals(List.of("User"), node.get("labels"));
+        final Map<String, Object> properties = (Map<String, Object>) node.get("properties");
+        assertEquals("Adam", properties.get("name"));
+        assertEquals(List.of("Sam", "Anna", "Grace"), properties.get("kids"));
+        assertEquals(Values.pointValue(CoordinateReferenceSystem.WGS84_3D, 33.46789D, 13.1D, 100.0D), properties.get("place"));
+    }
+
     @Test
     public void testStreamRoundtripArrowGraph() {
         // given - when
@@ -277,6 +354,143 @@ public class ArrowTest {
         });
     }
 
+    @Test
+    public void testStreamRoundtripArrowAllWithNativeTypes() {
+        // given - when
+        final byte[] byteArray = db.executeTransactionally("CALL apoc.export.arrow.stream.all({nativeTypes: true}) YIELD value AS byteArray ",
+                Map.of(),
+                this::extractByteArray);
+
+        // then
+        final List<Map<String, Object>> expected = EXPECTED.stream()
+                .map(m -> {
+                    final Map<String, Object> newMap = new HashMap<>(m);
+                    if (m.get("place") != null) {
+                        newMap.put("place", Values.pointValue(CoordinateReferenceSystem.WGS84_3D, 33.46789D, 13.1D, 100.0D));
+                    }
+                    if (m.get("bffSince") != null) {
+                        newMap.put("bffSince", DurationValue.parse((String) m.get("bffSince")));
+                    }
+                    return newMap;
+                })
+                .collect(Collectors.toList());
+        final String query = "CALL apoc.load.arrow.stream($byteArray) YIELD value " +
+                "RETURN value";
+        db.executeTransactionally(query, Map.of("byteArray", byteArray), result -> {
+            final List<Map<String, Object>> actual = result.stream()
+                    .map(m -> (Map<String, Object>) m.get("value"))
+                    .collect(Collectors.toList());
+            assertEquals(expected, actual);
+            return null;
+        });
+    }
+
+    @Test
+    public void testFileRoundtripArrowAllParallel() {
+        // given - when
+        String file = db.executeTransactionally("CALL apoc.export.arrow.all('all_parallel_test.arrow', {parallel: true, concurrency: 2, partitionSize: 1, batchSize: 1}) YIELD file",
+                Map.of(),
+                this::extractFileName);
+
+        // then
+        final String query = "CALL apoc.load.arrow($file) YIELD value " +
+                "RETURN value";
+        db.executeTransactionally(query, Map.of("file", file), result -> {
+            final List<Map<String, Object>> actual = getActual(result);
+            assertEquals(sortedByEntity(EXPECTED), sortedByEntity(actual));
+            return null;
+        });
+    }
+
+    @Test
+    public void testFileRoundtripArrowAllFilePerPartition() {
+        // given - when
+        List<String> files = db.executeTransactionally("CALL apoc.export.arrow.all('all_partition_test.arrow', {parallel: true, filePerPartition: true, concurrency: 2, partitionSize: 1}) YIELD file",
+                Map.of(),
+                result -> result.<String>columnAs("file").stream().sorted().collect(Collectors.toList()));
+        assertEquals(List.of("all_partition_test.0.arrow", "all_partition_test.1.arrow"), files);
+
+        // then
+        final String query = "UNWIND $files AS file " +
+                "CALL apoc.load.arrow(file) YIELD value " +
+                "RETURN value";
+        db.executeTransactionally(query, Map.of("files", files), result -> {
+            final List<Map<String, Object>> actual = getActual(result);
+            assertEquals(sortedByEntity(EXPECTED), sortedByEntity(actual));
+            return null;
+        });
+    }
+
+    private List<Map<String, Object>> sortedByEntity(List<Map<String, Object>> rows) {
+        return rows.stream()
+                .sorted(Comparator.<Map<String, Object>, Boolean>comparing(m -> m.get("<type>") != null)
+                        .thenComparing(m -> (Long) m.get("<id>")))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testRoundtripArrowAllWithCompression() {
+        for (String compression : List.of("lz4", "zstd")) {
+            // given - when
+            String file = db.executeTransactionally("CALL apoc.export.arrow.all($file, {compression: $compression}) YIELD file",
+                    Map.of("file", "all_" + compression + "_test.arrow", "compression", compression),
+                    this::extractFileName);
+            final byte[] byteArray = db.executeTransactionally("CALL apoc.export.arrow.stream.all({compression: $compression}) YIELD value AS byteArray ",
+                    Map.of("compression", compression),
+                    this::extractByteArray);
+
+            // then
+            db.executeTransactionally("CALL apoc.load.arrow($file) YIELD value RETURN value", Map.of("file", file), result -> {
+                assertEquals(EXPECTED, getActual(result));
+                return null;
+            });
+            db.executeTransactionally("CALL apoc.load.arrow.stream($byteArray) YIELD value RETURN value", Map.of("byteArray", byteArray), result -> {
+                assertEquals(EXPECTED, getActual(result));
+                return null;
+            });
+        }
+    }
+
+    @Test
+    public void testFileRoundtripArrowQueryWithDictionaryEncoding() throws Exception {
+        // given - when
+        // the first batch has only 'status0', the other values are written as delta dictionaries
+        final String returnQuery = "UNWIND range(0, 99) AS id RETURN id, 'status' + (id / 25) AS status";
+        String file = db.executeTransactionally("CALL apoc.export.arrow.query('dictionary_test.arrow', $query, {batchSize: 10, dictionaryEncoding: true}) YIELD file",
+                Map.of("query", returnQuery),
+                this::extractFileName);
+        String plainFile = db.executeTransactionally("CALL apoc.export.arrow.query('plain_test.arrow', $query, {batchSize: 10}) YIELD file",
+                Map.of("query", returnQuery),
+                this::extractFileName);
+
+        // then
+        try (RootAllocator allocator = new RootAllocator();
+             FileInputStream in = new FileInputStream(new File(directory, file));
+             ArrowFileReader reader = new ArrowFileReader(in.getChannel(), allocator)) {
+            final Schema schema = reader.getVectorSchemaRoot().getSchema();
+            assertNotNull(schema.findField("status").getDictionary());
+            assertNull(schema.findField("id").getDictionary());
+        }
+        // the dictionary encoding is opt-in
+        try (RootAllocator allocator = new RootAllocator();
+             FileInputStream in = new FileInputStream(new File(directory, plainFile));
+             ArrowFileReader reader = new ArrowFileReader(in.getChannel(), allocator)) {
+            assertNull(reader.getVectorSchemaRoot().getSchema().findField("status").getDictionary());
+        }
+        final List<Map<String, Object>> expected = LongStream.range(0, 100)
+                .mapToObj(id -> Map.<String, Object>of("id", id, "status", "status" + (id / 25)))
+                .collect(Collectors.toList());
+        final String query = "CALL apoc.load.arrow($file) YIELD value " +
+                "RETURN value";
+        db.executeTransactionally(query, Map.of("file", file), result -> {
+            final List<Map<String, Object>> actual = result.stream()
+                    .map(m -> (Map<String, Object>) m.get("value"))
+                    .collect(Collectors.toList());
+            assertEquals(expected, actual);
+            return null;
+        });
+    }
+
     @Test
     public void testStreamVolumeArrowAll() {
         // given - when
@@ -413,4 +413,22 @@ public class LoadJsonTest {
                     assertFalse("value should be not empty", value.isEmpty());
                 });
     }
+
+    @Test
+    public void testStreamingPathMatchesMaterializedPath() throws Exception {
+        Map<String, List<String>> pathsByFile = Map.of(
+                "deeplyNestedObject.json", List.of("", "$", "$.tasks", "$.tasks[*]", "$.tasks[0].worker", "$.tasks[*].name", "$.tasks[*].missing",
+                        "$.tasks[1:]", "$.tasks[:1]", "$.*", "$.missing", "$.tasks[5]", "$.tasks.name", "$.tasks[0].subtasks[*].worker.company", "tasks[0]['worker']"),
+                "multi.json", List.of("", "$.foo", "$.foo[1]", "$.foo[*]", "$[*]", "$.*"),
+                "columns.json", List.of("$['columns'].row", "$.columns.*", "$.columns.row.poi"),
+                "person.json", List.of("", "$.name", "$.*"));
+        pathsByFile.forEach((file, paths) -> {
+            String url = ClassLoader.getSystemResource(file).toString();
+            for (String path : paths) {
+                List<Object> expected = TestUtil.firstColumn(db, "CALL apoc.load.json($url, $path, {streaming:false})", map("url", url, "path", path));
+                List<Object> actual = TestUtil.firstColumn(db, "CALL apoc.load.json($url, $path)", map("url", url, "path", path));
+                assertEquals(file + " " + path, expected, actual);
+            }
+        });
+    }
 }
@@ -83,6 +83,25 @@ public class XmlTest {
                 });
     }
 
+    @Test
+    public void testStreamingPathMatchesDomPath() {
+        List<String> files = List.of("xml/databases.xml", "xml/books.xml", "xml/mixedcontent.xml", "xml/singleLine.xml", "xml/humboldt_soemmering01_1791.TEI-P5-shortened.xml");
+        List<String> paths = List.of("/", "//*", "/catalog/book[@id='bk102']/author", "//author", "/catalog/*/title", "catalog/book", "/parent/child[@name]", "//grandchild", "//text");
+        for (String file : files) {
+            for (String path : paths) {
+                for (boolean simple : List.of(false, true)) {
+                    String query = "CALL apoc.load.xml($url, $path, $config, $simple) YIELD value RETURN collect(value) AS values";
+                    Map<String, Object> params = map("url", TestUtil.getUrlFileName(file), "path", path, "simple", simple);
+                    params.put("config", map("streaming", true));
+                    List<Object> streamed = singleResultFirstColumn(db, query, params);
+                    params.put("config", map("streaming", false));
+                    List<Object> materialized = singleResultFirstColumn(db, query, params);
+                    assertEquals(file + " " + path, materialized, streamed);
+                }
+            }
+        }
+    }
+
     @Test
     public void testMixedContent() {
         testCall(db, "CALL apoc.load.xml('" + TestUtil.getUrlFileName("xml/mixedcontent.xml") + "')", //  YIELD value RETURN value
@@ -0,0 +1,108 @@
+package apoc.meta;
+
+import apoc.util.TestUtil;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.test.rule.DbmsRule;
+import org.neo4j.test.rule.ImpermanentDbmsRule;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static apoc.ApocSettings.apoc_meta_cache_enabled;
+import static apoc.util.MapUtil.map;
+import static apoc.util.TestUtil.testCall;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseSettings.procedure_unrestricted;
+
+public class MetaCacheTest {
+
+    @Rule
+    public DbmsRule db = new ImpermanentDbmsRule()
+            .withSetting(procedure_unrestricted, List.of("apoc*"))
+            .withSetting(apoc_meta_cache_enabled, true);  // need to use settings here, apocConfig().setProperty in `setUp` is too late
+
+    @Before
+    public void setUp() throws Exception {
+        TestUtil.registerProcedure(db, Meta.class);
+        db.executeTransactionally("create constraint on (a:Actor) assert a.name is unique");
+        db.executeTransactionally("CREATE (actor1:Actor:Person {name:'Tom Hanks'})-[:ACTED_IN {roles:['Forrest']}]->(movie1:Movie {title:'Forrest Gump'}), \n" +
+                "(actor2:Actor {name: 'Bruce Lee'})-[:ACTED_IN {roles:['FooBaz']}]->(movie1),\n" +
+                "(actor1)-[:ACTED_IN {roles:['Movie2Role']}]->(movie2:Movie {title:'Movie2'}),\n" +
+                "(actor1)-[:DIRECTED {foo: 'first'}]->(movie2), (:Studio {name: 'Pixar'})-[:ANIMATED {bar: 'alpha'}]->(movie2)");
+    }
+
+    @Test
+    public void testCacheMatchesFullScan() {
+        assertCacheMatchesFullScan();
+    }
+
+    @Test
+    public void testCacheFollowsUpdates() {
+        // builds the cache
+        assertCacheMatchesFullScan();
+
+        db.executeTransactionally("MATCH (m:Movie {title:'Movie2'}) SET m:Documentary, m.released = 2000");
+        assertCacheMatchesFullScan();
+
+        db.executeTransactionally("MATCH (a:Actor {name:'Bruce Lee'}) REMOVE a:Actor SET a:Director, a.name = 42");
+        assertCacheMatchesFullScan();
+
+        db.executeTransactionally("MATCH ()-[r:ACTED_IN {roles:['Forrest']}]->() SET r.since = 1994 REMOVE r.roles");
+        assertCacheMatchesFullScan();
+
+        db.executeTransactionally("MATCH (s:Studio) DETACH DELETE s");
+        assertCacheMatchesFullScan();
+
+        db.executeTransactionally("MATCH (a:Person) CREATE (a)-[:LIKES]->(:Person {name:'Meg'})");
+        assertCacheMatchesFullScan();
+
+        db.executeTransactionally("MATCH (n) DETACH DELETE n");
+        testCall(db, "CALL apoc.meta.schema()", row -> assertEquals(Map.of(), row.get("value")));
+    }
+
+    @Test
+    public void testRebuild() {
+        testCall(db, "CALL apoc.meta.cache.rebuild()", row -> assertTrue((long) row.get("counters") > 0));
+        assertCacheMatchesFullScan();
+    }
+
+    private void assertCacheMatchesFullScan() {
+        assertEquals(metaData(map("sample", -1L, "useCache", false)), metaData(map()));
+        assertEquals(schema(map("sample", -1L, "useCache", false)), schema(map()));
+    }
+
+    private Set<Map<String, Object>> metaData(Map<String, Object> config) {
+        return db.executeTransactionally("CALL apoc.meta.data($config) " +
+                        "YIELD label, property, count, unique, index, existence, type, array, left, right, other, elementType " +
+                        "RETURN label, property, count, unique, index, existence, type, array, left, right, other, elementType",
+                map("config", config),
+                r -> r.stream().map(this::sortLists).collect(Collectors.toSet()));
+    }
+
+    private Map<String, Object> schema(Map<String, Object> config) {
+        return db.executeTransactionally("CALL apoc.meta.schema($config) YIELD value RETURN value", map("config", config),
+                r -> sortLists((Map<String, Object>) r.next().get("value")));
+    }
+
+    private Map<String, Object> sortLists(Map<String, Object> map) {
+        Map<String, Object> result = new HashMap<>();
+        map.forEach((key, value) -> {
+            if (value instanceof List) {
+                List<Object> list = new ArrayList<>((List<Object>) value);
+                list.sort((a, b) -> a.toString().compareTo(b.toString()));
+                value = list;
+            } else if (value instanceof Map) {
+                value = sortLists((Map<String, Object>) value);
+            }
+            result.put(key, value);
+        });
+        return result;
+    }
+}
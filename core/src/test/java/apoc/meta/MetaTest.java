@@ -406,6 +406,31 @@ public class MetaTest {
         });
     }
 
+    @Test
+    public void testMetaDataParallel() {
+        db.executeTransactionally("create index on :Movie(title)");
+        db.executeTransactionally("create constraint on (a:Actor) assert a.name is unique");
+        db.executeTransactionally("create constraint on (s:Studio) assert s.name is unique");
+        // more nodes than one batch of the parallel scan, the nodes with several labels are spread over all the batches
+        db.executeTransactionally("UNWIND range(1, 25000) AS id " +
+                "CREATE (a:Actor:Person {name:'actor' + id})-[:ACTED_IN {roles:'role' + id}]->(m:Movie {title:'movie' + id}) " +
+                "WITH a, m, id WHERE id % 2 = 0 CREATE (a)-[:DIRECTED {foo: id}]->(m), (:Studio:Company {name: 'studio' + id})-[:ANIMATED]->(m)");
+
+        String query = "CALL apoc.meta.data($config) " +
+                "YIELD label, property, count, unique, index, existence, type, array, left, right, other, otherLabels, elementType " +
+                "RETURN label, property, count, unique, index, existence, type, array, left, right, other, otherLabels, elementType";
+        Set<Map<String, Object>> sequential = db.executeTransactionally(query, map("config", map("sample", -1L)),
+                r -> r.stream().collect(Collectors.toSet()));
+        Set<Map<String, Object>> parallel = db.executeTransactionally(query, map("config", map("parallel", true)),
+                r -> r.stream().collect(Collectors.toSet()));
+
+        assertEquals(sequential, parallel);
+        assertTrue(parallel.contains(map("label", "Actor", "property", "ACTED_IN", "count", 25000L, "unique", false, "index", false,
+                "existence", false, "type", "RELATIONSHIP", "array", false, "left", 1L, "right", 0L, "other", List.of("Movie"), "otherLabels", List.of(), "elementType", "node")));
+        assertTrue(parallel.stream().anyMatch(row -> "Studio".equals(row.get("label")) && "name".equals(row.get("property"))
+                && ((List<String>) row.get("otherLabels")).contains("Company")));
+    }
+
     private void assertRelationshipsDirectedMetaData(Map<String, Object> row) {
         assertRowMetaData(row, 1L, 2L, 0L, Meta.Types.RELATIONSHIP);
     }
@@ -10,9 +10,12 @@ import org.neo4j.test.rule.ImpermanentDbmsRule;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 
 public class NeighborsTest {
 
@@ -167,4 +170,34 @@ public class NeighborsTest {
                         "RETURN number",
                 (row) -> assertEquals(1L, row.get("number")));
     }
+
+    @Test
+    public void getNeighborsByHopBatch() {
+        TestUtil.testResult(db, "MATCH (n) WITH n ORDER BY n.name WITH collect(n) AS nodes " +
+                        "CALL apoc.neighbors.byhop.batch(nodes,'KNOWS>', 2) YIELD node, nodes AS neighbors " +
+                        "RETURN node.name AS name, [hop IN neighbors | [n IN hop | n.name]] AS neighbors",
+                (result) -> {
+                    // b also knows a, which has no name
+                    assertEquals(Arrays.asList(Arrays.asList(null, "c"), Arrays.asList("d")), result.next().get("neighbors"));
+                    assertEquals(Arrays.asList(Arrays.asList("d"), Arrays.asList()), result.next().get("neighbors"));
+                    assertEquals(Arrays.asList(Arrays.asList(), Arrays.asList()), result.next().get("neighbors"));
+                    Map<String, Object> first = result.next();
+                    assertNull(first.get("name"));
+                    assertEquals(Arrays.asList(Arrays.asList("b"), Arrays.asList("c")), first.get("neighbors"));
+                    assertFalse(result.hasNext());
+                });
+    }
+
+    @Test
+    public void getNeighborsByHopCountBatchParallel() {
+        db.executeTransactionally("UNWIND range(1, 500) AS id CREATE (:Neighbor {id: id})");
+        db.executeTransactionally("MATCH (a:Neighbor), (b:Neighbor) WHERE a.id + 1 = b.id OR a.id * 2 = b.id CREATE (a)-[:KNOWS]->(b)");
+        String sequential = "MATCH (n:Neighbor) WHERE n.id IS NOT NULL WITH n ORDER BY n.id " +
+                "CALL apoc.neighbors.byhop.count(n,'KNOWS>', 4) YIELD value RETURN collect(value) AS counts";
+        String batch = "MATCH (n:Neighbor) WHERE n.id IS NOT NULL WITH n ORDER BY n.id WITH collect(n) AS nodes " +
+                "CALL apoc.neighbors.byhop.count.batch(nodes,'KNOWS>', 4, {parallel:true, batchSize:7, cacheSize:100}) YIELD value RETURN collect(value) AS counts";
+        List<Object> expected = TestUtil.singleResultFirstColumn(db, sequential);
+        assertEquals(500, expected.size());
+        assertEquals(expected, TestUtil.singleResultFirstColumn(db, batch));
+    }
 }
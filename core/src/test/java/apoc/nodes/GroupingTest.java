@@ -218,6 +218,30 @@ public class GroupingTest {
                 r -> assertEquals(rels, Iterators.asList(r.columnAs("rel"))));
     }
 
+    @Test
+    public void testGroupAcrossBatches() throws Exception {
+        // more nodes than one batch, so partial aggregates of several batches are merged
+        db.executeTransactionally("UNWIND range(1, 25000) AS id CREATE (i:Item {group: id % 3, value: -id}) " +
+                "WITH i, id WHERE id <= 3 CREATE (i)-[:NEXT {weight: id}]->(i)");
+        TestUtil.testResult(db, "CALL apoc.nodes.group(['Item'],['group'],[{`*`:'count', value:['min','max','sum','avg','count']},{weight:['sum','collect']}]) " +
+                        "YIELD node, relationship WHERE node.group = 0 RETURN node, relationship",
+                result -> {
+                    Map<String, Object> row = Iterators.single(result);
+                    Node node = (Node) row.get("node");
+                    long count = 25000 / 3;
+                    assertEquals(count, node.getProperty("count_*"));
+                    assertEquals(count, node.getProperty("count_value"));
+                    assertEquals(-24999L, node.getProperty("min_value"));
+                    assertEquals(-3L, node.getProperty("max_value"));
+                    long sum = -3 * count * (count + 1) / 2;
+                    assertEquals(sum, node.getProperty("sum_value"));
+                    assertEquals((double) sum / count, (double) node.getProperty("avg_value"), 0.0001);
+                    Relationship rel = (Relationship) row.get("relationship");
+                    assertEquals(3L, rel.getProperty("sum_weight"));
+                    assertArrayEquals(new Object[]{3L}, (Object[]) rel.getProperty("collect_weight"));
+                });
+    }
+
     @Test
     public void testGroupAllLabels() throws Exception {
         db.executeTransactionally("CREATE (u:User {name:'Joe',gender:'male'})");
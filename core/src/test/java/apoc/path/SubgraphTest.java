@@ -13,9 +13,12 @@ import org.junit.ClassRule;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.QueryExecutionException;
 import org.neo4j.graphdb.Result;
 import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.helpers.collection.Iterators;
 import org.neo4j.test.rule.DbmsRule;
 import org.neo4j.test.rule.ImpermanentDbmsRule;
 
@@ -300,6 +303,58 @@ public class SubgraphTest {
 		TestUtil.singleResultFirstColumn(db, "MATCH (m:Movie {title: 'The Matrix'}) CALL apoc.path.spanningTree(m,{minLevel:2}) yield path return count(distinct path) as cnt");
 	}
 
+	@Test
+	public void testParallelSubgraphNodesShouldMatchTraversal() throws Throwable {
+		List<String> configs = List.of("{}", "{maxLevel:2}", "{minLevel:1, maxLevel:3}",
+				"{relationshipFilter:'ACTED_IN>|<DIRECTED'}", "{labelFilter:'-BigBrother'}",
+				"{labelFilter:'+Person|Movie', maxLevel:4}", "{labelFilter:'>Person', maxLevel:3}", "{labelFilter:'/Movie'}",
+				"{labelFilter:'-Movie', filterStartNode:true}");
+		for (String config : configs) {
+			String query = "MATCH (m:Movie {title: 'The Matrix'}) CALL apoc.path.subgraphNodes(m,%s) yield node return id(node) as id ORDER BY id";
+			List<Map<String, Object>> expected = rows(String.format(query, config));
+			List<Map<String, Object>> actual = rows(String.format(query, withParallel(config)));
+			assertEquals(config, expected, actual);
+		}
+	}
+
+	@Test
+	public void testParallelSubgraphNodesWithLimit() throws Throwable {
+		String query = "MATCH (m:Movie {title: 'The Matrix'}) CALL apoc.path.subgraphNodes(m,{maxLevel:2, limit:10, parallel:true, batchSize:2}) yield node return collect(node) as nodes";
+		TestUtil.testCall(db, query, (row) -> {
+			List<Node> nodes = (List<Node>) row.get("nodes");
+			assertEquals(10, nodes.size());
+			assertEquals("The Matrix", nodes.get(0).getProperty("title"));
+			// all nodes of the first level are returned before any node of the second level
+			assertTrue(nodes.subList(1, 6).stream().allMatch(node -> node.hasLabel(Label.label("Person"))));
+		});
+	}
+
+	@Test
+	public void testParallelSpanningTreeShouldMatchTraversal() throws Throwable {
+		String query = "MATCH (m:Movie {title: 'The Matrix'}) CALL apoc.path.spanningTree(m,%s) yield path return id(last(nodes(path))) as id, length(path) as length ORDER BY id";
+		List<Map<String, Object>> expected = rows(String.format(query, "{maxLevel:3, labelFilter:'-BigBrother'}"));
+		List<Map<String, Object>> actual = rows(String.format(query, "{maxLevel:3, labelFilter:'-BigBrother', parallel:true, batchSize:2}"));
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testParallelSubgraphAllShouldMatchTraversal() throws Throwable {
+		String query = "MATCH (m:Movie {title: 'The Matrix'}) CALL apoc.path.subgraphAll(m,%s) yield nodes, relationships return size(nodes) as nodes, size(relationships) as relationships";
+		List<Map<String, Object>> expected = rows(String.format(query, "{maxLevel:2}"));
+		List<Map<String, Object>> actual = rows(String.format(query, "{maxLevel:2, parallel:true, batchSize:5}"));
+		assertEquals(expected, actual);
+	}
+
+	private static String withParallel(String config) {
+		return config.equals("{}") ? "{parallel:true, batchSize:3}" : config.replaceFirst("}$", ", parallel:true, batchSize:3}");
+	}
+
+	private static List<Map<String, Object>> rows(String query) {
+		try (Transaction tx = db.beginTx()) {
+			return Iterators.asList(tx.execute(query));
+		}
+	}
+
 	public class RootCauseMatcher<T> extends TypeSafeMatcher<Throwable> {
 		private final Class<T> rootCause;
 		private final String message;
@@ -0,0 +1,81 @@
+package apoc.periodic;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static apoc.util.Util.map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IterateControllerTest {
+
+    @Test
+    public void fixedValuesFromConfig() {
+        IterateController controller = IterateController.fromConfig(map("batchSize", 42, "concurrency", 3));
+        assertFalse(controller.isAdaptive());
+        assertEquals(42, controller.getBatchSize());
+        assertEquals(3, controller.getConcurrency());
+    }
+
+    @Test
+    public void autoValuesFromConfig() {
+        IterateController controller = IterateController.fromConfig(map("batchSize", "auto", "concurrency", "AUTO"));
+        assertTrue(controller.isAdaptive());
+        assertEquals(IterateController.AUTO_INITIAL_BATCH_SIZE, controller.getBatchSize());
+        assertEquals(Runtime.getRuntime().availableProcessors(), controller.getConcurrency());
+    }
+
+    @Test
+    public void prefetchFromConfig() {
+        assertEquals(0, IterateController.fromConfig(map()).getPrefetch());
+        assertEquals(8, IterateController.fromConfig(map("prefetch", 8)).getPrefetch());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBatchSize() {
+        IterateController.fromConfig(map("batchSize", "foo"));
+    }
+
+    @Test
+    public void boundedAcquire() {
+        IterateController controller = new IterateController(10, 1);
+        assertTrue(controller.tryAcquire(true));
+        assertFalse(controller.tryAcquire(true));
+        assertTrue(controller.tryAcquire(false));
+    }
+
+    @Test
+    public void growBatchSizeForFastBatches() {
+        IterateController controller = new IterateController(100, true, 1, false, 1, 1000, 0, null);
+        BatchAndTotalCollector collector = new BatchAndTotalCollector(() -> {}, -1);
+        controller.tryAcquire(true);
+        controller.release(100, TimeUnit.MILLISECONDS.toNanos(10), collector);
+        assertEquals(200, controller.getBatchSize());
+    }
+
+    @Test
+    public void shrinkBatchSizeForSlowBatches() {
+        IterateController controller = new IterateController(100, true, 1, false, 1, 1000, 0, null);
+        BatchAndTotalCollector collector = new BatchAndTotalCollector(() -> {}, -1);
+        controller.tryAcquire(true);
+        controller.release(100, TimeUnit.SECONDS.toNanos(5), collector);
+        assertEquals(50, controller.getBatchSize());
+    }
+
+    @Test
+    public void halveConcurrencyOnRetries() {
+        IterateController controller = new IterateController(100, false, 4, true, 8, 1000, 0, null);
+        BatchAndTotalCollector collector = new BatchAndTotalCollector(() -> {}, -1);
+        collector.incrementRetried();
+        for (int i = 0; i < 4; i++) {
+            controller.tryAcquire(true);
+        }
+        for (int i = 0; i < 4; i++) {
+            controller.release(100, TimeUnit.MILLISECONDS.toNanos(10), collector);
+        }
+        assertEquals(2, controller.getConcurrency());
+        assertEquals(100, controller.getBatchSize());
+    }
+}
@@ -87,6 +87,51 @@ public class PeriodicTest {
         testCall(db, callList, (r) -> assertEquals(true, r.get("done")));
     }
 
+    @Test
+    public void testSubmitStatementInPool() throws Exception {
+        testCall(db, "CALL apoc.periodic.submit('foo','create (:Foo)', {pool: 'default'})",
+                (row) -> assertEquals("default", row.get("pool")));
+
+        long count = tryReadCount(50, "MATCH (:Foo) RETURN COUNT(*) AS count", 1L);
+        assertThat(count, equalTo(1L));
+
+        testCall(db, "CALL apoc.periodic.list()", (r) -> {
+            assertEquals("default", r.get("pool"));
+            Map<String, Object> poolStats = (Map<String, Object>) r.get("poolStats");
+            assertTrue(poolStats.containsKey("active"));
+            assertTrue(poolStats.containsKey("queued"));
+            assertTrue(poolStats.containsKey("completed"));
+        });
+    }
+
+    @Test
+    public void testRepeatStatementInPool() throws Exception {
+        testCall(db, "CALL apoc.periodic.repeat('repeatInPool','create (:Bar)', 1, {pool: 'default'})",
+                (row) -> assertEquals("default", row.get("pool")));
+
+        final String queryCount = "MATCH (:Bar) RETURN COUNT(*) AS count";
+        assertEventually(() -> db.executeTransactionally(queryCount, emptyMap(), (r) -> r.<Long>columnAs("count").next()),
+                value -> value >= 2L, 20L, TimeUnit.SECONDS);
+
+        testCall(db, "CALL apoc.periodic.cancel('repeatInPool')", (row) -> assertEquals(true, row.get("cancelled")));
+        // a run started before the cancellation might still commit
+        Thread.sleep(1500);
+        long countAfterCancel = TestUtil.singleResultFirstColumn(db, queryCount);
+        Thread.sleep(2500);
+        long countLater = TestUtil.singleResultFirstColumn(db, queryCount);
+        assertEquals(countAfterCancel, countLater);
+    }
+
+    @Test(expected = QueryExecutionException.class)
+    public void testIteratePoolRequiresParallel() {
+        testFail("CALL apoc.periodic.iterate('UNWIND range(0, 10) AS x RETURN x', 'RETURN x', {pool:'default', parallel:false})");
+    }
+
+    @Test(expected = QueryExecutionException.class)
+    public void testSubmitStatementInUnknownPool() {
+        testFail("CALL apoc.periodic.submit('foo','create (:Foo)', {pool: 'unknown'})");
+    }
+
     @Test
     public void testSubmitWithCreateIndexSchemaOperation() {
         String errMessage = "Supported query types for the operation are [READ_ONLY, WRITE, READ_WRITE]";
@@ -384,6 +429,96 @@ public class PeriodicTest {
         );
     }
 
+    @Test
+    public void testIterateAuto() throws Exception {
+        db.executeTransactionally("UNWIND range(1,10000) AS x CREATE (:Person{name:'Person_'+x})");
+
+        testResult(db, "CALL apoc.periodic.iterate('match (p:Person) return p', 'SET p.lastname =p.name REMOVE p.name', {batchSize:'auto', concurrency:'auto', parallel:true})", result -> {
+            Map<String, Object> row = Iterators.single(result);
+            assertEquals(10000L, row.get("total"));
+            assertEquals(10000L, row.get("committedOperations"));
+        });
+
+        testCall(db,
+                "MATCH (p:Person) where p.lastname is not null return count(p) as count",
+                row -> assertEquals(10000L, row.get("count"))
+        );
+    }
+
+    @Test
+    public void testIteratePrefetch() throws Exception {
+        db.executeTransactionally("UNWIND range(1,1000) AS x CREATE (:Person{name:'Person_'+x})");
+
+        testResult(db, "CALL apoc.periodic.iterate('match (p:Person) return p', 'SET p.lastname =p.name REMOVE p.name', {batchSize:10, concurrency:2, prefetch:5, parallel:true})", result -> {
+            Map<String, Object> row = Iterators.single(result);
+            assertEquals(100L, row.get("batches"));
+            assertEquals(1000L, row.get("total"));
+        });
+
+        testCall(db,
+                "MATCH (p:Person) where p.lastname is not null return count(p) as count",
+                row -> assertEquals(1000L, row.get("count"))
+        );
+    }
+
+    @Test
+    public void testIteratePartitionBy() throws Exception {
+        db.executeTransactionally("UNWIND range(1,10) AS x CREATE (:Hub{id:x})");
+        db.executeTransactionally("UNWIND range(1,1000) AS x CREATE (:Person{id:x})");
+
+        testResult(db, "CALL apoc.periodic.iterate('match (p:Person) match (h:Hub {id: p.id % 10 + 1}) return p, h', " +
+                "'CREATE (p)-[:MEMBER]->(h) SET h.members = coalesce(h.members, 0) + 1', {batchSize:10, partitionBy:'h', parallel:true})", result -> {
+            Map<String, Object> row = Iterators.single(result);
+            assertEquals(1000L, row.get("total"));
+            assertEquals(0L, row.get("retries"));
+            assertEquals(0L, row.get("failedBatches"));
+        });
+
+        testCall(db,
+                "MATCH (h:Hub) return sum(h.members) as count",
+                row -> assertEquals(1000L, row.get("count"))
+        );
+    }
+
+    @Test
+    public void testIteratePartitionBySkewedKey() throws Exception {
+        db.executeTransactionally("UNWIND range(1,10) AS x CREATE (:Hub{id:x})");
+        db.executeTransactionally("UNWIND range(1,1000) AS x CREATE (:Person{id:x})");
+
+        // most of the rows go to the first hub, the batches of the other partitions keep running meanwhile
+        testResult(db, "CALL apoc.periodic.iterate('match (p:Person) match (h:Hub {id: CASE WHEN p.id % 10 = 0 THEN p.id / 100 + 1 ELSE 1 END}) return p, h', " +
+                "'CREATE (p)-[:MEMBER]->(h) SET h.members = coalesce(h.members, 0) + 1', {batchSize:10, concurrency:4, partitionBy:'h', parallel:true})", result -> {
+            Map<String, Object> row = Iterators.single(result);
+            assertEquals(1000L, row.get("total"));
+            assertEquals(0L, row.get("failedBatches"));
+        });
+
+        testCall(db,
+                "MATCH (h:Hub) return sum(h.members) as count",
+                row -> assertEquals(1000L, row.get("count"))
+        );
+    }
+
+    @Test(expected = QueryExecutionException.class)
+    public void testIteratePartitionByRequiresParallel() {
+        testFail("CALL apoc.periodic.iterate('UNWIND range(0, 10) AS x RETURN x', 'RETURN x', {partitionBy:'x', parallel:false})");
+    }
+
+    @Test(expected = QueryExecutionException.class)
+    public void testIteratePartitionByWithAutoConcurrency() {
+        testFail("CALL apoc.periodic.iterate('UNWIND range(0, 10) AS x RETURN x', 'RETURN x', {partitionBy:'x', concurrency:'auto', parallel:true})");
+    }
+
+    @Test(expected = QueryExecutionException.class)
+    public void testIteratePartitionByUnknownColumn() {
+        testFail("CALL apoc.periodic.iterate('UNWIND range(0, 10) AS x RETURN x', 'RETURN x', {partitionBy:'y', parallel:true})");
+    }
+
+    @Test(expected = QueryExecutionException.class)
+    public void testIterateInUnknownPool() {
+        testFail("CALL apoc.periodic.iterate('UNWIND range(0, 10) AS x RETURN x', 'RETURN x', {pool:'unknown', parallel:true})");
+    }
+
     @Test
     public void testIterateWithQueryPlanner() throws Exception {
         db.executeTransactionally("UNWIND range(1,100) AS x CREATE (:Person{name:'Person_'+x})");
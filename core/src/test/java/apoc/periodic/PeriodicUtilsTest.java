@@ -67,4 +67,15 @@ public class PeriodicUtilsTest {
         assertEquals("UNWIND $_batch AS batch WITH batch.x AS x SET x:Actor", prepared.first());
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void partitionOfIsStableAndInRange() {
+        for (long id = 0; id < 1000; id++) {
+            int partition = PeriodicUtils.partitionOf(id, 7);
+            assertTrue(partition >= 0 && partition < 7);
+            assertEquals(partition, PeriodicUtils.partitionOf(id, 7));
+        }
+        assertEquals(PeriodicUtils.partitionOf(42, 4), PeriodicUtils.partitionOf(42L, 4));
+        assertEquals(PeriodicUtils.partitionOf("foo", 4), PeriodicUtils.partitionOf("foo", 4));
+    }
+}
@@ -0,0 +1,94 @@
+package apoc.sketch;
+
+import apoc.agg.SketchAggregation;
+import apoc.util.TestUtil;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.test.rule.DbmsRule;
+import org.neo4j.test.rule.ImpermanentDbmsRule;
+
+import java.util.List;
+import java.util.Map;
+
+import static apoc.util.TestUtil.testCall;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SketchesTest {
+
+    @ClassRule
+    public static DbmsRule db = new ImpermanentDbmsRule();
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        TestUtil.registerProcedure(db, SketchAggregation.class, Sketches.class);
+    }
+
+    @Test
+    public void testApproxDistinct() throws Exception {
+        testCall(db, "UNWIND range(1, 100000) AS value RETURN apoc.sketch.estimate(apoc.agg.approxDistinct(value % 50000)) AS count",
+                (row) -> assertEquals(50000D, (long) row.get("count"), 50000 * 0.03));
+        testCall(db, "UNWIND [1, 1.0, 'a', 'a', 2, null] AS value RETURN apoc.sketch.estimate(apoc.agg.approxDistinct(value, {precision:10})) AS count",
+                (row) -> assertEquals(3L, row.get("count")));
+    }
+
+    @Test
+    public void testMergeApproxDistinct() throws Exception {
+        testCall(db, "UNWIND range(0, 3) AS day " +
+                        "CALL { WITH day UNWIND range(day * 10000, day * 10000 + 19999) AS value RETURN apoc.agg.approxDistinct(value) AS sketch } " +
+                        "RETURN apoc.sketch.estimate(apoc.sketch.merge(collect(sketch))) AS count",
+                (row) -> assertEquals(50000D, (long) row.get("count"), 50000 * 0.03));
+    }
+
+    @Test
+    public void testTopK() throws Exception {
+        testCall(db, "UNWIND range(1, 10000) AS i WITH CASE WHEN i % 2 = 0 THEN 'even' WHEN i % 3 = 0 THEN 'three' ELSE i END AS value " +
+                        "RETURN apoc.sketch.estimate(apoc.agg.topK(value, 2, {capacity:20})) AS top",
+                (row) -> {
+                    List<Map<String, Object>> top = (List<Map<String, Object>>) row.get("top");
+                    assertEquals(2, top.size());
+                    assertEquals("even", top.get(0).get("item"));
+                    assertEquals("three", top.get(1).get("item"));
+                    long count = (long) top.get(0).get("count");
+                    long error = (long) top.get(0).get("error");
+                    assertTrue(count >= 5000 && count - error <= 5000);
+                });
+    }
+
+    @Test
+    public void testMergeTopK() throws Exception {
+        testCall(db, "WITH [['a','a','b','c'], ['a','c','c','c','d']] AS days UNWIND days AS day " +
+                        "CALL { WITH day UNWIND day AS value RETURN apoc.agg.topK(value, 2) AS sketch } " +
+                        "RETURN apoc.sketch.estimate(apoc.sketch.merge(collect(sketch))) AS top",
+                (row) -> {
+                    List<Map<String, Object>> top = (List<Map<String, Object>>) row.get("top");
+                    assertEquals(List.of(Map.of("item", "c", "count", 4L, "error", 0L), Map.of("item", "a", "count", 3L, "error", 0L)), top);
+                });
+    }
+
+    @Test
+    public void testQuantileSketch() throws Exception {
+        testCall(db, "UNWIND range(1, 1000) AS day CALL { WITH day UNWIND range(1, 100) AS value RETURN apoc.agg.quantileSketch(value * day) AS sketch } " +
+                        "WITH apoc.sketch.merge(collect(sketch)) AS sketch " +
+                        "RETURN apoc.sketch.estimate(sketch, {quantiles:[0.0, 1.0]}) AS minMax",
+                (row) -> {
+                    List<Double> minMax = (List<Double>) row.get("minMax");
+                    assertEquals(1D, minMax.get(0), 0.01D);
+                    assertEquals(100000D, minMax.get(1), 100000 * 0.001D);
+                });
+        testCall(db, "UNWIND [-3, -2, -1, 0, 1, 2, 3] AS value RETURN apoc.sketch.estimate(apoc.agg.quantileSketch(value), {quantiles:[0.25, 0.5, 0.75]}) AS quantiles",
+                (row) -> {
+                    List<Double> quantiles = (List<Double>) row.get("quantiles");
+                    assertEquals(-2D, quantiles.get(0), 0.01D);
+                    assertEquals(0D, quantiles.get(1), 0.01D);
+                    assertEquals(2D, quantiles.get(2), 0.01D);
+                });
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testMergeDifferentKinds() throws Exception {
+        testCall(db, "WITH apoc.agg.approxDistinct(1) AS a, apoc.agg.quantileSketch(1) AS b RETURN apoc.sketch.merge([a, b]) AS sketch",
+                (row) -> {});
+    }
+}
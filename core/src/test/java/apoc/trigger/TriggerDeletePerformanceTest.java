@@ -0,0 +1,62 @@
+package apoc.trigger;
+
+import apoc.util.TestUtil;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.test.rule.DbmsRule;
+import org.neo4j.test.rule.ImpermanentDbmsRule;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static apoc.ApocSettings.apoc_trigger_enabled;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseSettings.procedure_unrestricted;
+
+/**
+ * Bulk deletes with an afterAsync trigger installed, whose commit rebuilds every deleted entity as a virtual one.
+ * The time per deleted node has to stay about the same when the number of deleted nodes grows.
+ */
+@Ignore("Benchmark of bulk deletes with triggers, it takes a few minutes")
+public class TriggerDeletePerformanceTest {
+    private static final List<Integer> SIZES = List.of(25_000, 50_000, 100_000, 200_000);
+
+    @Rule
+    public DbmsRule db = new ImpermanentDbmsRule()
+            .withSetting(procedure_unrestricted, List.of("apoc*"))
+            .withSetting(apoc_trigger_enabled, true);
+
+    @Before
+    public void setUp() {
+        TestUtil.registerProcedure(db, Trigger.class);
+        db.executeTransactionally("CALL apoc.trigger.add('count-deletes','CREATE (:Deletes {count: size($deletedNodes)})',{phase:'afterAsync'})");
+    }
+
+    @Test
+    public void testDetachDeleteScalesLinearly() {
+        double firstNanosPerNode = 0;
+        for (int size : SIZES) {
+            db.executeTransactionally("UNWIND range(1, $size) AS id CREATE (:Item {id: id, name: 'item' + id})-[:OF {weight: id}]->(:Group {id: id})",
+                    Map.of("size", size));
+
+            final Instant start = Instant.now();
+            db.executeTransactionally("MATCH (n:Item) DETACH DELETE n");
+            final long nanos = Duration.between(start, Instant.now()).toNanos();
+
+            final double nanosPerNode = (double) nanos / size;
+            System.out.printf("Deleted %d nodes in %d ms, %.1f µs per node%n", size, nanos / 1_000_000, nanosPerNode / 1000);
+            if (firstNanosPerNode == 0) {
+                firstNanosPerNode = nanosPerNode;
+            } else {
+                // quadratic rebinding would cost 8 times as much per node for 200k nodes as for 25k
+                assertTrue(String.format("%.1f µs per node for %d nodes, %.1f µs for %d", nanosPerNode / 1000, size, firstNanosPerNode / 1000, SIZES.get(0)),
+                        nanosPerNode < firstNanosPerNode * 3);
+            }
+            db.executeTransactionally("MATCH (n:Group) DELETE n");
+        }
+    }
+}
@@ -348,4 +348,91 @@ public class TriggerTest {
     }
 
 
+    @Test
+    public void testSelectorByLabelAndProperty() {
+        db.executeTransactionally("CREATE (:Counter {count:0})");
+        db.executeTransactionally("CALL apoc.trigger.add('order-status','MATCH (c:Counter) SET c.count = c.count + 1',{labels:['Order'], properties:['status']})");
+
+        // neither the label nor the property match
+        db.executeTransactionally("CREATE (:Customer {name:'John'})");
+        // the label matches, but not the property
+        db.executeTransactionally("CREATE (:Order {id:1})");
+        TestUtil.testCall(db, "MATCH (c:Counter) RETURN c.count as count", (row) -> assertEquals(0L, row.get("count")));
+
+        db.executeTransactionally("MATCH (o:Order {id:1}) SET o.status = 'shipped'");
+        db.executeTransactionally("MATCH (o:Order {id:1}) REMOVE o.status");
+        TestUtil.testCall(db, "MATCH (c:Counter) RETURN c.count as count", (row) -> assertEquals(2L, row.get("count")));
+    }
+
+    @Test
+    public void testSelectorByRelationshipType() {
+        db.executeTransactionally("CREATE (:Counter {count:0}), (:A)");
+        db.executeTransactionally("CALL apoc.trigger.add('knows','MATCH (c:Counter) SET c.count = c.count + size($createdRelationships)',{types:['KNOWS']})");
+
+        db.executeTransactionally("MATCH (a:A) CREATE (a)-[:LIKES]->(:B)");
+        db.executeTransactionally("MATCH (a:A) CREATE (a)-[:KNOWS]->(:B)");
+        TestUtil.testCall(db, "MATCH (c:Counter) RETURN c.count as count", (row) -> assertEquals(1L, row.get("count")));
+    }
+
+    @Test(expected = QueryExecutionException.class)
+    public void testInvalidPhase() {
+        db.executeTransactionally("CALL apoc.trigger.add('invalid','RETURN 1',{phase:'afterwards'})");
+    }
+
+    @Test
+    public void testAfterAsyncBatch() {
+        db.executeTransactionally("CALL apoc.trigger.add('batch','CREATE (:Batch {size: size($createdNodes)})',{phase:'afterAsync', labels:['Item'], batchSize:5, maxDelayMs:60000})");
+        for (int i = 0; i < 5; i++) {
+            db.executeTransactionally("CREATE (:Item {id: $id})", Map.of("id", i));
+        }
+
+        org.neo4j.test.assertion.Assert.assertEventually(() ->
+                        db.executeTransactionally("MATCH (b:Batch) RETURN collect(b.size) AS sizes", Map.of(),
+                                result -> result.<List<Long>>columnAs("sizes").next()),
+                (value) -> value.equals(List.of(5L)), 30L, TimeUnit.SECONDS);
+
+        // the batch is counted once its transaction is done
+        org.neo4j.test.assertion.Assert.assertEventually(() ->
+                        db.executeTransactionally("RETURN apoc.trigger.stats() AS stats", Map.of(),
+                                result -> result.<Map<String, Object>>columnAs("stats").next()),
+                (stats) -> stats.get("batches").equals(1L), 30L, TimeUnit.SECONDS);
+        TestUtil.testCall(db, "RETURN apoc.trigger.stats() AS stats", row -> {
+            Map<String, Object> stats = (Map<String, Object>) row.get("stats");
+            assertEquals(5L, stats.get("enqueued"));
+            assertEquals(0L, stats.get("failedBatches"));
+            assertEquals(0L, stats.get("blocked"));
+        });
+    }
+
+    @Test
+    public void testAfterAsyncBatchMaxDelay() {
+        db.executeTransactionally("CALL apoc.trigger.add('batch','CREATE (:Batch {size: size($createdNodes)})',{phase:'afterAsync', labels:['Item'], batchSize:1000, maxDelayMs:100})");
+        db.executeTransactionally("CREATE (:Item {id: 1})");
+        db.executeTransactionally("CREATE (:Item {id: 2}), (:Item {id: 3})");
+
+        org.neo4j.test.assertion.Assert.assertEventually(() ->
+                        db.executeTransactionally("MATCH (b:Batch) RETURN sum(b.size) AS size", Map.of(),
+                                result -> result.<Long>columnAs("size").next()),
+                (value) -> value == 3L, 30L, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testAfterAsyncBatchWithEntitiesDeletedInTheBatch() {
+        db.executeTransactionally("CALL apoc.trigger.add('batch','CREATE (:Batch {created: size($createdNodes), assigned: size(keys($assignedNodeProperties)), deleted: size($deletedNodes)})',{phase:'afterAsync', labels:['Item'], batchSize:3, maxDelayMs:60000})");
+        db.executeTransactionally("CREATE (:Item {id: 1})");
+        db.executeTransactionally("MATCH (i:Item) SET i.name = 'first'");
+        db.executeTransactionally("MATCH (i:Item) DELETE i");
+
+        // the node created and updated before its deletion can't be bound anymore, only its deletion is reported
+        org.neo4j.test.assertion.Assert.assertEventually(() ->
+                        db.executeTransactionally("MATCH (b:Batch) RETURN collect([b.created, b.assigned, b.deleted]) AS batches", Map.of(),
+                                result -> result.<List<List<Long>>>columnAs("batches").next()),
+                (value) -> value.equals(List.of(List.of(0L, 0L, 1L))), 30L, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = QueryExecutionException.class)
+    public void testBatchSizeRequiresAfterAsync() {
+        db.executeTransactionally("CALL apoc.trigger.add('batch','RETURN 1',{phase:'after', batchSize:10})");
+    }
+
 }
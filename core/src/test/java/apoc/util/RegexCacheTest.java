@@ -0,0 +1,38 @@
+package apoc.util;
+
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class RegexCacheTest {
+
+    @Test
+    public void testReusesCompiledPattern() {
+        final long hits = RegexCache.getHitCount();
+        final long misses = RegexCache.getMissCount();
+
+        final Pattern pattern = RegexCache.compile("RegexCacheTest-[a-z]+");
+        assertSame(pattern, RegexCache.compile("RegexCacheTest-[a-z]+"));
+
+        assertEquals(misses + 1, RegexCache.getMissCount());
+        assertEquals(hits + 1, RegexCache.getHitCount());
+    }
+
+    @Test
+    public void testFlagsArePartOfTheKey() {
+        final Pattern pattern = RegexCache.compile("RegexCacheTest-flags");
+        final Pattern caseInsensitive = RegexCache.compile("RegexCacheTest-flags", Pattern.CASE_INSENSITIVE);
+        assertNotSame(pattern, caseInsensitive);
+        assertEquals(Pattern.CASE_INSENSITIVE, caseInsensitive.flags());
+    }
+
+    @Test(expected = PatternSyntaxException.class)
+    public void testInvalidRegex() {
+        RegexCache.compile("RegexCacheTest-[");
+    }
+}
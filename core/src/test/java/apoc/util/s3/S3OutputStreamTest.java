@@ -0,0 +1,217 @@
+package apoc.util.s3;
+
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class S3OutputStreamTest {
+
+    private static final int MB = 1024 * 1024;
+
+    // keeps the uploaded parts in memory like a local S3 stand-in
+    private static class InMemoryS3 extends AbstractAmazonS3 {
+        private final Map<Integer, byte[]> parts = new TreeMap<>();
+        private CompleteMultipartUploadRequest completed;
+        private volatile boolean aborted;
+        private boolean failUploads;
+        // the uploads wait for it when set
+        private CountDownLatch uploadGate;
+
+        @Override
+        public InitiateMultipartUploadResult initiateMultipartUpload(InitiateMultipartUploadRequest request) {
+            InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+            result.setUploadId("upload");
+            return result;
+        }
+
+        @Override
+        public UploadPartResult uploadPart(UploadPartRequest request) {
+            if (uploadGate != null) {
+                try {
+                    uploadGate.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            if (failUploads) {
+                throw new IllegalStateException("upload failed");
+            }
+            try (InputStream in = request.getInputStream()) {
+                synchronized (parts) {
+                    parts.put(request.getPartNumber(), in.readAllBytes());
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag("etag" + request.getPartNumber());
+            return result;
+        }
+
+        @Override
+        public CompleteMultipartUploadResult completeMultipartUpload(CompleteMultipartUploadRequest request) {
+            completed = request;
+            return new CompleteMultipartUploadResult();
+        }
+
+        @Override
+        public void abortMultipartUpload(AbortMultipartUploadRequest request) {
+            aborted = true;
+        }
+
+        byte[] getObject() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            parts.values().forEach(out::writeBytes);
+            return out.toByteArray();
+        }
+    }
+
+    @Test
+    public void testUploadsPartsInOrder() throws IOException {
+        final InMemoryS3 s3 = new InMemoryS3();
+        final S3BufferPool bufferPool = new S3BufferPool(40L * MB);
+        final byte[] data = new byte[12 * MB + 17];
+        new Random(42).nextBytes(data);
+
+        try (S3OutputStream out = new S3OutputStream(s3, "bucket", "key", bufferPool)) {
+            out.write(data, 0, 1000);
+            out.write(data, 1000, data.length - 1000);
+        }
+
+        assertArrayEquals(data, s3.getObject());
+        assertNotNull(s3.completed);
+        assertEquals("etag1,etag2,etag3", s3.completed.getPartETags().stream()
+                .map(PartETag::getETag)
+                .collect(Collectors.joining(",")));
+        // all the buffers are back in the pool
+        assertEquals(bufferPool.getAllocated(), bufferPool.getIdle());
+    }
+
+    @Test
+    public void testFailedUploadIsAborted() throws IOException {
+        final InMemoryS3 s3 = new InMemoryS3();
+        s3.failUploads = true;
+        final S3OutputStream out = new S3OutputStream(s3, "bucket", "key", new S3BufferPool(40L * MB));
+        out.write(new byte[MB]);
+        try {
+            out.close();
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertEquals("upload failed", e.getCause().getMessage());
+        }
+        assertTrue(s3.aborted);
+        assertEquals(null, s3.completed);
+    }
+
+    @Test
+    public void testAbortReleasesBuffersOfQueuedParts() throws Exception {
+        final InMemoryS3 s3 = new InMemoryS3();
+        s3.uploadGate = new CountDownLatch(1);
+        // the upload threads are all busy, the remaining parts are queued when the upload is aborted
+        final int parts = S3URLConnection.getUploadThreads() + 3;
+        final S3BufferPool bufferPool = new S3BufferPool((parts + 1L) * 5 * MB);
+        final S3OutputStream out = new S3OutputStream(s3, "bucket", "key", bufferPool);
+        out.write(new byte[(parts - 1) * 5 * MB + 1]);
+
+        final AtomicReference<Throwable> closeFailure = new AtomicReference<>();
+        final Thread closer = new Thread(() -> {
+            try {
+                out.close();
+            } catch (Throwable e) {
+                closeFailure.set(e);
+            }
+        });
+        closer.start();
+        Thread.sleep(200);
+        closer.interrupt();
+        closer.join(TimeUnit.SECONDS.toMillis(10));
+        assertTrue(closeFailure.get() instanceof InterruptedIOException);
+        assertTrue(s3.aborted);
+
+        s3.uploadGate.countDown();
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (bufferPool.getAllocated() != bufferPool.getIdle() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // the buffers of the cancelled parts and of the ones being uploaded are all back in the pool
+        assertEquals(bufferPool.getAllocated(), bufferPool.getIdle());
+        assertEquals(bufferPool.getCapacity(), bufferPool.acquire((int) bufferPool.getCapacity()).length);
+    }
+
+    @Test
+    public void testBufferPoolReusesBuffers() throws IOException {
+        final S3BufferPool bufferPool = new S3BufferPool(40L * MB);
+        final byte[] buffer = bufferPool.acquire(5 * MB);
+        bufferPool.release(buffer);
+        assertSame(buffer, bufferPool.acquire(5 * MB));
+        assertEquals(5L * MB, bufferPool.getAllocated());
+    }
+
+    @Test
+    public void testBufferPoolBlocksUntilReleased() throws Exception {
+        final S3BufferPool bufferPool = new S3BufferPool(10L * MB);
+        final byte[] first = bufferPool.acquire(5 * MB);
+        bufferPool.acquire(5 * MB);
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicBoolean acquired = new AtomicBoolean();
+        final AtomicReference<byte[]> third = new AtomicReference<>();
+        final Thread writer = new Thread(() -> {
+            started.countDown();
+            try {
+                third.set(bufferPool.acquire(5 * MB));
+                acquired.set(true);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        writer.start();
+        started.await();
+        Thread.sleep(200);
+        // the memory is exhausted, so the writer waits instead of failing
+        assertFalse(acquired.get());
+
+        bufferPool.release(first);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        assertTrue(acquired.get());
+        assertEquals(10L * MB, bufferPool.getAllocated());
+    }
+
+    @Test
+    public void testBufferPoolDropsIdleBuffersOfOtherSizes() throws IOException {
+        final S3BufferPool bufferPool = new S3BufferPool(40L * MB);
+        bufferPool.release(bufferPool.acquire(5 * MB));
+        bufferPool.acquire(36 * MB);
+        assertEquals(0L, bufferPool.getIdle());
+        assertEquals(36L * MB, bufferPool.getAllocated());
+    }
+}
@@ -0,0 +1,105 @@
+package apoc.util.s3;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class S3PrefetchInputStreamTest {
+
+    private static byte[] randomBytes(int size) {
+        final byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    // serves the ranges of the bytes like the ranged GETs of an S3 object
+    private static S3PrefetchInputStream.RangeReader rangeReader(byte[] object, List<long[]> ranges) {
+        return (start, end) -> {
+            ranges.add(new long[] { start, end });
+            return new ByteArrayInputStream(object, (int) start, (int) (end - start + 1));
+        };
+    }
+
+    @Test
+    public void testReadsAllPartsInOrder() throws IOException {
+        final byte[] object = randomBytes(10_007);
+        final List<long[]> ranges = new CopyOnWriteArrayList<>();
+        try (InputStream in = new S3PrefetchInputStream(rangeReader(object, ranges), object.length, 1000, 3)) {
+            assertArrayEquals(object, in.readAllBytes());
+            assertEquals(-1, in.read());
+        }
+        assertEquals(11, ranges.size());
+        assertTrue(ranges.stream().anyMatch(range -> range[0] == 10_000 && range[1] == 10_006));
+    }
+
+    @Test
+    public void testReadSingleBytes() throws IOException {
+        final byte[] object = randomBytes(2500);
+        try (InputStream in = new S3PrefetchInputStream(rangeReader(object, new CopyOnWriteArrayList<>()), object.length, 1000, 2)) {
+            for (byte expected : object) {
+                assertEquals(expected & 0xFF, in.read());
+            }
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void testPartsInFlightAreBounded() throws IOException {
+        final byte[] object = randomBytes(100_000);
+        final AtomicInteger opened = new AtomicInteger();
+        final S3PrefetchInputStream.RangeReader rangeReader = (start, end) -> {
+            opened.incrementAndGet();
+            return new ByteArrayInputStream(object, (int) start, (int) (end - start + 1));
+        };
+        try (InputStream in = new S3PrefetchInputStream(rangeReader, object.length, 1000, 4)) {
+            final byte[] buffer = new byte[1000];
+            int parts = 0;
+            while (in.readNBytes(buffer, 0, buffer.length) > 0) {
+                parts++;
+                // the parts already read plus at most the 4 prefetched ones
+                assertTrue(opened.get() <= parts + 4);
+            }
+            assertEquals(100, parts);
+        }
+    }
+
+    @Test
+    public void testFailedPartIsRethrown() {
+        final byte[] object = randomBytes(5000);
+        final S3PrefetchInputStream.RangeReader rangeReader = (start, end) -> {
+            if (start >= 2000) {
+                throw new IOException("ranged GET failed");
+            }
+            return new ByteArrayInputStream(object, (int) start, (int) (end - start + 1));
+        };
+        try (InputStream in = new S3PrefetchInputStream(rangeReader, object.length, 1000, 2)) {
+            in.readAllBytes();
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertEquals("ranged GET failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testShortPartFails() {
+        final byte[] object = randomBytes(3000);
+        // the object is shorter than its announced length
+        try (InputStream in = new S3PrefetchInputStream(rangeReader(object, new CopyOnWriteArrayList<>()), 3500, 1000, 2)) {
+            in.readAllBytes();
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertEquals("Expected 500 bytes from offset 3000 of the S3 object, but got 0", e.getMessage());
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.util.UUID;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatCode;
+import static org.assertj.core.api.AssertionsForClassTypes.within;
 
 public class UuidUtilTest {
 
@@ -71,4 +72,17 @@ public class UuidUtilTest {
         var uuidBase64 = UuidUtil.generateBase64Uuid(uuid);
         assertThat(uuidBase64).isEqualTo("AAAAAAAAAAAAAAAAAAAAAA");
     }
+
+    @Test
+    public void generateTimeOrderedUuid() throws InterruptedException {
+        var first = UuidUtil.generateTimeOrderedUuid();
+        assertThat(first.version()).isEqualTo(7);
+        assertThat(first.variant()).isEqualTo(2);
+        assertThat(first.getMostSignificantBits() >>> 16).isCloseTo(System.currentTimeMillis(), within(1000L));
+
+        Thread.sleep(2);
+        var second = UuidUtil.generateTimeOrderedUuid();
+        assertThat(second.toString().compareTo(first.toString())).isPositive();
+        assertThat(second).isNotEqualTo(first);
+    }
 }
\ No newline at end of file
@@ -41,7 +41,10 @@ public class TTL {
         return MapUtil.map(
                 "enabled", values.enabled,
                 "schedule", values.schedule,
-                "limit", values.limit
+                "limit", values.limit,
+                "concurrency", values.concurrency,
+                "fullSweepEvery", values.fullSweepEvery,
+                "stats", ttlConfig.expiryStatsFor(db)
         );
     }
 }
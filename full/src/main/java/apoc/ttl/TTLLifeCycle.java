@@ -1,9 +1,14 @@
 package apoc.ttl;
 
 import apoc.ApocConfig;
+import apoc.SystemLabels;
+import apoc.SystemPropertyKeys;
 import apoc.TTLConfig;
 import apoc.util.Util;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
 import org.neo4j.internal.helpers.collection.Iterators;
+import org.neo4j.internal.helpers.collection.Pair;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.logging.Log;
@@ -22,6 +27,7 @@ public class TTLLifeCycle extends LifecycleAdapter {
 
     public static final int INITIAL_DELAY = 30;
     public static final int DEFAULT_SCHEDULE = 60;
+    private static final int PARALLEL_RETRIES = 3;
     private static final Group TTL_GROUP = Group.INDEX_UPDATING;
     private final JobScheduler scheduler;
     private final GraphDatabaseAPI db;
@@ -30,6 +36,10 @@ public class TTLLifeCycle extends LifecycleAdapter {
     private JobHandle ttlJobHandle;
     private TTLConfig ttlConfig;
     private Log log;
+    // the expired nodes below it have been deleted, the runs only walk the ttl index from it
+    private Long watermark;
+    private boolean watermarkLoaded = false;
+    private int cyclesSinceFullSweep = 0;
 
     public TTLLifeCycle(JobScheduler scheduler, GraphDatabaseAPI db, ApocConfig apocConfig, TTLConfig ttlConfig, Log log) {
         this.scheduler = scheduler;
@@ -45,38 +55,101 @@ public class TTLLifeCycle extends LifecycleAdapter {
         if(configValues.enabled) {
             long ttlScheduleDb = configValues.schedule;
             ttlIndexJobHandle = scheduler.schedule(TTL_GROUP, this::createTTLIndex, (int)(ttlScheduleDb*0.8), TimeUnit.SECONDS);
-            long limitDb = configValues.limit;
-            ttlJobHandle = scheduler.scheduleRecurring(TTL_GROUP, () -> expireNodes(limitDb), ttlScheduleDb, ttlScheduleDb, TimeUnit.SECONDS);
+            ttlJobHandle = scheduler.scheduleRecurring(TTL_GROUP, () -> expireNodes(configValues), ttlScheduleDb, ttlScheduleDb, TimeUnit.SECONDS);
         }
     }
 
-    public void expireNodes(long limit) {
+    public void expireNodes(TTLConfig.Values configValues) {
         try {
             if (!Util.isWriteableInstance(db)) return;
-            String matchTTL = "MATCH (t:TTL) WHERE t.ttl < timestamp() ";
-            String queryRels = matchTTL + "WITH t MATCH (t)-[r]-() RETURN id(r) as id";
-            String queryNodes = matchTTL +  "RETURN id(t) as id";
-            Map<String,Object> params = Util.map("batchSize", limit, "queryRels", queryRels, "queryNodes", queryNodes);
-            long relationshipsDeleted = db.executeTransactionally(
-                    "CALL apoc.periodic.iterate($queryRels, 'MATCH ()-[r]->() WHERE id(r) = id DELETE r', {batchSize: $batchSize})",
-                    params,
-                    result -> Iterators.single(result.columnAs("total"))
-            );
+            if (!watermarkLoaded) {
+                watermark = loadWatermark();
+                watermarkLoaded = true;
+            }
+            final long start = System.currentTimeMillis();
+            // a full sweep also expires the nodes whose ttl was set below the watermark after it had passed it
+            final boolean fullSweep = watermark == null || cyclesSinceFullSweep >= configValues.fullSweepEvery;
+            final String range = fullSweep ? "t.ttl < $now" : "t.ttl >= $watermark AND t.ttl < $now";
+            final Map<String, Object> rangeParams = Util.map("now", start, "watermark", watermark);
+
+            final Number oldest = db.executeTransactionally("MATCH (t:TTL) WHERE " + range + " RETURN min(t.ttl) AS oldest",
+                    rangeParams, result -> Iterators.single(result.columnAs("oldest")));
+            long nodesDeleted = 0L;
+            long relationshipsDeleted = 0L;
+            long failedOperations = 0L;
+            if (oldest != null) {
+                final Map<String, Object> params = Util.map("query", "MATCH (t:TTL) WHERE " + range + " RETURN t",
+                        "batchSize", configValues.limit,
+                        "parallel", configValues.concurrency > 1,
+                        "concurrency", Math.max(1, configValues.concurrency),
+                        // concurrent batches can deadlock on the relationships between expired nodes
+                        "retries", configValues.concurrency > 1 ? PARALLEL_RETRIES : 0,
+                        "params", rangeParams);
+                final Map<String, Object> row = db.executeTransactionally(
+                        "CALL apoc.periodic.iterate($query, 'DETACH DELETE t', {batchSize: $batchSize, parallel: $parallel, concurrency: $concurrency, retries: $retries, params: $params})",
+                        params,
+                        result -> Iterators.single(result));
+                final Map<String, Long> updateStatistics = (Map<String, Long>) row.get("updateStatistics");
+                nodesDeleted = updateStatistics.getOrDefault("nodesDeleted", 0L);
+                relationshipsDeleted = updateStatistics.getOrDefault("relationshipsDeleted", 0L);
+                failedOperations = (long) row.get("failedOperations");
+            }
 
-            long nodesDeleted = db.executeTransactionally(
-                    "CALL apoc.periodic.iterate($queryNodes, 'MATCH (n) WHERE id(n) = id DELETE n', {batchSize: $batchSize})",
-                    params,
-                    result -> Iterators.single(result.columnAs("total"))
-            );
+            // the watermark only moves once everything below it has been deleted, failed nodes are retried by the next run.
+            // The scan doesn't see the nodes committed while it runs, so the next range overlaps this one by a schedule interval:
+            // only the nodes whose ttl had already passed by more than an interval when they were written are left to the full sweep
+            if (failedOperations == 0) {
+                final long next = start - TimeUnit.SECONDS.toMillis(configValues.schedule);
+                if (watermark == null || next > watermark) {
+                    watermark = next;
+                    storeWatermark(next);
+                }
+            }
+            cyclesSinceFullSweep = fullSweep ? 0 : cyclesSinceFullSweep + 1;
+
+            final long end = System.currentTimeMillis();
+            final long duration = end - start;
+            ttlConfig.updateExpiryStats(db, Util.map(
+                    "lastRun", start,
+                    "fullSweep", fullSweep,
+                    "watermark", watermark,
+                    "nodesDeleted", nodesDeleted,
+                    "relationshipsDeleted", relationshipsDeleted,
+                    "failedOperations", failedOperations,
+                    "timeTaken", duration,
+                    "nodesPerSecond", duration == 0 ? nodesDeleted : nodesDeleted * 1000 / duration,
+                    // how late the longest expired of the deleted nodes was deleted
+                    "lagMs", oldest == null ? 0L : end - oldest.longValue()));
 
             if (nodesDeleted > 0) {
-                log.info("TTL: Expired %d nodes %d relationships", nodesDeleted, relationshipsDeleted);
+                log.info("TTL: Expired %d nodes %d relationships in %d ms, lag %d ms", nodesDeleted, relationshipsDeleted, duration, end - oldest.longValue());
+            }
+            if (failedOperations > 0) {
+                log.warn("TTL: Failed to expire %d nodes, they are retried by the next run", failedOperations);
             }
         } catch (Exception e) {
             log.error("TTL: Error deleting expired nodes", e);
         }
     }
 
+    private Long loadWatermark() {
+        try (Transaction tx = apocConfig.getSystemDb().beginTx()) {
+            final Node node = tx.findNode(SystemLabels.ApocTtlMeta, SystemPropertyKeys.database.name(), db.databaseName());
+            final Long result = node == null ? null : (Long) node.getProperty(SystemPropertyKeys.watermark.name(), null);
+            tx.commit();
+            return result;
+        }
+    }
+
+    private void storeWatermark(long value) {
+        try (Transaction tx = apocConfig.getSystemDb().beginTx()) {
+            final Node node = Util.mergeNode(tx, SystemLabels.ApocTtlMeta, null,
+                    Pair.of(SystemPropertyKeys.database.name(), db.databaseName()));
+            node.setProperty(SystemPropertyKeys.watermark.name(), value);
+            tx.commit();
+        }
+    }
+
     public void createTTLIndex() {
         try {
             db.executeTransactionally("call apoc.schema.assert({ TTL: ['ttl'] }, null, false)");
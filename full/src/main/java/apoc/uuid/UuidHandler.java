@@ -4,7 +4,9 @@ import apoc.ApocConfig;
 import apoc.SystemLabels;
 import apoc.SystemPropertyKeys;
 import apoc.util.Util;
-import org.apache.commons.collections4.IterableUtils;
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 import org.neo4j.dbms.api.DatabaseManagementService;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Label;
@@ -22,18 +24,18 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.logging.Log;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import static apoc.ApocConfig.APOC_UUID_ENABLED;
 import static apoc.ApocConfig.APOC_UUID_FORMAT;
+import static apoc.ApocConfig.APOC_UUID_GENERATOR;
 
 public class UuidHandler extends LifecycleAdapter implements TransactionEventListener<Void> {
 
@@ -43,6 +45,7 @@ public class UuidHandler extends LifecycleAdapter implements TransactionEventLis
     private final ApocConfig apocConfig;
     private final ConcurrentHashMap<String, UuidConfig> configuredLabelAndPropertyNames = new ConcurrentHashMap<>();
     private final ApocConfig.UuidFormatType uuidFormat;
+    private final ApocConfig.UuidGeneratorType uuidGenerator;
 
     public static final String NOT_ENABLED_ERROR = "UUID have not been enabled." +
             " Set 'apoc.uuid.enabled=true' or 'apoc.uuid.enabled.%s=true' in your apoc.conf file located in the $NEO4J_HOME/conf/ directory.";
@@ -53,6 +56,7 @@ public class UuidHandler extends LifecycleAdapter implements TransactionEventLis
         this.log = log;
         this.apocConfig = apocConfig;
         this.uuidFormat = apocConfig.getEnumProperty(APOC_UUID_FORMAT, ApocConfig.UuidFormatType.class, ApocConfig.UuidFormatType.hex);
+        this.uuidGenerator = apocConfig.getEnumProperty(APOC_UUID_GENERATOR, ApocConfig.UuidGeneratorType.class, ApocConfig.UuidGeneratorType.random);
     }
 
     @Override
@@ -75,53 +79,83 @@ public class UuidHandler extends LifecycleAdapter implements TransactionEventLis
         }
     }
 
-    private void checkAndRestoreUuidProperty(Iterable<PropertyEntry<Node>> nodeProperties, String label, String uuidProperty) {
-        checkAndRestoreUuidProperty(nodeProperties, label, uuidProperty, null);
-    }
+    @Override
+    public Void beforeCommit(TransactionData txData, Transaction transaction, GraphDatabaseService databaseService) {
+        final Map<String, UuidConfig> configs = configuredLabelAndPropertyNames;
+        if (configs.isEmpty()) {
+            return null;
+        }
 
-    private void checkAndRestoreUuidProperty(Iterable<PropertyEntry<Node>> nodeProperties, String label, String uuidProperty, Predicate<PropertyEntry<Node>> predicate) {
-        if (nodeProperties.iterator().hasNext()) {
-            nodeProperties.forEach(nodePropertyEntry -> {
-                if (predicate == null) {
-                    if (nodePropertyEntry.entity().hasLabel(Label.label(label)) && nodePropertyEntry.key().equals(uuidProperty)) {
-                        nodePropertyEntry.entity().setProperty(uuidProperty, nodePropertyEntry.previouslyCommittedValue());
+        // assignedLabels handles both created nodes and set labels of existing nodes, so a single pass over them
+        // checks every touched node against the configs of all its labels, also of the ones it already had
+        LongSet createdNodes = null;
+        final MutableLongSet touchedNodes = new LongHashSet();
+        for (LabelEntry labelEntry : txData.assignedLabels()) {
+            final Node node = labelEntry.node();
+            if (!touchedNodes.add(node.getId())) {
+                continue;
+            }
+            for (Label nodeLabel : node.getLabels()) {
+                final String label = nodeLabel.name();
+                final UuidConfig config = configs.get(label);
+                if (config == null) {
+                    continue;
+                }
+                if (!config.isAddToSetLabels()) {
+                    if (createdNodes == null) {
+                        createdNodes = createdNodeIds(txData);
                     }
-                } else {
-                    if (nodePropertyEntry.entity().hasLabel(Label.label(label)) && nodePropertyEntry.key().equals(uuidProperty) && predicate.test(nodePropertyEntry)) {
-                        nodePropertyEntry.entity().setProperty(uuidProperty, nodePropertyEntry.previouslyCommittedValue());
+                    if (!createdNodes.contains(node.getId())) {
+                        continue;
                     }
                 }
-            });
+                try {
+                    if (!node.hasProperty(config.getUuidProperty())) {
+                        node.setProperty(config.getUuidProperty(), generateUuidValue());
+                    }
+                } catch (Exception e) {
+                    log.warn("Error executing uuid " + label + " in phase before", e);
+                }
+            }
         }
-    }
 
-    @Override
-    public Void beforeCommit(TransactionData txData, Transaction transaction, GraphDatabaseService databaseService) {
+        final Map<String, List<Label>> labelsByProperty = new HashMap<>();
+        configs.forEach((label, config) -> labelsByProperty.computeIfAbsent(config.getUuidProperty(), k -> new ArrayList<>()).add(Label.label(label)));
+        for (PropertyEntry<Node> nodePropertyEntry : txData.assignedNodeProperties()) {
+            if (nodePropertyEntry.value() == null || nodePropertyEntry.value().equals("")) {
+                restoreUuidProperty(nodePropertyEntry, labelsByProperty);
+            }
+        }
+        for (PropertyEntry<Node> nodePropertyEntry : txData.removedNodeProperties()) {
+            if (!txData.isDeleted(nodePropertyEntry.entity())) {
+                restoreUuidProperty(nodePropertyEntry, labelsByProperty);
+            }
+        }
+        return null;
+    }
 
-        // assignedLabels handles both created nodes and set labels of existing nodes
-        Iterable<PropertyEntry<Node>> assignedNodeProperties = txData.assignedNodeProperties();
-        Iterable<PropertyEntry<Node>> removedNodeProperties = txData.removedNodeProperties();
+    private static LongSet createdNodeIds(TransactionData txData) {
+        final MutableLongSet ids = new LongHashSet();
+        txData.createdNodes().forEach(node -> ids.add(node.getId()));
+        return ids;
+    }
 
-        configuredLabelAndPropertyNames.forEach((label, config) -> {
-            final String propertyName = config.getUuidProperty();
-            List<Node> nodes = config.isAddToSetLabels()
-                    ? StreamSupport.stream(txData.assignedLabels().spliterator(), false).map(LabelEntry::node).collect(Collectors.toList())
-                    : IterableUtils.toList(txData.createdNodes());
+    private void restoreUuidProperty(PropertyEntry<Node> nodePropertyEntry, Map<String, List<Label>> labelsByProperty) {
+        final List<Label> labels = labelsByProperty.get(nodePropertyEntry.key());
+        if (labels == null) {
+            return;
+        }
+        final Node node = nodePropertyEntry.entity();
+        for (Label label : labels) {
             try {
-                nodes.forEach(node -> {
-                    if (node.hasLabel(Label.label(label)) && !node.hasProperty(propertyName)) {
-                        String uuid = generateUuidValue();
-                        node.setProperty(propertyName, uuid);
-                    }
-                });
-                checkAndRestoreUuidProperty(assignedNodeProperties, label, propertyName,
-                        (nodePropertyEntry) -> nodePropertyEntry.value() == null || nodePropertyEntry.value().equals(""));
-                checkAndRestoreUuidProperty(removedNodeProperties, label, propertyName);
+                if (node.hasLabel(label)) {
+                    node.setProperty(nodePropertyEntry.key(), nodePropertyEntry.previouslyCommittedValue());
+                    return;
+                }
             } catch (Exception e) {
-                log.warn("Error executing uuid " + label + " in phase before", e);
+                log.warn("Error executing uuid " + label.name() + " in phase before", e);
             }
-        });
-        return null;
+        }
     }
 
     @Override
@@ -141,7 +175,7 @@ public class UuidHandler extends LifecycleAdapter implements TransactionEventLis
     }
 
     private String generateUuidValue() {
-        UUID uuid = UUID.randomUUID();
+        UUID uuid = uuidGenerator == ApocConfig.UuidGeneratorType.timeOrdered ? UuidUtil.generateTimeOrderedUuid() : UUID.randomUUID();
         switch (uuidFormat) {
             case base64:
                 return UuidUtil.generateBase64Uuid(uuid);
@@ -4,6 +4,7 @@ import apoc.ApocSettings;
 import apoc.util.TestUtil;
 import apoc.util.Util;
 import apoc.util.s3.S3Container;
+import apoc.util.s3.S3URLConnection;
 import apoc.xml.XmlTestUtils;
 import org.junit.*;
 import org.neo4j.driver.internal.util.Iterables;
@@ -61,6 +62,25 @@ public class LoadS3Test {
         });
     }
 
+    @Test
+    public void testLoadCsvS3WithRangedReads() throws Exception {
+        // the file is read with ranged GETs of 8 bytes, 3 in flight
+        System.setProperty(S3URLConnection.PROP_S3_HANDLER_READ_PART_SIZE, "8");
+        System.setProperty(S3URLConnection.PROP_S3_HANDLER_READ_CONCURRENCY, "3");
+        try {
+            String url = minio.putFile("src/test/resources/test.csv");
+            testResult(db, "CALL apoc.load.csv($url,{failOnError:false})", map("url", url), (r) -> {
+                assertRow(r, "Selma", "8", 0L);
+                assertRow(r, "Rana", "11", 1L);
+                assertRow(r, "Selina", "18", 2L);
+                assertEquals(false, r.hasNext());
+            });
+        } finally {
+            System.clearProperty(S3URLConnection.PROP_S3_HANDLER_READ_PART_SIZE);
+            System.clearProperty(S3URLConnection.PROP_S3_HANDLER_READ_CONCURRENCY);
+        }
+    }
+
     @Test public void testLoadJsonS3() throws Exception {
         String url = minio.putFile("src/test/resources/map.json");
 
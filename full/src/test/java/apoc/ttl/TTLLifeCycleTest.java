@@ -0,0 +1,124 @@
+package apoc.ttl;
+
+import apoc.ApocConfig;
+import apoc.TTLConfig;
+import apoc.periodic.Periodic;
+import apoc.util.TestUtil;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.event.LabelEntry;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventListenerAdapter;
+import org.neo4j.kernel.api.procedure.GlobalProcedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.logging.NullLog;
+import org.neo4j.test.rule.DbmsRule;
+import org.neo4j.test.rule.ImpermanentDbmsRule;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TTLLifeCycleTest {
+
+    @Rule
+    public DbmsRule db = new ImpermanentDbmsRule();
+
+    private TTLConfig ttlConfig;
+    private TTLLifeCycle ttlLifeCycle;
+
+    @Before
+    public void setUp() {
+        TestUtil.registerProcedure(db, TTL.class, Periodic.class);
+        GraphDatabaseAPI api = (GraphDatabaseAPI) db;
+        ttlConfig = new TTLConfig(ApocConfig.apocConfig(), api.getDependencyResolver().resolveDependency(GlobalProcedures.class));
+        ttlLifeCycle = new TTLLifeCycle(null, api, ApocConfig.apocConfig(), ttlConfig, NullLog.getInstance());
+    }
+
+    @Test
+    public void testTtlBelowWatermarkIsDeletedByFullSweep() {
+        Map<String, Object> stats = expire(1, 2);
+        assertTrue((boolean) stats.get("fullSweep"));
+        long watermark = (long) stats.get("watermark");
+
+        db.executeTransactionally("CREATE (:TTL {ttl: $ttl})", Map.of("ttl", watermark - 10_000));
+
+        // the incremental runs only walk the ttl index from the watermark
+        for (int i = 0; i < 2; i++) {
+            stats = expire(1, 2);
+            assertFalse((boolean) stats.get("fullSweep"));
+            assertEquals(0L, stats.get("nodesDeleted"));
+            assertEquals(1L, countTTLNodes());
+        }
+
+        stats = expire(1, 2);
+        assertTrue((boolean) stats.get("fullSweep"));
+        assertEquals(1L, stats.get("nodesDeleted"));
+        assertEquals(0L, countTTLNodes());
+    }
+
+    @Test
+    public void testFailedDeletionKeepsWatermark() {
+        long watermark = (long) expire(1, 60).get("watermark");
+
+        db.executeTransactionally("CREATE (:TTL:Keep {ttl: timestamp() - 10})");
+        TransactionEventListenerAdapter<Object> listener = new TransactionEventListenerAdapter<>() {
+            @Override
+            public Object beforeCommit(TransactionData data, Transaction transaction, GraphDatabaseService databaseService) {
+                for (LabelEntry entry : data.removedLabels()) {
+                    if (entry.label().name().equals("Keep")) {
+                        throw new RuntimeException("Node can't be deleted");
+                    }
+                }
+                return null;
+            }
+        };
+        db.getManagementService().registerTransactionEventListener(db.databaseName(), listener);
+        Map<String, Object> stats;
+        try {
+            stats = expire(1, 60);
+        } finally {
+            db.getManagementService().unregisterTransactionEventListener(db.databaseName(), listener);
+        }
+        assertTrue((long) stats.get("failedOperations") > 0);
+        assertEquals(watermark, stats.get("watermark"));
+        assertEquals(1L, countTTLNodes());
+
+        // the next run retries the node from the same watermark
+        stats = expire(1, 60);
+        assertEquals(1L, stats.get("nodesDeleted"));
+        assertEquals(0L, stats.get("failedOperations"));
+        assertTrue((long) stats.get("watermark") > watermark);
+        assertEquals(0L, countTTLNodes());
+    }
+
+    @Test
+    public void testConcurrentExpiryOfConnectedNodes() {
+        int count = 1000;
+        db.executeTransactionally("UNWIND range(0, $count - 1) AS id CREATE (:TTL {id: id, ttl: timestamp() - 10})", Map.of("count", count));
+        // every node is connected to nodes of other batches
+        db.executeTransactionally("MATCH (a:TTL), (b:TTL) WHERE b.id = (a.id + 1) % $count OR b.id = (a.id * 7) % $count CREATE (a)-[:NEXT]->(b)",
+                Map.of("count", count));
+
+        Map<String, Object> stats = expire(4, 60);
+        assertEquals(0L, stats.get("failedOperations"));
+        assertEquals((long) count, stats.get("nodesDeleted"));
+        assertNotNull(stats.get("watermark"));
+        assertEquals(0L, countTTLNodes());
+    }
+
+    private Map<String, Object> expire(int concurrency, int fullSweepEvery) {
+        ttlLifeCycle.expireNodes(new TTLConfig.Values(true, 1, 50, concurrency, fullSweepEvery));
+        return ttlConfig.expiryStatsFor((GraphDatabaseAPI) db);
+    }
+
+    private long countTTLNodes() {
+        return TestUtil.singleResultFirstColumn(db, "MATCH (n:TTL) RETURN count(n) AS count");
+    }
+}
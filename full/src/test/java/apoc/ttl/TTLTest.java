@@ -12,8 +12,10 @@ import org.neo4j.test.rule.DbmsRule;
 import org.neo4j.test.rule.ImpermanentDbmsRule;
 
 import java.time.Duration;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class TTLTest {
@@ -32,6 +34,17 @@ public class TTLTest {
         db.executeTransactionally("UNWIND range(1," + barCount + ") as range CREATE (n:Bar:TTL {id: range, ttl: timestamp() + 100});");
         assertTrue(isNodeCountConsistent(fooCount, barCount));
         org.neo4j.test.assertion.Assert.assertEventually(() -> isNodeCountConsistent(0, 0), (value) -> value, 30L, TimeUnit.SECONDS);
+
+        // the next runs only walk the ttl index from the watermark of the previous one
+        Map<String, Object> stats = ttlStats();
+        assertTrue(stats.get("watermark") instanceof Long);
+        assertEquals(0L, stats.get("failedOperations"));
+
+        // the watermark of a later run doesn't move backwards, although it overlaps the previous run by a schedule interval
+        long lastRun = (long) stats.get("lastRun");
+        long watermark = (long) stats.get("watermark");
+        org.neo4j.test.assertion.Assert.assertEventually(() -> (long) ttlStats().get("lastRun"), (value) -> value > lastRun, 30L, TimeUnit.SECONDS);
+        assertTrue((long) ttlStats().get("watermark") >= watermark);
     }
 
     // test extracted from apoc.date
@@ -44,6 +57,10 @@ public class TTLTest {
         org.neo4j.test.assertion.Assert.assertEventually(() -> isNodeCountConsistent(0, 0), (value) -> value, 10L, TimeUnit.SECONDS);
     }
 
+    private static Map<String, Object> ttlStats() {
+        return TestUtil.singleResultFirstColumn(db, "RETURN apoc.ttl.config().stats AS stats");
+    }
+
     private static boolean isNodeCountConsistent(int foo, int bar) {
         try (Transaction tx = db.beginTx()) {
             boolean isNotCountConsistent = foo == Iterators.count(tx.findNodes(Label.label("Foo")))
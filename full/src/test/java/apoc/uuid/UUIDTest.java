@@ -21,6 +21,7 @@ import java.util.Map;
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 
 /**
  * @author ab-larus
@@ -85,6 +86,22 @@ public class UUIDTest {
                         Util.map("uuidProperty", "uuid", "addToSetLabels", true)));
     }
 
+    @Test
+    public void testUUIDWithSetOtherLabel() {
+        // given
+        db.executeTransactionally("CREATE (:Peach:Mario)");
+        db.executeTransactionally("CREATE CONSTRAINT ON (p:Mario) ASSERT p.uuid IS UNIQUE");
+        db.executeTransactionally("CALL apoc.uuid.install('Mario', {addToSetLabels: true, addToExistingNodes: false}) YIELD label RETURN label");
+        TestUtil.testCall(db, "MATCH (a:Mario) RETURN a.uuid as uuid", row -> assertNull(row.get("uuid")));
+
+        // when the node that already has the label gets another one
+        db.executeTransactionally("MATCH (p:Mario) SET p:Luigi");
+
+        // then
+        TestUtil.testCall(db, "MATCH (a:Mario:Luigi) RETURN a.uuid as uuid",
+                row -> assertTrue(((String) row.get("uuid")).matches(UUID_TEST_REGEXP)));
+    }
+
     @Test
     public void testUUIDWithoutRemovedUuid() {
         // given
@@ -103,6 +120,26 @@ public class UUIDTest {
         }
     }
 
+    @Test
+    public void testUUIDWithManyLabels() {
+        // given
+        db.executeTransactionally("CREATE CONSTRAINT ON (p:Person) ASSERT p.uuid IS UNIQUE");
+        db.executeTransactionally("CREATE CONSTRAINT ON (e:Employee) ASSERT e.employeeId IS UNIQUE");
+        db.executeTransactionally("CALL apoc.uuid.install('Person') YIELD label RETURN label");
+        db.executeTransactionally("CALL apoc.uuid.install('Employee', {uuidProperty: 'employeeId'}) YIELD label RETURN label");
+
+        // when
+        db.executeTransactionally("UNWIND range(1, 100) AS id CREATE (:Person:Employee {id: id}), (:Person {id: id}), (:Company {id: id})");
+
+        // then
+        try (Transaction tx = db.beginTx()) {
+            assertEquals(200L, tx.execute("MATCH (p:Person) WHERE p.uuid =~ $regex RETURN count(p) AS count", Map.of("regex", UUID_TEST_REGEXP)).next().get("count"));
+            assertEquals(100L, tx.execute("MATCH (e:Employee) WHERE e.employeeId =~ $regex AND e.uuid <> e.employeeId RETURN count(e) AS count", Map.of("regex", UUID_TEST_REGEXP)).next().get("count"));
+            assertEquals(0L, tx.execute("MATCH (c:Company) WHERE c.uuid IS NOT NULL RETURN count(c) AS count").next().get("count"));
+            tx.commit();
+        }
+    }
+
     @Test
     public void testUUIDSetUuidToEmptyAndRestore() {
         // given